@@ -0,0 +1,84 @@
+package entidades.fisicas;
+
+import java.lang.foreign.MemorySegment;
+
+import static entidades.fisicas.PoblacionNativa.DOUBLE;
+
+/**
+ * Cursor sobre el segmento fuera del heap de una {@link PoblacionNativa}.
+ */
+final class FilaNativa extends HumanoFila {
+
+    private final MemorySegment segmento;
+    // Desplazamientos de las columnas, copiados para no pasar por la población en cada acceso
+    private final long inteligencia;
+    private final long fe;
+    private final long bondad;
+    private final long maldad;
+    private final long alma;
+
+    FilaNativa(PoblacionNativa poblacion, int fila) {
+        super(poblacion, fila);
+        this.segmento = poblacion.getSegmento();
+        this.inteligencia = poblacion.inteligencia;
+        this.fe = poblacion.fe;
+        this.bondad = poblacion.bondad;
+        this.maldad = poblacion.maldad;
+        this.alma = poblacion.alma;
+    }
+
+    /** @return Desplazamiento de la fila actual dentro de una columna. */
+    private long desplazamiento() {
+        return (long) fila * Double.BYTES;
+    }
+
+    @Override
+    public double getInteligencia() {
+        return segmento.get(DOUBLE, inteligencia + desplazamiento());
+    }
+
+    @Override
+    public void setInteligencia(double inteligencia) {
+        segmento.set(DOUBLE, this.inteligencia + desplazamiento(), inteligencia);
+    }
+
+    @Override
+    public double getFe() {
+        return segmento.get(DOUBLE, fe + desplazamiento());
+    }
+
+    @Override
+    public void setFe(double fe) {
+        segmento.set(DOUBLE, this.fe + desplazamiento(), fe);
+    }
+
+    @Override
+    public double getBondad() {
+        return segmento.get(DOUBLE, bondad + desplazamiento());
+    }
+
+    @Override
+    public void setBondad(double bondad) {
+        segmento.set(DOUBLE, this.bondad + desplazamiento(), bondad);
+    }
+
+    @Override
+    public double getMaldad() {
+        return segmento.get(DOUBLE, maldad + desplazamiento());
+    }
+
+    @Override
+    public void setMaldad(double maldad) {
+        segmento.set(DOUBLE, this.maldad + desplazamiento(), maldad);
+    }
+
+    @Override
+    public double getAlma() {
+        return segmento.get(DOUBLE, alma + desplazamiento());
+    }
+
+    @Override
+    public void setAlma(double alma) {
+        segmento.set(DOUBLE, this.alma + desplazamiento(), alma);
+    }
+}
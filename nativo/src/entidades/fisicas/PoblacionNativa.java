@@ -0,0 +1,302 @@
+package entidades.fisicas;
+
+import aleatorio.FlujoAleatorio;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Población de Humanos almacenada fuera del heap.
+ * <p>
+ * Tiene las mismas cinco columnas que {@link PoblacionHumana}, una detrás de
+ * otra en un único {@link MemorySegment}: inteligencia, fe, bondad, maldad y
+ * alma, un {@code double} por Humano en cada una. Para el recolector de basura
+ * la población entera es un solo objeto pequeño, así que sus pausas no crecen
+ * con el tamaño de la población. Los Ángeles y Demonios siguen siendo objetos
+ * normales.
+ * </p>
+ * <p>
+ * El segmento puede reservarse en memoria ({@link #reservar}) o proyectarse
+ * desde un archivo ({@link #crearArchivo}, {@link #abrirArchivo}). En el
+ * segundo caso el sistema operativo trae y descarga páginas según haga falta,
+ * de modo que una población mayor que la memoria física (10^9 Humanos ocupan
+ * unos 40 GB) puede simularse desde el disco, y el archivo sirve además para
+ * reanudar la batalla: su cabecera guarda el último turno ejecutado.
+ * </p>
+ * <p>
+ * Los cursores ({@link #nuevoCursor()}) leen y escriben directamente sobre el
+ * segmento, así que el {@code MotorTurnos} resuelve cada conflicto moral sobre
+ * él sin copiar filas. Con la misma semilla, los atributos iniciales y cada
+ * turno coinciden exactamente con los de una {@link PoblacionHumana}.
+ * </p>
+ * <p>
+ * El segmento pertenece a una arena compartida: pueden usarlo varios hilos a
+ * la vez (cada uno con su cursor) y se libera al cerrar la población.
+ * </p>
+ */
+public final class PoblacionNativa implements AlmacenHumanos, AutoCloseable {
+
+    /** "ALMP" en ASCII. */
+    private static final int MAGIA = 0x414C4D50;
+    private static final int VERSION = 1;
+    /** Bytes de la cabecera, antes de la primera columna. */
+    private static final long CABECERA = 64;
+    private static final int COLUMNAS = 5;
+    /** Filas que genera cada tarea al crear la población. */
+    private static final int BLOQUE_GENERACION = 1 << 16;
+
+    // Orden fijo de bytes, para que un archivo sirva en cualquier máquina
+    static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    // --- Posiciones de la cabecera ---
+    private static final long POS_MAGIA = 0;
+    private static final long POS_VERSION = 4;
+    private static final long POS_TAMANIO = 8;
+    private static final long POS_TURNO = 12;
+    private static final long POS_SEMILLA = 16;
+
+    private final Arena arena;
+    private final MemorySegment segmento;
+    private final int tamanio;
+    private final long semilla;
+
+    // --- Desplazamiento en bytes del comienzo de cada columna ---
+    final long inteligencia;
+    final long fe;
+    final long bondad;
+    final long maldad;
+    final long alma;
+
+    private PoblacionNativa(Arena arena, MemorySegment segmento, int tamanio, long semilla) {
+        this.arena = arena;
+        this.segmento = segmento;
+        this.tamanio = tamanio;
+        this.semilla = semilla;
+        long columna = (long) tamanio * Double.BYTES;
+        this.inteligencia = CABECERA;
+        this.fe = CABECERA + columna;
+        this.bondad = CABECERA + 2 * columna;
+        this.maldad = CABECERA + 3 * columna;
+        this.alma = CABECERA + 4 * columna;
+    }
+
+    /**
+     * Reserva fuera del heap una población reproducible, con los mismos
+     * atributos iniciales que {@code new PoblacionHumana(tamanio, semilla)}.
+     *
+     * @param tamanio Cantidad de Humanos de la población.
+     * @param semilla Semilla maestra de la simulación.
+     * @return Población generada; debe cerrarse para liberar la memoria.
+     */
+    public static PoblacionNativa reservar(int tamanio, long semilla) {
+        comprobarTamanio(tamanio);
+        Arena arena = Arena.ofShared();
+        try {
+            MemorySegment segmento = arena.allocate(bytes(tamanio), Double.BYTES);
+            PoblacionNativa poblacion = new PoblacionNativa(arena, segmento, tamanio, semilla);
+            poblacion.escribirCabecera();
+            poblacion.generar();
+            return poblacion;
+        } catch (RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Crea (o reemplaza) un archivo con una población reproducible y lo
+     * proyecta en memoria. Los atributos iniciales son los mismos que los de
+     * {@code new PoblacionHumana(tamanio, semilla)}.
+     *
+     * @param archivo Archivo donde se guardará la población.
+     * @param tamanio Cantidad de Humanos de la población.
+     * @param semilla Semilla maestra de la simulación.
+     * @return Población proyectada desde el archivo; debe cerrarse al terminar.
+     * @throws IOException si no se puede crear o proyectar el archivo.
+     */
+    public static PoblacionNativa crearArchivo(Path archivo, int tamanio, long semilla) throws IOException {
+        comprobarTamanio(tamanio);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Arena arena = Arena.ofShared();
+            try {
+                MemorySegment segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, bytes(tamanio), arena);
+                PoblacionNativa poblacion = new PoblacionNativa(arena, segmento, tamanio, semilla);
+                poblacion.generar();
+                // La cabecera va al final: un archivo a medio generar no se puede abrir
+                poblacion.escribirCabecera();
+                return poblacion;
+            } catch (IOException | RuntimeException | Error e) {
+                arena.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Proyecta en memoria una población guardada con {@link #crearArchivo},
+     * en el estado en que quedó.
+     *
+     * @param archivo Archivo de la población.
+     * @return Población proyectada; debe cerrarse al terminar.
+     * @throws IOException si el archivo no existe, no es una población o está truncado.
+     */
+    public static PoblacionNativa abrirArchivo(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long longitud = canal.size();
+            if (longitud < CABECERA) {
+                throw new IOException("Archivo demasiado corto para ser una población: " + archivo);
+            }
+            Arena arena = Arena.ofShared();
+            try {
+                MemorySegment segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, longitud, arena);
+                if (segmento.get(INT, POS_MAGIA) != MAGIA) {
+                    throw new IOException("No es un archivo de población: " + archivo);
+                }
+                int version = segmento.get(INT, POS_VERSION);
+                if (version != VERSION) {
+                    throw new IOException("Versión de población no soportada: " + version);
+                }
+                int tamanio = segmento.get(INT, POS_TAMANIO);
+                if (tamanio < 0 || bytes(tamanio) != longitud) {
+                    throw new IOException("Archivo de población truncado o dañado: " + archivo);
+                }
+                return new PoblacionNativa(arena, segmento, tamanio, segmento.get(LONG, POS_SEMILLA));
+            } catch (IOException | RuntimeException | Error e) {
+                arena.close();
+                throw e;
+            }
+        }
+    }
+
+    private static void comprobarTamanio(int tamanio) {
+        if (tamanio < 0) {
+            throw new IllegalArgumentException("Tamaño de población negativo: " + tamanio);
+        }
+    }
+
+    /** @return Bytes que ocupa una población de {@code tamanio} Humanos, con su cabecera. */
+    private static long bytes(int tamanio) {
+        return CABECERA + (long) COLUMNAS * tamanio * Double.BYTES;
+    }
+
+    private void escribirCabecera() {
+        segmento.set(INT, POS_VERSION, VERSION);
+        segmento.set(INT, POS_TAMANIO, tamanio);
+        segmento.set(INT, POS_TURNO, 0);
+        segmento.set(LONG, POS_SEMILLA, semilla);
+        segmento.set(INT, POS_MAGIA, MAGIA);
+    }
+
+    /**
+     * Deriva los atributos iniciales de cada fila, igual que
+     * {@link PoblacionHumana}, repartiendo los bloques de filas entre los
+     * hilos del pool común.
+     */
+    private void generar() {
+        int bloques = (int) (((long) tamanio + BLOQUE_GENERACION - 1) / BLOQUE_GENERACION);
+        IntStream.range(0, bloques).parallel().forEach(b -> {
+            int desde = b * BLOQUE_GENERACION;
+            int hasta = (int) Math.min(tamanio, (long) desde + BLOQUE_GENERACION);
+            FlujoAleatorio rd = new FlujoAleatorio(0);
+            for (int i = desde; i < hasta; i++) {
+                rd.reiniciar(FlujoAleatorio.derivar(semilla, FlujoAleatorio.DOMINIO_HUMANOS, i));
+                long desplazamiento = (long) i * Double.BYTES;
+                segmento.set(DOUBLE, inteligencia + desplazamiento, rd.nextInt(Humano.MAX_INTELIGENCIA));
+                segmento.set(DOUBLE, fe + desplazamiento, rd.nextInt(Humano.MAX_FE));
+                segmento.set(DOUBLE, bondad + desplazamiento, rd.nextInt(Humano.MAX_BONDAD));
+                segmento.set(DOUBLE, maldad + desplazamiento, rd.nextInt(Humano.MAX_MALDAD));
+                segmento.set(DOUBLE, alma + desplazamiento, rd.nextInt(Humano.MAX_ALMA));
+            }
+        });
+    }
+
+    /**
+     * Devuelve una nueva vista del Humano en la fila {@code i}.
+     *
+     * @param i Índice del Humano en la población.
+     * @return Vista que lee y escribe sobre el segmento de esta población.
+     */
+    public HumanoFila fila(int i) {
+        return new FilaNativa(this, i);
+    }
+
+    @Override
+    public HumanoFila nuevoCursor() {
+        return new FilaNativa(this, 0);
+    }
+
+    /** @return Segmento con la cabecera y las cinco columnas, para núcleos de cálculo por bloques. */
+    public MemorySegment getSegmento() {
+        return segmento;
+    }
+
+    /**
+     * @return Último turno guardado con {@link #setTurno(int)}; al reabrir un
+     * archivo, el turno desde el que se reanuda ({@code motor.setTurno(...)}).
+     */
+    public int getTurno() {
+        return segmento.get(INT, POS_TURNO);
+    }
+
+    /**
+     * Anota en la cabecera el último turno ejecutado sobre la población.
+     *
+     * @param turno Último turno que ya se ejecutó.
+     */
+    public void setTurno(int turno) {
+        segmento.set(INT, POS_TURNO, turno);
+    }
+
+    /**
+     * Escribe en el archivo las páginas modificadas, para que el estado
+     * sobreviva a una caída del proceso. No hace nada si la población no
+     * viene de un archivo.
+     */
+    public void sincronizar() {
+        if (segmento.isMapped()) {
+            segmento.force();
+        }
+    }
+
+    /**
+     * Libera la memoria (o la proyección del archivo). Los cursores dejan de
+     * poder usarse. Las páginas modificadas de un archivo terminan de
+     * escribirse en él aunque no se haya llamado a {@link #sincronizar()}.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /** @return Semilla maestra de la que se derivaron los atributos iniciales. */
+    @Override
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /** @return Cantidad de Humanos de la población. */
+    @Override
+    public int tamanio() {
+        return tamanio;
+    }
+
+    @Override
+    public int getPrimeraFila() {
+        return 0;
+    }
+
+    @Override
+    public int getTotal() {
+        return tamanio;
+    }
+}
@@ -0,0 +1,53 @@
+package rendimiento;
+
+import aleatorio.FlujoAleatorio;
+import entidades.fisicas.PoblacionNativa;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import motor.MotorTurnos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks de turnos completos del {@link MotorTurnos} sobre una
+ * {@link PoblacionNativa}, para comparar con las filas
+ * {@code MotorTurnos.ejecutarTurno[10^N]} de {@link BancoPruebas}.
+ * <p>
+ * Está en el módulo opcional {@code nativo}, que en JDK 21 se compila y ejecuta
+ * con {@code --enable-preview}.
+ * </p>
+ * <p>
+ * Uso: {@code java --enable-preview rendimiento.BancoPruebasNativo [exponenteMaximo]},
+ * con {@code exponenteMaximo} entre 3 y 7 (por defecto 5).
+ * </p>
+ */
+public class BancoPruebasNativo {
+
+    /** La misma semilla que {@link BancoPruebas}, para medir los mismos datos. */
+    private static final long SEMILLA = 42;
+
+    public static void main(String[] args) {
+        int exponenteMaximo = args.length > 0 ? Math.max(3, Math.min(7, Integer.parseInt(args[0]))) : 5;
+
+        List<Angel> angeles = new ArrayList<>();
+        List<Demonio> demonios = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            angeles.add(new Angel(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_ANGELES, i)));
+            demonios.add(new Demonio(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_DEMONIOS, i)));
+        }
+
+        Medidor medidorTurnos = new Medidor(2, 3, 1000);
+        medidorTurnos.cabecera();
+        for (int e = 3; e <= exponenteMaximo; e++) {
+            int tamanio = (int) Math.pow(10, e);
+            try (PoblacionNativa poblacion = PoblacionNativa.reservar(tamanio, SEMILLA)) {
+                MotorTurnos motor = new MotorTurnos(poblacion, angeles, demonios, SEMILLA);
+                medidorTurnos.medir("MotorTurnos.ejecutarTurno+nativa[10^" + e + "]", () -> {
+                    motor.ejecutarTurno();
+                    return motor.getTurno();
+                }, 1);
+            }
+        }
+    }
+}
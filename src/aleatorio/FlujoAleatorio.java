@@ -0,0 +1,108 @@
+package aleatorio;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Flujo de números aleatorios reproducible y sin contención.
+ * <p>
+ * Implementa el generador SplitMix64 (el mismo núcleo que
+ * {@link java.util.SplittableRandom}) con un estado mutable de 64 bits, de modo
+ * que un hilo puede reutilizar una única instancia y reposicionarla con
+ * {@link #reiniciar(long)} sin crear objetos. No es seguro compartir una
+ * instancia entre hilos: cada trabajador debe tener la suya.
+ * </p>
+ * <p>
+ * Todas las semillas de una simulación se derivan de una única semilla maestra
+ * con {@link #derivar(long, long, long)}, usando como coordenadas un dominio
+ * (o el número de turno) y el índice de la entidad. Como el flujo de cada
+ * entidad depende solo de esas coordenadas y no del hilo que la procese, la
+ * misma semilla produce el mismo resultado con 1 o con 64 núcleos.
+ * </p>
+ */
+public final class FlujoAleatorio implements RandomGenerator {
+
+    /** Dominio de derivación para la creación de Ángeles. */
+    public static final long DOMINIO_ANGELES = -1;
+    /** Dominio de derivación para la creación de Demonios. */
+    public static final long DOMINIO_DEMONIOS = -2;
+    /** Dominio de derivación para la creación de Humanos. */
+    public static final long DOMINIO_HUMANOS = -3;
+    /** Dominio de derivación para las semillas de las réplicas de un conjunto Monte Carlo. */
+    public static final long DOMINIO_REPLICAS = -4;
+    /** Dominio de derivación para muestrear los estados tras un avance analítico. */
+    public static final long DOMINIO_AVANCE = -5;
+    /** Dominio de derivación para los atributos de los entes que Dios convoca tras cada turno. */
+    public static final long DOMINIO_DIOS = -6;
+
+    /** Incremento de Weyl de SplitMix64 (parte fraccionaria de la razón áurea). */
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long estado;
+
+    /**
+     * Crea un flujo con la semilla indicada.
+     *
+     * @param semilla Estado inicial del generador.
+     */
+    public FlujoAleatorio(long semilla) {
+        this.estado = semilla;
+    }
+
+    /**
+     * Crea el flujo independiente de una entidad a partir de la semilla maestra.
+     *
+     * @param semillaMaestra Semilla de toda la simulación.
+     * @param dominio Dominio ({@code DOMINIO_*}) o número de turno.
+     * @param indice Índice de la entidad dentro del dominio.
+     * @return Nuevo flujo para esa entidad.
+     */
+    public static FlujoAleatorio para(long semillaMaestra, long dominio, long indice) {
+        return new FlujoAleatorio(derivar(semillaMaestra, dominio, indice));
+    }
+
+    /**
+     * Deriva una semilla independiente para las coordenadas dadas.
+     * <p>
+     * Cada coordenada se mezcla con la función de finalización de SplitMix64,
+     * por lo que coordenadas vecinas producen semillas sin correlación aparente.
+     * </p>
+     *
+     * @param semillaMaestra Semilla de toda la simulación.
+     * @param dominio Dominio ({@code DOMINIO_*}) o número de turno.
+     * @param indice Índice de la entidad dentro del dominio.
+     * @return Semilla derivada.
+     */
+    public static long derivar(long semillaMaestra, long dominio, long indice) {
+        long s = mezclar(semillaMaestra + GAMMA);
+        s = mezclar(s ^ (dominio * GAMMA));
+        return mezclar(s ^ ((indice + 1) * GAMMA));
+    }
+
+    /**
+     * Reposiciona este flujo sin crear un objeto nuevo.
+     *
+     * @param semilla Nuevo estado del generador.
+     * @return este mismo flujo, para encadenar llamadas.
+     */
+    public FlujoAleatorio reiniciar(long semilla) {
+        this.estado = semilla;
+        return this;
+    }
+
+    /** @return Estado actual, suficiente para reanudar el flujo con {@link #reiniciar(long)}. */
+    public long getEstado() {
+        return estado;
+    }
+
+    @Override
+    public long nextLong() {
+        return mezclar(estado += GAMMA);
+    }
+
+    /** Función de finalización de SplitMix64 (variante 13 de Stafford). */
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,135 @@
+package analitico;
+
+import entidades.fisicas.Humano;
+import entidades.fisicas.HumanoFila;
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.DiosCristiano;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribución de probabilidad del estado (bondad, maldad, fe) de un Humano
+ * tras avanzar varios turnos con {@link ModeloMarkov}.
+ * <p>
+ * Solo guarda los estados con probabilidad positiva, ordenados por índice.
+ * </p>
+ */
+public final class DistribucionEstados {
+
+    private final int[] estados;
+    private final double[] probabilidades;
+    private final long turnos;
+    private final long turnosCalculados;
+    private final boolean estable;
+    private final double descartada;
+
+    DistribucionEstados(int[] estados, double[] probabilidades, long turnos, long turnosCalculados,
+                        boolean estable, double descartada) {
+        this.estados = estados;
+        this.probabilidades = probabilidades;
+        this.turnos = turnos;
+        this.turnosCalculados = turnosCalculados;
+        this.estable = estable;
+        this.descartada = descartada;
+    }
+
+    /** @return Probabilidad de terminar con exactamente esos atributos. */
+    public double getProbabilidad(int bondad, int maldad, int fe) {
+        if (bondad < 0 || bondad >= ModeloMarkov.RANGO || maldad < 0 || maldad >= ModeloMarkov.RANGO
+                || fe < 0 || fe >= ModeloMarkov.RANGO) {
+            return 0.0;
+        }
+        int j = Arrays.binarySearch(estados, ModeloMarkov.estado(bondad, maldad, fe));
+        return j >= 0 ? probabilidades[j] : 0.0;
+    }
+
+    /** @return Cantidad de estados con probabilidad positiva. */
+    public int getSoporte() {
+        return estados.length;
+    }
+
+    public double getMediaBondad() {
+        double media = 0.0;
+        for (int j = 0; j < estados.length; j++) {
+            media += probabilidades[j] * ModeloMarkov.bondad(estados[j]);
+        }
+        return media;
+    }
+
+    public double getMediaMaldad() {
+        double media = 0.0;
+        for (int j = 0; j < estados.length; j++) {
+            media += probabilidades[j] * ModeloMarkov.maldad(estados[j]);
+        }
+        return media;
+    }
+
+    public double getMediaFe() {
+        double media = 0.0;
+        for (int j = 0; j < estados.length; j++) {
+            media += probabilidades[j] * ModeloMarkov.fe(estados[j]);
+        }
+        return media;
+    }
+
+    /** @return Probabilidad de que {@code dios} salve al Humano al terminar. */
+    public double probabilidadSalvado(DiosCristiano dios) {
+        HumanoFila h = PoblacionHumana.vacia(1, 0).nuevoCursor();
+        double p = 0.0;
+        for (int j = 0; j < estados.length; j++) {
+            h.setBondad(ModeloMarkov.bondad(estados[j]));
+            h.setMaldad(ModeloMarkov.maldad(estados[j]));
+            h.setFe(ModeloMarkov.fe(estados[j]));
+            if (dios.esBuenHombre(h)) {
+                p += probabilidades[j];
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Elige un estado al azar según la distribución y lo escribe en {@code destino}.
+     *
+     * @param rd Flujo aleatorio del que se extrae el estado.
+     * @param destino Humano cuya bondad, maldad y fe se sobrescriben.
+     */
+    public void muestrear(RandomGenerator rd, Humano destino) {
+        double objetivo = rd.nextDouble() * Arrays.stream(probabilidades).sum();
+        double acumulado = 0.0;
+        int elegido = estados[estados.length - 1];
+        for (int j = 0; j < estados.length; j++) {
+            acumulado += probabilidades[j];
+            if (objetivo < acumulado) {
+                elegido = estados[j];
+                break;
+            }
+        }
+        destino.setBondad(ModeloMarkov.bondad(elegido));
+        destino.setMaldad(ModeloMarkov.maldad(elegido));
+        destino.setFe(ModeloMarkov.fe(elegido));
+    }
+
+    /** @return Turnos avanzados. */
+    public long getTurnos() {
+        return turnos;
+    }
+
+    /** @return Turnos efectivamente propagados antes de que la distribución se estabilizara. */
+    public long getTurnosCalculados() {
+        return turnosCalculados;
+    }
+
+    /** @return true si la propagación se detuvo antes de {@link #getTurnos()} por haberse estabilizado. */
+    public boolean isEstable() {
+        return estable;
+    }
+
+    /**
+     * @return Probabilidad total de los estados descartados por ínfimos durante
+     * la propagación, ya repartida entre los demás.
+     */
+    public double getDescartada() {
+        return descartada;
+    }
+}
@@ -0,0 +1,817 @@
+package analitico;
+
+import aleatorio.FlujoAleatorio;
+import entidades.fisicas.Humano;
+import entidades.fisicas.HumanoFila;
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import eventos.SumideroEventos;
+import motor.ParametrosBatalla;
+import motor.Simulacion;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * Modelo de Markov de la evolución de un Humano con Ángeles y Demonios fijos.
+ * <p>
+ * En cada turno el motor empareja al Humano con un Ángel y un Demonio al azar
+ * (emparejamiento uniforme) y cada uno elige una de sus seis habilidades con
+ * igual probabilidad. El ganador depende solo de esas elecciones y del estado
+ * del Humano, y el estado siguiente solo del ganador
+ * ({@link Humano#aplicarResultado(int)}). Como la inteligencia no cambia y la
+ * bondad, maldad y fe son enteros en [0, 100], la evolución de cada Humano es
+ * una cadena de Markov sobre los 101³ estados (bondad, maldad, fe), con a lo
+ * sumo tres transiciones por estado.
+ * </p>
+ * <p>
+ * Las probabilidades de cada transición se obtienen contando, entre todas las
+ * combinaciones Ángel × Demonio × habilidad × habilidad, cuántas gana cada
+ * bando. Se calculan al primer uso y se guardan por (inteligencia, fe,
+ * bondad) en filas de maldad, compartidas por todos los Humanos y todos los
+ * hilos, hasta un límite de memoria: un Humano recorre pocos estados, así que
+ * filas chicas alcanzan para poblaciones con todas las inteligencias.
+ * </p>
+ * <p>
+ * Para avanzar una población K turnos ({@link #avanzar(PoblacionHumana, long, long)})
+ * cada Humano recorre la cadena con su propio flujo aleatorio. En los estados
+ * que ya visitó {@value #VISITAS_PARA_CONTAR} veces cada paso consulta la
+ * tabla en lugar de puntuar un conflicto, y los empates que no cambian el
+ * estado (casi todos, con la fe en 0 o en 100) se saltean de una vez con la
+ * cantidad geométrica de empates seguidos; en los demás se sortea y puntúa
+ * una sola combinación, como en la simulación. El estado final sigue
+ * exactamente la distribución de la cadena al cabo de K turnos, y el costo es
+ * proporcional a los cambios de estado y no a los turnos: con 3 Ángeles y 3
+ * Demonios, un Humano cambia de estado unas cien mil veces en 10^6 turnos, y
+ * 2000 Humanos avanzan 10^6 turnos en unos segundos.
+ * </p>
+ * <p>
+ * {@link #avanzar(Humano, long)} calcula en cambio la distribución completa de
+ * un Humano: recorre los estados alcanzables con índices consecutivos y
+ * propaga la distribución un turno por vez, con un producto de matriz dispersa
+ * (tres transiciones por estado) por vector que solo visita los estados con
+ * probabilidad. Cada {@value #VENTANA} turnos la distribución se compara con
+ * la anterior muestra; si ya no cambia, los turnos restantes no se calculan.
+ * Su costo es proporcional a los turnos por el soporte (segundos por Humano
+ * para 10^6 turnos): sirve para analizar un Humano, no para avanzar una
+ * población.
+ * </p>
+ * <p>
+ * No se eleva la matriz al cuadrado repetidamente: sus potencias se vuelven
+ * densas (las filas de la potencia 128 ya tienen miles de estados con
+ * probabilidad mayor que 10⁻⁹). Tampoco se extrapola hacia el equilibrio: la
+ * suma bondad + maldad solo cambia en los bordes del rango, así que muchas
+ * cadenas pasan cientos de miles de turnos en estados casi estables antes de
+ * llegar al final, y una extrapolación apunta al equivocado. La distribución
+ * es exacta salvo colas menores que {@value #UMBRAL_PODA}.
+ * </p>
+ * <p>
+ * El modelo supone el emparejamiento uniforme ({@code Emparejador.UNIFORME}) y
+ * que los atributos de los Ángeles y Demonios no cambian.
+ * </p>
+ */
+public final class ModeloMarkov {
+
+    /** Límite de memoria por defecto de la tabla de probabilidades: 256 MiB. */
+    public static final long LIMITE_POR_DEFECTO = 256L << 20;
+    /** Distancia L1 entre muestras por debajo de la cual la distribución se considera final. */
+    public static final double TOLERANCIA_POR_DEFECTO = 1e-12;
+    /** Turnos entre muestras de la distribución. */
+    private static final int VENTANA = 256;
+    /** Probabilidad por debajo de la cual un estado se descarta. */
+    private static final double UMBRAL_PODA = 1e-20;
+
+    static final int RANGO = 101;
+    static final int ESTADOS = RANGO * RANGO * RANGO;
+    private static final int RANGO_INTELIGENCIA = 200;
+    private static final int HABILIDADES = 6;
+    private static final long BYTES_BLOQUE = 16L + RANGO * Integer.BYTES;
+    private static final int DESCONOCIDO = -1;
+    /** Visitas de un Humano a un estado, al recorrer la cadena, antes de contar sus combinaciones. */
+    private static final int VISITAS_PARA_CONTAR = 32;
+
+    private final List<Angel> angeles;
+    private final List<Demonio> demonios;
+    /** Combinaciones por conflicto: Ángeles × Demonios × 6 × 6. */
+    private final int combinaciones;
+    private final long limiteBytes;
+    /** Conteos (victorias del Ángel << 16 | del Demonio) por (inteligencia, fe, bondad), indexados por maldad. */
+    private final AtomicReferenceArray<int[]> bloques = new AtomicReferenceArray<>(RANGO_INTELIGENCIA * RANGO * RANGO);
+    private final AtomicLong bytesReservados = new AtomicLong();
+    private double tolerancia = TOLERANCIA_POR_DEFECTO;
+    /** Búferes de propagación de cada hilo, reutilizados entre llamadas. */
+    private final ThreadLocal<Propagador> propagadores = ThreadLocal.withInitial(Propagador::new);
+    /** Búferes de cada hilo para calcular conteos al recorrer la cadena. */
+    private final ThreadLocal<Escena> escenas = ThreadLocal.withInitial(Escena::new);
+
+    /**
+     * @param angeles Ángeles de la batalla.
+     * @param demonios Demonios de la batalla.
+     */
+    public ModeloMarkov(List<Angel> angeles, List<Demonio> demonios) {
+        this(angeles, demonios, LIMITE_POR_DEFECTO);
+    }
+
+    /**
+     * @param angeles Ángeles de la batalla.
+     * @param demonios Demonios de la batalla.
+     * @param limiteBytes Memoria máxima para guardar probabilidades ya calculadas.
+     */
+    public ModeloMarkov(List<Angel> angeles, List<Demonio> demonios, long limiteBytes) {
+        if (angeles.isEmpty() || demonios.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un Ángel y un Demonio");
+        }
+        long total = (long) angeles.size() * demonios.size() * HABILIDADES * HABILIDADES;
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Demasiados pares Ángel–Demonio");
+        }
+        this.angeles = List.copyOf(angeles);
+        this.demonios = List.copyOf(demonios);
+        this.combinaciones = (int) total;
+        // Los conteos empaquetados en 16 bits solo se guardan si caben
+        this.limiteBytes = total < (1 << 16) ? limiteBytes : 0;
+    }
+
+    /** @return Índice del estado (bondad, maldad, fe). */
+    public static int estado(int bondad, int maldad, int fe) {
+        return (bondad * RANGO + maldad) * RANGO + fe;
+    }
+
+    public static int bondad(int estado) {
+        return estado / (RANGO * RANGO);
+    }
+
+    public static int maldad(int estado) {
+        return estado / RANGO % RANGO;
+    }
+
+    public static int fe(int estado) {
+        return estado % RANGO;
+    }
+
+    /**
+     * @return Estado actual de {@code h}.
+     * @throws IllegalArgumentException si algún atributo no es un entero del rango del modelo.
+     */
+    public static int estado(Humano h) {
+        return estado(entero(h.getBondad(), RANGO), entero(h.getMaldad(), RANGO), entero(h.getFe(), RANGO));
+    }
+
+    static int entero(double valor, int rango) {
+        int entero = (int) valor;
+        if (entero != valor || entero < 0 || entero >= rango) {
+            throw new IllegalArgumentException("Atributo fuera del modelo discreto: " + valor);
+        }
+        return entero;
+    }
+
+    /**
+     * Estado al que lleva cada ganador desde cada estado, calculado una vez con
+     * {@link Humano#aplicarResultado(int)} para no duplicar sus reglas.
+     */
+    static final class Transiciones {
+        static final int[][] SIGUIENTE = calcular();
+
+        private static int[][] calcular() {
+            int[][] siguiente = new int[3][ESTADOS];
+            HumanoFila h = PoblacionHumana.vacia(1, 0).nuevoCursor();
+            for (int s = 0; s < ESTADOS; s++) {
+                for (int g = 0; g < 3; g++) {
+                    h.setBondad(bondad(s));
+                    h.setMaldad(maldad(s));
+                    h.setFe(fe(s));
+                    h.aplicarResultado(g);
+                    siguiente[g][s] = estado(h);
+                }
+            }
+            return siguiente;
+        }
+    }
+
+    /**
+     * Conteos de victorias desde un estado, consultando la tabla o calculándolos.
+     *
+     * @param escena Búferes del hilo actual.
+     * @return Victorias del Ángel en los 32 bits altos y del Demonio en los bajos,
+     * sobre {@link #getCombinaciones()} combinaciones.
+     */
+    long conteos(int inteligencia, int estado, Escena escena) {
+        int entrada = maldad(estado);
+        int[] bloque = bloque(indiceBloque(inteligencia, estado));
+        if (bloque != null) {
+            int valor = bloque[entrada];
+            if (valor != DESCONOCIDO) {
+                return (long) (valor >>> 16) << 32 | (valor & 0xFFFF);
+            }
+        }
+        long valor = calcular(inteligencia, estado, escena);
+        if (bloque != null) {
+            // Carrera benigna: el valor de una entrada es siempre el mismo
+            bloque[entrada] = (int) (valor >>> 32) << 16 | (int) valor;
+        }
+        return valor;
+    }
+
+    /** @return Índice de la fila de la tabla con los conteos del estado: (inteligencia, fe, bondad). */
+    private static int indiceBloque(int inteligencia, int estado) {
+        return (inteligencia * RANGO + fe(estado)) * RANGO + bondad(estado);
+    }
+
+    private int[] bloque(int indice) {
+        int[] bloque = bloques.get(indice);
+        if (bloque != null || limiteBytes == 0) {
+            return bloque;
+        }
+        if (bytesReservados.addAndGet(BYTES_BLOQUE) > limiteBytes) {
+            bytesReservados.addAndGet(-BYTES_BLOQUE);
+            return null;
+        }
+        int[] nuevo = new int[RANGO];
+        Arrays.fill(nuevo, DESCONOCIDO);
+        if (bloques.compareAndSet(indice, null, nuevo)) {
+            return nuevo;
+        }
+        bytesReservados.addAndGet(-BYTES_BLOQUE);
+        return bloques.get(indice);
+    }
+
+    /**
+     * Cuenta las victorias de cada bando en todas las combinaciones, con las
+     * fórmulas de {@code golpear} pero sin su registro en las métricas: estas
+     * puntuaciones no son conflictos de la batalla.
+     */
+    private long calcular(int inteligencia, int estado, Escena escena) {
+        HumanoFila h = escena.humano(inteligencia, estado);
+        int nA = angeles.size();
+        int nD = demonios.size();
+        double[] puntajesAngel = escena.puntajesAngel(nA * HABILIDADES);
+        for (int ia = 0; ia < nA; ia++) {
+            Angel a = angeles.get(ia);
+            for (int ha = 0; ha < HABILIDADES; ha++) {
+                puntajesAngel[ia * HABILIDADES + ha] = a.getHabilidades().puntuar(ha, a, h, a);
+            }
+        }
+        int victoriasAngel = 0;
+        int victoriasDemonio = 0;
+        for (int ia = 0; ia < nA; ia++) {
+            Angel a = angeles.get(ia);
+            for (int id = 0; id < nD; id++) {
+                Demonio d = demonios.get(id);
+                for (int hd = 0; hd < HABILIDADES; hd++) {
+                    // Algunas fórmulas del Demonio dependen del Ángel enfrentado
+                    double pD = d.getHabilidades().puntuar(hd, d, h, a);
+                    for (int ha = 0; ha < HABILIDADES; ha++) {
+                        double pA = puntajesAngel[ia * HABILIDADES + ha];
+                        if (pA > pD) {
+                            victoriasAngel++;
+                        } else if (pD > pA) {
+                            victoriasDemonio++;
+                        }
+                    }
+                }
+            }
+        }
+        return (long) victoriasAngel << 32 | victoriasDemonio;
+    }
+
+    /**
+     * Sortea el ganador de un turno como la simulación: elige al azar una sola
+     * combinación Ángel × Demonio × habilidad × habilidad y la puntúa.
+     */
+    private int sortear(int inteligencia, int estado, FlujoAleatorio rd, Escena escena) {
+        HumanoFila h = escena.humano(inteligencia, estado);
+        int u = rd.nextInt(combinaciones);
+        int ha = u % HABILIDADES;
+        int hd = u / HABILIDADES % HABILIDADES;
+        int par = u / (HABILIDADES * HABILIDADES);
+        Angel a = angeles.get(par / demonios.size());
+        Demonio d = demonios.get(par % demonios.size());
+        double pA = a.getHabilidades().puntuar(ha, a, h, a);
+        double pD = d.getHabilidades().puntuar(hd, d, h, a);
+        return pA > pD ? SumideroEventos.GANA_ANGEL : pD > pA ? SumideroEventos.GANA_DEMONIO : SumideroEventos.EMPATE;
+    }
+
+    /**
+     * @return Probabilidad de cada ganador ({@code SumideroEventos.EMPATE},
+     * {@code GANA_ANGEL}, {@code GANA_DEMONIO}) en un turno desde el estado dado.
+     */
+    public double[] probabilidades(int inteligencia, int bondad, int maldad, int fe) {
+        long c = conteos(entero(inteligencia, RANGO_INTELIGENCIA), estado(bondad, maldad, fe), new Escena());
+        double angel = (double) (c >>> 32) / combinaciones;
+        double demonio = (double) (int) c / combinaciones;
+        double[] p = new double[3];
+        p[SumideroEventos.EMPATE] = 1.0 - angel - demonio;
+        p[SumideroEventos.GANA_ANGEL] = angel;
+        p[SumideroEventos.GANA_DEMONIO] = demonio;
+        return p;
+    }
+
+    // -------------------------------------------------------------------------
+    // Propagación de distribuciones
+    // -------------------------------------------------------------------------
+
+    /**
+     * Distribución del estado de un Humano después de {@code turnos} turnos.
+     *
+     * @param h Humano en su estado actual (no se modifica).
+     * @param turnos Turnos a avanzar.
+     * @return Distribución de (bondad, maldad, fe) al terminar.
+     * @throws IllegalArgumentException si algún atributo no es un entero del rango del modelo.
+     */
+    public DistribucionEstados avanzar(Humano h, long turnos) {
+        Propagador p = propagadores.get();
+        construir(entero(h.getInteligencia(), RANGO_INTELIGENCIA), estado(h), turnos, p);
+        double[] v = propagar(turnos, p);
+        int soporte = 0;
+        for (int j = 0; j < p.n; j++) {
+            if (v[j] > 0.0) {
+                soporte++;
+            }
+        }
+        int[] estados = new int[soporte];
+        for (int j = 0, k = 0; j < p.n; j++) {
+            if (v[j] > 0.0) {
+                estados[k++] = p.global[j];
+            }
+        }
+        Arrays.sort(estados);
+        double[] probabilidades = new double[soporte];
+        double total = 0.0;
+        for (int k = 0; k < soporte; k++) {
+            probabilidades[k] = v[p.local[estados[k]]];
+            total += probabilidades[k];
+        }
+        // Reparte lo descartado por la poda en proporción
+        for (int k = 0; k < soporte; k++) {
+            probabilidades[k] /= total;
+        }
+        return new DistribucionEstados(estados, probabilidades, turnos,
+                p.turnosCalculados, p.estable, p.descartada);
+    }
+
+    /**
+     * Avanza toda la población {@code turnos} turnos: cada Humano recorre la
+     * cadena desde su estado, con un flujo aleatorio propio, y queda en el
+     * estado al que llega. Ese estado sigue exactamente la distribución de la
+     * cadena al cabo de {@code turnos} turnos (la que da
+     * {@link #avanzar(Humano, long)}), sin calcularla. Los Humanos se reparten
+     * entre los hilos del pool común; el resultado solo depende de la semilla.
+     *
+     * @param poblacion Población a avanzar; se sobrescriben bondad, maldad y fe.
+     * @param turnos Turnos a avanzar.
+     * @param semilla Semilla del recorrido; cada fila usa su propio flujo derivado.
+     * @throws IllegalArgumentException si algún atributo no es un entero del rango del modelo.
+     */
+    public void avanzar(PoblacionHumana poblacion, long turnos, long semilla) {
+        int n = poblacion.tamanio();
+        int hilos = Math.max(1, Math.min(n, ForkJoinPool.getCommonPoolParallelism()));
+        int porHilo = (n + hilos - 1) / hilos;
+        IntStream.range(0, hilos).parallel().forEach(w -> {
+            Escena escena = escenas.get();
+            HumanoFila h = poblacion.nuevoCursor();
+            FlujoAleatorio rd = new FlujoAleatorio(0);
+            for (int i = w * porHilo, fin = Math.min(n, i + porHilo); i < fin; i++) {
+                h.mover(i);
+                rd.reiniciar(FlujoAleatorio.derivar(semilla, FlujoAleatorio.DOMINIO_AVANCE, i));
+                escena.visitas.limpiar();
+                int s = recorrer(entero(h.getInteligencia(), RANGO_INTELIGENCIA), estado(h), turnos, rd, escena);
+                h.setBondad(bondad(s));
+                h.setMaldad(maldad(s));
+                h.setFe(fe(s));
+            }
+        });
+    }
+
+    /**
+     * Recorre la cadena {@code turnos} turnos desde un estado. Cuando un empate
+     * deja el estado igual, la cantidad de empates seguidos es geométrica: se
+     * extrae de una vez y luego se elige entre las dos victorias.
+     *
+     * @return Estado al terminar.
+     */
+    private int recorrer(int inteligencia, int estado, long turnos, FlujoAleatorio rd, Escena escena) {
+        int[][] siguiente = Transiciones.SIGUIENTE;
+        long t = 0;
+        while (t < turnos) {
+            int[] bloque = bloques.get(indiceBloque(inteligencia, estado));
+            int valor = bloque == null ? DESCONOCIDO : bloque[maldad(estado)];
+            if (valor == DESCONOCIDO
+                    && (limiteBytes == 0 || escena.visitas.anotar(estado) < VISITAS_PARA_CONTAR)) {
+                // Contar todas las combinaciones cuesta como puntuar unas
+                // cuarenta: solo vale la pena en los estados que se repiten
+                estado = siguiente[sortear(inteligencia, estado, rd, escena)][estado];
+                t++;
+                continue;
+            }
+            long c = conteos(inteligencia, estado, escena);
+            int angel = (int) (c >>> 32);
+            int demonio = (int) c;
+            int empate = combinaciones - angel - demonio;
+            if (empate > 0 && siguiente[SumideroEventos.EMPATE][estado] == estado) {
+                if (empate == combinaciones) {
+                    break;
+                }
+                // Con empates de probabilidad p, los seguidos son el piso de
+                // E / -ln(p), con E exponencial de media 1
+                long empates = (long) (rd.nextExponential() / escena.tasaEmpates(empate, combinaciones));
+                if (empates >= turnos - t) {
+                    break;
+                }
+                t += empates + 1;
+                int g = rd.nextInt(angel + demonio) < angel ? SumideroEventos.GANA_ANGEL : SumideroEventos.GANA_DEMONIO;
+                estado = siguiente[g][estado];
+            } else {
+                int u = rd.nextInt(combinaciones);
+                int g = u < angel ? SumideroEventos.GANA_ANGEL
+                        : u < angel + demonio ? SumideroEventos.GANA_DEMONIO : SumideroEventos.EMPATE;
+                estado = siguiente[g][estado];
+                t++;
+            }
+        }
+        return estado;
+    }
+
+    /**
+     * Construye la cadena de un Humano: recorre en anchura los estados
+     * alcanzables desde el inicial en a lo sumo {@code turnos} turnos, les
+     * asigna índices consecutivos y guarda hasta tres transiciones por estado.
+     */
+    private void construir(int inteligencia, int inicial, long turnos, Propagador p) {
+        p.reiniciar();
+        p.agregar(inicial, 0);
+        int[][] siguiente = Transiciones.SIGUIENTE;
+        double porCombinacion = 1.0 / combinaciones;
+        for (int j = 0; j < p.n; j++) {
+            int s = p.global[j];
+            int base = 3 * j;
+            if (p.profundidad[j] >= turnos) {
+                // Solo se alcanza en el último turno: nunca propaga su probabilidad
+                for (int g = 0; g < 3; g++) {
+                    p.destino[base + g] = j;
+                    p.peso[base + g] = 0.0;
+                }
+                continue;
+            }
+            long c = conteos(inteligencia, s, p.escena);
+            long angel = c >>> 32;
+            long demonio = (int) c;
+            long empate = combinaciones - angel - demonio;
+            for (int g = 0; g < 3; g++) {
+                long veces = g == SumideroEventos.GANA_ANGEL ? angel
+                        : g == SumideroEventos.GANA_DEMONIO ? demonio : empate;
+                int k = j;
+                if (veces > 0) {
+                    k = p.agregar(siguiente[g][s], p.profundidad[j] + 1);
+                }
+                p.destino[base + g] = k;
+                p.peso[base + g] = veces * porCombinacion;
+            }
+        }
+    }
+
+    /**
+     * Propaga la distribución desde el estado inicial (índice 0) por la cadena
+     * ya construida, recorriendo en cada turno solo los estados con
+     * probabilidad. Las probabilidades menores que {@value #UMBRAL_PODA} se
+     * descartan (quedan en {@code p.descartada}): no cambian ningún resultado
+     * visible y evitan que el soporte crezca con colas ínfimas y que la
+     * aritmética caiga en números subnormales, mucho más lentos.
+     *
+     * @return Distribución final, indexada como la cadena (pertenece al propagador).
+     */
+    private double[] propagar(long turnos, Propagador p) {
+        p.preparar();
+        double[] actual = p.v[0];
+        double[] nuevo = p.v[1];
+        int[] activos = p.activos[0];
+        int[] nuevosActivos = p.activos[1];
+        int[] destinos = p.destino;
+        double[] pesos = p.peso;
+        actual[0] = 1.0;
+        activos[0] = 0;
+        int cantidad = 1;
+        double descartada = 0.0;
+        p.estable = false;
+        long t = 0;
+        while (t < turnos) {
+            int nuevos = 0;
+            for (int a = 0; a < cantidad; a++) {
+                int j = activos[a];
+                double q = actual[j];
+                actual[j] = 0.0;
+                for (int k = 3 * j, fin = k + 3; k < fin; k++) {
+                    double w = pesos[k];
+                    if (w != 0.0) {
+                        // Sin saltos condicionales: el destino se anota siempre y solo
+                        // avanza la cuenta si es la primera probabilidad que recibe
+                        int d = destinos[k];
+                        double previa = nuevo[d];
+                        nuevosActivos[nuevos] = d;
+                        nuevos += previa == 0.0 ? 1 : 0;
+                        nuevo[d] = previa + q * w;
+                    }
+                }
+            }
+            cantidad = 0;
+            for (int a = 0; a < nuevos; a++) {
+                int d = nuevosActivos[a];
+                double q = nuevo[d];
+                boolean queda = q >= UMBRAL_PODA;
+                nuevosActivos[cantidad] = d;
+                cantidad += queda ? 1 : 0;
+                nuevo[d] = queda ? q : 0.0;
+                descartada += queda ? 0.0 : q;
+            }
+            double[] cambio = actual;
+            actual = nuevo;
+            nuevo = cambio;
+            int[] cambioActivos = activos;
+            activos = nuevosActivos;
+            nuevosActivos = cambioActivos;
+            t++;
+
+            // Se compara con la muestra de VENTANA turnos antes, tomada en turnos de
+            // la misma paridad que el final: así las cadenas de período 2 también paran
+            if ((t - (turnos & 1)) % VENTANA == 0 && p.comparar(actual, activos, cantidad) <= tolerancia) {
+                p.estable = true;
+                break;
+            }
+        }
+        p.turnosCalculados = t;
+        p.descartada = descartada;
+        p.resultado = actual;
+        p.resultadoActivos = activos;
+        p.resultadoCantidad = cantidad;
+        return actual;
+    }
+
+    public double getTolerancia() {
+        return tolerancia;
+    }
+
+    /**
+     * @param tolerancia Distancia L1 entre la distribución de un turno y la de
+     * {@value #VENTANA} turnos antes por debajo de la cual se deja de propagar
+     * (0 para no cortar nunca antes de tiempo).
+     */
+    public void setTolerancia(double tolerancia) {
+        this.tolerancia = tolerancia;
+    }
+
+    /** @return Cantidad de combinaciones equiprobables por conflicto. */
+    public int getCombinaciones() {
+        return combinaciones;
+    }
+
+    /** @return Memoria ocupada por las probabilidades guardadas, en bytes. */
+    public long getBytes() {
+        return bytesReservados.get();
+    }
+
+    /**
+     * Cadena de estados alcanzables de un Humano, con índices consecutivos en
+     * orden de recorrido, y los búferes de distribuciones sobre ella. Un hilo
+     * la reutiliza de un Humano al siguiente.
+     */
+    private static final class Propagador {
+        /** Índice local de cada estado global (-1 si no está en la cadena). */
+        final int[] local = new int[ESTADOS];
+        int n;
+        int[] global = new int[1024];
+        int[] profundidad = new int[1024];
+        int[] destino = new int[3 * 1024];
+        double[] peso = new double[3 * 1024];
+        /** Dos distribuciones que se alternan turno a turno; fuera de sus activos valen cero. */
+        final double[][] v = new double[2][0];
+        /** Índices con probabilidad de cada distribución. */
+        final int[][] activos = new int[2][0];
+        /** Muestra de la distribución tomada cada {@code VENTANA} turnos, y sus índices con probabilidad. */
+        double[] muestra = new double[0];
+        int[] muestraActivos = new int[0];
+        int muestraCantidad;
+        final Escena escena = new Escena();
+        long turnosCalculados;
+        boolean estable;
+        /** Probabilidad descartada por poda en la última propagación. */
+        double descartada;
+        /** Distribución devuelta por la última propagación, con sus índices con probabilidad. */
+        double[] resultado;
+        int[] resultadoActivos;
+        int resultadoCantidad;
+
+        Propagador() {
+            Arrays.fill(local, -1);
+        }
+
+        void reiniciar() {
+            for (int j = 0; j < n; j++) {
+                local[global[j]] = -1;
+            }
+            n = 0;
+        }
+
+        /** @return Índice local del estado, agregándolo si no estaba. */
+        int agregar(int estado, int distancia) {
+            int j = local[estado];
+            if (j >= 0) {
+                return j;
+            }
+            if (n == global.length) {
+                int capacidad = Math.min(ESTADOS, 2 * n);
+                global = Arrays.copyOf(global, capacidad);
+                profundidad = Arrays.copyOf(profundidad, capacidad);
+                destino = Arrays.copyOf(destino, 3 * capacidad);
+                peso = Arrays.copyOf(peso, 3 * capacidad);
+            }
+            global[n] = estado;
+            profundidad[n] = distancia;
+            local[estado] = n;
+            return n++;
+        }
+
+        /** Da a los búferes lugar para la cadena actual y descarta la muestra anterior. */
+        void preparar() {
+            if (v[0].length < n) {
+                int capacidad = global.length;
+                for (int b = 0; b < 2; b++) {
+                    v[b] = new double[capacidad];
+                    activos[b] = new int[capacidad];
+                }
+                muestra = new double[capacidad];
+                muestraActivos = new int[capacidad];
+            } else {
+                // Lo único distinto de cero es el resultado y la muestra anteriores
+                for (int a = 0; a < resultadoCantidad; a++) {
+                    resultado[resultadoActivos[a]] = 0.0;
+                }
+                for (int a = 0; a < muestraCantidad; a++) {
+                    muestra[muestraActivos[a]] = 0.0;
+                }
+            }
+            resultadoCantidad = 0;
+            // Sin muestra previa la primera comparación nunca da estable
+            muestraCantidad = -1;
+        }
+
+        /**
+         * Compara la distribución con la muestra anterior y la reemplaza por ella.
+         *
+         * @return Distancia L1 a la muestra anterior (infinita si no había).
+         */
+        double comparar(double[] actual, int[] indices, int cantidad) {
+            double distancia = 0.0;
+            for (int a = 0; a < cantidad; a++) {
+                int j = indices[a];
+                distancia += Math.abs(actual[j] - muestra[j]);
+            }
+            for (int a = 0; a < muestraCantidad; a++) {
+                int j = muestraActivos[a];
+                if (actual[j] == 0.0) {
+                    distancia += muestra[j];
+                }
+                muestra[j] = 0.0;
+            }
+            if (muestraCantidad < 0) {
+                distancia = Double.POSITIVE_INFINITY;
+            }
+            for (int a = 0; a < cantidad; a++) {
+                int j = indices[a];
+                muestra[j] = actual[j];
+                muestraActivos[a] = j;
+            }
+            muestraCantidad = cantidad;
+            return distancia;
+        }
+    }
+
+    /** Humano y búferes reutilizables de un hilo para calcular conteos. */
+    static final class Escena {
+        final HumanoFila humano = PoblacionHumana.vacia(1, 0).nuevoCursor();
+        final Visitas visitas = new Visitas();
+        private double[] puntajesAngel = new double[0];
+        /** -ln(empates / combinaciones) por cantidad de empates (0 si no se calculó). */
+        private double[] tasasEmpates = new double[0];
+
+        /** @return El Humano del hilo con esa inteligencia y ese estado. */
+        HumanoFila humano(int inteligencia, int estado) {
+            humano.setInteligencia(inteligencia);
+            humano.setBondad(bondad(estado));
+            humano.setMaldad(maldad(estado));
+            humano.setFe(fe(estado));
+            return humano;
+        }
+
+        /** @return -ln(empates / combinaciones), calculado una sola vez por cantidad de empates. */
+        double tasaEmpates(int empates, int combinaciones) {
+            if (tasasEmpates.length <= combinaciones) {
+                tasasEmpates = new double[combinaciones + 1];
+            }
+            double tasa = tasasEmpates[empates];
+            if (tasa == 0.0) {
+                tasa = -Math.log((double) empates / combinaciones);
+                tasasEmpates[empates] = tasa;
+            }
+            return tasa;
+        }
+
+        double[] puntajesAngel(int tamanio) {
+            if (puntajesAngel.length < tamanio) {
+                puntajesAngel = new double[tamanio];
+            }
+            return puntajesAngel;
+        }
+    }
+
+    /**
+     * Visitas de un Humano a cada estado mientras recorre la cadena, en una
+     * tabla de direccionamiento abierto que se vacía entre Humanos.
+     */
+    static final class Visitas {
+        /** Estado + 1 de cada casilla (0 si está libre). */
+        private int[] claves = new int[1024];
+        private int[] cuentas = new int[1024];
+        private int[] ocupadas = new int[512];
+        private int cantidad;
+
+        /** @return Visitas al estado, contando esta. */
+        int anotar(int estado) {
+            int mascara = claves.length - 1;
+            int k = (estado * 0x9E3779B9) >>> 8 & mascara;
+            while (claves[k] != 0 && claves[k] != estado + 1) {
+                k = (k + 1) & mascara;
+            }
+            if (claves[k] == 0) {
+                if (2 * (cantidad + 1) > claves.length) {
+                    agrandar();
+                    return anotar(estado);
+                }
+                claves[k] = estado + 1;
+                ocupadas[cantidad++] = k;
+            }
+            return ++cuentas[k];
+        }
+
+        void limpiar() {
+            for (int i = 0; i < cantidad; i++) {
+                claves[ocupadas[i]] = 0;
+                cuentas[ocupadas[i]] = 0;
+            }
+            cantidad = 0;
+        }
+
+        private void agrandar() {
+            int[] viejasClaves = claves;
+            int[] viejasCuentas = cuentas;
+            int[] viejasOcupadas = ocupadas;
+            int viejaCantidad = cantidad;
+            claves = new int[2 * viejasClaves.length];
+            cuentas = new int[claves.length];
+            ocupadas = new int[claves.length / 2];
+            cantidad = 0;
+            int mascara = claves.length - 1;
+            for (int i = 0; i < viejaCantidad; i++) {
+                int estado = viejasClaves[viejasOcupadas[i]] - 1;
+                int k = (estado * 0x9E3779B9) >>> 8 & mascara;
+                while (claves[k] != 0) {
+                    k = (k + 1) & mascara;
+                }
+                claves[k] = estado + 1;
+                cuentas[k] = viejasCuentas[viejasOcupadas[i]];
+                ocupadas[cantidad++] = k;
+            }
+        }
+    }
+
+    /**
+     * Avanza una batalla con el modelo y muestra cuántos Humanos quedan salvados.
+     * <p>
+     * Uso: {@code java analitico.ModeloMarkov [humanos] [angeles] [demonios] [turnos] [semilla]}
+     * </p>
+     */
+    public static void main(String[] args) {
+        int humanos = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int numAngeles = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int numDemonios = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int turnos = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+        long semilla = args.length > 4 ? Long.parseLong(args[4]) : ThreadLocalRandom.current().nextLong();
+
+        Simulacion simulacion = new Simulacion(new ParametrosBatalla(humanos, numAngeles, numDemonios, turnos, semilla));
+        long inicio = System.nanoTime();
+        simulacion.avanzarAnaliticamente(turnos);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        int salvados = simulacion.resultado().getSalvados();
+        System.out.printf(Locale.ROOT, "Semilla %d: %d Humanos, %d Ángeles, %d Demonios, %d turnos%n",
+                semilla, humanos, numAngeles, numDemonios, turnos);
+        System.out.printf(Locale.ROOT, "Salvados: %d de %d (%.2f%%)%n",
+                salvados, humanos, humanos == 0 ? 0.0 : 100.0 * salvados / humanos);
+        System.out.printf(Locale.ROOT, "Tiempo: %.3f s%n", segundos);
+    }
+}
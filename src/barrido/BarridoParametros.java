@@ -0,0 +1,321 @@
+package barrido;
+
+import montecarlo.ConjuntoMonteCarlo;
+import montecarlo.ResumenConjunto;
+import emparejamiento.Emparejador;
+import entidades.incorporeas.PoliticaDios;
+import motor.ParametrosBatalla;
+import motor.ResultadoBatalla;
+import motor.Simulacion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Barrido de parámetros: ejecuta la batalla para cada combinación de cantidades
+ * de Humanos, Ángeles, Demonios y turnos de una grilla, con varias réplicas por
+ * combinación.
+ * <p>
+ * Cada punto del barrido (una combinación y una réplica) es una batalla
+ * independiente con su propia semilla, derivada de la semilla maestra igual
+ * que en {@link ConjuntoMonteCarlo}: el resumen de cada combinación es el mismo
+ * que daría un conjunto Monte Carlo con esos parámetros. Los puntos se reparten
+ * entre todos los núcleos y cada uno ejecuta sus turnos en secuencia.
+ * </p>
+ * <p>
+ * Con una {@link CacheResultados} cada punto terminado se guarda en disco
+ * apenas se calcula, y antes de simular un punto se lo busca ahí: un barrido
+ * interrumpido se retoma donde quedó, y uno ampliado (más valores, más
+ * réplicas) solo calcula los puntos nuevos. Los resultados se guardan con una
+ * huella de la configuración (el código de las reglas, el emparejador y la
+ * política de Dios), así que un cambio en cualquiera de ellas no reutiliza
+ * resultados viejos.
+ * </p>
+ */
+public class BarridoParametros {
+
+    private final int[] humanos;
+    private final int[] angeles;
+    private final int[] demonios;
+    private final int[] turnos;
+    private final long semillaMaestra;
+    private final int replicas;
+    private final ForkJoinPool pool;
+
+    private CacheResultados cache;
+    private PoliticaDios politica;
+    private Consumer<ResultadoBatalla> observador;
+
+    /**
+     * @param humanos Cantidades de Humanos a probar.
+     * @param angeles Cantidades de Ángeles a probar.
+     * @param demonios Cantidades de Demonios a probar.
+     * @param turnos Cantidades de turnos a probar.
+     * @param semillaMaestra Semilla maestra de las réplicas de cada combinación.
+     * @param replicas Réplicas por combinación.
+     */
+    public BarridoParametros(int[] humanos, int[] angeles, int[] demonios, int[] turnos,
+                             long semillaMaestra, int replicas) {
+        this(humanos, angeles, demonios, turnos, semillaMaestra, replicas, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param humanos Cantidades de Humanos a probar.
+     * @param angeles Cantidades de Ángeles a probar.
+     * @param demonios Cantidades de Demonios a probar.
+     * @param turnos Cantidades de turnos a probar.
+     * @param semillaMaestra Semilla maestra de las réplicas de cada combinación.
+     * @param replicas Réplicas por combinación.
+     * @param pool Pool en el que se reparten los puntos.
+     */
+    public BarridoParametros(int[] humanos, int[] angeles, int[] demonios, int[] turnos,
+                             long semillaMaestra, int replicas, ForkJoinPool pool) {
+        if (replicas < 1) {
+            throw new IllegalArgumentException("se necesita al menos una réplica");
+        }
+        if (humanos.length == 0 || angeles.length == 0 || demonios.length == 0 || turnos.length == 0) {
+            throw new IllegalArgumentException("cada parámetro necesita al menos un valor");
+        }
+        this.humanos = humanos.clone();
+        this.angeles = angeles.clone();
+        this.demonios = demonios.clone();
+        this.turnos = turnos.clone();
+        this.semillaMaestra = semillaMaestra;
+        this.replicas = replicas;
+        this.pool = pool;
+    }
+
+    /**
+     * Guarda y reutiliza los resultados en una caché en disco.
+     *
+     * @param cache Caché de resultados, o null para calcular todo en memoria.
+     */
+    public void setCache(CacheResultados cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Política de Dios de todas las batallas del barrido; se comparte entre
+     * batallas que corren en paralelo. Su {@code toString()}
+     * forma parte de la huella de la caché: debe describir la política y sus
+     * parámetros, como el de {@link entidades.incorporeas.PoliticaPorSalvados}.
+     * Una lambda no tiene una descripción estable entre ejecuciones, así que
+     * sus resultados no se reutilizan.
+     *
+     * @param politica Política de Dios, o null para dejar fijos los entes.
+     */
+    public void setPolitica(PoliticaDios politica) {
+        this.politica = politica;
+    }
+
+    /**
+     * Recibe cada resultado apenas está disponible (calculado o tomado de la
+     * caché), desde cualquiera de los hilos del pool y sin orden.
+     *
+     * @param observador Observador de resultados, o null para ninguno.
+     */
+    public void setObservador(Consumer<ResultadoBatalla> observador) {
+        this.observador = observador;
+    }
+
+    /**
+     * @return Combinaciones de la grilla, con la semilla maestra. Varían primero
+     * los turnos, luego los Demonios, los Ángeles y por último los Humanos.
+     */
+    public List<ParametrosBatalla> combinaciones() {
+        List<ParametrosBatalla> lista = new ArrayList<>(humanos.length * angeles.length * demonios.length * turnos.length);
+        for (int h : humanos) {
+            for (int a : angeles) {
+                for (int d : demonios) {
+                    for (int t : turnos) {
+                        lista.add(new ParametrosBatalla(h, a, d, t, semillaMaestra));
+                    }
+                }
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * @return Todas las batallas del barrido, con la semilla de su réplica:
+     * para cada combinación, sus réplicas en orden.
+     */
+    public List<ParametrosBatalla> puntos() {
+        List<ParametrosBatalla> combinaciones = combinaciones();
+        List<ParametrosBatalla> lista = new ArrayList<>(combinaciones.size() * replicas);
+        for (ParametrosBatalla c : combinaciones) {
+            for (int r = 0; r < replicas; r++) {
+                lista.add(new ParametrosBatalla(c.getHumanos(), c.getAngeles(), c.getDemonios(), c.getTurnos(),
+                        ConjuntoMonteCarlo.semillaReplica(semillaMaestra, r)));
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Ejecuta todos los puntos del barrido que no estén en la caché.
+     *
+     * @throws UncheckedIOException si la caché no se puede leer o escribir.
+     */
+    public ResultadoBarrido ejecutar() {
+        List<ParametrosBatalla> combinaciones = combinaciones();
+        List<ParametrosBatalla> puntos = puntos();
+        ResultadoBatalla[] resultados = new ResultadoBatalla[puntos.size()];
+        AtomicInteger calculados = new AtomicInteger();
+        AtomicInteger reutilizados = new AtomicInteger();
+        String huella = cache == null ? null : huella();
+
+        pool.submit(() -> IntStream.range(0, puntos.size()).parallel().forEach(k -> {
+            ParametrosBatalla p = puntos.get(k);
+            ResultadoBatalla resultado = buscar(huella, p);
+            if (resultado != null) {
+                reutilizados.incrementAndGet();
+            } else {
+                resultado = simular(p);
+                guardar(huella, resultado);
+                calculados.incrementAndGet();
+            }
+            resultados[k] = resultado;
+            if (observador != null) {
+                observador.accept(resultado);
+            }
+        })).join();
+
+        return new ResultadoBarrido(combinaciones, replicas, resultados, calculados.get(), reutilizados.get());
+    }
+
+    /**
+     * @return Configuración con que se simulan las batallas, para la clave de
+     * la caché. Las simulaciones del barrido usan siempre el emparejador por
+     * defecto del motor.
+     */
+    private String huella() {
+        return "reglas=" + CacheResultados.huellaCodigo()
+                + ";emparejador=" + Emparejador.UNIFORME.getClass().getName()
+                + ";politica=" + (politica == null ? "ninguna" : politica.toString());
+    }
+
+    private ResultadoBatalla simular(ParametrosBatalla p) {
+        Simulacion simulacion = new Simulacion(p);
+        simulacion.setPolitica(politica);
+        for (int t = 0; t < p.getTurnos(); t++) {
+            simulacion.ejecutarTurnoSecuencial();
+        }
+        return simulacion.resultado();
+    }
+
+    private ResultadoBatalla buscar(String huella, ParametrosBatalla p) {
+        if (cache == null) {
+            return null;
+        }
+        try {
+            return cache.buscar(huella, p);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void guardar(String huella, ResultadoBatalla resultado) {
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.guardar(huella, resultado);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Interpreta una lista de valores: valores sueltos separados por comas y
+     * rangos {@code desde..hasta} (inclusive), con paso opcional
+     * {@code desde..hasta:paso}. Por ejemplo {@code "1,2,4"}, {@code "1..5"},
+     * {@code "10..100:10"} o {@code "1,5..7"}.
+     *
+     * @param texto Lista de valores.
+     * @return Los valores, en el orden en que aparecen.
+     * @throws IllegalArgumentException si el texto no es una lista válida.
+     */
+    public static int[] valores(String texto) {
+        IntStream.Builder valores = IntStream.builder();
+        for (String parte : texto.split(",")) {
+            parte = parte.trim();
+            int rango = parte.indexOf("..");
+            if (rango < 0) {
+                valores.add(Integer.parseInt(parte));
+                continue;
+            }
+            int paso = 1;
+            String fin = parte.substring(rango + 2);
+            int dosPuntos = fin.indexOf(':');
+            if (dosPuntos >= 0) {
+                paso = Integer.parseInt(fin.substring(dosPuntos + 1));
+                fin = fin.substring(0, dosPuntos);
+            }
+            if (paso <= 0) {
+                throw new IllegalArgumentException("el paso debe ser mayor que cero: " + parte);
+            }
+            int desde = Integer.parseInt(parte.substring(0, rango));
+            int hasta = Integer.parseInt(fin);
+            if (hasta < desde) {
+                throw new IllegalArgumentException("rango vacío: " + parte);
+            }
+            for (long v = desde; v <= hasta; v += paso) {
+                valores.add((int) v);
+            }
+        }
+        return valores.build().toArray();
+    }
+
+    /**
+     * Uso: {@code java barrido.BarridoParametros humanos angeles demonios turnos replicas [semilla] [directorioCache]},
+     * donde cada cantidad es una lista de valores como las de {@link #valores(String)}.
+     * <p>
+     * Escribe en la salida estándar una línea CSV por combinación con la
+     * fracción de salvados (media e intervalo de confianza del 95 %), y en la
+     * de errores el tiempo y cuántos puntos salieron de la caché.
+     * </p>
+     * Ejemplo: {@code java barrido.BarridoParametros 100 1..5 1..5 10,20 200 42 cache-barrido}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.err.println("Uso: java barrido.BarridoParametros humanos angeles demonios turnos replicas [semilla] [directorioCache]");
+            System.exit(2);
+        }
+        int[] humanos = valores(args[0]);
+        int[] angeles = valores(args[1]);
+        int[] demonios = valores(args[2]);
+        int[] turnos = valores(args[3]);
+        int replicas = Integer.parseInt(args[4]);
+        long semilla = args.length > 5 ? Long.parseLong(args[5]) : ThreadLocalRandom.current().nextLong();
+
+        BarridoParametros barrido = new BarridoParametros(humanos, angeles, demonios, turnos, semilla, replicas);
+        if (args.length > 6) {
+            barrido.setCache(new CacheResultados(Path.of(args[6])));
+        }
+        long inicio = System.nanoTime();
+        ResultadoBarrido resultado = barrido.ejecutar();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.println("humanos,angeles,demonios,turnos,replicas,fraccionSalvados,inferior,superior");
+        for (ResumenConjunto resumen : resultado.getResumenes()) {
+            ParametrosBatalla p = resumen.getParametros();
+            System.out.printf(Locale.ROOT, "%d,%d,%d,%d,%d,%.6f,%.6f,%.6f%n",
+                    p.getHumanos(), p.getAngeles(), p.getDemonios(), p.getTurnos(), resumen.getReplicas(),
+                    resumen.getFraccionSalvados().getMedia(), resumen.getFraccionSalvados().getInferior(),
+                    resumen.getFraccionSalvados().getSuperior());
+        }
+        System.err.printf(Locale.ROOT, "%d combinaciones x %d réplicas (semilla %d) en %.2f s: %d calculados, %d de la caché%n",
+                resultado.getResumenes().size(), replicas, semilla, segundos,
+                resultado.getCalculados(), resultado.getReutilizados());
+    }
+}
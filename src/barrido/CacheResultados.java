@@ -0,0 +1,335 @@
+package barrido;
+
+import motor.ParametrosBatalla;
+import motor.ResultadoBatalla;
+import motor.Simulacion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Caché en disco de resultados de batallas, un registro de solo agregado por
+ * combinación de parámetros.
+ * <p>
+ * Una batalla queda determinada por sus {@link ParametrosBatalla} (incluida la
+ * semilla) y por la configuración con que se simuló: el código de las reglas,
+ * el emparejador y la política de Dios. Esa configuración se resume en una
+ * huella (por ejemplo {@link #huellaCodigo()} más la descripción del
+ * emparejador y la política) que forma parte de la clave: cambiar las reglas o
+ * la configuración lleva a otros archivos, sin tener que invalidar nada a mano.
+ * </p>
+ * <p>
+ * Todas las réplicas de una combinación (Humanos, Ángeles, Demonios, turnos y
+ * huella) van al mismo archivo: una cabecera con la clave y luego un registro
+ * de tamaño fijo por réplica, identificado por su semilla. Cada resultado se
+ * agrega con una sola escritura bajo un bloqueo del archivo, así que varios
+ * procesos pueden compartir el directorio. Un registro a medio escribir por un
+ * proceso interrumpido se ignora al leer y se descarta antes del siguiente
+ * agregado. Cada archivo se lee una sola vez por instancia; los resultados
+ * guardados después se agregan también en memoria.
+ * </p>
+ */
+public final class CacheResultados {
+
+    /** "ALML" en ASCII. */
+    private static final int MAGIA = 0x414C4D4C;
+    /** Versión del formato de los archivos (no de las reglas: esas van en la huella). */
+    private static final int FORMATO = 2;
+    private static final String EXTENSION = ".log";
+    /** Semilla (long), salvados (int) y medias de bondad, maldad y fe (double). */
+    private static final int TAMANIO_REGISTRO = 8 + 4 + 3 * 8;
+    /** Paquetes cuyo código decide el resultado de una batalla. */
+    private static final String[] PAQUETES_REGLAS = {
+            "aleatorio", "emparejamiento", "entidades", "motor", "subClases", "superclase"};
+
+    private static volatile String huellaCodigo;
+
+    private final Path directorio;
+    /** Réplicas conocidas de cada archivo, por semilla (null si el archivo no es de esta clave). */
+    private final Map<Path, Combinacion> combinaciones = new ConcurrentHashMap<>();
+
+    /** Contenido conocido del archivo de una combinación. */
+    private static final class Combinacion {
+        final int longitudCabecera;
+        final Map<Long, Registro> registros = new ConcurrentHashMap<>();
+
+        Combinacion(int longitudCabecera) {
+            this.longitudCabecera = longitudCabecera;
+        }
+    }
+
+    /** Resultado guardado de una réplica. */
+    private static final class Registro {
+        final int salvados;
+        final double bondad;
+        final double maldad;
+        final double fe;
+
+        Registro(int salvados, double bondad, double maldad, double fe) {
+            this.salvados = salvados;
+            this.bondad = bondad;
+            this.maldad = maldad;
+            this.fe = fe;
+        }
+    }
+
+    /**
+     * @param directorio Directorio de la caché; se crea si no existe.
+     * @throws IOException si no se puede crear el directorio.
+     */
+    public CacheResultados(Path directorio) throws IOException {
+        this.directorio = Files.createDirectories(directorio);
+    }
+
+    /**
+     * @param huella Configuración con que se simularon las batallas.
+     * @param parametros Parámetros de la batalla (la semilla no influye).
+     * @return Archivo donde se guardan (o guardarían) las réplicas de esa combinación.
+     */
+    public Path archivo(String huella, ParametrosBatalla parametros) {
+        return directorio.resolve(String.format("h%d-a%d-d%d-t%d-%s%s",
+                parametros.getHumanos(), parametros.getAngeles(), parametros.getDemonios(),
+                parametros.getTurnos(), resumen(huella), EXTENSION));
+    }
+
+    /**
+     * Busca el resultado guardado de una batalla.
+     *
+     * @param huella Configuración con que se simula la batalla.
+     * @param parametros Parámetros de la batalla, incluida su semilla.
+     * @return El resultado guardado, o null si no está (o el archivo no es de esta clave).
+     * @throws IOException si el archivo existe pero no se puede leer.
+     */
+    public ResultadoBatalla buscar(String huella, ParametrosBatalla parametros) throws IOException {
+        Combinacion c = combinacion(huella, parametros);
+        Registro r = c == null ? null : c.registros.get(parametros.getSemilla());
+        return r == null ? null : new ResultadoBatalla(parametros, r.salvados, r.bondad, r.maldad, r.fe);
+    }
+
+    /**
+     * Agrega el resultado de una batalla al archivo de su combinación. Si el
+     * archivo existe pero pertenece a otra clave (una colisión del resumen de
+     * la huella), el resultado no se guarda.
+     *
+     * @param huella Configuración con que se simuló la batalla.
+     * @param resultado Resultado a guardar; su clave son sus parámetros.
+     * @throws IOException si no se puede escribir.
+     */
+    public void guardar(String huella, ResultadoBatalla resultado) throws IOException {
+        ParametrosBatalla p = resultado.getParametros();
+        Path archivo = archivo(huella, p);
+        crearSiFalta(archivo, cabecera(huella, p));
+        Combinacion c = combinacion(huella, p);
+        if (c == null) {
+            return;
+        }
+
+        ByteBuffer registro = ByteBuffer.allocate(TAMANIO_REGISTRO);
+        registro.putLong(p.getSemilla());
+        registro.putInt(resultado.getSalvados());
+        registro.putDouble(resultado.getMediaBondad());
+        registro.putDouble(resultado.getMediaMaldad());
+        registro.putDouble(resultado.getMediaFe());
+        registro.flip();
+        // El bloqueo del archivo excluye a otros procesos; el del objeto, a otros hilos de este
+        synchronized (c) {
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+                FileLock bloqueo = canal.lock();
+                try {
+                    long tamanio = canal.size();
+                    long sobrante = (tamanio - c.longitudCabecera) % TAMANIO_REGISTRO;
+                    if (sobrante != 0) {
+                        // Registro incompleto de un proceso interrumpido
+                        canal.truncate(tamanio - sobrante);
+                    }
+                    canal.position(canal.size());
+                    while (registro.hasRemaining()) {
+                        canal.write(registro);
+                    }
+                } finally {
+                    bloqueo.release();
+                }
+            }
+        }
+        c.registros.put(p.getSemilla(), new Registro(resultado.getSalvados(), resultado.getMediaBondad(),
+                resultado.getMediaMaldad(), resultado.getMediaFe()));
+    }
+
+    /** @return Réplicas conocidas de la combinación, leyendo su archivo la primera vez; null si no es de esta clave. */
+    private Combinacion combinacion(String huella, ParametrosBatalla p) throws IOException {
+        Path archivo = archivo(huella, p);
+        Combinacion c = combinaciones.get(archivo);
+        if (c != null) {
+            return c;
+        }
+        byte[] esperada = cabecera(huella, p);
+        byte[] contenido;
+        try {
+            contenido = Files.readAllBytes(archivo);
+        } catch (NoSuchFileException e) {
+            // Todavía no hay réplicas: no se recuerda, para leerlo cuando alguien lo cree
+            return new Combinacion(esperada.length);
+        }
+        if (contenido.length < esperada.length
+                || !MessageDigest.isEqual(esperada, Arrays.copyOf(contenido, esperada.length))) {
+            return null;
+        }
+        Combinacion leida = new Combinacion(esperada.length);
+        ByteBuffer registros = ByteBuffer.wrap(contenido, esperada.length, contenido.length - esperada.length);
+        while (registros.remaining() >= TAMANIO_REGISTRO) {
+            long semilla = registros.getLong();
+            leida.registros.put(semilla, new Registro(registros.getInt(),
+                    registros.getDouble(), registros.getDouble(), registros.getDouble()));
+        }
+        Combinacion previa = combinaciones.putIfAbsent(archivo, leida);
+        return previa != null ? previa : leida;
+    }
+
+    /** Crea el archivo con su cabecera si no existe, sin pisar el de otro proceso. */
+    private void crearSiFalta(Path archivo, byte[] cabecera) throws IOException {
+        if (Files.exists(archivo)) {
+            return;
+        }
+        Path temporal = Files.createTempFile(directorio, archivo.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporal, cabecera);
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Otro hilo o proceso lo creó primero
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /** Cabecera del archivo de una combinación: formato, clave completa y parámetros. */
+    private static byte[] cabecera(String huella, ParametrosBatalla p) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream salida = new DataOutputStream(bytes);
+            salida.writeInt(MAGIA);
+            salida.writeInt(FORMATO);
+            salida.writeUTF(huella);
+            salida.writeInt(p.getHumanos());
+            salida.writeInt(p.getAngeles());
+            salida.writeInt(p.getDemonios());
+            salida.writeInt(p.getTurnos());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** @return Los primeros 64 bits del SHA-256 de la huella, en hexadecimal. */
+    private static String resumen(String huella) {
+        return HexFormat.of().formatHex(sha256().digest(huella.getBytes(StandardCharsets.UTF_8)), 0, 8);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Huella del código que decide el resultado de una batalla: el SHA-256 de
+     * los archivos de clase de los paquetes de las reglas (aleatorio,
+     * emparejamiento, entidades, motor, subClases y superclase), leídos de
+     * donde se cargó {@link Simulacion}. Cualquier cambio recompilado en esas
+     * clases da otra huella. Se calcula una vez por proceso.
+     *
+     * @return La huella en hexadecimal.
+     * @throws UncheckedIOException si no se pueden leer las clases.
+     */
+    public static String huellaCodigo() {
+        String huella = huellaCodigo;
+        if (huella == null) {
+            huella = calcularHuellaCodigo();
+            huellaCodigo = huella;
+        }
+        return huella;
+    }
+
+    private static String calcularHuellaCodigo() {
+        MessageDigest digest = sha256();
+        try {
+            Path origen = Path.of(Simulacion.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (Files.isDirectory(origen)) {
+                for (String paquete : PAQUETES_REGLAS) {
+                    Path raiz = origen.resolve(paquete);
+                    if (!Files.isDirectory(raiz)) {
+                        continue;
+                    }
+                    List<Path> clases;
+                    try (Stream<Path> recorrido = Files.walk(raiz)) {
+                        clases = new ArrayList<>(recorrido.filter(f -> f.toString().endsWith(".class")).toList());
+                    }
+                    Collections.sort(clases);
+                    for (Path clase : clases) {
+                        digest.update(origen.relativize(clase).toString().replace('\\', '/')
+                                .getBytes(StandardCharsets.UTF_8));
+                        digest.update(Files.readAllBytes(clase));
+                    }
+                }
+            } else {
+                try (JarFile jar = new JarFile(origen.toFile())) {
+                    List<JarEntry> clases = new ArrayList<>();
+                    for (JarEntry entrada : Collections.list(jar.entries())) {
+                        if (entrada.getName().endsWith(".class") && esDeReglas(entrada.getName())) {
+                            clases.add(entrada);
+                        }
+                    }
+                    clases.sort((a, b) -> a.getName().compareTo(b.getName()));
+                    for (JarEntry clase : clases) {
+                        digest.update(clase.getName().getBytes(StandardCharsets.UTF_8));
+                        digest.update(jar.getInputStream(clase).readAllBytes());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el código de las reglas", e);
+        } catch (URISyntaxException | SecurityException | NullPointerException e) {
+            throw new UncheckedIOException(new IOException("No se encuentra el código de las reglas", e));
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static boolean esDeReglas(String nombre) {
+        for (String paquete : PAQUETES_REGLAS) {
+            if (nombre.startsWith(paquete + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Path getDirectorio() {
+        return directorio;
+    }
+}
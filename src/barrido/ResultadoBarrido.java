@@ -0,0 +1,76 @@
+package barrido;
+
+import montecarlo.ResumenConjunto;
+import motor.ParametrosBatalla;
+import motor.ResultadoBatalla;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultados de un {@link BarridoParametros}: el de cada batalla y, por cada
+ * combinación de parámetros, el resumen de sus réplicas.
+ */
+public final class ResultadoBarrido {
+
+    private final List<ResultadoBatalla> resultados;
+    private final List<ResumenConjunto> resumenes;
+    private final int calculados;
+    private final int reutilizados;
+
+    /**
+     * @param combinaciones Combinaciones de parámetros, con la semilla maestra de sus réplicas.
+     * @param replicas Réplicas por combinación.
+     * @param resultados Resultado de cada batalla, combinación por combinación y
+     *                   dentro de cada una réplica por réplica.
+     * @param calculados Batallas simuladas en este barrido.
+     * @param reutilizados Batallas tomadas de la caché.
+     */
+    ResultadoBarrido(List<ParametrosBatalla> combinaciones, int replicas, ResultadoBatalla[] resultados,
+                     int calculados, int reutilizados) {
+        this.resultados = List.of(resultados);
+        this.calculados = calculados;
+        this.reutilizados = reutilizados;
+        List<ResumenConjunto> lista = new ArrayList<>(combinaciones.size());
+        for (int c = 0; c < combinaciones.size(); c++) {
+            int[] salvados = new int[replicas];
+            double[] bondad = new double[replicas];
+            double[] maldad = new double[replicas];
+            double[] fe = new double[replicas];
+            for (int r = 0; r < replicas; r++) {
+                ResultadoBatalla resultado = resultados[c * replicas + r];
+                salvados[r] = resultado.getSalvados();
+                bondad[r] = resultado.getMediaBondad();
+                maldad[r] = resultado.getMediaMaldad();
+                fe[r] = resultado.getMediaFe();
+            }
+            lista.add(new ResumenConjunto(combinaciones.get(c), salvados, bondad, maldad, fe));
+        }
+        this.resumenes = Collections.unmodifiableList(lista);
+    }
+
+    /** @return Resultado de cada batalla, en el orden de {@link BarridoParametros#puntos()}. */
+    public List<ResultadoBatalla> getResultados() {
+        return resultados;
+    }
+
+    /**
+     * @return Un resumen por combinación de parámetros, en el orden de
+     * {@link BarridoParametros#combinaciones()}. Cada uno es igual al de un
+     * {@code ConjuntoMonteCarlo} con esos parámetros y réplicas.
+     */
+    public List<ResumenConjunto> getResumenes() {
+        return resumenes;
+    }
+
+    /** @return Batallas simuladas en este barrido. */
+    public int getCalculados() {
+        return calculados;
+    }
+
+    /** @return Batallas cuyo resultado se tomó de la caché. */
+    public int getReutilizados() {
+        return reutilizados;
+    }
+}
@@ -0,0 +1,503 @@
+package distribuido;
+
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import estadisticas.EstadisticasTurno;
+import motor.ParametrosBatalla;
+import motor.ResultadoBatalla;
+import motor.Simulacion;
+import subClases.Incorporeo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static distribuido.ProtocoloDistribuido.AGREGADO;
+import static distribuido.ProtocoloDistribuido.CONFIGURAR;
+import static distribuido.ProtocoloDistribuido.FIN;
+import static distribuido.ProtocoloDistribuido.LISTO;
+import static distribuido.ProtocoloDistribuido.MAGIA;
+import static distribuido.ProtocoloDistribuido.SALUDO;
+import static distribuido.ProtocoloDistribuido.TURNO;
+import static distribuido.ProtocoloDistribuido.VEREDICTO;
+import static distribuido.ProtocoloDistribuido.VEREDICTOS;
+import static distribuido.ProtocoloDistribuido.VARIABLE_TOKEN;
+import static distribuido.ProtocoloDistribuido.VERSION;
+import static distribuido.ProtocoloDistribuido.esperar;
+import static distribuido.ProtocoloDistribuido.leerEstadisticas;
+
+/**
+ * Coordinador de una batalla repartida entre varios procesos.
+ * <p>
+ * La población se divide en fragmentos contiguos de filas, uno por
+ * {@link TrabajadorDistribuido}, así que ningún proceso necesita memoria para
+ * la población entera. Al conectarse, cada trabajador recibe una sola vez la
+ * semilla, su rango de filas y los atributos de los Ángeles y Demonios; los
+ * Humanos nunca viajan por la red. Luego el coordinador marca cada turno como
+ * una barrera: ordena el turno a todos y espera el agregado de cada uno
+ * (estadísticas del turno y cantidad de salvados) antes de ordenar el
+ * siguiente. Al final pide los veredictos de {@code DiosCristiano}, un bit por
+ * Humano. El protocolo está descrito en {@link ProtocoloDistribuido}.
+ * </p>
+ * <p>
+ * Como el azar de cada conflicto depende solo de la semilla, el turno y la
+ * fila global, el estado final es idéntico al de una {@link Simulacion} de un
+ * solo proceso con los mismos parámetros, sea cual sea la cantidad de
+ * trabajadores.
+ * </p>
+ * <p>
+ * Con {@link #lanzarTrabajadores()} los trabajadores se arrancan como JVMs
+ * hijas en la misma máquina y se conectan por loopback. Para usar otras
+ * máquinas, el coordinador escucha en una dirección accesible y cada
+ * trabajador se lanza a mano con {@code java distribuido.TrabajadorDistribuido
+ * <host> <puerto>}.
+ * </p>
+ * <p>
+ * Solo se aceptan trabajadores que se presentan con el token de la batalla
+ * ({@link #getToken()}); las demás conexiones se cierran sin afectarla. Cada
+ * respuesta de un trabajador tiene un tiempo máximo
+ * ({@link #setEsperaRespuesta(long)}): uno colgado hace fallar la batalla en
+ * lugar de bloquearla para siempre.
+ * </p>
+ */
+public final class CoordinadorDistribuido implements AutoCloseable {
+
+    /** Tiempo máximo de espera para que se conecten todos los trabajadores. */
+    private static final long ESPERA_CONEXION_MS = 60_000;
+    /** Tiempo de espera al terminar antes de forzar el cierre de un trabajador. */
+    private static final long ESPERA_CIERRE_MS = 10_000;
+    /** Tiempo máximo para que una conexión nueva se presente. */
+    private static final int ESPERA_SALUDO_MS = 5_000;
+    /** Tiempo máximo por defecto de cada respuesta de un trabajador (un turno entero de su fragmento). */
+    private static final long ESPERA_RESPUESTA_MS = 600_000;
+    private static final int BUFER = 1 << 16;
+
+    private final ParametrosBatalla parametros;
+    private final int trabajadores;
+    private final ServerSocket servidor;
+    private final String token;
+    private final List<Process> procesos = new ArrayList<>();
+    private final List<Conexion> conexiones = new ArrayList<>();
+    /** Opciones adicionales para las JVMs de los trabajadores (por ejemplo {@code -Xmx}). */
+    private List<String> opcionesJvm = List.of();
+    private long esperaRespuesta = ESPERA_RESPUESTA_MS;
+    /** Receptor de los agregados de cada turno (null si no hay). */
+    private Consumer<ResumenTurno> observador;
+    /** Veredicto de cada Humano por fila global, tras {@link #ejecutar()}. */
+    private BitSet veredictos;
+    private boolean ejecutada;
+
+    /** Conexión con un trabajador y el fragmento que tiene asignado. */
+    private static final class Conexion {
+        final Socket socket;
+        final DataInputStream entrada;
+        final DataOutputStream salida;
+        int primeraFila;
+        int cantidad;
+
+        Conexion(Socket socket) throws IOException {
+            this.socket = socket;
+            this.entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFER));
+            this.salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFER));
+        }
+    }
+
+    /**
+     * Crea un coordinador que escucha en un puerto libre de la interfaz de
+     * loopback, con un token aleatorio.
+     *
+     * @param parametros Parámetros de la batalla.
+     * @param trabajadores Cantidad de trabajadores entre los que se reparte la población.
+     * @throws IOException si no se puede abrir el socket.
+     */
+    public CoordinadorDistribuido(ParametrosBatalla parametros, int trabajadores) throws IOException {
+        this(parametros, trabajadores, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), nuevoToken());
+    }
+
+    /**
+     * @param parametros Parámetros de la batalla.
+     * @param trabajadores Cantidad de trabajadores entre los que se reparte la población.
+     * @param direccion Dirección en la que esperar a los trabajadores.
+     * @param token Token que deben presentar los trabajadores al conectarse.
+     * @throws IOException si no se puede abrir el socket.
+     */
+    public CoordinadorDistribuido(ParametrosBatalla parametros, int trabajadores,
+                                  InetSocketAddress direccion, String token) throws IOException {
+        if (trabajadores < 1) {
+            throw new IllegalArgumentException("se necesita al menos un trabajador");
+        }
+        if (token.isEmpty()) {
+            throw new IllegalArgumentException("el token no puede estar vacío");
+        }
+        this.parametros = parametros;
+        this.trabajadores = trabajadores;
+        this.token = token;
+        this.servidor = new ServerSocket();
+        try {
+            servidor.bind(direccion, trabajadores);
+        } catch (IOException | RuntimeException e) {
+            servidor.close();
+            throw e;
+        }
+    }
+
+    /** @return Un token aleatorio de 128 bits, en hexadecimal. */
+    public static String nuevoToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /** @return Puerto en el que el coordinador espera a los trabajadores. */
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    /** @return Token que deben presentar los trabajadores, en la variable de entorno {@code BATALLA_TOKEN}. */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Arranca los trabajadores como JVMs hijas en esta máquina, con el mismo
+     * classpath, las opciones de módulos y preview de esta JVM y las de
+     * {@link #setOpcionesJvm(List)}. Su salida se mezcla con la de este proceso.
+     *
+     * @throws IOException si no se puede lanzar algún proceso.
+     */
+    public void lanzarTrabajadores() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (int i = 0; i < trabajadores; i++) {
+            List<String> comando = new ArrayList<>();
+            comando.add(java);
+            comando.addAll(opcionesHeredadas());
+            comando.addAll(opcionesJvm);
+            comando.add("-cp");
+            comando.add(System.getProperty("java.class.path"));
+            comando.add(TrabajadorDistribuido.class.getName());
+            comando.add(InetAddress.getLoopbackAddress().getHostAddress());
+            comando.add(String.valueOf(getPuerto()));
+            ProcessBuilder proceso = new ProcessBuilder(comando).inheritIO();
+            proceso.environment().put(VARIABLE_TOKEN, token);
+            procesos.add(proceso.start());
+        }
+    }
+
+    /** Opciones de esta JVM que cambian qué código pueden cargar los trabajadores. */
+    private static List<String> opcionesHeredadas() {
+        List<String> opciones = new ArrayList<>();
+        for (String opcion : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (opcion.equals("--enable-preview") || opcion.startsWith("--add-modules")) {
+                opciones.add(opcion);
+            }
+        }
+        return opciones;
+    }
+
+    /**
+     * Espera a los trabajadores, ejecuta todos los turnos y recoge los veredictos.
+     * Solo puede llamarse una vez.
+     *
+     * @return Veredicto final, igual al de {@link Simulacion#ejecutar()} con los mismos parámetros.
+     * @throws IOException si un trabajador no se conecta a tiempo, falla, se
+     * desconecta o tarda más que {@link #getEsperaRespuesta()} en responder.
+     */
+    public ResultadoBatalla ejecutar() throws IOException {
+        if (ejecutada) {
+            throw new IllegalStateException("La batalla ya se ejecutó");
+        }
+        ejecutada = true;
+        conectar();
+        configurar();
+
+        for (int turno = 1; turno <= parametros.getTurnos(); turno++) {
+            for (Conexion c : conexiones) {
+                c.salida.writeByte(TURNO);
+                c.salida.writeInt(turno);
+                c.salida.flush();
+            }
+            // Barrera: el turno termina cuando respondieron todos
+            long salvados = 0;
+            EstadisticasTurno estadisticas = null;
+            for (Conexion c : conexiones) {
+                esperar(c.entrada, AGREGADO);
+                int recibido = c.entrada.readInt();
+                if (recibido != turno) {
+                    throw new IOException("Agregado del turno " + recibido + " en lugar del " + turno);
+                }
+                salvados += c.entrada.readInt();
+                EstadisticasTurno parciales = leerEstadisticas(c.entrada, turno);
+                if (estadisticas == null) {
+                    estadisticas = parciales;
+                } else {
+                    estadisticas.combinar(parciales);
+                }
+            }
+            if (observador != null) {
+                observador.accept(new ResumenTurno(turno, salvados, estadisticas));
+            }
+        }
+        return recogerVeredictos();
+    }
+
+    /**
+     * Acepta conexiones hasta tener todos los trabajadores, vigilando que los
+     * lanzados sigan vivos. Las que no se presentan con el token se descartan.
+     */
+    private void conectar() throws IOException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_CONEXION_MS);
+        servidor.setSoTimeout(200);
+        while (conexiones.size() < trabajadores) {
+            try {
+                Socket socket = servidor.accept();
+                Conexion c = presentar(socket);
+                if (c != null) {
+                    conexiones.add(c);
+                }
+            } catch (SocketTimeoutException e) {
+                for (Process p : procesos) {
+                    if (!p.isAlive()) {
+                        throw new IOException("Un trabajador terminó antes de conectarse (código " + p.exitValue() + ")");
+                    }
+                }
+                if (System.nanoTime() > limite) {
+                    throw new IOException("Solo se conectaron " + conexiones.size() + " de " + trabajadores
+                            + " trabajadores");
+                }
+            }
+        }
+    }
+
+    /**
+     * Lee el saludo de una conexión nueva.
+     *
+     * @return La conexión lista para la batalla, o null (ya cerrada) si no se
+     * presentó a tiempo o con el token correcto.
+     */
+    private Conexion presentar(Socket socket) throws IOException {
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(ESPERA_SALUDO_MS);
+            Conexion c = new Conexion(socket);
+            esperar(c.entrada, SALUDO);
+            boolean valido = c.entrada.readInt() == MAGIA
+                    & c.entrada.readInt() == VERSION
+                    & MessageDigest.isEqual(c.entrada.readUTF().getBytes(StandardCharsets.UTF_8),
+                    token.getBytes(StandardCharsets.UTF_8));
+            if (valido) {
+                socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, esperaRespuesta));
+                return c;
+            }
+        } catch (IOException e) {
+            // Conexión ajena o rota: no cuenta como trabajador
+        }
+        socket.close();
+        return null;
+    }
+
+    /** Reparte las filas en fragmentos contiguos y envía a cada trabajador el suyo y los entes. */
+    private void configurar() throws IOException {
+        List<Angel> angeles = Simulacion.crearAngeles(parametros);
+        List<Demonio> demonios = Simulacion.crearDemonios(parametros);
+        int total = parametros.getHumanos();
+        for (int k = 0; k < conexiones.size(); k++) {
+            Conexion c = conexiones.get(k);
+            c.primeraFila = (int) ((long) total * k / conexiones.size());
+            c.cantidad = (int) ((long) total * (k + 1) / conexiones.size()) - c.primeraFila;
+            DataOutputStream salida = c.salida;
+            salida.writeByte(CONFIGURAR);
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeLong(parametros.getSemilla());
+            salida.writeInt(total);
+            salida.writeInt(c.primeraFila);
+            salida.writeInt(c.cantidad);
+            salida.writeInt(angeles.size());
+            salida.writeInt(demonios.size());
+            for (Incorporeo a : angeles) {
+                escribir(salida, a);
+            }
+            for (Incorporeo d : demonios) {
+                escribir(salida, d);
+            }
+            salida.flush();
+        }
+        // Los trabajadores generan sus fragmentos en paralelo
+        for (Conexion c : conexiones) {
+            esperar(c.entrada, LISTO);
+            c.entrada.readInt();
+        }
+    }
+
+    private static void escribir(DataOutputStream salida, Incorporeo s) throws IOException {
+        salida.writeInt(s.getFe());
+        salida.writeInt(s.getBondad());
+        salida.writeInt(s.getMaldad());
+    }
+
+    private ResultadoBatalla recogerVeredictos() throws IOException {
+        for (Conexion c : conexiones) {
+            c.salida.writeByte(VEREDICTO);
+            c.salida.flush();
+        }
+        veredictos = new BitSet(parametros.getHumanos());
+        int salvados = 0;
+        double bondad = 0;
+        double maldad = 0;
+        double fe = 0;
+        for (Conexion c : conexiones) {
+            DataInputStream entrada = c.entrada;
+            esperar(entrada, VEREDICTOS);
+            salvados += entrada.readInt();
+            bondad += entrada.readDouble();
+            maldad += entrada.readDouble();
+            fe += entrada.readDouble();
+            int palabras = entrada.readInt();
+            for (int w = 0; w < palabras; w++) {
+                long palabra = entrada.readLong();
+                while (palabra != 0) {
+                    int bit = Long.numberOfTrailingZeros(palabra);
+                    veredictos.set(c.primeraFila + (w << 6) + bit);
+                    palabra &= palabra - 1;
+                }
+            }
+        }
+        int n = Math.max(1, parametros.getHumanos());
+        return new ResultadoBatalla(parametros, salvados, bondad / n, maldad / n, fe / n);
+    }
+
+    /**
+     * @return Veredicto de cada Humano por fila global (bit encendido = salvado),
+     * o null si la batalla aún no terminó.
+     */
+    public BitSet getVeredictos() {
+        return veredictos;
+    }
+
+    public long getEsperaRespuesta() {
+        return esperaRespuesta;
+    }
+
+    /**
+     * @param esperaRespuesta Tiempo máximo, en milisegundos, que se espera cada
+     * respuesta de un trabajador; debe alcanzar para un turno de su fragmento.
+     * Se aplica a las conexiones que se acepten después.
+     */
+    public void setEsperaRespuesta(long esperaRespuesta) {
+        if (esperaRespuesta < 1) {
+            throw new IllegalArgumentException("la espera debe ser mayor que cero");
+        }
+        this.esperaRespuesta = esperaRespuesta;
+    }
+
+    public List<String> getOpcionesJvm() {
+        return opcionesJvm;
+    }
+
+    /**
+     * @param opcionesJvm Opciones adicionales para las JVMs que lance
+     * {@link #lanzarTrabajadores()}, por ejemplo {@code List.of("-Xmx8g")}.
+     */
+    public void setOpcionesJvm(List<String> opcionesJvm) {
+        this.opcionesJvm = List.copyOf(opcionesJvm);
+    }
+
+    /**
+     * @param observador Receptor del agregado de cada turno, llamado desde el
+     * hilo de {@link #ejecutar()} al cerrar la barrera del turno.
+     */
+    public void setObservador(Consumer<ResumenTurno> observador) {
+        this.observador = observador;
+    }
+
+    /**
+     * Despide a los trabajadores, cierra las conexiones y espera a que
+     * terminen los procesos lanzados (forzando su cierre si no lo hacen).
+     */
+    @Override
+    public void close() throws IOException {
+        for (Conexion c : conexiones) {
+            try {
+                c.salida.writeByte(FIN);
+                c.salida.flush();
+            } catch (IOException e) {
+                // El trabajador ya se desconectó
+            }
+            c.socket.close();
+        }
+        for (Process p : procesos) {
+            try {
+                if (!p.waitFor(ESPERA_CIERRE_MS, TimeUnit.MILLISECONDS)) {
+                    p.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                p.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        servidor.close();
+    }
+
+    /**
+     * Ejecuta una batalla repartida entre varios procesos y muestra su veredicto.
+     * <p>
+     * Uso: {@code java distribuido.CoordinadorDistribuido [humanos] [angeles]
+     * [demonios] [turnos] [semilla] [trabajadores] [puerto] [direccion]}. Sin
+     * puerto se lanzan los trabajadores en esta máquina; con puerto el
+     * coordinador espera a que se conecten los trabajadores arrancados a mano,
+     * escuchando en loopback salvo que se indique otra dirección (por ejemplo
+     * {@code 0.0.0.0} para todas las interfaces). El token se toma de la
+     * variable de entorno {@code BATALLA_TOKEN}, o se genera y se muestra.
+     * </p>
+     */
+    public static void main(String[] args) throws IOException {
+        int humanos = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int angeles = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int demonios = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int turnos = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        long semilla = args.length > 4 ? Long.parseLong(args[4]) : ThreadLocalRandom.current().nextLong();
+        int trabajadores = args.length > 5 ? Integer.parseInt(args[5]) : 2;
+        ParametrosBatalla parametros = new ParametrosBatalla(humanos, angeles, demonios, turnos, semilla);
+
+        String token = System.getenv(VARIABLE_TOKEN);
+        if (token == null) {
+            token = nuevoToken();
+        }
+        InetSocketAddress direccion = args.length > 7
+                ? new InetSocketAddress(args[7], Integer.parseInt(args[6]))
+                : new InetSocketAddress(InetAddress.getLoopbackAddress(), args.length > 6 ? Integer.parseInt(args[6]) : 0);
+        CoordinadorDistribuido coordinador = new CoordinadorDistribuido(parametros, trabajadores, direccion, token);
+        try (coordinador) {
+            if (args.length > 6) {
+                System.out.println("Esperando " + trabajadores + " trabajadores en " + direccion.getHostString()
+                        + ":" + coordinador.getPuerto() + " con " + VARIABLE_TOKEN + "=" + token);
+            } else {
+                coordinador.lanzarTrabajadores();
+            }
+            coordinador.setObservador(resumen -> System.out.println(resumen));
+            long inicio = System.nanoTime();
+            ResultadoBatalla resultado = coordinador.ejecutar();
+            System.out.println(resultado.aJson());
+            System.out.printf("%d trabajadores, %.3f s%n", trabajadores, (System.nanoTime() - inicio) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package distribuido;
+
+import estadisticas.EstadisticasTurno;
+import estadisticas.Histograma;
+import estadisticas.Welford;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Protocolo binario entre el {@link CoordinadorDistribuido} y sus
+ * {@link TrabajadorDistribuido trabajadores}.
+ * <p>
+ * Cada mensaje es un byte de tipo seguido de sus campos, en big-endian
+ * ({@link DataOutputStream}). Los contadores que suelen ser chicos (victorias,
+ * cuentas de histograma) van como enteros de longitud variable: 7 bits por
+ * byte, con el bit alto indicando que sigue otro byte.
+ * </p>
+ * <p>
+ * Al conectarse, el trabajador se presenta con un SALUDO que lleva el token
+ * compartido de la batalla; el coordinador cierra sin responder las conexiones
+ * cuyo saludo no llega a tiempo o no trae el token correcto.
+ * </p>
+ * <pre>
+ * Coordinador → trabajador
+ *   CONFIGURAR  magia, versión (int), semilla (long), total, primeraFila, cantidad,
+ *               ángeles, demonios (int), y fe, bondad, maldad (int) de cada ente
+ *   TURNO       turno (int)
+ *   VEREDICTO   —
+ *   FIN         —
+ * Trabajador → coordinador
+ *   SALUDO      magia, versión (int), token (UTF)
+ *   LISTO       salvados iniciales (int)
+ *   AGREGADO    turno, salvados (int), victorias del Ángel, del Demonio, empates (var),
+ *               y por bondad, maldad y fe: n (var), media, suma de cuadrados (double),
+ *               101 cuentas del histograma (var)
+ *   VEREDICTOS  salvados (int), suma de bondad, maldad y fe (double), palabras (int),
+ *               long[palabras] con un bit por Humano (1 = salvado)
+ *   ERROR       mensaje (UTF)
+ * </pre>
+ * <p>
+ * Un turno completo cuesta un mensaje TURNO por trabajador y un AGREGADO de
+ * respuesta, de unos cientos de bytes sin importar cuántos Humanos tenga cada
+ * uno: los Humanos nunca viajan por la red.
+ * </p>
+ */
+final class ProtocoloDistribuido {
+
+    /** "ALMD" en ASCII. */
+    static final int MAGIA = 0x414C4D44;
+    static final int VERSION = 2;
+    /** Variable de entorno con el token compartido entre el coordinador y sus trabajadores. */
+    static final String VARIABLE_TOKEN = "BATALLA_TOKEN";
+
+    // --- Coordinador → trabajador ---
+    static final byte CONFIGURAR = 1;
+    static final byte TURNO = 2;
+    static final byte VEREDICTO = 3;
+    static final byte FIN = 4;
+
+    // --- Trabajador → coordinador ---
+    static final byte LISTO = 10;
+    static final byte AGREGADO = 11;
+    static final byte VEREDICTOS = 12;
+    static final byte ERROR = 13;
+    static final byte SALUDO = 14;
+
+    private ProtocoloDistribuido() {
+    }
+
+    /**
+     * Lee el tipo del mensaje siguiente y comprueba que sea el esperado.
+     *
+     * @throws IOException si la conexión se cerró, el otro extremo informó un
+     * error o llegó otro tipo de mensaje.
+     */
+    static void esperar(DataInputStream entrada, byte esperado) throws IOException {
+        int tipo = entrada.read();
+        if (tipo < 0) {
+            throw new EOFException("El otro extremo cerró la conexión");
+        }
+        if (tipo == ERROR) {
+            throw new IOException("Error remoto: " + entrada.readUTF());
+        }
+        if (tipo != esperado) {
+            throw new IOException("Mensaje inesperado: tipo " + tipo + " en lugar de " + esperado);
+        }
+    }
+
+    static void escribirVariable(DataOutputStream salida, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            salida.writeByte((int) (valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida.writeByte((int) valor);
+    }
+
+    static long leerVariable(DataInputStream entrada) throws IOException {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            int b = entrada.readUnsignedByte();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Entero variable demasiado largo");
+    }
+
+    /** Escribe los campos de un AGREGADO a continuación de turno y salvados. */
+    static void escribirEstadisticas(DataOutputStream salida, EstadisticasTurno e) throws IOException {
+        escribirVariable(salida, e.getVictoriasAngel());
+        escribirVariable(salida, e.getVictoriasDemonio());
+        escribirVariable(salida, e.getEmpates());
+        escribirAtributo(salida, e.getBondad(), e.getHistogramaBondad());
+        escribirAtributo(salida, e.getMaldad(), e.getHistogramaMaldad());
+        escribirAtributo(salida, e.getFe(), e.getHistogramaFe());
+    }
+
+    /** Lee lo escrito por {@link #escribirEstadisticas} en un acumulador nuevo. */
+    static EstadisticasTurno leerEstadisticas(DataInputStream entrada, int turno) throws IOException {
+        EstadisticasTurno e = new EstadisticasTurno();
+        e.setTurno(turno);
+        e.sumarResultados(leerVariable(entrada), leerVariable(entrada), leerVariable(entrada));
+        leerAtributo(entrada, e.getBondad(), e.getHistogramaBondad());
+        leerAtributo(entrada, e.getMaldad(), e.getHistogramaMaldad());
+        leerAtributo(entrada, e.getFe(), e.getHistogramaFe());
+        return e;
+    }
+
+    private static void escribirAtributo(DataOutputStream salida, Welford w, Histograma h) throws IOException {
+        escribirVariable(salida, w.getCantidad());
+        salida.writeDouble(w.getMedia());
+        salida.writeDouble(w.getSumaCuadrados());
+        for (int v = 0; v < Histograma.CUBETAS; v++) {
+            escribirVariable(salida, h.getCuenta(v));
+        }
+    }
+
+    private static void leerAtributo(DataInputStream entrada, Welford w, Histograma h) throws IOException {
+        long n = leerVariable(entrada);
+        double media = entrada.readDouble();
+        w.restaurar(n, media, entrada.readDouble());
+        for (int v = 0; v < Histograma.CUBETAS; v++) {
+            long cuenta = leerVariable(entrada);
+            if (cuenta != 0) {
+                h.agregar(v, cuenta);
+            }
+        }
+    }
+}
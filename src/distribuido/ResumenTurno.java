@@ -0,0 +1,38 @@
+package distribuido;
+
+import estadisticas.EstadisticasTurno;
+
+/**
+ * Agregado de un turno de una batalla distribuida: las estadísticas de todos
+ * los trabajadores combinadas y la cantidad de Humanos que
+ * {@code DiosCristiano} salvaría al terminar el turno.
+ */
+public final class ResumenTurno {
+
+    private final int turno;
+    private final long salvados;
+    private final EstadisticasTurno estadisticas;
+
+    ResumenTurno(int turno, long salvados, EstadisticasTurno estadisticas) {
+        this.turno = turno;
+        this.salvados = salvados;
+        this.estadisticas = estadisticas;
+    }
+
+    public int getTurno() {
+        return turno;
+    }
+
+    public long getSalvados() {
+        return salvados;
+    }
+
+    public EstadisticasTurno getEstadisticas() {
+        return estadisticas;
+    }
+
+    @Override
+    public String toString() {
+        return estadisticas + ", salvados " + salvados;
+    }
+}
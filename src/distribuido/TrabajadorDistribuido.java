@@ -0,0 +1,199 @@
+package distribuido;
+
+import entidades.fisicas.HumanoFila;
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.ContadorSalvados;
+import entidades.incorporeas.Demonio;
+import entidades.incorporeas.DiosCristiano;
+import motor.MotorTurnos;
+import motor.Simulacion;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static distribuido.ProtocoloDistribuido.AGREGADO;
+import static distribuido.ProtocoloDistribuido.CONFIGURAR;
+import static distribuido.ProtocoloDistribuido.ERROR;
+import static distribuido.ProtocoloDistribuido.FIN;
+import static distribuido.ProtocoloDistribuido.LISTO;
+import static distribuido.ProtocoloDistribuido.MAGIA;
+import static distribuido.ProtocoloDistribuido.SALUDO;
+import static distribuido.ProtocoloDistribuido.TURNO;
+import static distribuido.ProtocoloDistribuido.VEREDICTO;
+import static distribuido.ProtocoloDistribuido.VEREDICTOS;
+import static distribuido.ProtocoloDistribuido.VARIABLE_TOKEN;
+import static distribuido.ProtocoloDistribuido.VERSION;
+import static distribuido.ProtocoloDistribuido.escribirEstadisticas;
+import static distribuido.ProtocoloDistribuido.esperar;
+
+/**
+ * Proceso trabajador de una batalla distribuida.
+ * <p>
+ * Se conecta al {@link CoordinadorDistribuido}, recibe su fragmento de la
+ * población (solo la semilla y el rango de filas: los atributos iniciales se
+ * derivan localmente) y los atributos de los Ángeles y Demonios, y luego
+ * ejecuta cada turno que le ordena el coordinador con su propio
+ * {@link MotorTurnos}. Como el azar de cada conflicto depende de la fila
+ * global, sus filas evolucionan exactamente igual que en una batalla de un
+ * solo proceso.
+ * </p>
+ * <p>
+ * Uso: {@code java distribuido.TrabajadorDistribuido <host> <puerto>}, con el
+ * token de la batalla en la variable de entorno {@code BATALLA_TOKEN}. El
+ * coordinador los lanza solo en la misma máquina; en otras se arrancan a mano
+ * apuntando a su dirección, con el token que muestra el coordinador.
+ * </p>
+ */
+public final class TrabajadorDistribuido {
+
+    private static final int BUFER = 1 << 16;
+
+    private TrabajadorDistribuido() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: java distribuido.TrabajadorDistribuido <host> <puerto>");
+            System.exit(2);
+        }
+        String token = System.getenv(VARIABLE_TOKEN);
+        if (token == null) {
+            System.err.println("Falta el token de la batalla en la variable de entorno " + VARIABLE_TOKEN);
+            System.exit(2);
+        }
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]))) {
+            socket.setTcpNoDelay(true);
+            atender(socket, token);
+        }
+    }
+
+    /**
+     * Se presenta con el token y atiende los mensajes del coordinador hasta
+     * recibir FIN o perder la conexión. Ante un error se lo informa al
+     * coordinador antes de relanzarlo.
+     */
+    static void atender(Socket socket, String token) throws IOException {
+        DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFER));
+        DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFER));
+        salida.writeByte(SALUDO);
+        salida.writeInt(MAGIA);
+        salida.writeInt(VERSION);
+        salida.writeUTF(token);
+        salida.flush();
+        try {
+            esperar(entrada, CONFIGURAR);
+            if (entrada.readInt() != MAGIA) {
+                throw new IOException("El otro extremo no es un coordinador de batallas");
+            }
+            int version = entrada.readInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de protocolo no soportada: " + version);
+            }
+            long semilla = entrada.readLong();
+            int total = entrada.readInt();
+            int primeraFila = entrada.readInt();
+            int cantidad = entrada.readInt();
+            int numAngeles = entrada.readInt();
+            int numDemonios = entrada.readInt();
+            List<Angel> angeles = new ArrayList<>(numAngeles);
+            for (int i = 0; i < numAngeles; i++) {
+                Angel a = new Angel(entrada.readInt(), entrada.readInt(), entrada.readInt());
+                a.setId(i);
+                angeles.add(a);
+            }
+            List<Demonio> demonios = new ArrayList<>(numDemonios);
+            for (int i = 0; i < numDemonios; i++) {
+                Demonio d = new Demonio(entrada.readInt(), entrada.readInt(), entrada.readInt());
+                d.setId(i);
+                demonios.add(d);
+            }
+
+            PoblacionHumana poblacion = PoblacionHumana.fragmento(primeraFila, cantidad, total, semilla);
+            DiosCristiano dios = new DiosCristiano(numAngeles, numDemonios);
+            ContadorSalvados contador = new ContadorSalvados(dios, poblacion);
+            MotorTurnos motor = new MotorTurnos(poblacion, angeles, demonios, semilla);
+            motor.setEstadisticasActivas(true);
+            motor.setContadorSalvados(contador);
+            salida.writeByte(LISTO);
+            salida.writeInt((int) contador.getSalvados());
+            salida.flush();
+
+            while (true) {
+                int tipo = entrada.read();
+                switch (tipo) {
+                    case TURNO -> {
+                        int turno = entrada.readInt();
+                        if (turno != motor.getTurno() + 1) {
+                            throw new IOException("Turno fuera de orden: " + turno + " después de " + motor.getTurno());
+                        }
+                        if (poblacion.tamanio() >= Simulacion.UMBRAL_PARALELO) {
+                            motor.ejecutarTurno();
+                        } else {
+                            motor.ejecutarTurnoSecuencial();
+                        }
+                        salida.writeByte(AGREGADO);
+                        salida.writeInt(turno);
+                        salida.writeInt((int) contador.getSalvados());
+                        escribirEstadisticas(salida, motor.getEstadisticas());
+                        salida.flush();
+                    }
+                    case VEREDICTO -> {
+                        enviarVeredictos(salida, poblacion, dios);
+                        salida.flush();
+                    }
+                    case FIN, -1 -> {
+                        return;
+                    }
+                    default -> throw new IOException("Mensaje desconocido: tipo " + tipo);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                salida.writeByte(ERROR);
+                salida.writeUTF(String.valueOf(e));
+                salida.flush();
+            } catch (IOException ignorada) {
+                // El coordinador ya no escucha: solo queda el error local
+            }
+            throw e;
+        }
+    }
+
+    /** Envía el veredicto de cada Humano del fragmento (un bit) y las sumas de sus atributos. */
+    private static void enviarVeredictos(DataOutputStream salida, PoblacionHumana poblacion,
+                                         DiosCristiano dios) throws IOException {
+        int n = poblacion.tamanio();
+        long[] bits = new long[(n + 63) >>> 6];
+        int salvados = 0;
+        double bondad = 0;
+        double maldad = 0;
+        double fe = 0;
+        HumanoFila h = poblacion.nuevoCursor();
+        for (int i = 0; i < n; i++) {
+            h.mover(i);
+            if (dios.esBuenHombre(h)) {
+                bits[i >>> 6] |= 1L << i;
+                salvados++;
+            }
+            bondad += h.getBondad();
+            maldad += h.getMaldad();
+            fe += h.getFe();
+        }
+        salida.writeByte(VEREDICTOS);
+        salida.writeInt(salvados);
+        salida.writeDouble(bondad);
+        salida.writeDouble(maldad);
+        salida.writeDouble(fe);
+        salida.writeInt(bits.length);
+        for (long palabra : bits) {
+            salida.writeLong(palabra);
+        }
+    }
+}
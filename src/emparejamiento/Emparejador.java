@@ -0,0 +1,69 @@
+package emparejamiento;
+
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Estrategia que decide qué Ángel y qué Demonio enfrenta cada Humano en un turno.
+ * <p>
+ * El motor llama a {@link #prepararTurno} una vez antes de cada turno, desde un
+ * solo hilo, y luego a {@link #elegirAngel} y {@link #elegirDemonio} por cada
+ * Humano, posiblemente desde varios hilos a la vez. Por eso las elecciones no
+ * deben modificar estado compartido: todo lo que dependa del turno se prepara
+ * antes y el azar sale del flujo propio de la fila.
+ * </p>
+ */
+public interface Emparejador {
+
+    /** Elección uniforme al azar (el comportamiento original de la batalla). */
+    Emparejador UNIFORME = new EmparejadorUniforme();
+
+    /**
+     * Comprueba que la estrategia pueda emparejar estas cantidades. El motor la
+     * llama al recibir la estrategia y cada vez que cambian sus entes, de modo
+     * que una configuración imposible falla al armarla y no en medio de un turno.
+     *
+     * @param angeles Cantidad de Ángeles.
+     * @param demonios Cantidad de Demonios.
+     * @param humanos Cantidad de Humanos que se emparejarán en cada turno.
+     * @throws IllegalArgumentException si la estrategia no puede emparejarlas.
+     */
+    default void validar(int angeles, int demonios, int humanos) {
+    }
+
+    /**
+     * Prepara las estructuras del turno (por ejemplo reconstruir tablas si
+     * cambiaron los pesos). No se llama en paralelo con las elecciones.
+     *
+     * @param turno Turno que va a comenzar.
+     * @param angeles Ángeles disponibles.
+     * @param demonios Demonios disponibles.
+     * @param generacion Generación de los entes en el motor: si es la misma que
+     *                   en el turno anterior, las listas tienen los mismos entes.
+     * @param humanos Cantidad de Humanos que se emparejarán en el turno.
+     */
+    default void prepararTurno(int turno, List<Angel> angeles, List<Demonio> demonios, long generacion,
+                               int humanos) {
+    }
+
+    /**
+     * @param turno Turno en curso.
+     * @param fila Fila del Humano en la población.
+     * @param cantidad Cantidad de Ángeles disponibles.
+     * @param rd Flujo aleatorio de la fila.
+     * @return Índice del Ángel elegido.
+     */
+    int elegirAngel(int turno, int fila, int cantidad, RandomGenerator rd);
+
+    /**
+     * @param turno Turno en curso.
+     * @param fila Fila del Humano en la población.
+     * @param cantidad Cantidad de Demonios disponibles.
+     * @param rd Flujo aleatorio de la fila.
+     * @return Índice del Demonio elegido.
+     */
+    int elegirDemonio(int turno, int fila, int cantidad, RandomGenerator rd);
+}
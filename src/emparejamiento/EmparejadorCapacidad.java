@@ -0,0 +1,112 @@
+package emparejamiento;
+
+import aleatorio.FlujoAleatorio;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Emparejamiento al azar con un máximo de Humanos por ente y por turno.
+ * <p>
+ * Cada Ángel tiene {@code capacidad} plazas por turno, numeradas de forma que
+ * la plaza {@code p} pertenece al Ángel {@code p / capacidad} (igual para los
+ * Demonios). Cada turno se baraja el conjunto de plazas con una permutación
+ * pseudoaleatoria sin estado (una red de Feistel con la semilla del turno y
+ * recorrido cíclico para quedar dentro del rango), y la fila {@code i} recibe
+ * la plaza {@code permutación(i)}. Como la permutación es biyectiva, dos
+ * Humanos nunca comparten plaza: ningún ente supera su capacidad. Cada
+ * elección cuesta O(1), no necesita contadores compartidos y da el mismo
+ * resultado sin importar cuántos hilos resuelvan el turno.
+ * </p>
+ * <p>
+ * Las plazas deben alcanzar para todos los Humanos; el motor lo comprueba con
+ * {@link #validar} al recibir la estrategia y al cambiar sus entes.
+ * </p>
+ */
+public final class EmparejadorCapacidad implements Emparejador {
+
+    private static final int RONDAS = 4;
+
+    private final int capacidad;
+    private final long semilla;
+
+    private long plazasAngeles;
+    private long plazasDemonios;
+    private long claveAngeles;
+    private long claveDemonios;
+
+    /**
+     * @param capacidad Máximo de Humanos por Ángel y por Demonio en cada turno.
+     * @param semilla Semilla de las permutaciones.
+     */
+    public EmparejadorCapacidad(int capacidad, long semilla) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("la capacidad debe ser positiva");
+        }
+        this.capacidad = capacidad;
+        this.semilla = semilla;
+    }
+
+    /**
+     * @throws IllegalArgumentException si no hay plazas suficientes para todos los Humanos.
+     */
+    @Override
+    public void validar(int angeles, int demonios, int humanos) {
+        long plazasA = (long) angeles * capacidad;
+        long plazasD = (long) demonios * capacidad;
+        if (plazasA < humanos || plazasD < humanos) {
+            throw new IllegalArgumentException("Capacidad insuficiente: " + humanos + " Humanos para "
+                    + plazasA + " plazas de Ángel y " + plazasD + " de Demonio");
+        }
+    }
+
+    @Override
+    public void prepararTurno(int turno, List<Angel> angeles, List<Demonio> demonios, long generacion,
+                              int humanos) {
+        plazasAngeles = (long) angeles.size() * capacidad;
+        plazasDemonios = (long) demonios.size() * capacidad;
+        claveAngeles = FlujoAleatorio.derivar(semilla, turno, 0);
+        claveDemonios = FlujoAleatorio.derivar(semilla, turno, 1);
+    }
+
+    @Override
+    public int elegirAngel(int turno, int fila, int cantidad, RandomGenerator rd) {
+        return (int) (permutar(fila, plazasAngeles, claveAngeles) / capacidad);
+    }
+
+    @Override
+    public int elegirDemonio(int turno, int fila, int cantidad, RandomGenerator rd) {
+        return (int) (permutar(fila, plazasDemonios, claveDemonios) / capacidad);
+    }
+
+    /**
+     * Permutación pseudoaleatoria de [0, n) evaluada en {@code x}: una red de
+     * Feistel balanceada sobre la menor potencia de 4 que cubre {@code n}, con
+     * recorrido cíclico hasta caer dentro del rango.
+     */
+    static long permutar(long x, long n, long clave) {
+        int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(n - 1));
+        bits += bits & 1;
+        int mitad = bits >>> 1;
+        long mascara = (1L << mitad) - 1;
+        long v = x;
+        do {
+            long izquierda = v >>> mitad;
+            long derecha = v & mascara;
+            for (int r = 0; r < RONDAS; r++) {
+                long f = FlujoAleatorio.derivar(clave, r, derecha) & mascara;
+                long nueva = izquierda ^ f;
+                izquierda = derecha;
+                derecha = nueva;
+            }
+            v = (izquierda << mitad) | derecha;
+        } while (v >= n);
+        return v;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+}
@@ -0,0 +1,76 @@
+package emparejamiento;
+
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import subClases.Incorporeo;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Elige Ángel y Demonio con probabilidad proporcional a su fe.
+ * <p>
+ * Las elecciones usan dos {@link TablaAlias}, así que cuestan O(1) por Humano
+ * aunque haya millones de entes. Antes de cada turno se comparan los pesos
+ * actuales con los de la última construcción: leerlos cuesta O(entes) sin
+ * escribir nada compartido, y una tabla solo se reconstruye si cambia la
+ * generación de entes del motor o la fe de alguno de sus entes. Los cambios
+ * de fe de otra batalla no afectan a esta.
+ * </p>
+ */
+public final class EmparejadorPorFe implements Emparejador {
+
+    private TablaAlias tablaAngeles;
+    private TablaAlias tablaDemonios;
+    private double[] pesosAngeles;
+    private double[] pesosDemonios;
+    private long generacionVista;
+
+    @Override
+    public void prepararTurno(int turno, List<Angel> angeles, List<Demonio> demonios, long generacion,
+                              int humanos) {
+        if (tablaAngeles == null || generacion != generacionVista
+                || pesosAngeles.length != angeles.size() || pesosDemonios.length != demonios.size()) {
+            pesosAngeles = new double[angeles.size()];
+            pesosDemonios = new double[demonios.size()];
+            actualizarPesos(pesosAngeles, angeles);
+            actualizarPesos(pesosDemonios, demonios);
+            tablaAngeles = new TablaAlias(pesosAngeles);
+            tablaDemonios = new TablaAlias(pesosDemonios);
+            generacionVista = generacion;
+            return;
+        }
+        if (actualizarPesos(pesosAngeles, angeles)) {
+            tablaAngeles = new TablaAlias(pesosAngeles);
+        }
+        if (actualizarPesos(pesosDemonios, demonios)) {
+            tablaDemonios = new TablaAlias(pesosDemonios);
+        }
+    }
+
+    /**
+     * Copia en {@code pesos} la fe actual de cada ente.
+     *
+     * @return true si algún peso cambió respecto al que ya había.
+     */
+    private static boolean actualizarPesos(double[] pesos, List<? extends Incorporeo> entes) {
+        boolean cambio = false;
+        for (int i = 0; i < pesos.length; i++) {
+            double peso = Math.max(0, entes.get(i).getFe());
+            if (peso != pesos[i]) {
+                pesos[i] = peso;
+                cambio = true;
+            }
+        }
+        return cambio;
+    }
+    @Override
+    public int elegirAngel(int turno, int fila, int cantidad, RandomGenerator rd) {
+        return tablaAngeles.muestrear(rd);
+    }
+
+    @Override
+    public int elegirDemonio(int turno, int fila, int cantidad, RandomGenerator rd) {
+        return tablaDemonios.muestrear(rd);
+    }
+}
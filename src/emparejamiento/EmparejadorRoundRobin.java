@@ -0,0 +1,24 @@
+package emparejamiento;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Reparte los Humanos en rotación: la fila {@code i} enfrenta en el turno
+ * {@code t} al Ángel {@code (i + t) mod A} y al Demonio {@code (i + t) mod D}.
+ * <p>
+ * Cada ente recibe la misma cantidad de Humanos por turno (a lo sumo uno de
+ * diferencia) y la asignación rota de un turno al siguiente.
+ * </p>
+ */
+public final class EmparejadorRoundRobin implements Emparejador {
+
+    @Override
+    public int elegirAngel(int turno, int fila, int cantidad, RandomGenerator rd) {
+        return (int) (((long) fila + turno) % cantidad);
+    }
+
+    @Override
+    public int elegirDemonio(int turno, int fila, int cantidad, RandomGenerator rd) {
+        return (int) (((long) fila + turno) % cantidad);
+    }
+}
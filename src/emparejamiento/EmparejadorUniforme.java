@@ -0,0 +1,19 @@
+package emparejamiento;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Elige Ángel y Demonio al azar con igual probabilidad, sin estado.
+ */
+public final class EmparejadorUniforme implements Emparejador {
+
+    @Override
+    public int elegirAngel(int turno, int fila, int cantidad, RandomGenerator rd) {
+        return rd.nextInt(cantidad);
+    }
+
+    @Override
+    public int elegirDemonio(int turno, int fila, int cantidad, RandomGenerator rd) {
+        return rd.nextInt(cantidad);
+    }
+}
@@ -0,0 +1,87 @@
+package emparejamiento;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Tabla de alias (método de Vose) para muestrear índices con probabilidad
+ * proporcional a un peso en tiempo O(1).
+ * <p>
+ * Construirla cuesta O(n); cada muestra usa un entero y un real del flujo:
+ * se elige una columna al azar y dentro de ella el índice propio o su alias.
+ * </p>
+ */
+public final class TablaAlias {
+
+    private final double[] probabilidad;
+    private final int[] alias;
+
+    /**
+     * @param pesos Pesos no negativos; si todos son cero se muestrea uniforme.
+     */
+    public TablaAlias(double[] pesos) {
+        int n = pesos.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("se necesita al menos un peso");
+        }
+        this.probabilidad = new double[n];
+        this.alias = new int[n];
+
+        double total = 0;
+        for (double p : pesos) {
+            if (p < 0 || Double.isNaN(p)) {
+                throw new IllegalArgumentException("peso inválido: " + p);
+            }
+            total += p;
+        }
+
+        double[] escalados = new double[n];
+        for (int i = 0; i < n; i++) {
+            escalados[i] = total == 0 ? 1.0 : pesos[i] * n / total;
+            alias[i] = i;
+        }
+        // Pilas de índices sobre arreglos: cada índice está en una sola a la vez
+        int[] pequenios = new int[n];
+        int[] grandes = new int[n];
+        int cimaPequenios = 0;
+        int cimaGrandes = 0;
+        for (int i = 0; i < n; i++) {
+            if (escalados[i] < 1.0) {
+                pequenios[cimaPequenios++] = i;
+            } else {
+                grandes[cimaGrandes++] = i;
+            }
+        }
+        while (cimaPequenios > 0 && cimaGrandes > 0) {
+            int menor = pequenios[--cimaPequenios];
+            int mayor = grandes[--cimaGrandes];
+            probabilidad[menor] = escalados[menor];
+            alias[menor] = mayor;
+            escalados[mayor] = (escalados[mayor] + escalados[menor]) - 1.0;
+            if (escalados[mayor] < 1.0) {
+                pequenios[cimaPequenios++] = mayor;
+            } else {
+                grandes[cimaGrandes++] = mayor;
+            }
+        }
+        // Lo que queda vale 1 salvo errores de redondeo
+        while (cimaGrandes > 0) {
+            probabilidad[grandes[--cimaGrandes]] = 1.0;
+        }
+        while (cimaPequenios > 0) {
+            probabilidad[pequenios[--cimaPequenios]] = 1.0;
+        }
+    }
+
+    /**
+     * @param rd Flujo del que se extrae la muestra.
+     * @return Índice elegido con probabilidad proporcional a su peso.
+     */
+    public int muestrear(RandomGenerator rd) {
+        int i = rd.nextInt(probabilidad.length);
+        return rd.nextDouble() < probabilidad[i] ? i : alias[i];
+    }
+
+    public int tamanio() {
+        return probabilidad.length;
+    }
+}
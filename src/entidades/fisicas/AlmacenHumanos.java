@@ -0,0 +1,35 @@
+package entidades.fisicas;
+
+/**
+ * Almacenamiento de una población de Humanos recorrible por filas.
+ * <p>
+ * El motor de turnos, el contador de salvados y el historial solo necesitan
+ * recorrer las filas con un cursor ({@link HumanoFila}), así que funcionan
+ * igual sobre columnas en el heap ({@link PoblacionHumana}) que fuera de él
+ * ({@code PoblacionNativa}). Cada cursor lee y escribe directamente sobre el
+ * almacenamiento de su población.
+ * </p>
+ */
+public interface AlmacenHumanos {
+
+    /** @return Cantidad de Humanos almacenados. */
+    int tamanio();
+
+    /** @return Semilla maestra de la que se derivaron los atributos iniciales. */
+    long getSemilla();
+
+    /** @return Fila global de la fila local 0 (0 salvo en fragmentos). */
+    int getPrimeraFila();
+
+    /** @return Tamaño de la población completa de la que este almacén es parte. */
+    int getTotal();
+
+    /**
+     * Crea un cursor reutilizable, posicionado en la fila 0, que puede
+     * desplazarse con {@link HumanoFila#mover(int)} sin crear objetos nuevos.
+     * Cada hilo debe usar su propio cursor.
+     *
+     * @return Nuevo cursor sobre este almacén.
+     */
+    HumanoFila nuevoCursor();
+}
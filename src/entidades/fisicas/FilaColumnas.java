@@ -0,0 +1,65 @@
+package entidades.fisicas;
+
+/**
+ * Cursor sobre las columnas en el heap de una {@link PoblacionHumana}.
+ */
+final class FilaColumnas extends HumanoFila {
+
+    /** Población cuyas columnas se leen y escriben. */
+    private final PoblacionHumana poblacion;
+
+    FilaColumnas(PoblacionHumana poblacion, int fila) {
+        super(poblacion, fila);
+        this.poblacion = poblacion;
+    }
+
+    @Override
+    public double getInteligencia() {
+        return poblacion.inteligencia[fila];
+    }
+
+    @Override
+    public void setInteligencia(double inteligencia) {
+        poblacion.inteligencia[fila] = inteligencia;
+    }
+
+    @Override
+    public double getFe() {
+        return poblacion.fe[fila];
+    }
+
+    @Override
+    public void setFe(double fe) {
+        poblacion.fe[fila] = fe;
+    }
+
+    @Override
+    public double getBondad() {
+        return poblacion.bondad[fila];
+    }
+
+    @Override
+    public void setBondad(double bondad) {
+        poblacion.bondad[fila] = bondad;
+    }
+
+    @Override
+    public double getMaldad() {
+        return poblacion.maldad[fila];
+    }
+
+    @Override
+    public void setMaldad(double maldad) {
+        poblacion.maldad[fila] = maldad;
+    }
+
+    @Override
+    public double getAlma() {
+        return poblacion.alma[fila];
+    }
+
+    @Override
+    public void setAlma(double alma) {
+        poblacion.alma[fila] = alma;
+    }
+}
@@ -2,9 +2,15 @@ package entidades.fisicas;
 
 import entidades.incorporeas.Angel;
 import entidades.incorporeas.Demonio;
+import eventos.SumideroEventos;
+import eventos.SumideroTexto;
+import instrumentacion.EventoConflicto;
+import instrumentacion.MedicionConflicto;
+import instrumentacion.Metricas;
 import subClases.*;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Representa a una entidad Humana en la simulación "La Batalla de las Almas".
@@ -34,27 +40,39 @@ public class Humano extends Fisico implements Espiritual {
 
     // --- Constantes para la Inicialización ---
 
-    /** Generador de números aleatorios para la asignación inicial de atributos. */
-    private static final Random rd = new Random();
     /** Valor máximo posible para el atributo inteligencia. */
-    private static final int MAX_INTELIGENCIA = 200;
+    static final int MAX_INTELIGENCIA = 200;
     /** Valor máximo posible para el atributo fe. */
-    private static final int MAX_FE = 100;
+    static final int MAX_FE = 100;
     /** Valor máximo posible para el atributo bondad. */
-    private static final int MAX_BONDAD = 100;
+    static final int MAX_BONDAD = 100;
     /** Valor máximo posible para el atributo maldad. */
-    private static final int MAX_MALDAD = 100;
+    static final int MAX_MALDAD = 100;
     /** Valor máximo posible para el atributo almo. */
-    private static final int MAX_ALMA = 200;
+    static final int MAX_ALMA = 200;
 
     /**
      * Constructor de la clase Humano.
      * <p>
      * Inicializa todos los atributos (inteligencia, fe, bondad, maldad, alma)
-     * con valores aleatorios dentro de los rangos definidos por las constantes MAX_*.
+     * con valores aleatorios dentro de los rangos definidos por las constantes MAX_*,
+     * usando el generador local del hilo actual.
      * </p>
      */
     public Humano() {
+        this(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Constructor reproducible de la clase Humano.
+     * <p>
+     * Igual que {@link #Humano()}, pero los atributos se extraen del flujo
+     * indicado, de modo que la misma semilla genera el mismo Humano.
+     * </p>
+     *
+     * @param rd Flujo aleatorio propio de este Humano.
+     */
+    public Humano(RandomGenerator rd) {
         this.inteligencia = rd.nextInt(MAX_INTELIGENCIA);
         this.fe = rd.nextInt(MAX_FE);
         this.bondad = rd.nextInt(MAX_BONDAD);
@@ -62,6 +80,24 @@ public class Humano extends Fisico implements Espiritual {
         this.alma = rd.nextInt(MAX_ALMA);
     }
 
+    /**
+     * Constructor con valores explícitos, usado por las vistas de fila
+     * ({@link HumanoFila}) que no almacenan estado propio.
+     *
+     * @param inteligencia Inteligencia inicial.
+     * @param fe Fe inicial.
+     * @param bondad Bondad inicial.
+     * @param maldad Maldad inicial.
+     * @param alma Alma inicial.
+     */
+    protected Humano(double inteligencia, double fe, double bondad, double maldad, double alma) {
+        this.inteligencia = inteligencia;
+        this.fe = fe;
+        this.bondad = bondad;
+        this.maldad = maldad;
+        this.alma = alma;
+    }
+
     // -------------------------------------------------------------------------
     /// --- Lógica del Combate y Conflicto Moral ---
     // -------------------------------------------------------------------------
@@ -72,69 +108,131 @@ public class Humano extends Fisico implements Espiritual {
      * Este método actúa como orquestador del turno: selecciona habilidades al azar,
      * calcula las puntuaciones de cada ente incorpóreo mediante {@code golpear()},
      * determina el ganador y aplica los cambios resultantes a la moralidad (bondad/maldad)
-     * y a la fe del Humano.
+     * y a la fe del Humano. Cada paso se informa por consola.
      * </p>
      *
      * @param a El Ángel participante en el conflicto (el "Bien").
      * @param d El Demonio participante en el conflicto (el "Mal").
      */
     public void conflictoMoral(Angel a, Demonio d) {
+        conflictoMoral(a, d, ThreadLocalRandom.current(), SumideroTexto.CONSOLA);
+    }
+
+    /**
+     * Variante reproducible de {@link #conflictoMoral(Angel, Demonio)}: la
+     * selección de habilidades se extrae del flujo indicado.
+     *
+     * @param a El Ángel participante en el conflicto (el "Bien").
+     * @param d El Demonio participante en el conflicto (el "Mal").
+     * @param rd Flujo aleatorio del que se eligen las habilidades.
+     */
+    public void conflictoMoral(Angel a, Demonio d, RandomGenerator rd) {
+        conflictoMoral(a, d, rd, SumideroTexto.CONSOLA);
+    }
+
+    /**
+     * Variante completa del conflicto moral: el azar sale del flujo indicado y
+     * cada paso (conflicto, puntuaciones, ganador, rezo) se informa al sumidero
+     * de eventos en lugar de escribirse en la consola.
+     * <p>
+     * Con un {@code SumideroNulo} este camino no crea ningún objeto: el resultado
+     * se devuelve como código primitivo (ver {@link ResultadoConflicto}).
+     * </p>
+     *
+     * @param a El Ángel participante en el conflicto (el "Bien").
+     * @param d El Demonio participante en el conflicto (el "Mal").
+     * @param rd Flujo aleatorio del que se eligen las habilidades.
+     * @param eventos Sumidero que recibe los eventos del conflicto.
+     * @return Código de resultado del conflicto.
+     */
+    public int conflictoMoral(Angel a, Demonio d, RandomGenerator rd, SumideroEventos eventos) {
+        int indice = getIndice();
+        // Con las métricas desactivadas no se toma tiempo ni se crean eventos
+        boolean medir = Metricas.isActivo();
+        EventoConflicto evento = medir ? Metricas.iniciarConflicto() : null;
+        long inicio = medir ? System.nanoTime() : 0L;
 
         // 1. Selección de Habilidades (mediante el método luchar())
-        int habilidadAngel = a.luchar();
-        int habilidadDemonio = d.luchar();
+        int habilidadAngel = a.luchar(rd);
+        int habilidadDemonio = d.luchar(rd);
+        long seleccion = medir ? System.nanoTime() : 0L;
 
         // 2. Llamada a golpear() para obtener las puntuaciones
         // Se pasa el Ángel 'a' como contexto adicional (angelEnemigo) para que las fórmulas del Demonio
         // que dependen de la Fe del Ángel puedan ejecutarse.
         double puntajeAngel = this.golpear(a, habilidadAngel, a);
         double puntajeDemonio = this.golpear(d, habilidadDemonio, a);
+        long puntuacion = medir ? System.nanoTime() : 0L;
+
+        eventos.conflictoIniciado(indice, habilidadAngel, habilidadDemonio);
+        eventos.puntuaciones(indice, puntajeAngel, puntajeDemonio);
+
+        // 3. Determinar el ganador
+        int ganador = ResultadoConflicto.decidir(puntajeAngel, puntajeDemonio);
+        eventos.ganador(indice, ganador);
+
+        // 4. Aplicar sus consecuencias y el intento de rezo
+        int codigo = aplicarResultado(ganador);
+        eventos.rezo(indice, ResultadoConflicto.rezo(codigo));
+        if (medir) {
+            long fin = System.nanoTime();
+            Metricas.conflicto(evento, new MedicionConflicto(indice, habilidadAngel, habilidadDemonio,
+                    puntajeAngel, puntajeDemonio, ganador, seleccion - inicio, puntuacion - seleccion, fin - puntuacion));
+        }
+        return codigo;
+    }
 
-        System.out.println("  -> Conflicto: Ángel (" + habilidadAngel + ") vs Demonio (" + habilidadDemonio + ")");
-        System.out.printf("  -> Puntuaciones: Ángel=%.2f, Demonio=%.2f%n", puntajeAngel, puntajeDemonio);
-
-        // 3. Determinar el ganador y aplicar las modificaciones a Bondad/Maldad.
-        if (puntajeAngel > puntajeDemonio) {
+    /**
+     * Aplica a este Humano las consecuencias de un conflicto ya decidido: los
+     * cambios de bondad/maldad según el ganador, el intento de rezo con su ajuste
+     * de fe y los límites de los atributos.
+     *
+     * @param ganador {@code SumideroEventos.GANA_ANGEL}, {@code GANA_DEMONIO} o {@code EMPATE}.
+     * @return Código de resultado (ganador y bit de rezo, ver {@link ResultadoConflicto}).
+     */
+    public int aplicarResultado(int ganador) {
+        // Se usan los accesores (y no los campos) para que las vistas sobre una
+        // PoblacionHumana (HumanoFila) apliquen el conflicto directamente sobre sus columnas.
+        if (ganador == SumideroEventos.GANA_ANGEL) {
             // Gana el Ángel: La moralidad se inclina hacia el Bien
-            this.bondad += 1.0;
+            setBondad(getBondad() + 1.0);
             // Asegura que la maldad nunca caiga por debajo de 0
-            this.maldad = Math.max(0.0, this.maldad - 1.0);
-            System.out.println("  -> ¡Gana el Ángel! Bondad++, Maldad--");
+            setMaldad(Math.max(0.0, getMaldad() - 1.0));
 
-        } else if (puntajeDemonio > puntajeAngel) {
+        } else if (ganador == SumideroEventos.GANA_DEMONIO) {
             // Gana el Demonio: La moralidad se inclina hacia el Mal
             // Asegura que la bondad nunca caiga por debajo de 0
-            this.bondad =  Math.max(0.0, this.bondad - 1.0);
-            this.maldad += 1.0;
-            System.out.println("  -> ¡Gana el Demonio! Bondad--, Maldad++");
-
-        } else {
-            // Empate
-            System.out.println("  -> Empate. No hay cambios morales.");
+            setBondad(Math.max(0.0, getBondad() - 1.0));
+            setMaldad(getMaldad() + 1.0);
         }
+        // Empate: no hay cambios morales
 
-        // 4. Intento de Rezo y ajuste de Fe
+        // Intento de Rezo y ajuste de Fe
+        int codigo = ganador;
         if (this.rezar()) { // Llama a la lógica de rezo del Humano
-            this.fe += 1.0;
-            System.out.println("  -> El Humano reza con éxito. Fe++");
+            setFe(getFe() + 1.0);
+            codigo |= ResultadoConflicto.REZO;
         } else {
             // Asegura que la fe nunca caiga por debajo de 0
-            this.fe = Math.max(0.0, this.fe - 1.0);
-            System.out.println("  -> El Humano no puede rezar. Fe--");
+            setFe(Math.max(0.0, getFe() - 1.0));
         }
 
-        // 5. Aplicar límites de atributos (100.0)
-        this.bondad = Math.min(MAX_BONDAD, this.bondad);
-        this.maldad = Math.min(MAX_MALDAD, this.maldad);
-        this.fe = Math.min(MAX_FE, this.fe);
+        // Aplicar límites de atributos (100.0)
+        setBondad(Math.min(MAX_BONDAD, getBondad()));
+        setMaldad(Math.min(MAX_MALDAD, getMaldad()));
+        setFe(Math.min(MAX_FE, getFe()));
+        return codigo;
     }
 
     /**
      * Ejecuta una habilidad específica de un ente Incorpóreo (Ángel o Demonio)
      * sobre este Humano y obtiene la puntuación del ataque/prueba.
      * <p>
-     * Utiliza {@code instanceof} para determinar si el ente es un Ángel o Demonio y
-     * llama al método de habilidad correspondiente.
+     * La fórmula se toma de la tabla de habilidades del ente, resuelta una sola
+     * vez por tipo en {@link RegistroHabilidades}; las habilidades que el tipo
+     * declara nulas (por ejemplo {@code Angel.tentar}) devuelven 0 sin llamada.
+     * Un tipo nuevo de Incorpóreo se incorpora registrando su tabla, sin
+     * modificar este método.
      * </p>
      *
      * @param s El ente Incorpóreo que aplica la habilidad.
@@ -143,33 +241,11 @@ public class Humano extends Fisico implements Espiritual {
      * @return La puntuación obtenida por el Incorpóreo tras aplicar la habilidad (double).
      */
     public double golpear(Incorporeo s, int habilidad, Angel angelEnemigo){
-
-        // Ejecución de habilidades del Ángel
-        if(s instanceof Angel angel){
-            return switch (habilidad) {
-                // Habilidad 0 (enganar) requiere el Ángel como argumento (se pasa a sí mismo)
-                case 0 -> angel.enganiar(this, angel);
-                case 1 -> angel.guiar(this);
-                case 2 -> angel.proteger(this);
-                case 3 -> angel.tentar(this);
-                case 4 -> angel.seducir(this);
-                case 5 -> angel.probar(this);
-                default -> 0.0;
-            };
-            // Ejecución de habilidades del Demonio
-        }else if (s instanceof Demonio demonio) {
-            return switch (habilidad) {
-                // Habilidad 0 (enganar) requiere el Ángel del conflicto (angelEnemigo) para el cálculo de la fórmula.
-                case 0 -> demonio.enganiar(this, angelEnemigo);
-                case 1 -> demonio.guiar(this);
-                case 2 -> demonio.proteger(this);
-                case 3 -> demonio.tentar(this);
-                case 4 -> demonio.seducir(this);
-                case 5 -> demonio.probar(this);
-                default -> 0.0;
-            };
+        double puntaje = s.getHabilidades().puntuar(habilidad, s, this, angelEnemigo);
+        if (Metricas.isActivo()) {
+            Metricas.puntaje(s.getClass(), habilidad, puntaje);
         }
-        return 0.0; // Ente Incorpóreo inválido
+        return puntaje;
     }
 
     // -------------------------------------------------------------------------
@@ -191,6 +267,15 @@ public class Humano extends Fisico implements Espiritual {
     }
 
     /// GETTER Y SETTERS
+
+    /**
+     * @return Posición de este Humano en su población, usada para identificarlo en
+     * los eventos; -1 para un Humano suelto.
+     */
+    public int getIndice() {
+        return -1;
+    }
+
     public double getInteligencia() {
         return inteligencia;
     }
@@ -0,0 +1,50 @@
+package entidades.fisicas;
+
+/**
+ * Vista de un Humano almacenado en un {@link AlmacenHumanos}.
+ * <p>
+ * No guarda estado propio: todos los getters y setters leen y escriben
+ * la fila actual del almacenamiento de la población (las columnas de una
+ * {@link PoblacionHumana} o el segmento de una {@code PoblacionNativa}).
+ * Puede usarse como vista fija de un Humano o como cursor que se desplaza con
+ * {@link #mover(int)}, de modo que la lógica existente de {@link Humano}
+ * (conflicto moral, habilidades de Ángeles y Demonios,
+ * {@code DiosCristiano.esBuenHombre}) funcione sin cambios sobre cualquier
+ * almacenamiento.
+ * </p>
+ */
+public abstract class HumanoFila extends Humano {
+
+    /** Fila global de la fila local 0 del almacén. */
+    private final int primeraFila;
+    /** Fila actual del cursor. */
+    int fila;
+
+    HumanoFila(AlmacenHumanos almacen, int fila) {
+        super(0, 0, 0, 0, 0);
+        this.primeraFila = almacen.getPrimeraFila();
+        this.fila = fila;
+    }
+
+    /**
+     * Desplaza el cursor a otra fila de la población.
+     *
+     * @param fila Índice del Humano a visitar.
+     * @return este mismo cursor, para encadenar llamadas.
+     */
+    public final HumanoFila mover(int fila) {
+        this.fila = fila;
+        return this;
+    }
+
+    /** @return Fila local del cursor en el almacenamiento de la población. */
+    public final int getFila() {
+        return fila;
+    }
+
+    /** @return Fila global: distinta de {@link #getFila()} solo en los fragmentos de población. */
+    @Override
+    public final int getIndice() {
+        return primeraFila + fila;
+    }
+}
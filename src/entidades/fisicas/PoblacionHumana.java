@@ -0,0 +1,229 @@
+package entidades.fisicas;
+
+import aleatorio.FlujoAleatorio;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Almacén columnar de una población de Humanos.
+ * <p>
+ * En lugar de un objeto {@link Humano} por individuo, cada atributo
+ * (inteligencia, fe, bondad, maldad, alma) se guarda en su propio arreglo
+ * primitivo. Así un turno recorre memoria contigua en vez de saltar entre
+ * objetos dispersos por el heap, lo que permite simular millones de almas.
+ * </p>
+ * <p>
+ * Para el código que espera un {@link Humano} (por ejemplo
+ * {@code DiosCristiano.esBuenHombre}) se ofrecen vistas de fila
+ * ({@link HumanoFila}) que leen y escriben directamente sobre las columnas.
+ * </p>
+ * <p>
+ * Un almacén también puede ser un fragmento de una población más grande
+ * repartida entre varios procesos ({@link #fragmento}): guarda solo las filas
+ * globales [{@link #getPrimeraFila()}, {@code getPrimeraFila() + tamanio()}),
+ * con los mismos atributos que tendrían en la población completa.
+ * </p>
+ * <p>
+ * Las columnas viven en el heap; para poblaciones que no caben en él, la
+ * misma disposición fuera del heap está en {@code PoblacionNativa}.
+ * </p>
+ */
+public final class PoblacionHumana implements AlmacenHumanos {
+
+    // --- Columnas de atributos (una posición por Humano) ---
+    final double[] inteligencia;
+    final double[] fe;
+    final double[] bondad;
+    final double[] maldad;
+    final double[] alma;
+
+    /** Semilla maestra de la que se derivaron los atributos iniciales. */
+    private final long semilla;
+    /** Fila de la población completa que corresponde a la fila local 0. */
+    private final int primeraFila;
+    /** Tamaño de la población completa (igual a {@link #tamanio()} salvo en fragmentos). */
+    private final int total;
+
+    /** Cursor interno reutilizado por el recorrido secuencial de {@link #conflictoMoral}. */
+    private final HumanoFila cursor;
+
+    /**
+     * Crea una población de {@code tamanio} Humanos con atributos aleatorios
+     * dentro de los mismos rangos que el constructor de {@link Humano}.
+     *
+     * @param tamanio Cantidad de Humanos de la población.
+     */
+    public PoblacionHumana(int tamanio) {
+        this(tamanio, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Crea una población reproducible a partir de una semilla maestra.
+     * <p>
+     * La fila {@code i} recibe exactamente los mismos atributos que
+     * {@code new Humano(FlujoAleatorio.para(semilla, DOMINIO_HUMANOS, i))}.
+     * </p>
+     *
+     * @param tamanio Cantidad de Humanos de la población.
+     * @param semilla Semilla maestra de la simulación.
+     */
+    public PoblacionHumana(int tamanio, long semilla) {
+        this(semilla, 0, tamanio, tamanio);
+        generar();
+    }
+
+    /** Reserva las columnas en cero, sin generar atributos. */
+    private PoblacionHumana(long semilla, int primeraFila, int tamanio, int total) {
+        this.semilla = semilla;
+        this.primeraFila = primeraFila;
+        this.total = total;
+        this.inteligencia = new double[tamanio];
+        this.fe = new double[tamanio];
+        this.bondad = new double[tamanio];
+        this.maldad = new double[tamanio];
+        this.alma = new double[tamanio];
+        this.cursor = new FilaColumnas(this, 0);
+    }
+
+    /**
+     * Crea una población con todas las columnas en cero, para rellenarlas
+     * después por bloques (por ejemplo al restaurar un punto de control).
+     *
+     * @param tamanio Cantidad de Humanos de la población.
+     * @param semilla Semilla maestra de la simulación original.
+     * @return Población sin inicializar.
+     */
+    public static PoblacionHumana vacia(int tamanio, long semilla) {
+        return new PoblacionHumana(semilla, 0, tamanio, tamanio);
+    }
+
+    /**
+     * Crea el fragmento de una población reproducible que contiene las filas
+     * globales [{@code primeraFila}, {@code primeraFila + tamanio}). Su fila
+     * local {@code i} recibe los mismos atributos que la fila
+     * {@code primeraFila + i} de {@code new PoblacionHumana(total, semilla)}.
+     *
+     * @param primeraFila Primera fila global del fragmento.
+     * @param tamanio Cantidad de Humanos del fragmento.
+     * @param total Tamaño de la población completa.
+     * @param semilla Semilla maestra de la simulación.
+     * @return Fragmento con sus atributos iniciales.
+     * @throws IllegalArgumentException si el fragmento no cabe en la población.
+     */
+    public static PoblacionHumana fragmento(int primeraFila, int tamanio, int total, long semilla) {
+        if (primeraFila < 0 || tamanio < 0 || (long) primeraFila + tamanio > total) {
+            throw new IllegalArgumentException("Fragmento [" + primeraFila + ", " + ((long) primeraFila + tamanio)
+                    + ") fuera de una población de " + total);
+        }
+        PoblacionHumana fragmento = new PoblacionHumana(semilla, primeraFila, tamanio, total);
+        fragmento.generar();
+        return fragmento;
+    }
+
+    /** Deriva los atributos iniciales de cada fila de su fila global. */
+    private void generar() {
+        FlujoAleatorio rd = new FlujoAleatorio(0);
+        for (int i = 0; i < tamanio(); i++) {
+            rd.reiniciar(FlujoAleatorio.derivar(semilla, FlujoAleatorio.DOMINIO_HUMANOS, primeraFila + i));
+            inteligencia[i] = rd.nextInt(Humano.MAX_INTELIGENCIA);
+            fe[i] = rd.nextInt(Humano.MAX_FE);
+            bondad[i] = rd.nextInt(Humano.MAX_BONDAD);
+            maldad[i] = rd.nextInt(Humano.MAX_MALDAD);
+            alma[i] = rd.nextInt(Humano.MAX_ALMA);
+        }
+    }
+
+    /**
+     * Somete al Humano de la fila {@code i} a un conflicto moral, aplicando
+     * la misma lógica que {@link Humano#conflictoMoral(Angel, Demonio)} pero
+     * directamente sobre las columnas.
+     * <p>
+     * Usa un cursor interno, por lo que no debe llamarse desde varios hilos a la vez;
+     * los recorridos concurrentes deben usar su propio cursor ({@link #nuevoCursor()}).
+     * </p>
+     *
+     * @param i Índice del Humano en la población.
+     * @param a El Ángel participante en el conflicto.
+     * @param d El Demonio participante en el conflicto.
+     */
+    public void conflictoMoral(int i, Angel a, Demonio d) {
+        cursor.mover(i).conflictoMoral(a, d);
+    }
+
+    /**
+     * Variante reproducible de {@link #conflictoMoral(int, Angel, Demonio)}.
+     *
+     * @param i Índice del Humano en la población.
+     * @param a El Ángel participante en el conflicto.
+     * @param d El Demonio participante en el conflicto.
+     * @param rd Flujo aleatorio del que se eligen las habilidades.
+     */
+    public void conflictoMoral(int i, Angel a, Demonio d, RandomGenerator rd) {
+        cursor.mover(i).conflictoMoral(a, d, rd);
+    }
+
+    /**
+     * Devuelve una nueva vista del Humano en la fila {@code i}.
+     *
+     * @param i Índice del Humano en la población.
+     * @return Vista que lee y escribe sobre las columnas de esta población.
+     */
+    public HumanoFila fila(int i) {
+        return new FilaColumnas(this, i);
+    }
+
+    @Override
+    public HumanoFila nuevoCursor() {
+        return new FilaColumnas(this, 0);
+    }
+
+    // --- Acceso directo a las columnas (sin copia) ---
+    // Pensado para núcleos de cálculo por bloques; escribir en ellas modifica la población.
+
+    public double[] columnaInteligencia() {
+        return inteligencia;
+    }
+
+    public double[] columnaFe() {
+        return fe;
+    }
+
+    public double[] columnaBondad() {
+        return bondad;
+    }
+
+    public double[] columnaMaldad() {
+        return maldad;
+    }
+
+    public double[] columnaAlma() {
+        return alma;
+    }
+
+    /** @return Semilla maestra de la que se derivaron los atributos iniciales. */
+    @Override
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /** @return Cantidad de Humanos de la población. */
+    @Override
+    public int tamanio() {
+        return fe.length;
+    }
+
+    /** @return Fila global de la fila local 0 (0 salvo en fragmentos). */
+    @Override
+    public int getPrimeraFila() {
+        return primeraFila;
+    }
+
+    /** @return Tamaño de la población completa de la que este almacén es parte. */
+    @Override
+    public int getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,49 @@
+package entidades.fisicas;
+
+import eventos.SumideroEventos;
+
+/**
+ * Códigos primitivos con el resultado de un conflicto moral.
+ * <p>
+ * {@link Humano#conflictoMoral} devuelve un {@code int} en lugar de un objeto,
+ * de modo que el camino sin salida no crea nada por Humano. Los dos bits bajos
+ * guardan el ganador (los mismos valores que {@link SumideroEventos#EMPATE},
+ * {@link SumideroEventos#GANA_ANGEL} y {@link SumideroEventos#GANA_DEMONIO}) y
+ * el bit {@link #REZO} indica si el Humano rezó con éxito.
+ * </p>
+ */
+public final class ResultadoConflicto {
+
+    /** Bit que indica que el Humano rezó con éxito tras el conflicto. */
+    public static final int REZO = 4;
+    /** Máscara de los bits del ganador. */
+    private static final int MASCARA_GANADOR = 3;
+
+    private ResultadoConflicto() {
+    }
+
+    /** @return Ganador del conflicto ({@code SumideroEventos.EMPATE}, {@code GANA_ANGEL} o {@code GANA_DEMONIO}). */
+    public static int ganador(int codigo) {
+        return codigo & MASCARA_GANADOR;
+    }
+
+    /**
+     * Decide el ganador a partir de las dos puntuaciones. Si son iguales o
+     * alguna es NaN (ninguna comparación es verdadera) el conflicto es empate.
+     *
+     * @return {@code SumideroEventos.GANA_ANGEL}, {@code GANA_DEMONIO} o {@code EMPATE}.
+     */
+    public static int decidir(double puntajeAngel, double puntajeDemonio) {
+        if (puntajeAngel > puntajeDemonio) {
+            return SumideroEventos.GANA_ANGEL;
+        } else if (puntajeDemonio > puntajeAngel) {
+            return SumideroEventos.GANA_DEMONIO;
+        }
+        return SumideroEventos.EMPATE;
+    }
+
+    /** @return true si el Humano rezó con éxito. */
+    public static boolean rezo(int codigo) {
+        return (codigo & REZO) != 0;
+    }
+}
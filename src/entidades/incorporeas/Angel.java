@@ -2,9 +2,13 @@ package entidades.incorporeas;
 
 import entidades.fisicas.Humano;
 import subClases.Espiritual;
+import subClases.FormulaHabilidad;
 import subClases.Incorporeo;
+import subClases.RegistroHabilidades;
+import subClases.TablaHabilidades;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Representa a un Ángel dentro del sistema "La Batalla de las Almas".
@@ -20,9 +24,6 @@ import java.util.Random;
  */
 public class Angel extends Incorporeo implements Espiritual {
 
-    /** Generador global de números aleatorios para los atributos del Ángel. */
-    private static final Random rd = new Random();
-
     /** Valor máximo de fe permitido para un Ángel. */
     private static final int MAX_FE = 200;
 
@@ -32,6 +33,19 @@ public class Angel extends Incorporeo implements Espiritual {
     /** Valor máximo de maldad permitido para un Ángel. */
     private static final int MAX_MALDAD = 200;
 
+    // Un Ángel no engaña, no tienta ni seduce: esas habilidades se resuelven sin llamada
+    private static final TablaHabilidades HABILIDADES = new TablaHabilidades(Angel.class,
+            FormulaHabilidad.CERO,                          // enganiar
+            FormulaHabilidad.GUIAR_ANGEL,                   // guiar
+            FormulaHabilidad.PROTEGER_ANGEL,                // proteger
+            FormulaHabilidad.CERO,                          // tentar
+            FormulaHabilidad.CERO,                          // seducir
+            FormulaHabilidad.PROBAR_ANGEL);                 // probar
+
+    static {
+        RegistroHabilidades.registrar(Angel.class, HABILIDADES);
+    }
+
     /**
      * Constructor del Ángel.
      * <p>
@@ -41,7 +55,41 @@ public class Angel extends Incorporeo implements Espiritual {
      * </p>
      */
     public Angel() {
-        super(rd.nextInt(MAX_FE), rd.nextInt(MAX_BONDAD), rd.nextInt(MAX_MALDAD));
+        this(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Constructor reproducible del Ángel: los atributos se extraen del flujo
+     * indicado, de modo que la misma semilla genera el mismo Ángel.
+     *
+     * @param rd Flujo aleatorio propio de este Ángel.
+     */
+    public Angel(RandomGenerator rd) {
+        super(HABILIDADES, rd.nextInt(MAX_FE), rd.nextInt(MAX_BONDAD), rd.nextInt(MAX_MALDAD));
+    }
+
+    /**
+     * Crea un Ángel con atributos conocidos, por ejemplo al restaurar una
+     * batalla guardada. No aplica los rangos aleatorios del enunciado.
+     *
+     * @param fe Fe del Ángel.
+     * @param bondad Bondad del Ángel.
+     * @param maldad Maldad del Ángel.
+     */
+    public Angel(int fe, int bondad, int maldad) {
+        super(HABILIDADES, fe, bondad, maldad);
+    }
+
+    /**
+     * Vuelve a sortear los atributos de este Ángel con los mismos rangos y en
+     * el mismo orden que {@link #Angel(RandomGenerator)}, para reutilizar la
+     * instancia en lugar de crear otra: con el mismo flujo queda igual que un
+     * Ángel recién construido.
+     *
+     * @param rd Flujo aleatorio del que se extraen los atributos.
+     */
+    public void regenerar(RandomGenerator rd) {
+        reiniciar(rd.nextInt(MAX_FE), rd.nextInt(MAX_BONDAD), rd.nextInt(MAX_MALDAD));
     }
 
 
@@ -163,12 +211,16 @@ public class Angel extends Incorporeo implements Espiritual {
      *        sqrt( bondad_angel^2 - maldad_angel^2 )
      * </pre>
      *
+     * <p>
+     * El denominador solo depende del Ángel y se toma ya calculado de
+     * {@link #getRaizBalance()}.
+     * </p>
+     *
      * @param h Humano sometido a prueba moral.
      * @return valor numérico del resultado de la prueba.
      */
     @Override
     public double probar(Humano h) {
-        return (h.getFe() - Math.pow(h.getMaldad(), 2) / h.getInteligencia()) /
-                Math.sqrt(Math.pow(this.getBondad(), 2) - Math.pow(this.getMaldad(), 2));
+        return (h.getFe() - Math.pow(h.getMaldad(), 2) / h.getInteligencia()) / getRaizBalance();
     }
 }
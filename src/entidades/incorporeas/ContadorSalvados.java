@@ -0,0 +1,91 @@
+package entidades.incorporeas;
+
+import entidades.fisicas.AlmacenHumanos;
+import entidades.fisicas.Humano;
+import entidades.fisicas.HumanoFila;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lleva al día cuántos Humanos salvaría {@link DiosCristiano} en cada momento.
+ * <p>
+ * En vez de recorrer toda la población con {@link DiosCristiano#esBuenHombre}
+ * al final de cada turno, el contador parte de un recuento inicial y luego solo
+ * vuelve a evaluar el criterio del Humano que acaba de sufrir un conflicto:
+ * quien lo resuelve anota si estaba salvado antes y, con
+ * {@link #variacion(boolean, Humano)}, obtiene si cambió. Las variaciones se
+ * suman localmente por hilo y se publican con {@link #acumular(long)} una vez
+ * por bloque, así que consultar {@link #getSalvados()} cuesta O(1).
+ * </p>
+ */
+public final class ContadorSalvados {
+
+    private final DiosCristiano dios;
+    private final AtomicLong salvados = new AtomicLong();
+
+    /**
+     * Crea el contador con un recuento inicial de la población.
+     *
+     * @param dios Dios cuyo criterio de salvación se aplica.
+     * @param poblacion Población a seguir.
+     */
+    public ContadorSalvados(DiosCristiano dios, AlmacenHumanos poblacion) {
+        this.dios = dios;
+        recontar(poblacion);
+    }
+
+    /**
+     * Vuelve a contar toda la población, por ejemplo si se modificó fuera de
+     * los conflictos seguidos por este contador.
+     *
+     * @param poblacion Población a contar.
+     */
+    public void recontar(AlmacenHumanos poblacion) {
+        long total = 0;
+        HumanoFila h = poblacion.nuevoCursor();
+        for (int i = 0; i < poblacion.tamanio(); i++) {
+            if (dios.esBuenHombre(h.mover(i))) {
+                total++;
+            }
+        }
+        salvados.set(total);
+    }
+
+    /**
+     * @param h Humano a evaluar.
+     * @return Si {@link DiosCristiano} lo salvaría en su estado actual.
+     */
+    public boolean esSalvado(Humano h) {
+        return dios.esBuenHombre(h);
+    }
+
+    /**
+     * Reevalúa a un Humano tras un cambio.
+     *
+     * @param antes Si estaba salvado antes del cambio.
+     * @param h Humano ya modificado.
+     * @return +1 si pasó a estar salvado, -1 si dejó de estarlo, 0 si no cambió.
+     */
+    public int variacion(boolean antes, Humano h) {
+        boolean despues = dios.esBuenHombre(h);
+        return antes == despues ? 0 : despues ? 1 : -1;
+    }
+
+    /**
+     * Publica la suma de variaciones de un bloque de Humanos.
+     *
+     * @param variacion Cambio neto en la cantidad de salvados.
+     */
+    public void acumular(long variacion) {
+        salvados.addAndGet(variacion);
+    }
+
+    /** @return Cantidad actual de Humanos salvados. */
+    public long getSalvados() {
+        return salvados.get();
+    }
+
+    public DiosCristiano getDios() {
+        return dios;
+    }
+}
@@ -2,8 +2,12 @@ package entidades.incorporeas;
 
 import entidades.fisicas.Humano;
 import subClases.Espiritual;
+import subClases.FormulaHabilidad;
 import subClases.Incorporeo;
-import java.util.Random;
+import subClases.RegistroHabilidades;
+import subClases.TablaHabilidades;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Representa a un Demonio dentro del sistema "La Batalla de las Almas".
@@ -26,14 +30,24 @@ import java.util.Random;
  */
 public class Demonio extends Incorporeo implements Espiritual {
 
-    // Generador de números aleatorios para asignar los valores espirituales
-    private static final Random rd = new Random();
-
     // Valores máximos posibles para los atributos espirituales de un demonio
     private static final int MAX_FE = 200;      // Los demonios pueden tener algo de "fe", aunque no sea positiva
     private static final int MAX_BONDAD = 10;   // Bondad extremadamente baja
     private static final int MAX_MALDAD = 200;  // Maldad muy alta (propia de un demonio)
 
+    // Un Demonio no guía, no protege ni prueba: esas habilidades se resuelven sin llamada
+    private static final TablaHabilidades HABILIDADES = new TablaHabilidades(Demonio.class,
+            FormulaHabilidad.ENGANIAR_DEMONIO,                   // enganiar
+            FormulaHabilidad.CERO,                               // guiar
+            FormulaHabilidad.CERO,                               // proteger
+            FormulaHabilidad.TENTAR_DEMONIO,                     // tentar
+            FormulaHabilidad.SEDUCIR_DEMONIO,                    // seducir
+            FormulaHabilidad.CERO);                              // probar
+
+    static {
+        RegistroHabilidades.registrar(Demonio.class, HABILIDADES);
+    }
+
     /**
      * Constructor del Demonio.
      * Se generan aleatoriamente los valores de fe, bondad y maldad dentro de sus rangos,
@@ -41,12 +55,47 @@ public class Demonio extends Incorporeo implements Espiritual {
      *
      */
     public Demonio() {
+        this(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Constructor reproducible del Demonio: los valores se extraen del flujo
+     * indicado, de modo que la misma semilla genera el mismo Demonio.
+     *
+     * @param rd Flujo aleatorio propio de este Demonio.
+     */
+    public Demonio(RandomGenerator rd) {
         // Llama al constructor de Incorporeo asignando los valores espirituales
-        super(rd.nextInt(MAX_FE),       // fe generada aleatoriamente
+        super(HABILIDADES,
+                rd.nextInt(MAX_FE),       // fe generada aleatoriamente
                 rd.nextInt(MAX_BONDAD),   // bondad generada aleatoriamente
                 rd.nextInt(MAX_MALDAD));  // maldad generada aleatoriamente
     }
 
+    /**
+     * Crea un Demonio con atributos conocidos, por ejemplo al restaurar una
+     * batalla guardada. No aplica los rangos aleatorios del enunciado.
+     *
+     * @param fe Fe del Demonio.
+     * @param bondad Bondad del Demonio.
+     * @param maldad Maldad del Demonio.
+     */
+    public Demonio(int fe, int bondad, int maldad) {
+        super(HABILIDADES, fe, bondad, maldad);
+    }
+
+    /**
+     * Vuelve a sortear los atributos de este Demonio con los mismos rangos y en
+     * el mismo orden que {@link #Demonio(RandomGenerator)}, para reutilizar la
+     * instancia en lugar de crear otra: con el mismo flujo queda igual que un
+     * Demonio recién construido.
+     *
+     * @param rd Flujo aleatorio del que se extraen los atributos.
+     */
+    public void regenerar(RandomGenerator rd) {
+        reiniciar(rd.nextInt(MAX_FE), rd.nextInt(MAX_BONDAD), rd.nextInt(MAX_MALDAD));
+    }
+
     /**
      * Implementación del método rezar() definido en la interfaz Espiritual.
      * <p>
@@ -123,13 +172,17 @@ public class Demonio extends Incorporeo implements Espiritual {
      * </pre>
      * </p>
      *
+     * <p>
+     * El denominador solo depende del Demonio y se toma ya calculado de
+     * {@link #getRaizBalance()}.
+     * </p>
+     *
      * @param h Humano al que se intenta tentar.
      * @return valor numérico que representa la efectividad de la tentación.
      */
     @Override
     public double tentar(Humano h) {
-        return (-h.getFe() + h.getMaldad() / h.getInteligencia()) /
-                Math.sqrt(Math.pow(getBondad(), 2) - Math.pow(getMaldad(), 2));
+        return (-h.getFe() + h.getMaldad() / h.getInteligencia()) / getRaizBalance();
     }
 
 
@@ -1,15 +1,86 @@
 package entidades.incorporeas;
 
 import entidades.fisicas.Humano;
+import subClases.FormulaHabilidad;
 import subClases.Incorporeo;
+import subClases.RegistroHabilidades;
+import subClases.TablaHabilidades;
 
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Dios no lucha: gobierna a los entes incorpóreos de la batalla.
+ * <p>
+ * {@code numAngeles} y {@code numDemonios} son las cantidades que Dios quiere
+ * en la batalla. Sin política quedan fijas; con una {@link PoliticaDios},
+ * {@link #gobernar} las revisa al terminar cada turno y convoca o retira entes
+ * hasta alcanzarlas. Los retirados pasan a una {@link ReservaIncorporeos} y
+ * son los primeros en volver, con sus atributos sorteados de nuevo. Los
+ * convocados reciben identificadores a partir de las cantidades iniciales,
+ * que son las posiciones de los entes con que empezó la batalla.
+ * </p>
+ */
 public class Dios extends Incorporeo {
     private int numAngeles;
     private int numDemonios;
+    /** Política que ajusta las cantidades en cada turno (null si son fijas). */
+    private PoliticaDios politica;
+    private final ReservaIncorporeos<Angel> reservaAngeles;
+    private final ReservaIncorporeos<Demonio> reservaDemonios;
+
+    private static final TablaHabilidades HABILIDADES = new TablaHabilidades(Dios.class,
+            FormulaHabilidad.CERO, FormulaHabilidad.CERO, FormulaHabilidad.CERO,
+            FormulaHabilidad.CERO, FormulaHabilidad.CERO, FormulaHabilidad.CERO);
+
+    static {
+        RegistroHabilidades.registrar(Dios.class, HABILIDADES);
+    }
 
     public Dios(int numAngeles, int numDemonios) {
+        super(HABILIDADES);
         this.numAngeles = numAngeles;
         this.numDemonios = numDemonios;
+        this.reservaAngeles = ReservaIncorporeos.deAngeles(numAngeles);
+        this.reservaDemonios = ReservaIncorporeos.deDemonios(numDemonios);
+    }
+
+    /**
+     * Aplica la política (si la hay) y convoca o retira Ángeles y Demonios
+     * hasta que las listas tengan las cantidades deseadas. Se retiran los
+     * últimos de cada lista y los convocados se agregan al final, así que los
+     * demás conservan su posición.
+     *
+     * @param turno Turno que acaba de terminar.
+     * @param fraccionSalvados Fracción de Humanos salvados tras ese turno.
+     * @param angeles Ángeles en la batalla; se modifica en su lugar.
+     * @param demonios Demonios en la batalla; se modifica en su lugar.
+     * @param rd Flujo del que se sortean los atributos de los convocados.
+     * @return Si alguna de las listas cambió.
+     * @throws IllegalStateException si alguna cantidad deseada es menor que uno.
+     */
+    public boolean gobernar(int turno, double fraccionSalvados, List<Angel> angeles, List<Demonio> demonios,
+                            RandomGenerator rd) {
+        if (politica != null) {
+            politica.decidir(turno, fraccionSalvados, this);
+        }
+        if (numAngeles < 1 || numDemonios < 1) {
+            throw new IllegalStateException("Se necesita al menos un Ángel y un Demonio");
+        }
+        boolean cambio = ajustar(angeles, numAngeles, reservaAngeles, rd);
+        return ajustar(demonios, numDemonios, reservaDemonios, rd) || cambio;
+    }
+
+    private static <T extends Incorporeo> boolean ajustar(List<T> activos, int cantidad,
+                                                          ReservaIncorporeos<T> reserva, RandomGenerator rd) {
+        boolean cambio = activos.size() != cantidad;
+        while (activos.size() > cantidad) {
+            reserva.devolver(activos.remove(activos.size() - 1));
+        }
+        while (activos.size() < cantidad) {
+            activos.add(reserva.obtener(rd));
+        }
+        return cambio;
     }
 
     @Override
@@ -57,4 +128,23 @@ public class Dios extends Incorporeo {
     public void setNumDemonios(int numDemonios) {
         this.numDemonios = numDemonios;
     }
+
+    public PoliticaDios getPolitica() {
+        return politica;
+    }
+
+    /**
+     * @param politica Política que ajusta las cantidades en cada turno, o null para dejarlas fijas.
+     */
+    public void setPolitica(PoliticaDios politica) {
+        this.politica = politica;
+    }
+
+    public ReservaIncorporeos<Angel> getReservaAngeles() {
+        return reservaAngeles;
+    }
+
+    public ReservaIncorporeos<Demonio> getReservaDemonios() {
+        return reservaDemonios;
+    }
 }
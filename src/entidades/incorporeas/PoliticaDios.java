@@ -0,0 +1,21 @@
+package entidades.incorporeas;
+
+/**
+ * Decide, al terminar cada turno, cuántos Ángeles y Demonios quiere {@link Dios}
+ * en el turno siguiente.
+ * <p>
+ * La política solo fija los objetivos con {@link Dios#setNumAngeles} y
+ * {@link Dios#setNumDemonios}; convocar y retirar entes para alcanzarlos es
+ * tarea de {@link Dios#gobernar}. Ambos objetivos deben quedar en al menos uno.
+ * </p>
+ */
+@FunctionalInterface
+public interface PoliticaDios {
+
+    /**
+     * @param turno Turno que acaba de terminar.
+     * @param fraccionSalvados Fracción de Humanos que {@link DiosCristiano} salvaría ahora.
+     * @param dios Dios cuyos objetivos se ajustan.
+     */
+    void decidir(int turno, double fraccionSalvados, Dios dios);
+}
@@ -0,0 +1,85 @@
+package entidades.incorporeas;
+
+/**
+ * Política que busca mantener la fracción de salvados cerca de un objetivo.
+ * <p>
+ * Si la fracción cae por debajo del objetivo (menos el margen), Dios convoca
+ * {@code paso} Ángeles más y retira {@code paso} Demonios; si lo supera (más el
+ * margen), hace lo contrario. Dentro del margen no cambia nada. Las cantidades
+ * siempre quedan entre el mínimo y el máximo.
+ * </p>
+ */
+public class PoliticaPorSalvados implements PoliticaDios {
+
+    private final double objetivo;
+    private final double margen;
+    private final int paso;
+    private final int minimo;
+    private final int maximo;
+
+    /**
+     * @param objetivo Fracción de salvados buscada, entre 0 y 1.
+     * @param margen Desvío tolerado antes de intervenir.
+     * @param paso Entes convocados o retirados de cada bando por turno.
+     * @param minimo Cantidad mínima de cada bando (al menos 1).
+     * @param maximo Cantidad máxima de cada bando.
+     */
+    public PoliticaPorSalvados(double objetivo, double margen, int paso, int minimo, int maximo) {
+        if (minimo < 1 || maximo < minimo) {
+            throw new IllegalArgumentException("Se necesita 1 <= minimo <= maximo");
+        }
+        if (paso < 1) {
+            throw new IllegalArgumentException("paso debe ser mayor que cero");
+        }
+        this.objetivo = objetivo;
+        this.margen = margen;
+        this.paso = paso;
+        this.minimo = minimo;
+        this.maximo = maximo;
+    }
+
+    @Override
+    public void decidir(int turno, double fraccionSalvados, Dios dios) {
+        int cambio;
+        if (fraccionSalvados < objetivo - margen) {
+            cambio = paso;
+        } else if (fraccionSalvados > objetivo + margen) {
+            cambio = -paso;
+        } else {
+            return;
+        }
+        dios.setNumAngeles(acotar(dios.getNumAngeles() + cambio));
+        dios.setNumDemonios(acotar(dios.getNumDemonios() - cambio));
+    }
+
+    private int acotar(int cantidad) {
+        return Math.max(minimo, Math.min(maximo, cantidad));
+    }
+
+    /** @return Descripción estable de la política y sus parámetros (la usa la caché de barridos). */
+    @Override
+    public String toString() {
+        return "PoliticaPorSalvados[objetivo=" + objetivo + ", margen=" + margen + ", paso=" + paso
+                + ", minimo=" + minimo + ", maximo=" + maximo + "]";
+    }
+
+    public double getObjetivo() {
+        return objetivo;
+    }
+
+    public double getMargen() {
+        return margen;
+    }
+
+    public int getPaso() {
+        return paso;
+    }
+
+    public int getMinimo() {
+        return minimo;
+    }
+
+    public int getMaximo() {
+        return maximo;
+    }
+}
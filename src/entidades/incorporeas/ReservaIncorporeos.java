@@ -0,0 +1,113 @@
+package entidades.incorporeas;
+
+import subClases.Incorporeo;
+
+import java.util.ArrayDeque;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Reserva de entes incorpóreos retirados, para reutilizarlos en lugar de
+ * crear instancias nuevas.
+ * <p>
+ * {@link Dios} retira y vuelve a convocar Ángeles y Demonios durante la
+ * batalla. Los retirados se guardan aquí y el siguiente que se convoca es uno
+ * de ellos con los atributos sorteados de nuevo; solo se construye una
+ * instancia cuando la reserva está vacía. Una batalla que sube y baja sus
+ * efectivos deja de crear objetos en cuanto alcanzó su máximo.
+ * </p>
+ * <p>
+ * Un ente reutilizado y uno recién creado reciben sus atributos del mismo
+ * flujo de la misma forma, así que el resultado de la batalla no depende de
+ * cuántos había en la reserva. No admite varios hilos.
+ * </p>
+ * <p>
+ * Cada ente entregado recibe un identificador nuevo ({@link Incorporeo#setId}),
+ * consecutivo a partir del primero indicado, aunque sea una instancia
+ * reutilizada: los conflictos exportados distinguen así a un ente de otro que
+ * ocupó antes su lugar.
+ * </p>
+ *
+ * @param <T> Tipo de ente.
+ */
+public final class ReservaIncorporeos<T extends Incorporeo> {
+
+    private final ArrayDeque<T> libres = new ArrayDeque<>();
+    private final Supplier<T> fabrica;
+    private final BiConsumer<T, RandomGenerator> regenerar;
+    private int siguienteId;
+    private long creados;
+    private long reutilizados;
+
+    /**
+     * @param fabrica Crea un ente nuevo cuando la reserva está vacía (sus atributos se sortean después).
+     * @param regenerar Sortea los atributos de un ente a partir de un flujo.
+     * @param primerId Identificador del primer ente entregado.
+     */
+    public ReservaIncorporeos(Supplier<T> fabrica, BiConsumer<T, RandomGenerator> regenerar, int primerId) {
+        this.fabrica = fabrica;
+        this.regenerar = regenerar;
+        this.siguienteId = primerId;
+    }
+
+    /**
+     * @param primerId Identificador del primer Ángel entregado (la cantidad inicial de Ángeles).
+     * @return Reserva de Ángeles.
+     */
+    public static ReservaIncorporeos<Angel> deAngeles(int primerId) {
+        return new ReservaIncorporeos<>(() -> new Angel(0, 0, 0), Angel::regenerar, primerId);
+    }
+
+    /**
+     * @param primerId Identificador del primer Demonio entregado (la cantidad inicial de Demonios).
+     * @return Reserva de Demonios.
+     */
+    public static ReservaIncorporeos<Demonio> deDemonios(int primerId) {
+        return new ReservaIncorporeos<>(() -> new Demonio(0, 0, 0), Demonio::regenerar, primerId);
+    }
+
+    /**
+     * Entrega un ente con atributos e identificador nuevos: uno retirado si lo
+     * hay, o uno nuevo.
+     *
+     * @param rd Flujo del que se sortean sus atributos.
+     * @return El ente listo para entrar en la batalla.
+     */
+    public T obtener(RandomGenerator rd) {
+        T ente = libres.pollLast();
+        if (ente == null) {
+            ente = fabrica.get();
+            creados++;
+        } else {
+            reutilizados++;
+        }
+        regenerar.accept(ente, rd);
+        ente.setId(siguienteId++);
+        return ente;
+    }
+
+    /**
+     * Guarda un ente retirado para reutilizarlo.
+     *
+     * @param ente Ente que ya no participa de la batalla.
+     */
+    public void devolver(T ente) {
+        libres.addLast(ente);
+    }
+
+    /** @return Entes retirados disponibles. */
+    public int getLibres() {
+        return libres.size();
+    }
+
+    /** @return Entes creados porque la reserva estaba vacía. */
+    public long getCreados() {
+        return creados;
+    }
+
+    /** @return Entes entregados desde la reserva, sin crear uno nuevo. */
+    public long getReutilizados() {
+        return reutilizados;
+    }
+}
@@ -0,0 +1,157 @@
+package estadisticas;
+
+import entidades.fisicas.Humano;
+import entidades.fisicas.ResultadoConflicto;
+import eventos.SumideroEventos;
+
+import java.util.Locale;
+
+/**
+ * Estadísticas de un turno, acumuladas a medida que se resuelven los conflictos.
+ * <p>
+ * Para cada Humano se registra su estado después del conflicto (bondad, maldad y
+ * fe) y el ganador. Las medias y varianzas se llevan con {@link Welford}, las
+ * distribuciones con un {@link Histograma} por atributo, y se cuentan las
+ * victorias de cada bando y los empates. La memoria es fija (tres histogramas de
+ * 101 cubetas) sin importar el tamaño de la población, y no hace falta una
+ * segunda pasada: el motor llena un acumulador por hoja de trabajo y los
+ * combina al cerrar el turno.
+ * </p>
+ */
+public final class EstadisticasTurno {
+
+    private int turno;
+
+    private final Welford bondad = new Welford();
+    private final Welford maldad = new Welford();
+    private final Welford fe = new Welford();
+
+    private final Histograma histogramaBondad = new Histograma();
+    private final Histograma histogramaMaldad = new Histograma();
+    private final Histograma histogramaFe = new Histograma();
+
+    private long victoriasAngel;
+    private long victoriasDemonio;
+    private long empates;
+
+    /**
+     * Registra el resultado del conflicto de un Humano.
+     *
+     * @param h Humano tras el conflicto.
+     * @param codigo Código devuelto por {@code conflictoMoral} (ver {@link ResultadoConflicto}).
+     */
+    public void registrar(Humano h, int codigo) {
+        double b = h.getBondad();
+        double m = h.getMaldad();
+        double f = h.getFe();
+        bondad.agregar(b);
+        maldad.agregar(m);
+        fe.agregar(f);
+        histogramaBondad.agregar(b);
+        histogramaMaldad.agregar(m);
+        histogramaFe.agregar(f);
+        switch (ResultadoConflicto.ganador(codigo)) {
+            case SumideroEventos.GANA_ANGEL -> victoriasAngel++;
+            case SumideroEventos.GANA_DEMONIO -> victoriasDemonio++;
+            default -> empates++;
+        }
+    }
+
+    /**
+     * Suma resultados de conflictos contados en otra parte, sin sus atributos
+     * (por ejemplo al reconstruir un acumulador recibido de otro proceso).
+     */
+    public void sumarResultados(long victoriasAngel, long victoriasDemonio, long empates) {
+        this.victoriasAngel += victoriasAngel;
+        this.victoriasDemonio += victoriasDemonio;
+        this.empates += empates;
+    }
+
+    /** Incorpora las estadísticas parciales de otra hoja del mismo turno. */
+    public void combinar(EstadisticasTurno otras) {
+        bondad.combinar(otras.bondad);
+        maldad.combinar(otras.maldad);
+        fe.combinar(otras.fe);
+        histogramaBondad.combinar(otras.histogramaBondad);
+        histogramaMaldad.combinar(otras.histogramaMaldad);
+        histogramaFe.combinar(otras.histogramaFe);
+        victoriasAngel += otras.victoriasAngel;
+        victoriasDemonio += otras.victoriasDemonio;
+        empates += otras.empates;
+    }
+
+    /** Vacía el acumulador para reutilizarlo en otro turno. */
+    public void reiniciar(int turno) {
+        this.turno = turno;
+        bondad.reiniciar();
+        maldad.reiniciar();
+        fe.reiniciar();
+        histogramaBondad.reiniciar();
+        histogramaMaldad.reiniciar();
+        histogramaFe.reiniciar();
+        victoriasAngel = 0;
+        victoriasDemonio = 0;
+        empates = 0;
+    }
+
+    public int getTurno() {
+        return turno;
+    }
+
+    public void setTurno(int turno) {
+        this.turno = turno;
+    }
+
+    public Welford getBondad() {
+        return bondad;
+    }
+
+    public Welford getMaldad() {
+        return maldad;
+    }
+
+    public Welford getFe() {
+        return fe;
+    }
+
+    public Histograma getHistogramaBondad() {
+        return histogramaBondad;
+    }
+
+    public Histograma getHistogramaMaldad() {
+        return histogramaMaldad;
+    }
+
+    public Histograma getHistogramaFe() {
+        return histogramaFe;
+    }
+
+    public long getVictoriasAngel() {
+        return victoriasAngel;
+    }
+
+    public long getVictoriasDemonio() {
+        return victoriasDemonio;
+    }
+
+    public long getEmpates() {
+        return empates;
+    }
+
+    /** @return Cantidad de conflictos registrados. */
+    public long getConflictos() {
+        return victoriasAngel + victoriasDemonio + empates;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Turno %d: bondad %.2f±%.2f (p50=%.0f p90=%.0f), maldad %.2f±%.2f (p50=%.0f p90=%.0f), "
+                        + "fe %.2f±%.2f (p50=%.0f p90=%.0f), ángel %d / demonio %d / empate %d",
+                turno,
+                bondad.getMedia(), bondad.getDesviacion(), histogramaBondad.cuantil(0.5), histogramaBondad.cuantil(0.9),
+                maldad.getMedia(), maldad.getDesviacion(), histogramaMaldad.cuantil(0.5), histogramaMaldad.cuantil(0.9),
+                fe.getMedia(), fe.getDesviacion(), histogramaFe.cuantil(0.5), histogramaFe.cuantil(0.9),
+                victoriasAngel, victoriasDemonio, empates);
+    }
+}
@@ -0,0 +1,80 @@
+package estadisticas;
+
+/**
+ * Histograma de cubetas fijas de ancho 1 sobre el rango de atributos de un
+ * Humano (0 a 100).
+ * <p>
+ * Los atributos de bondad, maldad y fe solo cambian de a una unidad y se
+ * recortan a [0, 100], así que cada cubeta corresponde a un valor entero; los
+ * valores fuera de rango van a la cubeta del extremo. Los cuantiles se obtienen
+ * recorriendo las 101 cubetas, sin guardar las muestras.
+ * </p>
+ */
+public final class Histograma {
+
+    /** Cantidad de cubetas: una por valor entero entre 0 y 100. */
+    public static final int CUBETAS = 101;
+
+    private final long[] cuentas = new long[CUBETAS];
+    private long total;
+
+    public void agregar(double valor) {
+        int cubeta = valor <= 0 ? 0 : valor >= CUBETAS - 1 ? CUBETAS - 1 : (int) valor;
+        cuentas[cubeta]++;
+        total++;
+    }
+
+    /**
+     * Agrega {@code veces} muestras de un mismo valor de una vez.
+     *
+     * @param valor Valor entero entre 0 y 100.
+     * @param veces Cantidad de muestras.
+     */
+    public void agregar(int valor, long veces) {
+        cuentas[valor] += veces;
+        total += veces;
+    }
+
+    /** Suma las cuentas de otro histograma a este. */
+    public void combinar(Histograma otro) {
+        for (int i = 0; i < CUBETAS; i++) {
+            cuentas[i] += otro.cuentas[i];
+        }
+        total += otro.total;
+    }
+
+    public void reiniciar() {
+        java.util.Arrays.fill(cuentas, 0);
+        total = 0;
+    }
+
+    /**
+     * Cuantil aproximado (con la resolución de una cubeta).
+     *
+     * @param q Probabilidad entre 0 y 1 (por ejemplo 0.5 para la mediana).
+     * @return Menor valor de cubeta cuya frecuencia acumulada alcanza {@code q}, o NaN si está vacío.
+     */
+    public double cuantil(double q) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(q * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= objetivo) {
+                return i;
+            }
+        }
+        return CUBETAS - 1;
+    }
+
+    /** @return Cantidad de muestras en la cubeta del valor {@code valor}. */
+    public long getCuenta(int valor) {
+        return cuentas[valor];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
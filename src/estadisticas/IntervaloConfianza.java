@@ -0,0 +1,82 @@
+package estadisticas;
+
+import java.util.Locale;
+
+/**
+ * Intervalo de confianza del 95 % para una media, a partir de muestras
+ * independientes acumuladas en un {@link Welford}.
+ * <p>
+ * Usa la t de Student con {@code n - 1} grados de libertad (tabulada hasta 30
+ * y aproximada por la normal a partir de ahí).
+ * </p>
+ */
+public final class IntervaloConfianza {
+
+    /** Cuantil 0.975 de la t de Student para 1 a 30 grados de libertad. */
+    private static final double[] T_975 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    /** Cuantil 0.975 de la normal estándar. */
+    private static final double Z_975 = 1.959964;
+
+    private final long n;
+    private final double media;
+    private final double desviacion;
+    private final double margen;
+
+    private IntervaloConfianza(long n, double media, double desviacion, double margen) {
+        this.n = n;
+        this.media = media;
+        this.desviacion = desviacion;
+        this.margen = margen;
+    }
+
+    /**
+     * @param muestras Acumulador con una muestra por réplica independiente.
+     * @return Intervalo del 95 % para la media (margen NaN si hay menos de dos muestras).
+     */
+    public static IntervaloConfianza del95(Welford muestras) {
+        long n = muestras.getCantidad();
+        double desviacion = Math.sqrt(muestras.getVarianzaMuestral());
+        if (n < 2) {
+            return new IntervaloConfianza(n, muestras.getMedia(), desviacion, Double.NaN);
+        }
+        long gl = n - 1;
+        double t = gl <= T_975.length ? T_975[(int) gl - 1] : Z_975;
+        return new IntervaloConfianza(n, muestras.getMedia(), desviacion, t * desviacion / Math.sqrt(n));
+    }
+
+    public long getCantidad() {
+        return n;
+    }
+
+    public double getMedia() {
+        return media;
+    }
+
+    /** @return Desviación estándar muestral de las réplicas. */
+    public double getDesviacion() {
+        return desviacion;
+    }
+
+    /** @return Semiancho del intervalo. */
+    public double getMargen() {
+        return margen;
+    }
+
+    public double getInferior() {
+        return media - margen;
+    }
+
+    public double getSuperior() {
+        return media + margen;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%.4f ± %.4f  [%.4f, %.4f]  (σ=%.4f)",
+                media, margen, getInferior(), getSuperior(), desviacion);
+    }
+}
@@ -0,0 +1,94 @@
+package estadisticas;
+
+/**
+ * Media y varianza en línea por el algoritmo de Welford.
+ * <p>
+ * Cada valor se incorpora en O(1) sin guardarlo, con buena estabilidad
+ * numérica aun con millones de muestras. Dos acumuladores parciales (por
+ * ejemplo de hilos distintos) se combinan con la fórmula de Chan et al.
+ * </p>
+ */
+public final class Welford {
+
+    private long n;
+    private double media;
+    /** Suma de los cuadrados de las desviaciones respecto de la media. */
+    private double m2;
+
+    public void agregar(double x) {
+        n++;
+        double delta = x - media;
+        media += delta / n;
+        m2 += delta * (x - media);
+    }
+
+    /**
+     * Incorpora las muestras de otro acumulador, como si se hubieran agregado aquí.
+     *
+     * @param otro Acumulador parcial (no se modifica).
+     */
+    public void combinar(Welford otro) {
+        if (otro.n == 0) {
+            return;
+        }
+        if (n == 0) {
+            n = otro.n;
+            media = otro.media;
+            m2 = otro.m2;
+            return;
+        }
+        long total = n + otro.n;
+        double delta = otro.media - media;
+        media += delta * otro.n / total;
+        m2 += otro.m2 + delta * delta * ((double) n * otro.n / total);
+        n = total;
+    }
+
+    public void reiniciar() {
+        n = 0;
+        media = 0;
+        m2 = 0;
+    }
+
+    /**
+     * Reemplaza el estado del acumulador, por ejemplo con uno recibido de otro
+     * proceso, que luego puede combinarse como cualquier otro.
+     *
+     * @param n Cantidad de muestras.
+     * @param media Media de las muestras.
+     * @param sumaCuadrados Suma de los cuadrados de las desviaciones ({@link #getSumaCuadrados()}).
+     */
+    public void restaurar(long n, double media, double sumaCuadrados) {
+        this.n = n;
+        this.media = media;
+        this.m2 = sumaCuadrados;
+    }
+
+    public long getCantidad() {
+        return n;
+    }
+
+    /** @return Media de las muestras (0 si no hay ninguna). */
+    public double getMedia() {
+        return media;
+    }
+
+    /** @return Varianza poblacional de las muestras (0 si hay menos de dos). */
+    public double getVarianza() {
+        return n < 2 ? 0 : m2 / n;
+    }
+
+    /** @return Suma de los cuadrados de las desviaciones respecto de la media. */
+    public double getSumaCuadrados() {
+        return m2;
+    }
+
+    public double getDesviacion() {
+        return Math.sqrt(getVarianza());
+    }
+
+    /** @return Varianza muestral (con corrección de Bessel; 0 si hay menos de dos). */
+    public double getVarianzaMuestral() {
+        return n < 2 ? 0 : m2 / (n - 1);
+    }
+}
@@ -0,0 +1,18 @@
+package eventos;
+
+/**
+ * Códigos de color ANSI de la salida de consola, compartidos por el relato de
+ * texto ({@link SumideroTexto}) y el tablero.
+ */
+public final class Ansi {
+
+    public static final String ANSI_RESET = "\u001B[0m";
+    public static final String ANSI_RED = "\u001B[31m";
+    public static final String ANSI_GREEN = "\u001B[32m";
+    public static final String ANSI_YELLOW = "\u001B[33m";
+    public static final String ANSI_CYAN = "\u001B[36m";
+    public static final String ANSI_PURPLE = "\u001B[35m";
+
+    private Ansi() {
+    }
+}
@@ -0,0 +1,350 @@
+package eventos;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sumidero asíncrono: encola los eventos en un búfer circular sin bloqueos y un
+ * hilo escritor en segundo plano los entrega a otro sumidero.
+ * <p>
+ * Los hilos de la simulación solo reservan una posición con un incremento
+ * atómico, copian los argumentos primitivos a una ranura preasignada y la
+ * publican; el formateo y la E/S quedan en el hilo escritor. Cada ranura lleva
+ * un número de secuencia (esquema de Vyukov): vale {@code pos} cuando está libre
+ * para el productor de la vuelta {@code pos} y {@code pos + 1} cuando contiene
+ * un evento listo para el escritor. Si el búfer se llena, los productores
+ * esperan a que el escritor libere ranuras, lo que acota la memoria.
+ * </p>
+ * <p>
+ * El orden de entrega es el orden en que los productores reservaron posición;
+ * los eventos de un mismo hilo siempre conservan su orden relativo.
+ * </p>
+ * <p>
+ * Si el destino lanza una excepción, el escritor la guarda y termina. A partir
+ * de ahí cada evento nuevo lanza una {@link IllegalStateException} con esa
+ * causa, en lugar de dejar a los productores esperando ranuras que nadie va a
+ * liberar. Los eventos publicados después de {@link #cerrar()} también lanzan
+ * una {@link IllegalStateException}; uno publicado mientras otro hilo cierra
+ * puede entregarse o perderse.
+ * </p>
+ */
+public final class SumideroAsincrono implements SumideroEventos {
+
+    /** Capacidad por defecto del búfer (potencia de dos). */
+    public static final int CAPACIDAD_POR_DEFECTO = 1 << 14;
+
+    // --- Tipos de evento almacenados en las ranuras ---
+    private static final int INICIO_BATALLA = 0;
+    private static final int INICIO_TURNO = 1;
+    private static final int ESTADO_HUMANO = 2;
+    private static final int CONFLICTO = 3;
+    private static final int PUNTUACIONES = 4;
+    private static final int GANADOR = 5;
+    private static final int REZO = 6;
+    private static final int FIN_TURNO = 7;
+    private static final int FIN_BATALLA = 8;
+    private static final int VEREDICTO = 9;
+    private static final int RESUMEN = 10;
+
+    /** Ranura preasignada del búfer; sus campos se reutilizan en cada vuelta. */
+    private static final class Ranura {
+        int tipo;
+        int humano;
+        int entero1;
+        int entero2;
+        int entero3;
+        double real1;
+        double real2;
+        double real3;
+        boolean bandera;
+        long largo;
+    }
+
+    private final SumideroEventos destino;
+    private final Ranura[] ranuras;
+    private final AtomicLongArray secuencias;
+    private final int mascara;
+    /** Próxima posición a reservar por los productores. */
+    private final AtomicLong cola = new AtomicLong();
+    /** Próxima posición a entregar por el escritor (solo la escribe el escritor). */
+    private volatile long cabeza;
+    private volatile boolean cerrado;
+    /** Excepción que detuvo al escritor (null mientras funcione). */
+    private volatile Throwable fallo;
+    private final Thread escritor;
+
+    /**
+     * @param destino Sumidero que recibe los eventos desde el hilo escritor.
+     */
+    public SumideroAsincrono(SumideroEventos destino) {
+        this(destino, CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * @param destino Sumidero que recibe los eventos desde el hilo escritor.
+     * @param capacidad Cantidad de ranuras; se redondea a la potencia de dos siguiente.
+     */
+    public SumideroAsincrono(SumideroEventos destino, int capacidad) {
+        int tamanio = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        this.destino = destino;
+        this.ranuras = new Ranura[tamanio];
+        this.secuencias = new AtomicLongArray(tamanio);
+        this.mascara = tamanio - 1;
+        for (int i = 0; i < tamanio; i++) {
+            ranuras[i] = new Ranura();
+            secuencias.set(i, i);
+        }
+        this.escritor = new Thread(this::escribir, "escritor-eventos");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    // -------------------------------------------------------------------------
+    // Productores
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reserva la siguiente posición y espera a que su ranura esté libre.
+     *
+     * @throws IllegalStateException si el escritor falló o el sumidero ya se cerró.
+     */
+    private long reservar() {
+        comprobarEscritor();
+        if (cerrado) {
+            throw new IllegalStateException("El sumidero asíncrono ya está cerrado");
+        }
+        long pos = cola.getAndIncrement();
+        int indice = (int) pos & mascara;
+        int intentos = 0;
+        while (secuencias.get(indice) != pos) {
+            // Búfer lleno: el escritor aún no liberó esta ranura
+            if (++intentos < 100) {
+                Thread.onSpinWait();
+            } else {
+                // Un escritor detenido no va a liberarla nunca
+                if (!escritor.isAlive()) {
+                    comprobarEscritor();
+                    throw new IllegalStateException("El sumidero asíncrono ya está cerrado");
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+        }
+        return pos;
+    }
+
+    /** @throws IllegalStateException si el escritor se detuvo por una excepción. */
+    private void comprobarEscritor() {
+        Throwable causa = fallo;
+        if (causa != null) {
+            throw new IllegalStateException("El escritor de eventos falló", causa);
+        }
+    }
+
+    /** Publica la ranura de la posición reservada para el escritor. */
+    private void publicar(long pos) {
+        secuencias.set((int) pos & mascara, pos + 1);
+    }
+
+    @Override
+    public void inicioBatalla(int humanos, int angeles, int demonios, int turnos, long semilla) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = INICIO_BATALLA;
+        r.humano = humanos;
+        r.entero1 = angeles;
+        r.entero2 = demonios;
+        r.entero3 = turnos;
+        r.largo = semilla;
+        publicar(pos);
+    }
+
+    @Override
+    public void inicioTurno(int turno, int turnos) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = INICIO_TURNO;
+        r.entero1 = turno;
+        r.entero2 = turnos;
+        publicar(pos);
+    }
+
+    @Override
+    public void estadoHumano(int humano, boolean inicio, double bondad, double maldad, double fe) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = ESTADO_HUMANO;
+        r.humano = humano;
+        r.bandera = inicio;
+        r.real1 = bondad;
+        r.real2 = maldad;
+        r.real3 = fe;
+        publicar(pos);
+    }
+
+    @Override
+    public void conflictoIniciado(int humano, int habilidadAngel, int habilidadDemonio) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = CONFLICTO;
+        r.humano = humano;
+        r.entero1 = habilidadAngel;
+        r.entero2 = habilidadDemonio;
+        publicar(pos);
+    }
+
+    @Override
+    public void puntuaciones(int humano, double puntajeAngel, double puntajeDemonio) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = PUNTUACIONES;
+        r.humano = humano;
+        r.real1 = puntajeAngel;
+        r.real2 = puntajeDemonio;
+        publicar(pos);
+    }
+
+    @Override
+    public void ganador(int humano, int ganador) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = GANADOR;
+        r.humano = humano;
+        r.entero1 = ganador;
+        publicar(pos);
+    }
+
+    @Override
+    public void rezo(int humano, boolean exito) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = REZO;
+        r.humano = humano;
+        r.bandera = exito;
+        publicar(pos);
+    }
+
+    @Override
+    public void finTurno(int turno) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = FIN_TURNO;
+        r.entero1 = turno;
+        publicar(pos);
+    }
+
+    @Override
+    public void finBatalla() {
+        long pos = reservar();
+        ranuras[(int) pos & mascara].tipo = FIN_BATALLA;
+        publicar(pos);
+    }
+
+    @Override
+    public void veredicto(int humano, boolean salvado, double bondad, double maldad) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = VEREDICTO;
+        r.humano = humano;
+        r.bandera = salvado;
+        r.real1 = bondad;
+        r.real2 = maldad;
+        publicar(pos);
+    }
+
+    @Override
+    public void resumen(int salvados, int total) {
+        long pos = reservar();
+        Ranura r = ranuras[(int) pos & mascara];
+        r.tipo = RESUMEN;
+        r.entero1 = salvados;
+        r.entero2 = total;
+        publicar(pos);
+    }
+
+    /**
+     * Espera a que el escritor entregue todos los eventos encolados hasta ahora.
+     */
+    public void vaciar() {
+        long objetivo = cola.get();
+        while (cabeza < objetivo && escritor.isAlive()) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    /**
+     * Entrega los eventos pendientes, detiene el hilo escritor y cierra el destino.
+     * Los eventos publicados después de cerrar lanzan una {@link IllegalStateException}.
+     *
+     * @throws IllegalStateException si el escritor se detuvo antes por una
+     * excepción (el destino se cierra igual).
+     */
+    @Override
+    public void cerrar() {
+        vaciar();
+        cerrado = true;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        destino.cerrar();
+        comprobarEscritor();
+    }
+
+    /** @return La excepción que detuvo al escritor, o null si no falló. */
+    public Throwable getFallo() {
+        return fallo;
+    }
+
+    // -------------------------------------------------------------------------
+    // Hilo escritor
+    // -------------------------------------------------------------------------
+
+    private void escribir() {
+        long pos = cabeza;
+        int ociosos = 0;
+        while (true) {
+            int indice = (int) pos & mascara;
+            if (secuencias.get(indice) == pos + 1) {
+                try {
+                    entregar(ranuras[indice]);
+                } catch (Throwable t) {
+                    // Se guarda para los productores y para cerrar(); el escritor no sigue
+                    fallo = t;
+                    return;
+                }
+                // Libera la ranura para la vuelta siguiente de los productores
+                secuencias.set(indice, pos + ranuras.length);
+                cabeza = ++pos;
+                ociosos = 0;
+            } else if (cerrado) {
+                return;
+            } else if (++ociosos < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+            }
+        }
+    }
+
+    private void entregar(Ranura r) {
+        switch (r.tipo) {
+            case INICIO_BATALLA -> destino.inicioBatalla(r.humano, r.entero1, r.entero2, r.entero3, r.largo);
+            case INICIO_TURNO -> destino.inicioTurno(r.entero1, r.entero2);
+            case ESTADO_HUMANO -> destino.estadoHumano(r.humano, r.bandera, r.real1, r.real2, r.real3);
+            case CONFLICTO -> destino.conflictoIniciado(r.humano, r.entero1, r.entero2);
+            case PUNTUACIONES -> destino.puntuaciones(r.humano, r.real1, r.real2);
+            case GANADOR -> destino.ganador(r.humano, r.entero1);
+            case REZO -> destino.rezo(r.humano, r.bandera);
+            case FIN_TURNO -> destino.finTurno(r.entero1);
+            case FIN_BATALLA -> destino.finBatalla();
+            case VEREDICTO -> destino.veredicto(r.humano, r.bandera, r.real1, r.real2);
+            case RESUMEN -> destino.resumen(r.entero1, r.entero2);
+            default -> {
+            }
+        }
+    }
+}
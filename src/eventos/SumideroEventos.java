@@ -0,0 +1,61 @@
+package eventos;
+
+/**
+ * Receptor de los eventos de una batalla.
+ * <p>
+ * La simulación no escribe directamente en la consola: informa cada hecho
+ * (inicio de turno, conflicto, puntuaciones, ganador, rezo, veredicto...) como
+ * una llamada tipada con argumentos primitivos, y cada implementación decide qué
+ * hacer con él: mostrarlo en consola con colores ({@link SumideroTexto#consola()}),
+ * guardarlo en un archivo de texto plano ({@link SumideroTexto#archivo}),
+ * descartarlo ({@link SumideroNulo}) o encolarlo para un hilo escritor
+ * ({@link SumideroAsincrono}).
+ * </p>
+ * <p>
+ * Los índices de Humano son la fila en su población, o -1 para un Humano suelto.
+ * </p>
+ */
+public interface SumideroEventos {
+
+    // --- Ganador de un conflicto ---
+    int EMPATE = 0;
+    int GANA_ANGEL = 1;
+    int GANA_DEMONIO = 2;
+
+    /** Se crearon las entidades y comienza la simulación. */
+    void inicioBatalla(int humanos, int angeles, int demonios, int turnos, long semilla);
+
+    /** Comienza el turno {@code turno} de {@code turnos}. */
+    void inicioTurno(int turno, int turnos);
+
+    /** Estado de un Humano al iniciar ({@code inicio = true}) o terminar su conflicto. */
+    void estadoHumano(int humano, boolean inicio, double bondad, double maldad, double fe);
+
+    /** Un Humano entra en conflicto: habilidades elegidas por el Ángel y el Demonio. */
+    void conflictoIniciado(int humano, int habilidadAngel, int habilidadDemonio);
+
+    /** Puntuaciones obtenidas por el Ángel y el Demonio en el conflicto. */
+    void puntuaciones(int humano, double puntajeAngel, double puntajeDemonio);
+
+    /** Resultado del conflicto: {@link #GANA_ANGEL}, {@link #GANA_DEMONIO} o {@link #EMPATE}. */
+    void ganador(int humano, int ganador);
+
+    /** Resultado del intento de rezo posterior al conflicto. */
+    void rezo(int humano, boolean exito);
+
+    /** Terminó el turno {@code turno}. */
+    void finTurno(int turno);
+
+    /** Terminaron todos los turnos; siguen los veredictos. */
+    void finBatalla();
+
+    /** Veredicto final de {@code DiosCristiano} sobre un Humano. */
+    void veredicto(int humano, boolean salvado, double bondad, double maldad);
+
+    /** Resumen final de la batalla. */
+    void resumen(int salvados, int total);
+
+    /** Entrega los eventos pendientes y libera los recursos del sumidero. */
+    default void cerrar() {
+    }
+}
@@ -0,0 +1,56 @@
+package eventos;
+
+/**
+ * Sumidero que descarta todos los eventos, para simulaciones sin salida.
+ */
+public final class SumideroNulo implements SumideroEventos {
+
+    public static final SumideroNulo INSTANCIA = new SumideroNulo();
+
+    private SumideroNulo() {
+    }
+
+    @Override
+    public void inicioBatalla(int humanos, int angeles, int demonios, int turnos, long semilla) {
+    }
+
+    @Override
+    public void inicioTurno(int turno, int turnos) {
+    }
+
+    @Override
+    public void estadoHumano(int humano, boolean inicio, double bondad, double maldad, double fe) {
+    }
+
+    @Override
+    public void conflictoIniciado(int humano, int habilidadAngel, int habilidadDemonio) {
+    }
+
+    @Override
+    public void puntuaciones(int humano, double puntajeAngel, double puntajeDemonio) {
+    }
+
+    @Override
+    public void ganador(int humano, int ganador) {
+    }
+
+    @Override
+    public void rezo(int humano, boolean exito) {
+    }
+
+    @Override
+    public void finTurno(int turno) {
+    }
+
+    @Override
+    public void finBatalla() {
+    }
+
+    @Override
+    public void veredicto(int humano, boolean salvado, double bondad, double maldad) {
+    }
+
+    @Override
+    public void resumen(int salvados, int total) {
+    }
+}
@@ -0,0 +1,163 @@
+package eventos;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static eventos.Ansi.ANSI_CYAN;
+import static eventos.Ansi.ANSI_GREEN;
+import static eventos.Ansi.ANSI_PURPLE;
+import static eventos.Ansi.ANSI_RED;
+import static eventos.Ansi.ANSI_RESET;
+import static eventos.Ansi.ANSI_YELLOW;
+
+/**
+ * Sumidero que escribe los eventos como texto, con el mismo formato que la
+ * salida original de la batalla.
+ * <p>
+ * Con colores activados produce la salida de consola con códigos ANSI; sin
+ * ellos, texto plano apto para archivos. No es seguro para varios hilos: si
+ * varios productores comparten la salida, debe envolverse en un
+ * {@link SumideroAsincrono}, que la usa desde un único hilo escritor.
+ * </p>
+ * <p>
+ * Cada línea de un conflicto lleva el número de su Humano: con el motor
+ * paralelo los conflictos de distintos Humanos se entrelazan, y así cada línea
+ * sigue pudiendo atribuirse.
+ * </p>
+ */
+public class SumideroTexto implements SumideroEventos {
+
+    /** Sumidero de consola compartido, usado por las variantes de conflicto sin sumidero explícito. */
+    public static final SumideroTexto CONSOLA = consola();
+
+    private final PrintStream salida;
+    private final boolean colores;
+    private final boolean propia;
+
+    /**
+     * @param salida Flujo donde se escribe el texto, o null para usar el
+     *               {@code System.out} vigente en cada evento.
+     * @param colores true para incluir los códigos de color ANSI.
+     * @param propia true si el sumidero debe cerrar el flujo al terminar.
+     */
+    public SumideroTexto(PrintStream salida, boolean colores, boolean propia) {
+        this.salida = salida;
+        this.colores = colores;
+        this.propia = propia;
+    }
+
+    /** @return Sumidero que escribe en la consola, con colores. */
+    public static SumideroTexto consola() {
+        return new SumideroTexto(null, true, false);
+    }
+
+    /**
+     * @param archivo Ruta del archivo a crear (se sobrescribe si existe).
+     * @return Sumidero que escribe texto plano UTF-8 en el archivo.
+     */
+    public static SumideroTexto archivo(Path archivo) {
+        try {
+            PrintStream ps = new PrintStream(new BufferedOutputStream(Files.newOutputStream(archivo), 1 << 16),
+                    false, StandardCharsets.UTF_8);
+            return new SumideroTexto(ps, false, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private PrintStream salida() {
+        return salida != null ? salida : System.out;
+    }
+
+    /** @return El código ANSI si los colores están activados, o texto vacío. */
+    private String c(String ansi) {
+        return colores ? ansi : "";
+    }
+
+    @Override
+    public void inicioBatalla(int humanos, int angeles, int demonios, int turnos, long semilla) {
+        salida().println(c(ANSI_CYAN) + "\n========== Inicializando el Mundo de la Batalla ==========" + c(ANSI_RESET));
+        salida().printf(c(ANSI_GREEN) + "Creados %d Humanos, %d Ángeles, %d Demonios (semilla %d)." + c(ANSI_RESET) + "%n",
+                humanos, angeles, demonios, semilla);
+        salida().println(c(ANSI_PURPLE) + "\n--- Comienza la Simulación (Turnos: " + turnos + ") ---" + c(ANSI_RESET));
+    }
+
+    @Override
+    public void inicioTurno(int turno, int turnos) {
+        salida().printf(c(ANSI_CYAN) + "\n===== TURNO %d/%d =====%n" + c(ANSI_RESET), turno, turnos);
+    }
+
+    @Override
+    public void estadoHumano(int humano, boolean inicio, double bondad, double maldad, double fe) {
+        salida().printf(c(ANSI_YELLOW) + "[Humano %d] %s (B:%.0f, M:%.0f, F:%.0f)" + c(ANSI_RESET) + "%n",
+                humano, inicio ? "Inicia" : "Termina", bondad, maldad, fe);
+        if (!inicio) {
+            salida().println(c(ANSI_PURPLE) + "-------------------------------------------" + c(ANSI_RESET));
+        }
+    }
+
+    @Override
+    public void conflictoIniciado(int humano, int habilidadAngel, int habilidadDemonio) {
+        salida().println("  -> [Humano " + humano + "] Conflicto: Ángel (" + habilidadAngel
+                + ") vs Demonio (" + habilidadDemonio + ")");
+    }
+
+    @Override
+    public void puntuaciones(int humano, double puntajeAngel, double puntajeDemonio) {
+        salida().printf("  -> [Humano %d] Puntuaciones: Ángel=%.2f, Demonio=%.2f%n", humano, puntajeAngel, puntajeDemonio);
+    }
+
+    @Override
+    public void ganador(int humano, int ganador) {
+        String prefijo = "  -> [Humano " + humano + "] ";
+        switch (ganador) {
+            case GANA_ANGEL -> salida().println(prefijo + "¡Gana el Ángel! Bondad++, Maldad--");
+            case GANA_DEMONIO -> salida().println(prefijo + "¡Gana el Demonio! Bondad--, Maldad++");
+            default -> salida().println(prefijo + "Empate. No hay cambios morales.");
+        }
+    }
+
+    @Override
+    public void rezo(int humano, boolean exito) {
+        salida().println("  -> [Humano " + humano + "] "
+                + (exito ? "El Humano reza con éxito. Fe++" : "El Humano no puede rezar. Fe--"));
+    }
+
+    @Override
+    public void finTurno(int turno) {
+        salida().println(c(ANSI_PURPLE) + "===================================================" + c(ANSI_RESET));
+    }
+
+    @Override
+    public void finBatalla() {
+        salida().println(c(ANSI_PURPLE) + "\n--- Fin de la Batalla ---" + c(ANSI_RESET));
+    }
+
+    @Override
+    public void veredicto(int humano, boolean salvado, double bondad, double maldad) {
+        String resultadoColor = salvado ? c(ANSI_GREEN) : c(ANSI_RED);
+        String resultadoTexto = salvado ? "SALVADO" : "EN PELIGRO";
+        salida().printf("Humano %d: " + resultadoColor + "%s" + c(ANSI_RESET) + " (Bondad=%.0f, Maldad=%.0f)%n",
+                humano, resultadoTexto, bondad, maldad);
+    }
+
+    @Override
+    public void resumen(int salvados, int total) {
+        salida().printf(c(ANSI_PURPLE) + "\nRESUMEN: " + c(ANSI_GREEN) + "%d Humanos salvados" + c(ANSI_PURPLE)
+                + " / %d totales." + c(ANSI_RESET) + "%n", salvados, total);
+    }
+
+    @Override
+    public void cerrar() {
+        if (propia) {
+            salida.close();
+        } else {
+            salida().flush();
+        }
+    }
+}
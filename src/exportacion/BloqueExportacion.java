@@ -0,0 +1,279 @@
+package exportacion;
+
+import entidades.fisicas.Humano;
+import eventos.SumideroEventos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Deflater;
+
+/**
+ * Bloque de filas exportadas de un mismo turno, almacenadas por columnas.
+ * <p>
+ * Lo obtiene un hilo del motor con {@link ExportadorColumnar#reservar}, lo
+ * llena con los conflictos de un rango de filas y lo devuelve con
+ * {@link ExportadorColumnar#entregar}; nunca lo usan dos hilos a la vez. Se
+ * reutiliza: el escritor lo devuelve al exportador después de comprimirlo.
+ * </p>
+ * <p>
+ * Además de almacén, el bloque actúa de sumidero de eventos mientras se
+ * resuelve un conflicto: toma las habilidades y puntuaciones que informa
+ * {@link Humano#conflictoMoral} y reenvía cada evento al sumidero original,
+ * de modo que exportar no cambia la salida ni el resultado de la batalla.
+ * </p>
+ * <p>
+ * Cada bloque tiene su propio compresor y sus búferes directos, para que los
+ * hilos del motor compriman en paralelo al entregarlo.
+ * </p>
+ */
+public final class BloqueExportacion implements SumideroEventos {
+
+    private final int capacidad;
+    private int turno;
+    private int filas;
+    private SumideroEventos destino;
+
+    final int[] humano;
+    final int[] angel;
+    final int[] demonio;
+    final byte[] habilidadAngel;
+    final byte[] habilidadDemonio;
+    final double[] puntajeAngel;
+    final double[] puntajeDemonio;
+    final byte[] resultado;
+    final double[] bondad;
+    final double[] maldad;
+    final double[] fe;
+
+    private final Deflater compresor;
+    /** Columna en planos de bytes, lista para comprimir. */
+    private final ByteBuffer crudo;
+    /** Cabecera y columnas comprimidas del bloque, listas para escribir. */
+    final ByteBuffer comprimido;
+
+    // Datos del conflicto en curso, tomados de los eventos
+    private int habilidadAngelActual;
+    private int habilidadDemonioActual;
+    private double puntajeAngelActual;
+    private double puntajeDemonioActual;
+
+    BloqueExportacion(int capacidad, int nivel) {
+        this(capacidad, new Deflater(nivel));
+    }
+
+    /** @return Bloque vacío sin compresor ni búferes, para usar como marca entre hilos. */
+    static BloqueExportacion marca() {
+        return new BloqueExportacion(0, (Deflater) null);
+    }
+
+    private BloqueExportacion(int capacidad, Deflater compresor) {
+        this.capacidad = capacidad;
+        this.compresor = compresor;
+        this.crudo = ByteBuffer.allocateDirect(capacidad * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.comprimido = ByteBuffer.allocateDirect((int) cotaComprimida(capacidad)).order(ByteOrder.LITTLE_ENDIAN);
+        this.humano = new int[capacidad];
+        this.angel = new int[capacidad];
+        this.demonio = new int[capacidad];
+        this.habilidadAngel = new byte[capacidad];
+        this.habilidadDemonio = new byte[capacidad];
+        this.puntajeAngel = new double[capacidad];
+        this.puntajeDemonio = new double[capacidad];
+        this.resultado = new byte[capacidad];
+        this.bondad = new double[capacidad];
+        this.maldad = new double[capacidad];
+        this.fe = new double[capacidad];
+    }
+
+    /** Prepara el bloque vacío para un turno. */
+    void preparar(int turno, SumideroEventos destino) {
+        this.turno = turno;
+        this.destino = destino;
+        this.filas = 0;
+    }
+
+    /**
+     * Agrega la fila del conflicto que acaba de resolverse, con las
+     * habilidades y puntuaciones recibidas como eventos y el estado actual
+     * del Humano.
+     *
+     * @param h Humano que sufrió el conflicto.
+     * @param angel Identificador ({@code getId()}) del Ángel que participó.
+     * @param demonio Identificador ({@code getId()}) del Demonio que participó.
+     * @param codigo Código de resultado devuelto por el conflicto.
+     */
+    public void agregarFila(Humano h, int angel, int demonio, int codigo) {
+        int i = filas++;
+        this.humano[i] = h.getIndice();
+        this.angel[i] = angel;
+        this.demonio[i] = demonio;
+        this.habilidadAngel[i] = (byte) habilidadAngelActual;
+        this.habilidadDemonio[i] = (byte) habilidadDemonioActual;
+        this.puntajeAngel[i] = puntajeAngelActual;
+        this.puntajeDemonio[i] = puntajeDemonioActual;
+        this.resultado[i] = (byte) codigo;
+        this.bondad[i] = h.getBondad();
+        this.maldad[i] = h.getMaldad();
+        this.fe[i] = h.getFe();
+    }
+
+    /** Cota holgada del bloque comprimido en el peor caso de Deflater (datos incompresibles). */
+    static long cotaComprimida(int capacidad) {
+        long bytes = (long) capacidad * (3 * Integer.BYTES + 3 + 5 * Double.BYTES);
+        return ExportadorColumnar.CABECERA_BLOQUE + bytes + bytes / 64 + 64L * ExportadorColumnar.COLUMNAS;
+    }
+
+    /** Comprime las filas del bloque en {@link #comprimido}, con su cabecera. */
+    void comprimir() throws IOException {
+        int n = filas;
+        comprimido.clear().position(ExportadorColumnar.CABECERA_BLOQUE);
+        comprimido.putInt(0, n).putInt(4, turno);
+        columna(ExportadorColumnar.HUMANO, comprimir(humano, n));
+        columna(ExportadorColumnar.ANGEL, comprimir(angel, n));
+        columna(ExportadorColumnar.DEMONIO, comprimir(demonio, n));
+        columna(ExportadorColumnar.HABILIDAD_ANGEL, comprimir(habilidadAngel, n));
+        columna(ExportadorColumnar.HABILIDAD_DEMONIO, comprimir(habilidadDemonio, n));
+        // Las puntuaciones casi no se repiten: solo se codifican con Huffman, el doble de rápido
+        compresor.setStrategy(Deflater.HUFFMAN_ONLY);
+        columna(ExportadorColumnar.PUNTAJE_ANGEL, comprimir(puntajeAngel, n));
+        columna(ExportadorColumnar.PUNTAJE_DEMONIO, comprimir(puntajeDemonio, n));
+        compresor.setStrategy(Deflater.DEFAULT_STRATEGY);
+        columna(ExportadorColumnar.RESULTADO, comprimir(resultado, n));
+        columna(ExportadorColumnar.BONDAD, comprimir(bondad, n));
+        columna(ExportadorColumnar.MALDAD, comprimir(maldad, n));
+        columna(ExportadorColumnar.FE, comprimir(fe, n));
+        comprimido.flip();
+    }
+
+    private void columna(int columna, int bytes) {
+        comprimido.putInt(8 + 4 * columna, bytes);
+    }
+
+    private int comprimir(int[] columna, int n) throws IOException {
+        crudo.clear();
+        for (int i = 0; i < n; i++) {
+            int v = columna[i];
+            for (int k = 0; k < Integer.BYTES; k++) {
+                crudo.put(k * n + i, (byte) (v >>> (8 * k)));
+            }
+        }
+        crudo.limit(n * Integer.BYTES);
+        return desinflar();
+    }
+
+    private int comprimir(double[] columna, int n) throws IOException {
+        crudo.clear();
+        for (int i = 0; i < n; i++) {
+            long v = Double.doubleToRawLongBits(columna[i]);
+            for (int k = 0; k < Double.BYTES; k++) {
+                crudo.put(k * n + i, (byte) (v >>> (8 * k)));
+            }
+        }
+        crudo.limit(n * Double.BYTES);
+        return desinflar();
+    }
+
+    private int comprimir(byte[] columna, int n) throws IOException {
+        crudo.clear();
+        crudo.put(columna, 0, n).flip();
+        return desinflar();
+    }
+
+    /** Comprime {@code crudo} al final de {@code comprimido}. @return Bytes producidos. */
+    private int desinflar() throws IOException {
+        int inicio = comprimido.position();
+        compresor.reset();
+        compresor.setInput(crudo);
+        compresor.finish();
+        while (!compresor.finished()) {
+            if (!comprimido.hasRemaining()) {
+                throw new IOException("El bloque comprimido no entra en el búfer");
+            }
+            compresor.deflate(comprimido);
+        }
+        return comprimido.position() - inicio;
+    }
+
+    /** Libera la memoria nativa del compresor. */
+    void liberar() {
+        if (compresor != null) {
+            compresor.end();
+        }
+    }
+
+    /** @return true si no caben más filas. */
+    public boolean isLleno() {
+        return filas == capacidad;
+    }
+
+    public int getTurno() {
+        return turno;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    // -------------------------------------------------------------------------
+    // Sumidero: captura lo que hace falta y reenvía todo al destino
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void conflictoIniciado(int humano, int habilidadAngel, int habilidadDemonio) {
+        habilidadAngelActual = habilidadAngel;
+        habilidadDemonioActual = habilidadDemonio;
+        destino.conflictoIniciado(humano, habilidadAngel, habilidadDemonio);
+    }
+
+    @Override
+    public void puntuaciones(int humano, double puntajeAngel, double puntajeDemonio) {
+        puntajeAngelActual = puntajeAngel;
+        puntajeDemonioActual = puntajeDemonio;
+        destino.puntuaciones(humano, puntajeAngel, puntajeDemonio);
+    }
+
+    @Override
+    public void inicioBatalla(int humanos, int angeles, int demonios, int turnos, long semilla) {
+        destino.inicioBatalla(humanos, angeles, demonios, turnos, semilla);
+    }
+
+    @Override
+    public void inicioTurno(int turno, int turnos) {
+        destino.inicioTurno(turno, turnos);
+    }
+
+    @Override
+    public void estadoHumano(int humano, boolean inicio, double bondad, double maldad, double fe) {
+        destino.estadoHumano(humano, inicio, bondad, maldad, fe);
+    }
+
+    @Override
+    public void ganador(int humano, int ganador) {
+        destino.ganador(humano, ganador);
+    }
+
+    @Override
+    public void rezo(int humano, boolean exito) {
+        destino.rezo(humano, exito);
+    }
+
+    @Override
+    public void finTurno(int turno) {
+        destino.finTurno(turno);
+    }
+
+    @Override
+    public void finBatalla() {
+        destino.finBatalla();
+    }
+
+    @Override
+    public void veredicto(int humano, boolean salvado, double bondad, double maldad) {
+        destino.veredicto(humano, salvado, bondad, maldad);
+    }
+
+    @Override
+    public void resumen(int salvados, int total) {
+        destino.resumen(salvados, total);
+    }
+}
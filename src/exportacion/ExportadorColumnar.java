@@ -0,0 +1,361 @@
+package exportacion;
+
+import eventos.SumideroEventos;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+
+/**
+ * Exportador binario, columnar y comprimido por bloques de los resultados de
+ * cada conflicto.
+ * <p>
+ * Cada fila describe el conflicto de un Humano en un turno: turno, Humano,
+ * Ángel y Demonio enfrentados, habilidades elegidas, puntuaciones de
+ * {@code golpear}, código de resultado y la bondad, maldad y fe resultantes.
+ * Las filas se agrupan en bloques de un mismo turno y cada columna del bloque
+ * se comprime por separado con {@link Deflater}, así un lector puede
+ * descomprimir solo las columnas que necesita ({@link LectorColumnar}).
+ * </p>
+ * <p>
+ * Los hilos del motor llenan {@link BloqueExportacion}es reservados de un
+ * conjunto fijo, los comprimen en {@link ByteBuffer}s directos y los entregan a
+ * un hilo escritor que los escribe en un {@link FileChannel}. Cuando
+ * todos los bloques están en vuelo, reservar uno espera a que el escritor
+ * libere otro: la memoria usada está acotada y la simulación se frena al ritmo
+ * del disco en lugar de acumular filas. La espera se avisa al pool de
+ * Fork/Join ({@link ForkJoinPool.ManagedBlocker}), que puede compensarla con
+ * otro hilo.
+ * </p>
+ * <p>
+ * Si el escritor falla, guarda el error y deja una marca en los bloques
+ * libres que despierta a quien esté esperando: desde entonces
+ * {@link #reservar} lanza una excepción con esa causa, igual que
+ * {@link #close()}.
+ * </p>
+ * <p>
+ * Los bloques de un mismo turno pueden quedar en el archivo en cualquier orden
+ * (según terminen los hilos), pero cada fila lleva su turno y su Humano.
+ * Ángeles y Demonios van por su identificador ({@code Incorporeo.getId()}),
+ * que no se repite aunque Dios los retire y reutilice durante la batalla.
+ * </p>
+ * <p>
+ * Formato (little-endian, versión {@value #VERSION}):
+ * </p>
+ * <pre>
+ *  0  int    magia "ALMX"
+ *  4  int    versión
+ *  8  int    columnas por bloque (11)
+ * 12  int    filas máximas por bloque
+ * Cada bloque:
+ *  0  int    filas
+ *  4  int    turno
+ *  8  int[11] bytes comprimidos de cada columna
+ * 52  columnas comprimidas con Deflate, en este orden:
+ *     int humano, int id del Ángel, int id del Demonio, byte habilidad del Ángel,
+ *     byte habilidad del Demonio, double puntaje del Ángel,
+ *     double puntaje del Demonio, byte resultado, double bondad,
+ *     double maldad, double fe
+ * </pre>
+ * <p>
+ * Antes de comprimir, las columnas numéricas se separan en planos de bytes
+ * (primero el byte 0 de todas las filas, luego el byte 1…). Bondad, maldad y
+ * fe son enteros pequeños guardados como double, con sus bytes bajos en cero,
+ * y los índices caben en un byte: los planos repetidos se comprimen mucho
+ * mejor y más rápido que los valores intercalados.
+ * </p>
+ */
+public final class ExportadorColumnar implements AutoCloseable {
+
+    /** "ALMX" en ASCII. */
+    static final int MAGIA = 0x414C4D58;
+    static final int VERSION = 1;
+    static final int CABECERA = 16;
+
+    // --- Columnas, en el orden en que se escriben ---
+    static final int HUMANO = 0;
+    static final int ANGEL = 1;
+    static final int DEMONIO = 2;
+    static final int HABILIDAD_ANGEL = 3;
+    static final int HABILIDAD_DEMONIO = 4;
+    static final int PUNTAJE_ANGEL = 5;
+    static final int PUNTAJE_DEMONIO = 6;
+    static final int RESULTADO = 7;
+    static final int BONDAD = 8;
+    static final int MALDAD = 9;
+    static final int FE = 10;
+    static final int COLUMNAS = 11;
+    static final int CABECERA_BLOQUE = 8 + 4 * COLUMNAS;
+
+    /**
+     * Filas por bloque por defecto: las de la hoja más grande del motor
+     * paralelo (su {@code UMBRAL}), que llena un bloque por hoja. Un bloque
+     * más grande viajaría a medio llenar en las batallas paralelas.
+     */
+    public static final int FILAS_POR_BLOQUE = 2048;
+
+    /** Marca de fin para el hilo escritor. */
+    private static final BloqueExportacion FIN = BloqueExportacion.marca();
+    /** Marca que el escritor deja en los bloques libres al fallar, para despertar a los productores. */
+    private static final BloqueExportacion ROTO = BloqueExportacion.marca();
+
+    private final FileChannel canal;
+    private final BloqueExportacion[] bloques;
+    private final ArrayBlockingQueue<BloqueExportacion> libres;
+    private final ArrayBlockingQueue<BloqueExportacion> pendientes;
+    private final Thread escritor;
+
+    /** Primer error de compresión o escritura (null si no hubo). */
+    private volatile Throwable error;
+    private volatile long filasEscritas;
+    private volatile long bloquesEscritos;
+    private volatile long bytesEscritos;
+    private volatile boolean cerrado;
+
+    /**
+     * Crea un exportador con bloques de {@value #FILAS_POR_BLOQUE} filas, dos
+     * bloques en vuelo por procesador y compresión rápida.
+     *
+     * @param archivo Archivo de salida; se reemplaza si existe.
+     * @throws IOException si no se puede crear el archivo.
+     */
+    public ExportadorColumnar(Path archivo) throws IOException {
+        this(archivo, FILAS_POR_BLOQUE, 2 * Runtime.getRuntime().availableProcessors() + 2, Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param archivo Archivo de salida; se reemplaza si existe.
+     * @param filasPorBloque Filas máximas por bloque.
+     * @param bloquesEnVuelo Cantidad de bloques que existen a la vez (memoria máxima).
+     * @param nivel Nivel de compresión de {@link Deflater} (0 a 9).
+     * @throws IOException si no se puede crear el archivo.
+     */
+    public ExportadorColumnar(Path archivo, int filasPorBloque, int bloquesEnVuelo, int nivel) throws IOException {
+        if (filasPorBloque <= 0 || bloquesEnVuelo <= 0) {
+            throw new IllegalArgumentException("Se necesitan filas y bloques positivos");
+        }
+        if (BloqueExportacion.cotaComprimida(filasPorBloque) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloque demasiado grande: " + filasPorBloque + " filas");
+        }
+        // Caben siempre todos los bloques más una marca (de fin o de falla)
+        this.libres = new ArrayBlockingQueue<>(bloquesEnVuelo + 1);
+        this.pendientes = new ArrayBlockingQueue<>(bloquesEnVuelo + 1);
+        this.bloques = new BloqueExportacion[bloquesEnVuelo];
+
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer cabecera = ByteBuffer.allocateDirect(CABECERA).order(ByteOrder.LITTLE_ENDIAN);
+            cabecera.putInt(MAGIA).putInt(VERSION).putInt(COLUMNAS).putInt(filasPorBloque).flip();
+            escribirTodo(cabecera);
+            for (int i = 0; i < bloquesEnVuelo; i++) {
+                bloques[i] = new BloqueExportacion(filasPorBloque, nivel);
+                libres.add(bloques[i]);
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            // Sin exportador no hay close(): se liberan aquí el archivo y los compresores ya creados
+            liberarBloques();
+            try {
+                canal.close();
+            } catch (IOException cierre) {
+                e.addSuppressed(cierre);
+            }
+            throw e;
+        }
+
+        this.escritor = new Thread(this::escribir, "escritor-exportacion");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Reserva un bloque vacío para el turno indicado, esperando si todos están
+     * en vuelo.
+     *
+     * @param turno Turno al que pertenecen las filas del bloque.
+     * @param destino Sumidero al que el bloque reenvía los eventos que recibe.
+     * @return Bloque de uso exclusivo del hilo actual hasta que lo entregue.
+     * @throws UncheckedIOException si una escritura anterior falló.
+     * @throws IllegalStateException si el exportador está cerrado o su escritor falló.
+     */
+    public BloqueExportacion reservar(int turno, SumideroEventos destino) {
+        if (cerrado) {
+            throw new IllegalStateException("El exportador está cerrado");
+        }
+        comprobarError();
+        BloqueExportacion bloque = libres.poll();
+        if (bloque == null) {
+            EsperaBloque espera = new EsperaBloque(libres);
+            try {
+                ForkJoinPool.managedBlock(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido esperando un bloque libre", e);
+            }
+            bloque = espera.bloque;
+        }
+        if (bloque == ROTO) {
+            // Se devuelve la marca para despertar también al siguiente que espere
+            libres.offer(ROTO);
+            comprobarError();
+            throw new IllegalStateException("El escritor de la exportación se detuvo");
+        }
+        bloque.preparar(turno, destino);
+        return bloque;
+    }
+
+    /**
+     * Espera de un bloque libre avisada al pool de Fork/Join, para que un hilo
+     * del motor bloqueado en el disco no deje al pool sin trabajadores.
+     */
+    private static final class EsperaBloque implements ForkJoinPool.ManagedBlocker {
+        private final ArrayBlockingQueue<BloqueExportacion> libres;
+        BloqueExportacion bloque;
+
+        EsperaBloque(ArrayBlockingQueue<BloqueExportacion> libres) {
+            this.libres = libres;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (bloque == null) {
+                bloque = libres.take();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return bloque != null || (bloque = libres.poll()) != null;
+        }
+    }
+
+    /**
+     * Comprime un bloque lleno (o el último de un rango) en el hilo actual y lo
+     * entrega al hilo escritor. Así la compresión se reparte entre los hilos
+     * del motor y el escritor solo escribe. Después de entregarlo el hilo
+     * actual no debe volver a usarlo.
+     */
+    public void entregar(BloqueExportacion bloque) {
+        if (bloque.getFilas() > 0 && error == null) {
+            try {
+                bloque.comprimir();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        pendientes.add(bloque);
+    }
+
+    /**
+     * Escribe los bloques pendientes, detiene el hilo escritor y cierra el archivo.
+     *
+     * @throws IOException si alguna escritura falló.
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        pendientes.add(FIN);
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+        // Todos, no solo los libres: si el escritor falló pueden quedar bloques pendientes
+        liberarBloques();
+        Throwable e = error;
+        if (e instanceof IOException io) {
+            throw io;
+        } else if (e != null) {
+            throw new IOException("Falló el escritor de la exportación", e);
+        }
+    }
+
+    private void liberarBloques() {
+        for (BloqueExportacion bloque : bloques) {
+            if (bloque != null) {
+                bloque.liberar();
+            }
+        }
+    }
+
+    private void comprobarError() {
+        Throwable e = error;
+        if (e instanceof IOException io) {
+            throw new UncheckedIOException(io);
+        } else if (e != null) {
+            throw new IllegalStateException("Falló el escritor de la exportación", e);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Hilo escritor
+    // -------------------------------------------------------------------------
+
+    private void escribir() {
+        try {
+            while (true) {
+                BloqueExportacion bloque = pendientes.take();
+                if (bloque == FIN) {
+                    return;
+                }
+                // Tras un error de E/S se siguen devolviendo bloques para no bloquear a los productores
+                if (error == null && bloque.getFilas() > 0) {
+                    try {
+                        escribirBloque(bloque);
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                }
+                libres.add(bloque);
+            }
+        } catch (InterruptedException e) {
+            error = e;
+            libres.offer(ROTO);
+        } catch (Throwable t) {
+            // El escritor no sigue: la marca despierta a los productores, que ven el error
+            error = t;
+            libres.offer(ROTO);
+        }
+    }
+
+    private void escribirBloque(BloqueExportacion b) throws IOException {
+        ByteBuffer datos = b.comprimido;
+        long bytes = datos.remaining();
+        escribirTodo(datos);
+        filasEscritas += b.getFilas();
+        bloquesEscritos++;
+        bytesEscritos += bytes;
+    }
+
+    private void escribirTodo(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    /** @return Filas escritas hasta ahora en el archivo. */
+    public long getFilasEscritas() {
+        return filasEscritas;
+    }
+
+    public long getBloquesEscritos() {
+        return bloquesEscritos;
+    }
+
+    /** @return Bytes de bloques escritos hasta ahora (sin la cabecera del archivo). */
+    public long getBytesEscritos() {
+        return bytesEscritos;
+    }
+}
@@ -0,0 +1,321 @@
+package exportacion;
+
+import entidades.fisicas.ResultadoConflicto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Lector de archivos escritos por {@link ExportadorColumnar}.
+ * <p>
+ * Recorre el archivo bloque por bloque con {@link #siguienteBloque()}. Solo se
+ * descomprimen las columnas que se piden, la primera vez que se piden en cada
+ * bloque. Los arreglos devueltos pertenecen al lector y se reutilizan en el
+ * bloque siguiente; solo las primeras {@link #getFilas()} posiciones son válidas.
+ * </p>
+ * <pre>
+ * try (LectorColumnar lector = new LectorColumnar(archivo)) {
+ *     while (lector.siguienteBloque()) {
+ *         int[] humanos = lector.columnaHumano();
+ *         double[] bondad = lector.columnaBondad();
+ *         for (int i = 0; i &lt; lector.getFilas(); i++) { ... }
+ *     }
+ * }
+ * </pre>
+ */
+public final class LectorColumnar implements AutoCloseable {
+
+    private final FileChannel canal;
+    private final int filasPorBloque;
+    private final Inflater descompresor = new Inflater();
+    private final ByteBuffer cabecera = ByteBuffer.allocateDirect(ExportadorColumnar.CABECERA_BLOQUE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer crudo;
+    private ByteBuffer datos = ByteBuffer.allocateDirect(0);
+
+    private int filas;
+    private int turno;
+    private final int[] longitudes = new int[ExportadorColumnar.COLUMNAS];
+    private final int[] inicios = new int[ExportadorColumnar.COLUMNAS];
+    /** Bits de las columnas ya descomprimidas en el bloque actual. */
+    private int decodificadas;
+
+    private final int[] humano;
+    private final int[] angel;
+    private final int[] demonio;
+    private final byte[] habilidadAngel;
+    private final byte[] habilidadDemonio;
+    private final double[] puntajeAngel;
+    private final double[] puntajeDemonio;
+    private final byte[] resultado;
+    private final double[] bondad;
+    private final double[] maldad;
+    private final double[] fe;
+
+    /**
+     * @param archivo Archivo escrito por {@link ExportadorColumnar}.
+     * @throws IOException si no existe o no es una exportación válida.
+     */
+    public LectorColumnar(Path archivo) throws IOException {
+        this.canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        ByteBuffer inicio = ByteBuffer.allocate(ExportadorColumnar.CABECERA).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            leerCompleto(inicio);
+            inicio.flip();
+            if (inicio.getInt() != ExportadorColumnar.MAGIA) {
+                throw new IOException("No es una exportación de batalla: " + archivo);
+            }
+            int version = inicio.getInt();
+            if (version != ExportadorColumnar.VERSION) {
+                throw new IOException("Versión de exportación no soportada: " + version);
+            }
+            if (inicio.getInt() != ExportadorColumnar.COLUMNAS) {
+                throw new IOException("Cantidad de columnas inesperada en " + archivo);
+            }
+            this.filasPorBloque = inicio.getInt();
+            if (filasPorBloque <= 0) {
+                throw new IOException("Tamaño de bloque inválido: " + filasPorBloque);
+            }
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        int n = filasPorBloque;
+        this.crudo = ByteBuffer.allocateDirect(n * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.humano = new int[n];
+        this.angel = new int[n];
+        this.demonio = new int[n];
+        this.habilidadAngel = new byte[n];
+        this.habilidadDemonio = new byte[n];
+        this.puntajeAngel = new double[n];
+        this.puntajeDemonio = new double[n];
+        this.resultado = new byte[n];
+        this.bondad = new double[n];
+        this.maldad = new double[n];
+        this.fe = new double[n];
+    }
+
+    /**
+     * Avanza al bloque siguiente.
+     *
+     * @return false si no quedan bloques.
+     * @throws IOException si el archivo está truncado o dañado.
+     */
+    public boolean siguienteBloque() throws IOException {
+        cabecera.clear();
+        if (canal.read(cabecera) <= 0 && cabecera.position() == 0) {
+            return false;
+        }
+        leerCompleto(cabecera);
+        cabecera.flip();
+        filas = cabecera.getInt();
+        turno = cabecera.getInt();
+        if (filas <= 0 || filas > filasPorBloque) {
+            throw new IOException("Bloque con " + filas + " filas (máximo " + filasPorBloque + ")");
+        }
+        long total = 0;
+        for (int c = 0; c < ExportadorColumnar.COLUMNAS; c++) {
+            longitudes[c] = cabecera.getInt();
+            inicios[c] = (int) total;
+            total += longitudes[c];
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Bloque dañado: " + total + " bytes");
+        }
+        if (datos.capacity() < total) {
+            datos = ByteBuffer.allocateDirect((int) total);
+        }
+        datos.clear().limit((int) total);
+        leerCompleto(datos);
+        decodificadas = 0;
+        return true;
+    }
+
+    private void leerCompleto(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer) < 0) {
+                throw new IOException("Exportación truncada");
+            }
+        }
+    }
+
+    /** Descomprime la columna indicada en {@code crudo}, si no se hizo ya. @return false si ya estaba. */
+    private boolean inflar(int columna, int bytesPorFila) throws IOException {
+        if ((decodificadas & (1 << columna)) != 0) {
+            return false;
+        }
+        int esperado = filas * bytesPorFila;
+        datos.limit(inicios[columna] + longitudes[columna]).position(inicios[columna]);
+        descompresor.reset();
+        descompresor.setInput(datos);
+        crudo.clear().limit(esperado);
+        try {
+            while (crudo.hasRemaining() && !descompresor.finished()) {
+                if (descompresor.inflate(crudo) == 0 && descompresor.needsInput()) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Columna " + columna + " dañada en el turno " + turno, e);
+        }
+        if (crudo.position() != esperado) {
+            throw new IOException("Columna " + columna + " incompleta en el turno " + turno);
+        }
+        crudo.flip();
+        decodificadas |= 1 << columna;
+        return true;
+    }
+
+    private int[] enteros(int columna, int[] destino) throws IOException {
+        if (inflar(columna, Integer.BYTES)) {
+            // Deshace la separación en planos de bytes
+            int n = filas;
+            for (int i = 0; i < n; i++) {
+                int v = 0;
+                for (int k = 0; k < Integer.BYTES; k++) {
+                    v |= (crudo.get(k * n + i) & 0xFF) << (8 * k);
+                }
+                destino[i] = v;
+            }
+        }
+        return destino;
+    }
+
+    private double[] reales(int columna, double[] destino) throws IOException {
+        if (inflar(columna, Double.BYTES)) {
+            int n = filas;
+            for (int i = 0; i < n; i++) {
+                long v = 0;
+                for (int k = 0; k < Double.BYTES; k++) {
+                    v |= (crudo.get(k * n + i) & 0xFFL) << (8 * k);
+                }
+                destino[i] = Double.longBitsToDouble(v);
+            }
+        }
+        return destino;
+    }
+
+    private byte[] octetos(int columna, byte[] destino) throws IOException {
+        if (inflar(columna, Byte.BYTES)) {
+            crudo.get(destino, 0, filas);
+        }
+        return destino;
+    }
+
+    /** @return Filas del bloque actual. */
+    public int getFilas() {
+        return filas;
+    }
+
+    /** @return Turno de todas las filas del bloque actual. */
+    public int getTurno() {
+        return turno;
+    }
+
+    public int[] columnaHumano() throws IOException {
+        return enteros(ExportadorColumnar.HUMANO, humano);
+    }
+
+    /** @return Identificador del Ángel de cada fila. */
+    public int[] columnaAngel() throws IOException {
+        return enteros(ExportadorColumnar.ANGEL, angel);
+    }
+
+    /** @return Identificador del Demonio de cada fila. */
+    public int[] columnaDemonio() throws IOException {
+        return enteros(ExportadorColumnar.DEMONIO, demonio);
+    }
+
+    public byte[] columnaHabilidadAngel() throws IOException {
+        return octetos(ExportadorColumnar.HABILIDAD_ANGEL, habilidadAngel);
+    }
+
+    public byte[] columnaHabilidadDemonio() throws IOException {
+        return octetos(ExportadorColumnar.HABILIDAD_DEMONIO, habilidadDemonio);
+    }
+
+    public double[] columnaPuntajeAngel() throws IOException {
+        return reales(ExportadorColumnar.PUNTAJE_ANGEL, puntajeAngel);
+    }
+
+    public double[] columnaPuntajeDemonio() throws IOException {
+        return reales(ExportadorColumnar.PUNTAJE_DEMONIO, puntajeDemonio);
+    }
+
+    /** @return Códigos de resultado (ganador y rezo, ver {@link ResultadoConflicto}). */
+    public byte[] columnaResultado() throws IOException {
+        return octetos(ExportadorColumnar.RESULTADO, resultado);
+    }
+
+    public double[] columnaBondad() throws IOException {
+        return reales(ExportadorColumnar.BONDAD, bondad);
+    }
+
+    public double[] columnaMaldad() throws IOException {
+        return reales(ExportadorColumnar.MALDAD, maldad);
+    }
+
+    public double[] columnaFe() throws IOException {
+        return reales(ExportadorColumnar.FE, fe);
+    }
+
+    @Override
+    public void close() throws IOException {
+        descompresor.end();
+        canal.close();
+    }
+
+    /**
+     * Convierte una exportación a CSV por la salida estándar.
+     * <p>
+     * Uso: {@code java exportacion.LectorColumnar archivo}
+     * </p>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: java exportacion.LectorColumnar <archivo>");
+            System.exit(2);
+        }
+        Writer salida = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        salida.write("turno,humano,angel,demonio,habilidad_angel,habilidad_demonio,"
+                + "puntaje_angel,puntaje_demonio,ganador,rezo,bondad,maldad,fe\n");
+        try (LectorColumnar lector = new LectorColumnar(Path.of(args[0]))) {
+            StringBuilder linea = new StringBuilder(128);
+            while (lector.siguienteBloque()) {
+                int[] h = lector.columnaHumano();
+                int[] a = lector.columnaAngel();
+                int[] d = lector.columnaDemonio();
+                byte[] ha = lector.columnaHabilidadAngel();
+                byte[] hd = lector.columnaHabilidadDemonio();
+                double[] pa = lector.columnaPuntajeAngel();
+                double[] pd = lector.columnaPuntajeDemonio();
+                byte[] r = lector.columnaResultado();
+                double[] b = lector.columnaBondad();
+                double[] m = lector.columnaMaldad();
+                double[] f = lector.columnaFe();
+                for (int i = 0; i < lector.getFilas(); i++) {
+                    linea.setLength(0);
+                    linea.append(lector.getTurno()).append(',').append(h[i]).append(',')
+                            .append(a[i]).append(',').append(d[i]).append(',')
+                            .append(ha[i]).append(',').append(hd[i]).append(',')
+                            .append(pa[i]).append(',').append(pd[i]).append(',')
+                            .append(ResultadoConflicto.ganador(r[i])).append(',')
+                            .append(ResultadoConflicto.rezo(r[i]) ? 1 : 0).append(',')
+                            .append(b[i]).append(',').append(m[i]).append(',').append(f[i]).append('\n');
+                    salida.append(linea);
+                }
+            }
+        }
+        salida.flush();
+    }
+}
@@ -0,0 +1,213 @@
+package historial;
+
+import entidades.fisicas.AlmacenHumanos;
+import entidades.fisicas.Humano;
+import entidades.fisicas.HumanoFila;
+import entidades.fisicas.ResultadoConflicto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Historial compacto de la evolución de cada Humano, con reconstrucción de
+ * cualquier turno pasado sin volver a simular.
+ * <p>
+ * Dado el estado de un Humano antes de un conflicto, el estado siguiente queda
+ * determinado por el ganador: {@link Humano#aplicarResultado(int)} ajusta
+ * bondad y maldad según quién ganó y el rezo depende solo de ese estado. Por
+ * eso basta guardar un trit por Humano y turno (empate, Ángel o Demonio), y se
+ * empaquetan cinco por byte (3^5 = 243), unos 1,6 bits por turno.
+ * </p>
+ * <p>
+ * Los turnos se agrupan en bloques de {@code intervaloClave} turnos. Al comenzar
+ * cada bloque se guarda un fotograma clave con la bondad, maldad y fe absolutas
+ * de cada Humano (un byte cada una, pues son enteros entre 0 y 100). Dentro de
+ * un bloque, los trits de un Humano son contiguos, así que reconstruir su estado
+ * en un turno cuesta leer su fotograma clave y aplicar a lo sumo
+ * {@code intervaloClave} resultados.
+ * </p>
+ * <p>
+ * Con el intervalo por defecto (250), 10^6 Humanos durante 10^4 turnos ocupan
+ * unos 2,1 GB: 2 GB de trits y 120 MB de fotogramas clave.
+ * </p>
+ * <p>
+ * Lo alimenta {@code MotorTurnos}: cada fila del turno escribe su propio byte,
+ * por lo que varios hilos pueden registrar a la vez sin sincronización.
+ * </p>
+ */
+public final class HistorialPoblacion {
+
+    /** Intervalo por defecto entre fotogramas clave, en turnos. */
+    public static final int INTERVALO_POR_DEFECTO = 250;
+
+    private static final int TRITS_POR_BYTE = 5;
+    private static final int[] POTENCIAS = {1, 3, 9, 27, 81};
+
+    private final int humanos;
+    private final int turnoInicial;
+    private final int intervaloClave;
+    private final int bytesPorHumano;
+
+    /** Fotograma clave de cada bloque: bondad, maldad y fe de cada Humano. */
+    private final List<byte[]> fotogramas = new ArrayList<>();
+    /** Trits de cada bloque, agrupados por Humano. */
+    private final List<byte[]> bloques = new ArrayList<>();
+    /** Último turno registrado. */
+    private volatile int ultimoTurno;
+
+    /**
+     * @param humanos Tamaño de la población.
+     * @param turnoInicial Último turno ya ejecutado cuando empieza el registro.
+     * @param intervaloClave Turnos por bloque (múltiplo de 5).
+     */
+    public HistorialPoblacion(int humanos, int turnoInicial, int intervaloClave) {
+        if (intervaloClave <= 0 || intervaloClave % TRITS_POR_BYTE != 0) {
+            throw new IllegalArgumentException("el intervalo debe ser un múltiplo positivo de 5");
+        }
+        if ((long) humanos * (intervaloClave / TRITS_POR_BYTE) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("bloque demasiado grande; reducir el intervalo");
+        }
+        this.humanos = humanos;
+        this.turnoInicial = turnoInicial;
+        this.intervaloClave = intervaloClave;
+        this.bytesPorHumano = intervaloClave / TRITS_POR_BYTE;
+        this.ultimoTurno = turnoInicial;
+    }
+
+    /**
+     * Prepara el registro del turno indicado; si comienza un bloque, guarda el
+     * fotograma clave con el estado actual de la población. Debe llamarse
+     * antes de resolver el turno y desde un solo hilo.
+     *
+     * @throws IllegalStateException si el turno no es el siguiente al último
+     * registrado o algún atributo no es un entero entre 0 y 100.
+     */
+    public void prepararTurno(int turno, AlmacenHumanos poblacion) {
+        if (turno != ultimoTurno + 1) {
+            throw new IllegalStateException("Se esperaba el turno " + (ultimoTurno + 1) + " y llegó el " + turno);
+        }
+        int relativo = turno - turnoInicial - 1;
+        if (relativo % intervaloClave == 0) {
+            fotogramas.add(fotograma(poblacion));
+            bloques.add(new byte[humanos * bytesPorHumano]);
+        }
+        ultimoTurno = turno;
+    }
+
+    private byte[] fotograma(AlmacenHumanos poblacion) {
+        HumanoFila h = poblacion.nuevoCursor();
+        byte[] clave = new byte[humanos * 3];
+        for (int i = 0; i < humanos; i++) {
+            h.mover(i);
+            clave[3 * i] = aByte(h.getBondad());
+            clave[3 * i + 1] = aByte(h.getMaldad());
+            clave[3 * i + 2] = aByte(h.getFe());
+        }
+        return clave;
+    }
+
+    private static byte aByte(double valor) {
+        int entero = (int) valor;
+        if (entero != valor || entero < 0 || entero > 100) {
+            throw new IllegalStateException("Atributo no representable en el historial: " + valor);
+        }
+        return (byte) entero;
+    }
+
+    /**
+     * Registra el resultado del conflicto de una fila en el turno en curso.
+     *
+     * @param turno Turno en curso (el último preparado).
+     * @param fila Fila del Humano.
+     * @param codigo Código devuelto por el conflicto (ver {@link ResultadoConflicto}).
+     */
+    public void registrar(int turno, int fila, int codigo) {
+        int relativo = turno - turnoInicial - 1;
+        int dentro = relativo % intervaloClave;
+        byte[] bloque = bloques.get(relativo / intervaloClave);
+        int posicion = fila * bytesPorHumano + dentro / TRITS_POR_BYTE;
+        bloque[posicion] += (byte) (ResultadoConflicto.ganador(codigo) * POTENCIAS[dentro % TRITS_POR_BYTE]);
+    }
+
+    /**
+     * @return Ganador del conflicto de la fila en el turno indicado.
+     */
+    public int ganador(int fila, int turno) {
+        comprobarTurno(turno, turnoInicial + 1);
+        int relativo = turno - turnoInicial - 1;
+        return trit(bloques.get(relativo / intervaloClave), fila, relativo % intervaloClave);
+    }
+
+    private int trit(byte[] bloque, int fila, int dentro) {
+        int valor = bloque[fila * bytesPorHumano + dentro / TRITS_POR_BYTE] & 0xFF;
+        return valor / POTENCIAS[dentro % TRITS_POR_BYTE] % 3;
+    }
+
+    /**
+     * Reconstruye en {@code destino} la bondad, maldad y fe que tenía un Humano
+     * al terminar el turno indicado (o el estado inicial si {@code turno} es el
+     * turno inicial). La inteligencia y el alma de {@code destino} no cambian.
+     *
+     * @param fila Fila del Humano.
+     * @param turno Turno entre el inicial y el último registrado.
+     * @param destino Humano sobre el que se escribe el estado (por ejemplo un cursor).
+     */
+    public void reconstruir(int fila, int turno, Humano destino) {
+        comprobarTurno(turno, turnoInicial);
+        int relativo = turno - turnoInicial;
+        // El fotograma del bloque b es el estado tras el turno relativo b * intervalo
+        int b = Math.min(relativo / intervaloClave, fotogramas.size() - 1);
+        byte[] clave = fotogramas.get(b);
+        destino.setBondad(clave[3 * fila]);
+        destino.setMaldad(clave[3 * fila + 1]);
+        destino.setFe(clave[3 * fila + 2]);
+        byte[] bloque = bloques.get(b);
+        for (int k = 0, n = relativo - b * intervaloClave; k < n; k++) {
+            destino.aplicarResultado(trit(bloque, fila, k));
+        }
+    }
+
+    /**
+     * Reconstruye toda la población al terminar el turno indicado.
+     *
+     * @param turno Turno entre el inicial y el último registrado.
+     * @param destino Población del mismo tamaño; solo se escriben bondad, maldad y fe.
+     */
+    public void reconstruirTurno(int turno, AlmacenHumanos destino) {
+        HumanoFila h = destino.nuevoCursor();
+        for (int i = 0; i < humanos; i++) {
+            reconstruir(i, turno, h.mover(i));
+        }
+    }
+
+    private void comprobarTurno(int turno, int minimo) {
+        if (turno < minimo || turno > ultimoTurno || fotogramas.isEmpty()) {
+            throw new IllegalArgumentException("Turno fuera del historial: " + turno
+                    + " (disponible " + minimo + ".." + ultimoTurno + ")");
+        }
+    }
+
+    public int getTurnoInicial() {
+        return turnoInicial;
+    }
+
+    public int getUltimoTurno() {
+        return ultimoTurno;
+    }
+
+    public int getIntervaloClave() {
+        return intervaloClave;
+    }
+
+    /** @return Memoria ocupada por fotogramas y trits, en bytes. */
+    public long getBytes() {
+        long total = 0;
+        for (byte[] f : fotogramas) {
+            total += f.length;
+        }
+        for (byte[] b : bloques) {
+            total += b.length;
+        }
+        return total;
+    }
+}
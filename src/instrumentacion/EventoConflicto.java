@@ -0,0 +1,36 @@
+package instrumentacion;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de JDK Flight Recorder para el conflicto moral de un Humano.
+ */
+@Name("batalla.Conflicto")
+@Label("Conflicto moral")
+@Category({"Batalla de las Almas"})
+@Description("Habilidades elegidas, puntuaciones y ganador del conflicto de un Humano")
+public class EventoConflicto extends Event {
+
+    @Label("Humano")
+    int humano;
+
+    @Label("Habilidad del Ángel")
+    int habilidadAngel;
+
+    @Label("Habilidad del Demonio")
+    int habilidadDemonio;
+
+    @Label("Puntaje del Ángel")
+    double puntajeAngel;
+
+    @Label("Puntaje del Demonio")
+    double puntajeDemonio;
+
+    @Label("Ganador")
+    @Description("0 empate, 1 Ángel, 2 Demonio")
+    int ganador;
+}
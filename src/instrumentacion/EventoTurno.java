@@ -0,0 +1,26 @@
+package instrumentacion;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de JDK Flight Recorder que cubre un turno completo del motor.
+ */
+@Name("batalla.Turno")
+@Label("Turno de batalla")
+@Category({"Batalla de las Almas"})
+@Description("Un turno completo del motor: todos los Humanos sufren un conflicto moral")
+public class EventoTurno extends Event {
+
+    @Label("Turno")
+    int turno;
+
+    @Label("Humanos")
+    int humanos;
+
+    @Label("Paralelo")
+    boolean paralelo;
+}
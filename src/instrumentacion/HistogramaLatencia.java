@@ -0,0 +1,81 @@
+package instrumentacion;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma concurrente de latencias con cubetas logarítmicas en base 2.
+ * <p>
+ * La cubeta {@code k} cuenta las duraciones en [2^k, 2^(k+1)) nanosegundos
+ * (la 0 incluye también el 0). Registrar es un cálculo de bits y un
+ * incremento de {@link LongAdder}, apto para muchos hilos a la vez; los
+ * percentiles tienen la resolución de un factor 2.
+ * </p>
+ */
+public final class HistogramaLatencia {
+
+    private static final int CUBETAS = 64;
+
+    private final LongAdder[] cuentas = new LongAdder[CUBETAS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    public HistogramaLatencia() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cuentas[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos Duración medida en nanosegundos.
+     */
+    public void registrar(long nanos) {
+        long n = Math.max(1, nanos);
+        cuentas[63 - Long.numberOfLeadingZeros(n)].increment();
+        totalNanos.add(nanos);
+    }
+
+    public long getCantidad() {
+        long total = 0;
+        for (LongAdder c : cuentas) {
+            total += c.sum();
+        }
+        return total;
+    }
+
+    /** @return Duración media en nanosegundos (0 si no hay registros). */
+    public double getMedia() {
+        long n = getCantidad();
+        return n == 0 ? 0 : (double) totalNanos.sum() / n;
+    }
+
+    /**
+     * @param q Probabilidad entre 0 y 1.
+     * @return Cota superior, en nanosegundos, de la cubeta que contiene el cuantil {@code q}.
+     */
+    public long cuantil(double q) {
+        long[] fotos = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            fotos[i] = cuentas[i].sum();
+            total += fotos[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(q * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += fotos[i];
+            if (acumulado >= objetivo) {
+                return i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public void reiniciar() {
+        for (LongAdder c : cuentas) {
+            c.reset();
+        }
+        totalNanos.reset();
+    }
+}
@@ -0,0 +1,21 @@
+package instrumentacion;
+
+/**
+ * Lo medido en un conflicto moral: sus protagonistas, su resultado y cuánto
+ * tardó cada fase. Se arma solo con las métricas activas y se entrega a
+ * {@link Metricas#conflicto(EventoConflicto, MedicionConflicto)}.
+ *
+ * @param humano Índice del Humano.
+ * @param habilidadAngel Habilidad elegida por el Ángel.
+ * @param habilidadDemonio Habilidad elegida por el Demonio.
+ * @param puntajeAngel Puntuación del Ángel.
+ * @param puntajeDemonio Puntuación del Demonio.
+ * @param ganador {@code SumideroEventos.EMPATE}, {@code GANA_ANGEL} o {@code GANA_DEMONIO}.
+ * @param nanosSeleccion Duración de la elección de habilidades.
+ * @param nanosPuntuacion Duración del cálculo de las puntuaciones.
+ * @param nanosResolucion Duración de la aplicación del resultado.
+ */
+public record MedicionConflicto(int humano, int habilidadAngel, int habilidadDemonio,
+                                double puntajeAngel, double puntajeDemonio, int ganador,
+                                long nanosSeleccion, long nanosPuntuacion, long nanosResolucion) {
+}
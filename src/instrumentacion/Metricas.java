@@ -0,0 +1,291 @@
+package instrumentacion;
+
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import jdk.jfr.EventType;
+import subClases.TablaHabilidades;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de bajo costo para el camino caliente de la batalla.
+ * <p>
+ * Registra, por tipo de Incorpóreo, cuántas veces se elige cada habilidad en
+ * {@code Incorporeo.luchar} y cuántas de sus puntuaciones salen NaN o infinitas
+ * (por ejemplo la raíz de un número negativo en {@code Angel.guiar}); además
+ * cuenta victorias y empates y lleva histogramas de latencia por fase del
+ * conflicto y por turno. Con la grabación de JDK Flight Recorder activa
+ * también emite {@link EventoTurno} y {@link EventoConflicto}.
+ * </p>
+ * <p>
+ * Se activa y desactiva en caliente con {@link #setActivo(boolean)} (o al
+ * arrancar con {@code -Dbatalla.metricas=true}). Desactivado, cada punto de
+ * medición cuesta una lectura de un campo volátil y no crea objetos; activo,
+ * los eventos de JFR solo se crean si hay una grabación que los pide. Los
+ * contadores son {@link LongAdder}, así que varios hilos del motor pueden
+ * registrar a la vez sin contención; los de Ángeles y Demonios están en campos
+ * estáticos y no se buscan en el mapa de tipos.
+ * </p>
+ */
+public final class Metricas {
+
+    // --- Fases medidas ---
+    /** Elección de habilidades de Ángel y Demonio. */
+    public static final int FASE_SELECCION = 0;
+    /** Cálculo de las dos puntuaciones. */
+    public static final int FASE_PUNTUACION = 1;
+    /** Decisión del ganador y aplicación del resultado (incluye el rezo). */
+    public static final int FASE_RESOLUCION = 2;
+    /** Un turno completo del motor. */
+    public static final int FASE_TURNO = 3;
+    private static final int NUM_FASES = 4;
+
+    private static final String[] NOMBRES_FASES = {"selección", "puntuación", "resolución", "turno"};
+    private static final String[] NOMBRES_HABILIDADES = new String[TablaHabilidades.NUM_HABILIDADES];
+
+    static {
+        NOMBRES_HABILIDADES[TablaHabilidades.ENGANIAR] = "enganiar";
+        NOMBRES_HABILIDADES[TablaHabilidades.GUIAR] = "guiar";
+        NOMBRES_HABILIDADES[TablaHabilidades.PROTEGER] = "proteger";
+        NOMBRES_HABILIDADES[TablaHabilidades.TENTAR] = "tentar";
+        NOMBRES_HABILIDADES[TablaHabilidades.SEDUCIR] = "seducir";
+        NOMBRES_HABILIDADES[TablaHabilidades.PROBAR] = "probar";
+    }
+
+    /** Contadores por habilidad de un tipo de Incorpóreo. */
+    private static final class ContadoresTipo {
+        final LongAdder[] selecciones = nuevos(TablaHabilidades.NUM_HABILIDADES);
+        final LongAdder[] nan = nuevos(TablaHabilidades.NUM_HABILIDADES);
+        final LongAdder[] infinitos = nuevos(TablaHabilidades.NUM_HABILIDADES);
+    }
+
+    private static volatile boolean activo = Boolean.getBoolean("batalla.metricas");
+
+    private static final Map<Class<?>, ContadoresTipo> POR_TIPO = new ConcurrentHashMap<>();
+    private static final ContadoresTipo ANGELES = registrar(Angel.class);
+    private static final ContadoresTipo DEMONIOS = registrar(Demonio.class);
+    /** Indexado por ganador: empate, Ángel, Demonio. */
+    private static final LongAdder[] RESULTADOS = nuevos(3);
+    private static final HistogramaLatencia[] LATENCIAS = new HistogramaLatencia[NUM_FASES];
+
+    static {
+        for (int i = 0; i < NUM_FASES; i++) {
+            LATENCIAS[i] = new HistogramaLatencia();
+        }
+    }
+
+    /**
+     * Tipos de los eventos de JFR, para saber si se graban sin crear un evento.
+     * Se cargan recién al medir el primer conflicto o turno.
+     */
+    private static final class TiposEvento {
+        static final EventType CONFLICTO = EventType.getEventType(EventoConflicto.class);
+        static final EventType TURNO = EventType.getEventType(EventoTurno.class);
+    }
+
+    private Metricas() {
+    }
+
+    private static LongAdder[] nuevos(int cantidad) {
+        LongAdder[] contadores = new LongAdder[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            contadores[i] = new LongAdder();
+        }
+        return contadores;
+    }
+
+    private static ContadoresTipo registrar(Class<?> tipo) {
+        return POR_TIPO.computeIfAbsent(tipo, t -> new ContadoresTipo());
+    }
+
+    private static ContadoresTipo de(Class<?> tipo) {
+        if (tipo == Angel.class) {
+            return ANGELES;
+        }
+        if (tipo == Demonio.class) {
+            return DEMONIOS;
+        }
+        ContadoresTipo c = POR_TIPO.get(tipo);
+        return c != null ? c : registrar(tipo);
+    }
+
+    public static boolean isActivo() {
+        return activo;
+    }
+
+    public static void setActivo(boolean activo) {
+        Metricas.activo = activo;
+    }
+
+    // -------------------------------------------------------------------------
+    // Puntos de medición (solo deben llamarse con las métricas activas)
+    // -------------------------------------------------------------------------
+
+    /** Un Incorpóreo de tipo {@code tipo} eligió la habilidad {@code habilidad}. */
+    public static void habilidadElegida(Class<?> tipo, int habilidad) {
+        de(tipo).selecciones[habilidad].increment();
+    }
+
+    /** Registra la puntuación de una habilidad; solo se cuentan las no finitas. */
+    public static void puntaje(Class<?> tipo, int habilidad, double puntaje) {
+        if (Double.isNaN(puntaje)) {
+            de(tipo).nan[habilidad].increment();
+        } else if (Double.isInfinite(puntaje)) {
+            de(tipo).infinitos[habilidad].increment();
+        }
+    }
+
+    /**
+     * @return Evento de JFR ya iniciado, o null si JFR no está grabando este evento.
+     */
+    public static EventoConflicto iniciarConflicto() {
+        if (!TiposEvento.CONFLICTO.isEnabled()) {
+            return null;
+        }
+        EventoConflicto evento = new EventoConflicto();
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Cierra la medición de un conflicto.
+     *
+     * @param evento Evento devuelto por {@link #iniciarConflicto()} (puede ser null).
+     * @param medicion Resultado y duración de cada fase del conflicto.
+     */
+    public static void conflicto(EventoConflicto evento, MedicionConflicto medicion) {
+        RESULTADOS[medicion.ganador()].increment();
+        LATENCIAS[FASE_SELECCION].registrar(medicion.nanosSeleccion());
+        LATENCIAS[FASE_PUNTUACION].registrar(medicion.nanosPuntuacion());
+        LATENCIAS[FASE_RESOLUCION].registrar(medicion.nanosResolucion());
+        if (evento != null) {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.humano = medicion.humano();
+                evento.habilidadAngel = medicion.habilidadAngel();
+                evento.habilidadDemonio = medicion.habilidadDemonio();
+                evento.puntajeAngel = medicion.puntajeAngel();
+                evento.puntajeDemonio = medicion.puntajeDemonio();
+                evento.ganador = medicion.ganador();
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * @return Evento de JFR ya iniciado, o null si JFR no está grabando este evento.
+     */
+    public static EventoTurno iniciarTurno() {
+        if (!TiposEvento.TURNO.isEnabled()) {
+            return null;
+        }
+        EventoTurno evento = new EventoTurno();
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Cierra la medición de un turno.
+     *
+     * @param evento Evento devuelto por {@link #iniciarTurno()} (puede ser null).
+     * @param nanos Duración del turno.
+     */
+    public static void turno(EventoTurno evento, int turno, int humanos, boolean paralelo, long nanos) {
+        LATENCIAS[FASE_TURNO].registrar(nanos);
+        if (evento != null) {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.turno = turno;
+                evento.humanos = humanos;
+                evento.paralelo = paralelo;
+                evento.commit();
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Consulta
+    // -------------------------------------------------------------------------
+
+    public static long getSelecciones(Class<?> tipo, int habilidad) {
+        ContadoresTipo c = POR_TIPO.get(tipo);
+        return c == null ? 0 : c.selecciones[habilidad].sum();
+    }
+
+    public static long getNaN(Class<?> tipo, int habilidad) {
+        ContadoresTipo c = POR_TIPO.get(tipo);
+        return c == null ? 0 : c.nan[habilidad].sum();
+    }
+
+    public static long getInfinitos(Class<?> tipo, int habilidad) {
+        ContadoresTipo c = POR_TIPO.get(tipo);
+        return c == null ? 0 : c.infinitos[habilidad].sum();
+    }
+
+    /**
+     * @param ganador {@code SumideroEventos.EMPATE}, {@code GANA_ANGEL} o {@code GANA_DEMONIO}.
+     */
+    public static long getResultados(int ganador) {
+        return RESULTADOS[ganador].sum();
+    }
+
+    /**
+     * @param fase Una de las constantes {@code FASE_*}.
+     */
+    public static HistogramaLatencia getLatencia(int fase) {
+        return LATENCIAS[fase];
+    }
+
+    /**
+     * Pone todos los contadores e histogramas a cero. Debe llamarse sin
+     * batallas en curso: un registro concurrente puede perderse o quedar
+     * contado a medias.
+     */
+    public static void reiniciar() {
+        for (ContadoresTipo c : POR_TIPO.values()) {
+            for (int h = 0; h < TablaHabilidades.NUM_HABILIDADES; h++) {
+                c.selecciones[h].reset();
+                c.nan[h].reset();
+                c.infinitos[h].reset();
+            }
+        }
+        for (LongAdder r : RESULTADOS) {
+            r.reset();
+        }
+        for (HistogramaLatencia l : LATENCIAS) {
+            l.reiniciar();
+        }
+    }
+
+    /** @return Resumen legible de todas las métricas. */
+    public static String informe() {
+        StringBuilder sb = new StringBuilder();
+        long empates = RESULTADOS[0].sum();
+        long angel = RESULTADOS[1].sum();
+        long demonio = RESULTADOS[2].sum();
+        long total = Math.max(1, empates + angel + demonio);
+        sb.append(String.format(Locale.ROOT, "Conflictos: %d (Ángel %.1f%%, Demonio %.1f%%, empate %.1f%%)%n",
+                empates + angel + demonio, 100.0 * angel / total, 100.0 * demonio / total, 100.0 * empates / total));
+
+        sb.append(String.format(Locale.ROOT, "%-10s %-10s %12s %12s %12s%n",
+                "Tipo", "Habilidad", "Elegida", "NaN", "Infinito"));
+        POR_TIPO.forEach((tipo, c) -> {
+            for (int h = 0; h < TablaHabilidades.NUM_HABILIDADES; h++) {
+                sb.append(String.format(Locale.ROOT, "%-10s %-10s %12d %12d %12d%n", tipo.getSimpleName(),
+                        NOMBRES_HABILIDADES[h], c.selecciones[h].sum(), c.nan[h].sum(), c.infinitos[h].sum()));
+            }
+        });
+
+        sb.append(String.format(Locale.ROOT, "%-12s %12s %12s %12s %12s%n",
+                "Fase", "Cantidad", "Media ns", "p50 ns ≤", "p99 ns ≤"));
+        for (int f = 0; f < NUM_FASES; f++) {
+            HistogramaLatencia l = LATENCIAS[f];
+            sb.append(String.format(Locale.ROOT, "%-12s %12d %12.0f %12d %12d%n", NOMBRES_FASES[f],
+                    l.getCantidad(), l.getMedia(), l.cuantil(0.5), l.cuantil(0.99)));
+        }
+        return sb.toString();
+    }
+}
@@ -1,131 +1,249 @@
 package main;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
+import aleatorio.FlujoAleatorio;
 import entidades.fisicas.*;
 import entidades.incorporeas.*;
+import estadisticas.EstadisticasTurno;
+import eventos.SumideroAsincrono;
+import eventos.SumideroEventos;
+import eventos.SumideroNulo;
+import eventos.SumideroTexto;
+import instrumentacion.Metricas;
+import motor.MotorTurnos;
+import motor.ParametrosBatalla;
+import tablero.MuestraConflictos;
+import tablero.Tablero;
 
 
 public class Batalla {
 
-    private static final Random RANDOM = new Random();
-
-    // --- Códigos de Colores ANSI ---
-    public static final String ANSI_RESET = "\u001B[0m";
-    public static final String ANSI_RED = "\u001B[31m";
-    public static final String ANSI_GREEN = "\u001B[32m";
-    public static final String ANSI_YELLOW = "\u001B[33m";
-    public static final String ANSI_CYAN = "\u001B[36m";
-    public static final String ANSI_PURPLE = "\u001B[35m";
-    // ---------------------------------
-
     // --- Definición de Constantes de la Simulación ---
     private static final int NUM_HUMANOS = 5;
     private static final int NUM_ANGELES = 3;
     private static final int NUM_DEMONIOS = 3;
     private static final int NUM_TURNOS = 10;
+    /** Con más Humanos que estos, el tablero no lista los veredictos uno por uno. */
+    private static final int MAX_VEREDICTOS_TABLERO = 20;
+    /** Con {@code batalla.objetivo}: desvío tolerado y máximo de entes por bando de la política de Dios. */
+    private static final double MARGEN_DIOS = 0.05;
+    private static final int MAX_ENTES_DIOS = 10;
     // -------------------------------------------------
 
     /**
      * Método principal (main) para iniciar la simulación "La Batalla de las Almas".
      * Los parámetros de la simulación están definidos como constantes dentro de la clase.
+     * Argumentos opcionales:
+     * <ol>
+     *     <li>Semilla maestra; con la misma semilla la batalla se repite exactamente igual.</li>
+     *     <li>Destino de la salida: {@code texto} para el relato de cada conflicto en consola,
+     *     una ruta de archivo para ese mismo relato en texto plano, o {@code -} para no
+     *     producir salida. Por defecto se muestra un {@link Tablero} en consola.</li>
+     * </ol>
+     * Propiedades del sistema opcionales: {@code batalla.humanos} y {@code batalla.turnos}
+     * reemplazan a las constantes, {@code batalla.ritmo} fija una pausa en milisegundos
+     * tras cada Humano para seguir la batalla a ritmo humano (por defecto corre a toda
+     * velocidad), {@code batalla.fps} los cuadros por segundo del tablero y
+     * {@code batalla.objetivo} una fracción de salvados que Dios intenta mantener
+     * convocando o retirando un Ángel y un Demonio por turno ({@link PoliticaPorSalvados}).
      */
     public static void main(String[] args) {
 
-        final int numHumanos = NUM_HUMANOS;
+        final long semilla = args.length > 0 ? Long.parseLong(args[0]) : ThreadLocalRandom.current().nextLong();
+        final String destino = args.length > 1 ? args[1] : null;
+
+        final int numHumanos = Integer.getInteger("batalla.humanos", NUM_HUMANOS);
         final int numAngeles = NUM_ANGELES;
         final int numDemonios = NUM_DEMONIOS;
-        final int numTurnos = NUM_TURNOS;
+        final int numTurnos = Integer.getInteger("batalla.turnos", NUM_TURNOS);
+        final long ritmo = Long.getLong("batalla.ritmo", 0);
 
-        // Listas para almacenar las entidades
-        List<Humano> humanos = new ArrayList<>();
+        // Sin destino, la batalla se muestra en un tablero; si no, los eventos
+        // se formatean y escriben en un hilo aparte
+        final MuestraConflictos muestra = destino == null ? new MuestraConflictos() : null;
+        final SumideroEventos eventos = muestra != null ? muestra : new SumideroAsincrono(crearSalida(destino));
+
+        // Listas para almacenar las entidades (los Humanos se guardan por columnas)
         List<Angel> angeles = new ArrayList<>();
         List<Demonio> demonios = new ArrayList<>();
 
 
         // Construir el objeto DiosCristiano
         DiosCristiano dios = new DiosCristiano(numAngeles, numDemonios);
-
-        System.out.println(ANSI_CYAN + "\n========== Inicializando el Mundo de la Batalla ==========" + ANSI_RESET);
+        String objetivo = System.getProperty("batalla.objetivo");
+        if (objetivo != null) {
+            dios.setPolitica(new PoliticaPorSalvados(Double.parseDouble(objetivo), MARGEN_DIOS, 1, 1, MAX_ENTES_DIOS));
+        }
 
         // Creación de las entidades
         for (int i = 0; i < numAngeles; i++) {
-            angeles.add(new Angel());
+            Angel a = new Angel(FlujoAleatorio.para(semilla, FlujoAleatorio.DOMINIO_ANGELES, i));
+            a.setId(i);
+            angeles.add(a);
         }
         for (int i = 0; i < numDemonios; i++) {
-            demonios.add(new Demonio());
+            Demonio d = new Demonio(FlujoAleatorio.para(semilla, FlujoAleatorio.DOMINIO_DEMONIOS, i));
+            d.setId(i);
+            demonios.add(d);
         }
-        for (int i = 0; i < numHumanos; i++) {
-            humanos.add(new Humano());
+        PoblacionHumana humanos = new PoblacionHumana(numHumanos, semilla);
+        MotorTurnos motor = new MotorTurnos(humanos, angeles, demonios, semilla);
+        ContadorSalvados contador = new ContadorSalvados(dios, humanos);
+        motor.setEventos(eventos);
+        motor.setContadorSalvados(contador);
+
+        final Tablero tablero = muestra != null
+                ? new Tablero(System.out, new ParametrosBatalla(numHumanos, numAngeles, numDemonios, numTurnos, semilla),
+                        contador, muestra, Integer.getInteger("batalla.fps", Tablero.FPS_POR_DEFECTO))
+                : null;
+        motor.setEstadisticasActivas(tablero != null);
+
+        eventos.inicioBatalla(numHumanos, numAngeles, numDemonios, numTurnos, semilla);
+
+        // La simulación corre en su propio hilo; el tablero solo toma muestras de su estado
+        boolean porFilas = ritmo > 0 || (destino != null && !destino.equals("-"));
+        Thread simulacion = new Thread(() -> {
+            if (porFilas) {
+                jugarPorFilas(motor, humanos, contador, eventos, tablero, numTurnos, ritmo, semilla,
+                        dios, angeles, demonios);
+            } else {
+                jugar(motor, eventos, tablero, numTurnos, dios, angeles, demonios);
+            }
+        }, "batalla");
+        simulacion.start();
+        if (tablero != null) {
+            tablero.iniciar();
+        }
+        try {
+            simulacion.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (tablero != null) {
+            tablero.detener();
         }
 
-        System.out.printf(ANSI_GREEN + "Creados %d Humanos, %d Ángeles, %d Demonios." + ANSI_RESET + "%n",
-                numHumanos, numAngeles, numDemonios);
 
-        // --- Bucle Principal de Turnos ---
-        System.out.println(ANSI_PURPLE + "\n--- Comienza la Simulación (Turnos: " + numTurnos + ") ---" + ANSI_RESET);
+        // --- Resultado Final ---
+        // El tablero ya mostró la evolución; debajo van los veredictos si son pocos
+        SumideroEventos salida = tablero != null ? SumideroTexto.consola() : eventos;
+        if (tablero == null || numHumanos <= MAX_VEREDICTOS_TABLERO) {
+            salida.finBatalla();
+            HumanoFila h = humanos.nuevoCursor();
+            for (int i = 0; i < humanos.tamanio(); i++) {
+                h.mover(i);
+                salida.veredicto(i, dios.esBuenHombre(h), h.getBondad(), h.getMaldad());
+            }
+        }
 
-        for (int t = 1; t <= numTurnos; t++) {
-            System.out.printf(ANSI_CYAN + "\n===== TURNO %d/%d =====%n" + ANSI_RESET, t, numTurnos);
+        salida.resumen((int) contador.getSalvados(), numHumanos);
+        eventos.cerrar();
+        if (salida != eventos) {
+            salida.cerrar();
+        }
 
-            // Iterar sobre cada hombre
-            for (int i = 0; i < humanos.size(); i++) {
-                Humano h = humanos.get(i);
+        // Con -Dbatalla.metricas=true se informan las métricas del camino caliente
+        if (Metricas.isActivo()) {
+            System.out.println(Metricas.informe());
+        }
+    }
 
-                // Seleccionar un Ángel y un Demonio al azar
-                Angel angelSeleccionado = angeles.get(RANDOM.nextInt(angeles.size()));
-                Demonio demonioSeleccionado = demonios.get(RANDOM.nextInt(demonios.size()));
+    /**
+     * Ejecuta los turnos a toda velocidad con el motor (en paralelo si la
+     * población lo justifica) y publica cada turno terminado en el tablero.
+     * Si Dios tiene política, ajusta los entes tras cada turno.
+     */
+    private static void jugar(MotorTurnos motor, SumideroEventos eventos, Tablero tablero, int numTurnos,
+                              DiosCristiano dios, List<Angel> angeles, List<Demonio> demonios) {
+        for (int t = 1; t <= numTurnos; t++) {
+            eventos.inicioTurno(t, numTurnos);
+            motor.ejecutarTurno();
+            eventos.finTurno(t);
+            if (tablero != null) {
+                tablero.publicar(t, motor.getEstadisticas());
+            }
+            if (dios.getPolitica() != null) {
+                motor.gobernar(t, dios, angeles, demonios);
+            }
+        }
+    }
 
-                // Mostrar estado inicial (Amarillo)
-                System.out.printf(ANSI_YELLOW + "[Humano %d] Inicia (B:%.0f, M:%.0f, F:%.0f)" + ANSI_RESET + "%n",
-                        i,  h.getBondad(),  h.getMaldad(), h.getFe());
+    /**
+     * Recorre Humano por Humano, informando su estado antes y después de cada
+     * conflicto y esperando {@code ritmo} milisegundos tras cada uno. Con
+     * tablero, publica después de cada Humano las estadísticas del turno en curso.
+     * Si Dios tiene política, ajusta los entes tras cada turno.
+     */
+    private static void jugarPorFilas(MotorTurnos motor, PoblacionHumana humanos, ContadorSalvados contador,
+                                      SumideroEventos eventos, Tablero tablero, int numTurnos, long ritmo,
+                                      long semilla, DiosCristiano dios, List<Angel> angeles,
+                                      List<Demonio> demonios) {
+        HumanoFila h = humanos.nuevoCursor();
+        FlujoAleatorio rd = new FlujoAleatorio(semilla);
+        EstadisticasTurno parciales = new EstadisticasTurno();
 
-                // Ejecutar el conflicto moral
-                h.conflictoMoral(angelSeleccionado, demonioSeleccionado);
+        // --- Bucle Principal de Turnos ---
+        for (int t = 1; t <= numTurnos; t++) {
+            eventos.inicioTurno(t, numTurnos);
+            motor.prepararTurno(t);
+            parciales.reiniciar(t);
 
-                // Mostrar estado final (Amarillo)
-                System.out.printf(ANSI_YELLOW + "[Humano %d] Termina (B:%.0f, M:%.0f, F:%.0f)" + ANSI_RESET + "%n",
-                        i,  h.getBondad(),  h.getMaldad(), h.getFe());
+            // Iterar sobre cada hombre
+            for (int i = 0; i < humanos.tamanio(); i++) {
+                h.mover(i);
+
+                // Estado inicial
+                eventos.estadoHumano(i, true, h.getBondad(), h.getMaldad(), h.getFe());
+                boolean salvado = contador.esSalvado(h);
+
+                // Ejecutar el conflicto moral contra un Ángel y un Demonio al azar
+                int codigo = motor.resolverFila(t, h, rd);
+                contador.acumular(contador.variacion(salvado, h));
+
+                // Estado final
+                eventos.estadoHumano(i, false, h.getBondad(), h.getMaldad(), h.getFe());
+                if (tablero != null) {
+                    parciales.registrar(h, codigo);
+                    // El tablero lee desde otro hilo: recibe una copia que ya no cambia
+                    EstadisticasTurno copia = new EstadisticasTurno();
+                    copia.setTurno(t);
+                    copia.combinar(parciales);
+                    tablero.publicar(t, copia);
+                }
 
-                System.out.println(ANSI_PURPLE + "-------------------------------------------" + ANSI_RESET);
                 /// ---- Intervalo de tiempo para los turnos
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+                if (ritmo > 0) {
+                    try {
+                        Thread.sleep(ritmo);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
                 }
 
             }
-            System.out.println(ANSI_PURPLE + "===================================================" + ANSI_RESET);
-
-
-        }
-
-
-        // --- Resultado Final ---
-        System.out.println(ANSI_PURPLE + "\n--- Fin de la Batalla ---" + ANSI_RESET);
-        int humanosSalvados = 0;
-
-        for (int i = 0; i < humanos.size(); i++) {
-            Humano h = humanos.get(i);
-            String resultadoColor;
-            String resultadoTexto;
-
-            if (dios.esBuenHombre(h)) {
-                humanosSalvados++;
-                resultadoColor = ANSI_GREEN;
-                resultadoTexto = "SALVADO";
-            } else {
-                resultadoColor = ANSI_RED;
-                resultadoTexto = "EN PELIGRO";
+            eventos.finTurno(t);
+            if (dios.getPolitica() != null) {
+                motor.gobernar(t, dios, angeles, demonios);
             }
-
-            System.out.printf("Humano %d: " + resultadoColor + "%s" + ANSI_RESET + " (Bondad=%.0f, Maldad=%.0f)%n",
-                    i, resultadoTexto, h.getBondad(), h.getMaldad());
         }
+    }
 
-        System.out.printf(ANSI_PURPLE + "\nRESUMEN: " + ANSI_GREEN + "%d Humanos salvados" + ANSI_PURPLE + " / %d totales." + ANSI_RESET + "%n", humanosSalvados, numHumanos);
+    /**
+     * @param destino Ruta de archivo, {@code -} para descartar, o {@code texto} para la consola.
+     * @return Sumidero de salida correspondiente.
+     */
+    private static SumideroEventos crearSalida(String destino) {
+        if (destino.equals("texto")) {
+            return SumideroTexto.consola();
+        }
+        if (destino.equals("-")) {
+            return SumideroNulo.INSTANCIA;
+        }
+        return SumideroTexto.archivo(Path.of(destino));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package montecarlo;
+
+import aleatorio.FlujoAleatorio;
+import entidades.incorporeas.PoliticaDios;
+import motor.ParametrosBatalla;
+import motor.ResultadoBatalla;
+import motor.Simulacion;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Ejecuta muchas réplicas independientes de una batalla y agrega sus resultados.
+ * <p>
+ * Una sola batalla de pocos Humanos depende casi por completo del azar de la
+ * inicialización. Aquí cada réplica recibe su propia semilla, derivada de la
+ * semilla maestra y su número de réplica, y construye sus propios Ángeles,
+ * Demonios y población: no comparten estado mutable, así que se reparten entre
+ * todos los núcleos y el rendimiento escala con ellos. Cada réplica ejecuta sus
+ * turnos en secuencia para no anidar paralelismo.
+ * </p>
+ * <p>
+ * El resultado no depende de la cantidad de hilos: cada réplica escribe en su
+ * propia posición y la agregación se hace después, en orden.
+ * </p>
+ */
+public class ConjuntoMonteCarlo {
+
+    private final ParametrosBatalla parametros;
+    private final int replicas;
+    private final ForkJoinPool pool;
+
+    /** Política de Dios de cada réplica (null si los entes quedan fijos). */
+    private PoliticaDios politica;
+
+    /**
+     * @param parametros Parámetros de cada réplica; su semilla es la maestra del conjunto.
+     * @param replicas Cantidad de réplicas.
+     */
+    public ConjuntoMonteCarlo(ParametrosBatalla parametros, int replicas) {
+        this(parametros, replicas, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param parametros Parámetros de cada réplica; su semilla es la maestra del conjunto.
+     * @param replicas Cantidad de réplicas.
+     * @param pool Pool en el que se reparten las réplicas.
+     */
+    public ConjuntoMonteCarlo(ParametrosBatalla parametros, int replicas, ForkJoinPool pool) {
+        if (replicas < 1) {
+            throw new IllegalArgumentException("se necesita al menos una réplica");
+        }
+        this.parametros = parametros;
+        this.replicas = replicas;
+        this.pool = pool;
+    }
+
+    /**
+     * Deja que Dios ajuste los Ángeles y Demonios de cada réplica, como con
+     * {@link Simulacion#setPolitica}. Todas las réplicas comparten la misma
+     * instancia desde varios hilos, así que no debe guardar estado.
+     *
+     * @param politica Política de Dios, o null para dejar fijos los entes.
+     */
+    public void setPolitica(PoliticaDios politica) {
+        this.politica = politica;
+    }
+
+    /**
+     * @param semillaMaestra Semilla maestra del conjunto.
+     * @param replica Número de réplica.
+     * @return Semilla de la réplica, con la que puede repetirse por separado.
+     */
+    public static long semillaReplica(long semillaMaestra, int replica) {
+        return FlujoAleatorio.derivar(semillaMaestra, FlujoAleatorio.DOMINIO_REPLICAS, replica);
+    }
+
+    /**
+     * Ejecuta todas las réplicas y devuelve el resumen agregado.
+     */
+    public ResumenConjunto ejecutar() {
+        int[] salvados = new int[replicas];
+        double[] bondad = new double[replicas];
+        double[] maldad = new double[replicas];
+        double[] fe = new double[replicas];
+
+        pool.submit(() -> IntStream.range(0, replicas).parallel().forEach(r -> {
+            ParametrosBatalla p = new ParametrosBatalla(parametros.getHumanos(), parametros.getAngeles(),
+                    parametros.getDemonios(), parametros.getTurnos(),
+                    semillaReplica(parametros.getSemilla(), r));
+            Simulacion simulacion = new Simulacion(p);
+            simulacion.setPolitica(politica);
+            for (int t = 0; t < p.getTurnos(); t++) {
+                simulacion.ejecutarTurnoSecuencial();
+            }
+            ResultadoBatalla resultado = simulacion.resultado();
+            salvados[r] = resultado.getSalvados();
+            bondad[r] = resultado.getMediaBondad();
+            maldad[r] = resultado.getMediaMaldad();
+            fe[r] = resultado.getMediaFe();
+        })).join();
+
+        return new ResumenConjunto(parametros, salvados, bondad, maldad, fe);
+    }
+
+    /**
+     * Uso: {@code java montecarlo.ConjuntoMonteCarlo [replicas] [humanos] [angeles] [demonios] [turnos] [semilla]}.
+     * Por defecto, 10000 réplicas de la batalla de {@code Batalla} (5 Humanos, 3 Ángeles,
+     * 3 Demonios, 10 turnos).
+     */
+    public static void main(String[] args) {
+        int replicas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int humanos = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int angeles = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int demonios = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int turnos = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        long semilla = args.length > 5 ? Long.parseLong(args[5]) : ThreadLocalRandom.current().nextLong();
+
+        ParametrosBatalla parametros = new ParametrosBatalla(humanos, angeles, demonios, turnos, semilla);
+        long inicio = System.nanoTime();
+        ResumenConjunto resumen = new ConjuntoMonteCarlo(parametros, replicas).ejecutar();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf(Locale.ROOT, "%d réplicas de [%s] en %.2f s (%.0f réplicas/s, %d hilos)%n",
+                replicas, parametros, segundos, replicas / segundos, ForkJoinPool.getCommonPoolParallelism());
+        System.out.println("Intervalos de confianza del 95 %:");
+        System.out.println("  Salvados          " + resumen.getSalvados());
+        System.out.println("  Fracción salvados " + resumen.getFraccionSalvados());
+        System.out.println("  Bondad media      " + resumen.getMediaBondad());
+        System.out.println("  Maldad media      " + resumen.getMediaMaldad());
+        System.out.println("  Fe media          " + resumen.getMediaFe());
+        System.out.printf(Locale.ROOT, "Salvados por réplica: p5=%d p50=%d p95=%d%n",
+                resumen.cuantilSalvados(0.05), resumen.cuantilSalvados(0.5), resumen.cuantilSalvados(0.95));
+        if (humanos <= 20) {
+            for (int k = 0; k <= humanos; k++) {
+                System.out.printf(Locale.ROOT, "  %2d salvados: %6.2f %%%n", k, 100.0 * resumen.frecuencia(k) / replicas);
+            }
+        }
+    }
+}
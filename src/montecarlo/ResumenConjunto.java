@@ -0,0 +1,123 @@
+package montecarlo;
+
+import estadisticas.IntervaloConfianza;
+import estadisticas.Welford;
+import motor.ParametrosBatalla;
+
+import java.util.Arrays;
+
+/**
+ * Resultados agregados de un conjunto de réplicas independientes.
+ * <p>
+ * Guarda la cantidad de salvados de cada réplica (para su distribución y
+ * cuantiles) y resume la fracción de salvados y las medias finales de
+ * bondad, maldad y fe con su intervalo de confianza del 95 %.
+ * </p>
+ */
+public class ResumenConjunto {
+
+    private final ParametrosBatalla parametros;
+    /** Salvados de cada réplica, ordenados de menor a mayor. */
+    private final int[] salvadosOrdenados;
+    private final IntervaloConfianza salvados;
+    private final IntervaloConfianza fraccionSalvados;
+    private final IntervaloConfianza mediaBondad;
+    private final IntervaloConfianza mediaMaldad;
+    private final IntervaloConfianza mediaFe;
+
+    /**
+     * @param parametros Parámetros comunes (la semilla es la maestra del conjunto).
+     * @param salvados Salvados de cada réplica.
+     * @param bondad Media final de bondad de cada réplica.
+     * @param maldad Media final de maldad de cada réplica.
+     * @param fe Media final de fe de cada réplica.
+     */
+    public ResumenConjunto(ParametrosBatalla parametros, int[] salvados,
+                           double[] bondad, double[] maldad, double[] fe) {
+        this.parametros = parametros;
+        Welford ws = new Welford();
+        Welford wf = new Welford();
+        Welford wb = new Welford();
+        Welford wm = new Welford();
+        Welford wfe = new Welford();
+        int humanos = Math.max(1, parametros.getHumanos());
+        for (int r = 0; r < salvados.length; r++) {
+            ws.agregar(salvados[r]);
+            wf.agregar((double) salvados[r] / humanos);
+            wb.agregar(bondad[r]);
+            wm.agregar(maldad[r]);
+            wfe.agregar(fe[r]);
+        }
+        this.salvados = IntervaloConfianza.del95(ws);
+        this.fraccionSalvados = IntervaloConfianza.del95(wf);
+        this.mediaBondad = IntervaloConfianza.del95(wb);
+        this.mediaMaldad = IntervaloConfianza.del95(wm);
+        this.mediaFe = IntervaloConfianza.del95(wfe);
+        this.salvadosOrdenados = salvados.clone();
+        Arrays.sort(salvadosOrdenados);
+    }
+
+    public ParametrosBatalla getParametros() {
+        return parametros;
+    }
+
+    public int getReplicas() {
+        return salvadosOrdenados.length;
+    }
+
+    public IntervaloConfianza getSalvados() {
+        return salvados;
+    }
+
+    public IntervaloConfianza getFraccionSalvados() {
+        return fraccionSalvados;
+    }
+
+    public IntervaloConfianza getMediaBondad() {
+        return mediaBondad;
+    }
+
+    public IntervaloConfianza getMediaMaldad() {
+        return mediaMaldad;
+    }
+
+    public IntervaloConfianza getMediaFe() {
+        return mediaFe;
+    }
+
+    /**
+     * @param q Probabilidad entre 0 y 1.
+     * @return Cuantil empírico de la cantidad de salvados por réplica.
+     */
+    public int cuantilSalvados(double q) {
+        if (salvadosOrdenados.length == 0) {
+            return 0;
+        }
+        int i = (int) Math.ceil(q * salvadosOrdenados.length) - 1;
+        return salvadosOrdenados[Math.max(0, Math.min(salvadosOrdenados.length - 1, i))];
+    }
+
+    /**
+     * @param cantidad Cantidad de salvados.
+     * @return En cuántas réplicas se salvaron exactamente {@code cantidad} Humanos.
+     */
+    public int frecuencia(int cantidad) {
+        int desde = primeraPosicion(cantidad);
+        return primeraPosicion(cantidad + 1) - desde;
+    }
+
+    /** Primera posición con valor mayor o igual a {@code valor} en el arreglo ordenado. */
+    private int primeraPosicion(int valor) {
+        int bajo = 0;
+        int alto = salvadosOrdenados.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (salvadosOrdenados[medio] < valor) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+}
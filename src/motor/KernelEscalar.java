@@ -0,0 +1,50 @@
+package motor;
+
+import entidades.fisicas.HumanoFila;
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import subClases.Incorporeo;
+import subClases.TablaHabilidades;
+
+import java.util.Arrays;
+
+/**
+ * Núcleo escalar: recorre las filas con un cursor y usa exactamente el mismo
+ * camino que {@code Humano.golpear}. Es la implementación de respaldo y la
+ * referencia de resultados del núcleo vectorial.
+ */
+final class KernelEscalar extends KernelHabilidades {
+
+    static final KernelEscalar INSTANCIA = new KernelEscalar();
+
+    private KernelEscalar() {
+    }
+
+    @Override
+    public void puntuar(int habilidad, Incorporeo s, Angel angelEnemigo,
+                        PoblacionHumana poblacion, int desde, int hasta, double[] salida) {
+        puntuar(habilidad, s, angelEnemigo, poblacion, desde, hasta, salida, 0);
+    }
+
+    /**
+     * Igual que {@link #puntuar(int, Incorporeo, Angel, PoblacionHumana, int, int, double[])},
+     * pero la fila {@code desde} se escribe en {@code salida[inicioSalida]}.
+     */
+    void puntuar(int habilidad, Incorporeo s, Angel angelEnemigo,
+                 PoblacionHumana poblacion, int desde, int hasta, double[] salida, int inicioSalida) {
+        TablaHabilidades tabla = s.getHabilidades();
+        if (tabla.esNula(habilidad)) {
+            Arrays.fill(salida, inicioSalida, inicioSalida + hasta - desde, 0.0);
+            return;
+        }
+        HumanoFila h = poblacion.nuevoCursor();
+        for (int i = desde; i < hasta; i++) {
+            salida[inicioSalida + i - desde] = tabla.puntuar(habilidad, s, h.mover(i), angelEnemigo);
+        }
+    }
+
+    @Override
+    public String nombre() {
+        return "escalar";
+    }
+}
@@ -0,0 +1,69 @@
+package motor;
+
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import subClases.Incorporeo;
+
+/**
+ * Evaluación por bloques de una habilidad sobre muchos Humanos a la vez.
+ * <p>
+ * En lugar de puntuar Humano por Humano, un núcleo evalúa la misma habilidad
+ * de un mismo ente sobre un rango de filas de una {@link PoblacionHumana} y
+ * deja los resultados en un arreglo. Los resultados son idénticos bit a bit a
+ * los de {@code Humano.golpear} (incluidos los NaN e infinitos que producen las
+ * fórmulas con raíces de valores negativos o denominadores nulos).
+ * </p>
+ * <p>
+ * {@link #mejorDisponible()} elige la implementación vectorial (Vector API de
+ * {@code jdk.incubator.vector}, en el módulo opcional {@code vectorial/})
+ * cuando está compilada y el módulo está cargado y, si no, la implementación
+ * escalar. Este proyecto no depende del módulo en incubación.
+ * </p>
+ */
+public abstract class KernelHabilidades {
+
+    /** Nombre del módulo de la Vector API (en incubación). */
+    private static final String MODULO_VECTORIAL = "jdk.incubator.vector";
+
+    private static final KernelHabilidades MEJOR = crearMejor();
+
+    /**
+     * Puntúa una habilidad sobre las filas [desde, hasta).
+     *
+     * @param habilidad Índice de la habilidad (0-5).
+     * @param s Ente que aplica la habilidad.
+     * @param angelEnemigo Ángel del conflicto (usado por {@code enganiar} del Demonio).
+     * @param poblacion Población de Humanos.
+     * @param desde Primera fila (incluida).
+     * @param hasta Última fila (excluida).
+     * @param salida Destino: {@code salida[i - desde]} recibe la puntuación de la fila {@code i}.
+     */
+    public abstract void puntuar(int habilidad, Incorporeo s, Angel angelEnemigo,
+                                 PoblacionHumana poblacion, int desde, int hasta, double[] salida);
+
+    /** @return Nombre de la implementación, para reportes. */
+    public abstract String nombre();
+
+    /** @return El núcleo vectorial si el módulo está disponible, o el escalar. */
+    public static KernelHabilidades mejorDisponible() {
+        return MEJOR;
+    }
+
+    /** @return El núcleo escalar, que evalúa Humano por Humano. */
+    public static KernelHabilidades escalar() {
+        return KernelEscalar.INSTANCIA;
+    }
+
+    private static KernelHabilidades crearMejor() {
+        if (ModuleLayer.boot().findModule(MODULO_VECTORIAL).isEmpty()) {
+            return KernelEscalar.INSTANCIA;
+        }
+        try {
+            // Se carga por reflexión para que las clases sin el módulo no dependan de él
+            return (KernelHabilidades) Class.forName("motor.KernelVectorial")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return KernelEscalar.INSTANCIA;
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package motor;
+
+import aleatorio.FlujoAleatorio;
+import emparejamiento.Emparejador;
+import entidades.fisicas.AlmacenHumanos;
+import entidades.fisicas.HumanoFila;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.ContadorSalvados;
+import entidades.incorporeas.Demonio;
+import entidades.incorporeas.Dios;
+import estadisticas.EstadisticasTurno;
+import exportacion.BloqueExportacion;
+import exportacion.ExportadorColumnar;
+import eventos.SumideroEventos;
+import eventos.SumideroNulo;
+import historial.HistorialPoblacion;
+import instrumentacion.EventoTurno;
+import instrumentacion.Metricas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de turnos paralelo para "La Batalla de las Almas".
+ * <p>
+ * Cada conflicto moral solo modifica al Humano que lo sufre, por lo que un
+ * turno completo puede repartirse entre varios hilos sin sincronización: la
+ * población se divide recursivamente en rangos de filas que se ejecutan en un
+ * {@link ForkJoinPool}. Los Ángeles y Demonios se comparten entre todos los
+ * hilos y solo se leen.
+ * </p>
+ * <p>
+ * La población puede estar en columnas del heap ({@code PoblacionHumana}) o
+ * fuera de él ({@code PoblacionNativa}): el motor solo la recorre con cursores
+ * que leen y escriben directamente sobre su almacenamiento.
+ * </p>
+ * <p>
+ * {@link #ejecutarTurno()} actúa como barrera de turno: no retorna hasta que
+ * todos los Humanos han terminado su conflicto, de modo que el turno siguiente
+ * siempre parte de un estado completo.
+ * </p>
+ * <p>
+ * El azar de cada conflicto (elección de Ángel, Demonio y habilidades) sale de
+ * un flujo derivado de la semilla maestra, el número de turno y la fila del
+ * Humano. Así el resultado no depende de cómo se repartan las filas entre hilos.
+ * </p>
+ * <p>
+ * Por defecto el motor no produce salida; los eventos de cada conflicto pueden
+ * dirigirse a un sumidero con {@link #setEventos(SumideroEventos)} (que debe
+ * admitir varios hilos productores, como {@code SumideroAsincrono}).
+ * </p>
+ * <p>
+ * Con {@link #setEstadisticasActivas(boolean)} cada turno además acumula sus
+ * {@link EstadisticasTurno} mientras resuelve los conflictos: cada hoja llena
+ * las suyas y se combinan al subir por el árbol de tareas, sin una segunda
+ * pasada sobre la población.
+ * </p>
+ * <p>
+ * Un {@link ContadorSalvados} asociado con {@link #setContadorSalvados} se
+ * mantiene al día durante el turno: cada fila reevalúa solo al Humano que
+ * acaba de cambiar y cada bloque publica su variación neta.
+ * </p>
+ * <p>
+ * Qué Ángel y qué Demonio enfrenta cada Humano lo decide un {@link Emparejador}
+ * (por defecto {@link Emparejador#UNIFORME}), que se prepara una vez al
+ * comienzo de cada turno.
+ * </p>
+ * <p>
+ * Con {@link #usarTablaResultados(long)} el ganador de cada conflicto se busca
+ * en una {@link TablaResultados} en vez de calcular las dos puntuaciones. Solo
+ * se usa cuando nadie necesita esas puntuaciones: con el sumidero nulo y las
+ * métricas desactivadas. El estado resultante es el mismo.
+ * </p>
+ * <p>
+ * Con {@link #setExportador(ExportadorColumnar)} cada rango de filas llena
+ * además un bloque de exportación con el detalle de sus conflictos, que un
+ * hilo aparte comprime y escribe en disco.
+ * </p>
+ * <p>
+ * Entre un turno y otro, {@link #setEntes(List, List)} reemplaza los Ángeles y
+ * Demonios que participan, por ejemplo cuando {@code Dios} los convoca o los
+ * retira durante la batalla. Cada reemplazo da a los entes una generación
+ * nueva ({@link #getGeneracionEntes()}), que los emparejadores comparan para
+ * saber si sus tablas siguen valiendo.
+ * </p>
+ */
+public class MotorTurnos {
+
+    /**
+     * Cantidad de filas a partir de la cual un rango deja de dividirse. Los
+     * bloques de {@link ExportadorColumnar#FILAS_POR_BLOQUE} tienen el mismo
+     * tamaño, para que cada hoja llene uno.
+     */
+    private static final int UMBRAL = 2048;
+
+    private final AlmacenHumanos poblacion;
+    /** Fuente de generaciones, compartida por todos los motores para que no se repitan entre ellos. */
+    private static final AtomicLong GENERACIONES = new AtomicLong();
+
+    private final List<Angel> angeles;
+    private final List<Demonio> demonios;
+    /** Generación de los entes actuales: cambia en cada {@link #setEntes}. */
+    private long generacionEntes = GENERACIONES.incrementAndGet();
+    private final ForkJoinPool pool;
+    private final long semilla;
+
+    /** Último turno ejecutado (0 antes del primero). */
+    private int turno;
+    /** Receptor de los eventos de los conflictos. */
+    private SumideroEventos eventos = SumideroNulo.INSTANCIA;
+    /** Si cada turno acumula sus estadísticas. */
+    private boolean estadisticasActivas;
+    /** Estadísticas del último turno ejecutado (null si estaban desactivadas). */
+    private EstadisticasTurno estadisticas;
+    /** Contador de salvados que se actualiza en cada conflicto (null si no hay). */
+    private ContadorSalvados contadorSalvados;
+    /** Estrategia de emparejamiento de cada Humano con un Ángel y un Demonio. */
+    private Emparejador emparejador = Emparejador.UNIFORME;
+    /** Historial de resultados por Humano (null si no se registra). */
+    private HistorialPoblacion historial;
+    /** Exportador de los conflictos de cada turno (null si no se exporta). */
+    private ExportadorColumnar exportador;
+    /** Tabla de ganadores precalculados (null si no se usa). */
+    private TablaResultados tablaResultados;
+    /**
+     * Estadísticas, historial, exportación y contador compuestos en un solo
+     * seguimiento por fila (null si no hay ninguno). Se recompone en cada
+     * setter de esos colaboradores; el recorrido secuencial usa este y cada
+     * hoja paralela una copia.
+     */
+    private SeguimientoFilas seguimiento;
+
+    // Cursor y flujo reutilizados por el recorrido secuencial, para no crear objetos por turno
+    private final HumanoFila cursorSecuencial;
+    private final FlujoAleatorio flujoSecuencial = new FlujoAleatorio(0);
+    /** Flujo reutilizado para los entes que Dios convoca en {@link #gobernar}. */
+    private final FlujoAleatorio flujoDios = new FlujoAleatorio(0);
+
+    /**
+     * Crea un motor que ejecuta los turnos en el pool común de Fork/Join.
+     *
+     * @param poblacion Población de Humanos que sufre los conflictos.
+     * @param angeles Ángeles disponibles (solo lectura).
+     * @param demonios Demonios disponibles (solo lectura).
+     * @param semilla Semilla maestra de la que se derivan los conflictos.
+     */
+    public MotorTurnos(AlmacenHumanos poblacion, List<Angel> angeles, List<Demonio> demonios, long semilla) {
+        this(poblacion, angeles, demonios, semilla, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea un motor que ejecuta los turnos en el pool indicado.
+     *
+     * @param poblacion Población de Humanos que sufre los conflictos.
+     * @param angeles Ángeles disponibles (solo lectura).
+     * @param demonios Demonios disponibles (solo lectura).
+     * @param semilla Semilla maestra de la que se derivan los conflictos.
+     * @param pool Pool de Fork/Join sobre el que se reparten las filas.
+     */
+    public MotorTurnos(AlmacenHumanos poblacion, List<Angel> angeles, List<Demonio> demonios,
+                       long semilla, ForkJoinPool pool) {
+        this.poblacion = poblacion;
+        this.angeles = new ArrayList<>(angeles);
+        this.demonios = new ArrayList<>(demonios);
+        this.semilla = semilla;
+        this.pool = pool;
+        this.cursorSecuencial = poblacion.nuevoCursor();
+    }
+
+    /**
+     * Ejecuta el turno siguiente: cada Humano se enfrenta a un Ángel y un
+     * Demonio elegidos al azar. Retorna cuando todos los conflictos terminaron.
+     */
+    public void ejecutarTurno() {
+        turno++;
+        boolean medir = Metricas.isActivo();
+        EventoTurno evento = medir ? Metricas.iniciarTurno() : null;
+        long inicio = medir ? System.nanoTime() : 0L;
+        prepararTurno(turno);
+        TareaTurno tarea = new TareaTurno(0, poblacion.tamanio());
+        pool.invoke(tarea);
+        estadisticas = tarea.estadisticas;
+        if (medir) {
+            Metricas.turno(evento, turno, poblacion.tamanio(), true, System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Ejecuta el turno siguiente en el hilo actual, sin repartirlo en tareas.
+     * <p>
+     * Produce exactamente el mismo estado que {@link #ejecutarTurno()} y, con el
+     * sumidero nulo por defecto, no crea ningún objeto: está pensado para
+     * poblaciones pequeñas y para muchas batallas independientes en paralelo.
+     * Con las estadísticas activas solo se crea el acumulador del turno.
+     * </p>
+     */
+    public void ejecutarTurnoSecuencial() {
+        turno++;
+        boolean medir = Metricas.isActivo();
+        EventoTurno evento = medir ? Metricas.iniciarTurno() : null;
+        long inicio = medir ? System.nanoTime() : 0L;
+        prepararTurno(turno);
+        estadisticas = resolverRango(cursorSecuencial, flujoSecuencial, 0, poblacion.tamanio(), seguimiento);
+        if (medir) {
+            Metricas.turno(evento, turno, poblacion.tamanio(), false, System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Ejecuta varios turnos seguidos, con una barrera entre cada uno.
+     *
+     * @param turnos Cantidad de turnos a ejecutar.
+     */
+    public void ejecutarTurnos(int turnos) {
+        for (int t = 0; t < turnos; t++) {
+            ejecutarTurno();
+        }
+    }
+
+    /**
+     * Resuelve el conflicto de una sola fila en el turno indicado, con el mismo
+     * azar que usaría {@link #ejecutarTurno()}. Permite recorrer la población a
+     * mano (por ejemplo para mostrar cada conflicto) sin perder reproducibilidad.
+     * En ese caso debe llamarse antes a {@link #prepararTurno(int)} en cada turno.
+     *
+     * @param turno Número de turno (desde 1).
+     * @param h Cursor ya posicionado en la fila a resolver.
+     * @param rd Flujo reutilizable del hilo actual; se reposiciona aquí.
+     * @return Código de resultado del conflicto (ver {@code ResultadoConflicto}).
+     */
+    public int resolverFila(int turno, HumanoFila h, FlujoAleatorio rd) {
+        int codigo = resolverFila(turno, h, rd, null);
+        if (historial != null) {
+            historial.registrar(turno, h.getFila(), codigo);
+        }
+        return codigo;
+    }
+
+    /**
+     * Resuelve una fila y, si hay bloque de exportación, le agrega su conflicto.
+     */
+    private int resolverFila(int turno, HumanoFila h, FlujoAleatorio rd, BloqueExportacion bloque) {
+        // El azar sale de la fila global, así un fragmento de población se comporta
+        // igual que esas mismas filas dentro de la población completa
+        int indice = h.getIndice();
+        rd.reiniciar(FlujoAleatorio.derivar(semilla, turno, indice));
+        int ia = emparejador.elegirAngel(turno, indice, angeles.size(), rd);
+        int id = emparejador.elegirDemonio(turno, indice, demonios.size(), rd);
+        Angel a = angeles.get(ia);
+        Demonio d = demonios.get(id);
+        TablaResultados tabla = tablaResultados;
+        int codigo;
+        if (bloque != null) {
+            // El bloque toma habilidades y puntuaciones de los eventos y los reenvía al sumidero
+            codigo = h.conflictoMoral(a, d, rd, bloque);
+            bloque.agregarFila(h, a.getId(), d.getId(), codigo);
+        } else if (tabla != null && eventos == SumideroNulo.INSTANCIA && !Metricas.isActivo()) {
+            // Mismo consumo del flujo que conflictoMoral: una habilidad por bando
+            int habilidadAngel = a.luchar(rd);
+            int habilidadDemonio = d.luchar(rd);
+            codigo = h.aplicarResultado(tabla.ganador(ia, id, habilidadAngel, habilidadDemonio, h));
+        } else {
+            codigo = h.conflictoMoral(a, d, rd, eventos);
+        }
+        return codigo;
+    }
+
+    /**
+     * Prepara el emparejador (y el historial, si lo hay) para el turno indicado.
+     * {@link #ejecutarTurno()} y {@link #ejecutarTurnoSecuencial()} lo hacen solos; solo hace falta al
+     * recorrer las filas a mano con {@link #resolverFila}.
+     *
+     * @param turno Turno que va a comenzar.
+     */
+    public void prepararTurno(int turno) {
+        emparejador.prepararTurno(turno, angeles, demonios, generacionEntes, poblacion.getTotal());
+        if (historial != null) {
+            historial.prepararTurno(turno, poblacion);
+        }
+    }
+
+    /**
+     * Resuelve las filas [desde, hasta) del turno actual y pasa cada una por el
+     * seguimiento (estadísticas, historial, exportación y contador), si lo hay.
+     *
+     * @param seguimiento Seguimiento de uso exclusivo de este rango, o null.
+     * @return Estadísticas del rango, o null si están desactivadas.
+     */
+    private EstadisticasTurno resolverRango(HumanoFila h, FlujoAleatorio rd, int desde, int hasta,
+                                            SeguimientoFilas seguimiento) {
+        if (seguimiento == null) {
+            for (int i = desde; i < hasta; i++) {
+                resolverFila(turno, h.mover(i), rd, null);
+            }
+            return null;
+        }
+        seguimiento.abrir(turno, eventos);
+        for (int i = desde; i < hasta; i++) {
+            h.mover(i);
+            int codigo = resolverFila(turno, h, rd, seguimiento.antes(h));
+            seguimiento.despues(h, codigo);
+        }
+        return seguimiento.cerrar();
+    }
+
+    /** Vuelve a componer el seguimiento por fila tras cambiar alguno de sus colaboradores. */
+    private void recomponerSeguimiento() {
+        seguimiento = SeguimientoFilas.componer(estadisticasActivas, historial, exportador, contadorSalvados);
+    }
+
+    /**
+     * Aplica la política de Dios tras un turno y pasa a los turnos siguientes
+     * los entes resultantes. Los atributos de los convocados salen de la
+     * semilla y el turno, así que la batalla sigue siendo reproducible.
+     *
+     * @param turno Turno que acaba de terminar.
+     * @param dios Dios que gobierna, con su política.
+     * @param angeles Ángeles de la batalla; Dios los modifica en su lugar.
+     * @param demonios Demonios de la batalla; Dios los modifica en su lugar.
+     * @return Si los entes cambiaron.
+     * @throws IllegalStateException si el motor no tiene contador de salvados.
+     */
+    public boolean gobernar(int turno, Dios dios, List<Angel> angeles, List<Demonio> demonios) {
+        ContadorSalvados contador = contadorSalvados;
+        if (contador == null) {
+            throw new IllegalStateException("Dios necesita un contador de salvados en el motor");
+        }
+        double fraccion = (double) contador.getSalvados() / Math.max(1, poblacion.tamanio());
+        flujoDios.reiniciar(FlujoAleatorio.derivar(semilla, FlujoAleatorio.DOMINIO_DIOS, turno));
+        if (!dios.gobernar(turno, fraccion, angeles, demonios, flujoDios)) {
+            return false;
+        }
+        setEntes(angeles, demonios);
+        return true;
+    }
+
+    /**
+     * Reemplaza los Ángeles y Demonios de los turnos siguientes. No debe
+     * llamarse durante un turno. Los índices de las elecciones pasan a
+     * referirse a las listas nuevas y los entes reciben una generación nueva;
+     * si se usa una tabla de ganadores, conserva las entradas de las
+     * posiciones que no cambiaron de ente.
+     *
+     * @param angeles Ángeles disponibles (se copian; al menos uno).
+     * @param demonios Demonios disponibles (se copian; al menos uno).
+     * @throws IllegalArgumentException si falta un bando o el emparejador no
+     * admite las cantidades nuevas ({@link Emparejador#validar}).
+     */
+    public void setEntes(List<Angel> angeles, List<Demonio> demonios) {
+        if (angeles.isEmpty() || demonios.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un Ángel y un Demonio");
+        }
+        emparejador.validar(angeles.size(), demonios.size(), poblacion.getTotal());
+        copiar(angeles, this.angeles);
+        copiar(demonios, this.demonios);
+        generacionEntes = GENERACIONES.incrementAndGet();
+        if (tablaResultados != null) {
+            tablaResultados.actualizarEntes(this.angeles, this.demonios);
+        }
+    }
+
+    /** Copia elemento por elemento (sin el arreglo intermedio de {@code addAll}). */
+    private static <T> void copiar(List<T> origen, List<T> destino) {
+        if (origen == destino) {
+            return;
+        }
+        destino.clear();
+        for (int i = 0; i < origen.size(); i++) {
+            destino.add(origen.get(i));
+        }
+    }
+
+    /**
+     * @return Generación de los Ángeles y Demonios actuales. Cambia en cada
+     * {@link #setEntes} y nunca se repite, ni siquiera entre motores distintos.
+     */
+    public long getGeneracionEntes() {
+        return generacionEntes;
+    }
+
+    public SumideroEventos getEventos() {
+        return eventos;
+    }
+
+    public void setEventos(SumideroEventos eventos) {
+        this.eventos = eventos;
+    }
+
+    public boolean isEstadisticasActivas() {
+        return estadisticasActivas;
+    }
+
+    /**
+     * Activa o desactiva la acumulación de estadísticas en los turnos siguientes.
+     */
+    public void setEstadisticasActivas(boolean estadisticasActivas) {
+        this.estadisticasActivas = estadisticasActivas;
+        recomponerSeguimiento();
+    }
+
+    /**
+     * @return Estadísticas del último turno ejecutado, o null si estaban
+     * desactivadas. Cada turno produce un objeto nuevo; el devuelto no cambia después.
+     */
+    public EstadisticasTurno getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Activa la resolución por tabla de ganadores en los turnos siguientes.
+     * Los Ángeles y Demonios no deben cambiar sus atributos mientras se use.
+     *
+     * @param limiteBytes Memoria máxima de la tabla.
+     * @return La tabla creada, para consultar su ocupación.
+     */
+    public TablaResultados usarTablaResultados(long limiteBytes) {
+        tablaResultados = new TablaResultados(angeles, demonios, limiteBytes);
+        return tablaResultados;
+    }
+
+    /** Vuelve a calcular cada conflicto sin tabla. */
+    public void descartarTablaResultados() {
+        tablaResultados = null;
+    }
+
+    public TablaResultados getTablaResultados() {
+        return tablaResultados;
+    }
+
+    /**
+     * Empieza a registrar el historial de resultados desde el turno siguiente.
+     *
+     * @param intervaloClave Turnos entre fotogramas clave (múltiplo de 5).
+     * @return El historial, para consultarlo o reconstruir turnos pasados.
+     */
+    public HistorialPoblacion registrarHistorial(int intervaloClave) {
+        historial = new HistorialPoblacion(poblacion.tamanio(), turno, intervaloClave);
+        recomponerSeguimiento();
+        return historial;
+    }
+
+    public HistorialPoblacion getHistorial() {
+        return historial;
+    }
+
+    public ExportadorColumnar getExportador() {
+        return exportador;
+    }
+
+    /**
+     * Exporta los conflictos de los turnos siguientes ejecutados con
+     * {@link #ejecutarTurno()} o {@link #ejecutarTurnoSecuencial()} (no los
+     * resueltos a mano con {@link #resolverFila}). Mientras se exporta no se
+     * usa la tabla de ganadores, porque hacen falta las puntuaciones.
+     *
+     * @param exportador Exportador abierto, o null para dejar de exportar.
+     * Cerrarlo queda a cargo de quien lo creó.
+     */
+    public void setExportador(ExportadorColumnar exportador) {
+        this.exportador = exportador;
+        recomponerSeguimiento();
+    }
+
+    public Emparejador getEmparejador() {
+        return emparejador;
+    }
+
+    /**
+     * @param emparejador Estrategia de los turnos siguientes.
+     * @throws IllegalArgumentException si no admite los entes y Humanos actuales
+     * ({@link Emparejador#validar}).
+     */
+    public void setEmparejador(Emparejador emparejador) {
+        emparejador.validar(angeles.size(), demonios.size(), poblacion.getTotal());
+        this.emparejador = emparejador;
+    }
+
+    public ContadorSalvados getContadorSalvados() {
+        return contadorSalvados;
+    }
+
+    /**
+     * Asocia un contador de salvados que se actualizará en los turnos siguientes.
+     * Debe haberse creado (o recontado) sobre el estado actual de la población.
+     *
+     * @param contadorSalvados Contador a mantener, o null para dejar de hacerlo.
+     */
+    public void setContadorSalvados(ContadorSalvados contadorSalvados) {
+        this.contadorSalvados = contadorSalvados;
+        recomponerSeguimiento();
+    }
+
+    /** @return Último turno ejecutado con {@link #ejecutarTurno()}. */
+    public int getTurno() {
+        return turno;
+    }
+
+    /**
+     * Fija el último turno ejecutado, para reanudar una batalla guardada. Como
+     * el azar de cada conflicto solo depende de la semilla, el turno y la fila,
+     * esto basta para continuar exactamente como la ejecución original.
+     *
+     * @param turno Último turno que ya se ejecutó.
+     */
+    public void setTurno(int turno) {
+        this.turno = turno;
+    }
+
+    /** @return Semilla maestra de la que se derivan los conflictos. */
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Tarea que resuelve los conflictos de las filas [desde, hasta). Vive solo
+     * durante un turno y nunca se serializa.
+     */
+    @SuppressWarnings("serial")
+    private final class TareaTurno extends RecursiveAction {
+        private final int desde;
+        private final int hasta;
+        /** Estadísticas del rango, combinadas desde las subtareas (null si están desactivadas). */
+        EstadisticasTurno estadisticas;
+
+        TareaTurno(int desde, int hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UMBRAL) {
+                resolver();
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            TareaTurno izquierda = new TareaTurno(desde, medio);
+            TareaTurno derecha = new TareaTurno(medio, hasta);
+            invokeAll(izquierda, derecha);
+            // Se combinan siempre en el mismo orden, así el resultado no depende de los hilos
+            if (izquierda.estadisticas != null) {
+                izquierda.estadisticas.combinar(derecha.estadisticas);
+                estadisticas = izquierda.estadisticas;
+            }
+        }
+
+        private void resolver() {
+            // Cada hoja usa su propio cursor, flujo y seguimiento; nunca se comparten entre hilos
+            SeguimientoFilas propio = seguimiento != null ? seguimiento.copia() : null;
+            estadisticas = resolverRango(poblacion.nuevoCursor(), new FlujoAleatorio(0), desde, hasta, propio);
+        }
+    }
+}
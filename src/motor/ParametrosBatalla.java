@@ -0,0 +1,60 @@
+package motor;
+
+/**
+ * Parámetros de una batalla: tamaño de cada bando, duración y semilla maestra.
+ * <p>
+ * Reemplaza a las constantes {@code NUM_*} de {@code Batalla} cuando la batalla
+ * se lanza desde código (servicios, barridos, conjuntos de réplicas).
+ * </p>
+ */
+public final class ParametrosBatalla {
+
+    private final int humanos;
+    private final int angeles;
+    private final int demonios;
+    private final int turnos;
+    private final long semilla;
+
+    /**
+     * @throws IllegalArgumentException si algún tamaño es inválido.
+     */
+    public ParametrosBatalla(int humanos, int angeles, int demonios, int turnos, long semilla) {
+        if (humanos < 0 || turnos < 0) {
+            throw new IllegalArgumentException("humanos y turnos no pueden ser negativos");
+        }
+        if (angeles < 1 || demonios < 1) {
+            throw new IllegalArgumentException("se necesita al menos un Ángel y un Demonio");
+        }
+        this.humanos = humanos;
+        this.angeles = angeles;
+        this.demonios = demonios;
+        this.turnos = turnos;
+        this.semilla = semilla;
+    }
+
+    public int getHumanos() {
+        return humanos;
+    }
+
+    public int getAngeles() {
+        return angeles;
+    }
+
+    public int getDemonios() {
+        return demonios;
+    }
+
+    public int getTurnos() {
+        return turnos;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    @Override
+    public String toString() {
+        return "humanos=" + humanos + ", angeles=" + angeles + ", demonios=" + demonios
+                + ", turnos=" + turnos + ", semilla=" + semilla;
+    }
+}
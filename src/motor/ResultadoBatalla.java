@@ -0,0 +1,62 @@
+package motor;
+
+import java.util.Locale;
+
+/**
+ * Resumen final de una batalla: veredicto de {@code DiosCristiano} y estado
+ * medio de la población.
+ */
+public final class ResultadoBatalla {
+
+    private final ParametrosBatalla parametros;
+    private final int salvados;
+    private final double mediaBondad;
+    private final double mediaMaldad;
+    private final double mediaFe;
+
+    public ResultadoBatalla(ParametrosBatalla parametros, int salvados,
+                            double mediaBondad, double mediaMaldad, double mediaFe) {
+        this.parametros = parametros;
+        this.salvados = salvados;
+        this.mediaBondad = mediaBondad;
+        this.mediaMaldad = mediaMaldad;
+        this.mediaFe = mediaFe;
+    }
+
+    public ParametrosBatalla getParametros() {
+        return parametros;
+    }
+
+    public int getSalvados() {
+        return salvados;
+    }
+
+    /** @return Fracción de Humanos salvados (0 si no hay Humanos). */
+    public double getFraccionSalvados() {
+        return parametros.getHumanos() == 0 ? 0 : (double) salvados / parametros.getHumanos();
+    }
+
+    public double getMediaBondad() {
+        return mediaBondad;
+    }
+
+    public double getMediaMaldad() {
+        return mediaMaldad;
+    }
+
+    public double getMediaFe() {
+        return mediaFe;
+    }
+
+    /** @return El resumen como objeto JSON. */
+    public String aJson() {
+        return String.format(Locale.ROOT,
+                "{\"semilla\":%d,\"humanos\":%d,\"angeles\":%d,\"demonios\":%d,\"turnos\":%d,"
+                        + "\"salvados\":%d,\"enPeligro\":%d,\"fraccionSalvados\":%.6f,"
+                        + "\"mediaBondad\":%.4f,\"mediaMaldad\":%.4f,\"mediaFe\":%.4f}",
+                parametros.getSemilla(), parametros.getHumanos(), parametros.getAngeles(),
+                parametros.getDemonios(), parametros.getTurnos(), salvados,
+                parametros.getHumanos() - salvados, getFraccionSalvados(),
+                mediaBondad, mediaMaldad, mediaFe);
+    }
+}
@@ -0,0 +1,126 @@
+package motor;
+
+import entidades.fisicas.HumanoFila;
+import entidades.incorporeas.ContadorSalvados;
+import estadisticas.EstadisticasTurno;
+import exportacion.BloqueExportacion;
+import exportacion.ExportadorColumnar;
+import eventos.SumideroEventos;
+import historial.HistorialPoblacion;
+
+/**
+ * Lo que {@link MotorTurnos} hace con cada fila de un rango además de resolver
+ * su conflicto: acumular estadísticas, registrar el historial, exportar el
+ * conflicto y mantener el contador de salvados.
+ * <p>
+ * El motor lo compone en cada setter de esos colaboradores (o deja null si no
+ * hay ninguno), así que el recorrido de un rango comprueba una sola referencia
+ * en lugar de una por colaborador. Guarda el estado del rango en curso, por lo
+ * que cada hilo necesita el suyo: el recorrido secuencial reutiliza el del
+ * motor, sin crear objetos, y cada hoja paralela usa una {@link #copia()}.
+ * </p>
+ */
+final class SeguimientoFilas {
+
+    private final boolean estadisticasActivas;
+    private final HistorialPoblacion historial;
+    private final ExportadorColumnar exportador;
+    private final ContadorSalvados contador;
+
+    // --- Estado del rango en curso ---
+    private int turno;
+    private SumideroEventos eventos;
+    private EstadisticasTurno acumulador;
+    private BloqueExportacion bloque;
+    private int variacion;
+    private boolean salvadoAntes;
+
+    private SeguimientoFilas(boolean estadisticasActivas, HistorialPoblacion historial,
+                             ExportadorColumnar exportador, ContadorSalvados contador) {
+        this.estadisticasActivas = estadisticasActivas;
+        this.historial = historial;
+        this.exportador = exportador;
+        this.contador = contador;
+    }
+
+    /**
+     * @return Seguimiento con los colaboradores indicados, o null si no hay
+     * ninguno y las filas no necesitan nada más que su conflicto.
+     */
+    static SeguimientoFilas componer(boolean estadisticasActivas, HistorialPoblacion historial,
+                                     ExportadorColumnar exportador, ContadorSalvados contador) {
+        if (!estadisticasActivas && historial == null && exportador == null && contador == null) {
+            return null;
+        }
+        return new SeguimientoFilas(estadisticasActivas, historial, exportador, contador);
+    }
+
+    /** @return Seguimiento con los mismos colaboradores y su propio estado de rango. */
+    SeguimientoFilas copia() {
+        return new SeguimientoFilas(estadisticasActivas, historial, exportador, contador);
+    }
+
+    /**
+     * Empieza un rango de filas del turno indicado.
+     *
+     * @param eventos Sumidero al que el bloque de exportación reenvía los eventos.
+     */
+    void abrir(int turno, SumideroEventos eventos) {
+        this.turno = turno;
+        this.eventos = eventos;
+        variacion = 0;
+        acumulador = null;
+        if (estadisticasActivas) {
+            acumulador = new EstadisticasTurno();
+            acumulador.setTurno(turno);
+        }
+        bloque = exportador != null ? exportador.reservar(turno, eventos) : null;
+    }
+
+    /**
+     * Se llama antes del conflicto de la fila.
+     *
+     * @return Bloque de exportación que debe recibir el conflicto, o null si no se exporta.
+     */
+    BloqueExportacion antes(HumanoFila h) {
+        salvadoAntes = contador != null && contador.esSalvado(h);
+        if (bloque != null && bloque.isLleno()) {
+            exportador.entregar(bloque);
+            bloque = exportador.reservar(turno, eventos);
+        }
+        return bloque;
+    }
+
+    /** Se llama después del conflicto de la fila, con su código de resultado. */
+    void despues(HumanoFila h, int codigo) {
+        if (acumulador != null) {
+            acumulador.registrar(h, codigo);
+        }
+        if (historial != null) {
+            historial.registrar(turno, h.getFila(), codigo);
+        }
+        if (contador != null) {
+            variacion += contador.variacion(salvadoAntes, h);
+        }
+    }
+
+    /**
+     * Termina el rango: publica en el contador la variación neta con una sola
+     * operación atómica y entrega el último bloque de exportación.
+     *
+     * @return Estadísticas del rango, o null si están desactivadas.
+     */
+    EstadisticasTurno cerrar() {
+        if (variacion != 0) {
+            contador.acumular(variacion);
+        }
+        if (bloque != null) {
+            exportador.entregar(bloque);
+            bloque = null;
+        }
+        EstadisticasTurno resultado = acumulador;
+        acumulador = null;
+        eventos = null;
+        return resultado;
+    }
+}
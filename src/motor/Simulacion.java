@@ -0,0 +1,292 @@
+package motor;
+
+import aleatorio.FlujoAleatorio;
+import analitico.ModeloMarkov;
+import emparejamiento.Emparejador;
+import entidades.fisicas.HumanoFila;
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.ContadorSalvados;
+import entidades.incorporeas.Demonio;
+import entidades.incorporeas.DiosCristiano;
+import entidades.incorporeas.PoliticaDios;
+import persistencia.PuntoControl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Una batalla completa y autocontenida, sin salida por consola.
+ * <p>
+ * Crea las entidades a partir de la semilla de los {@link ParametrosBatalla}
+ * (las mismas que crearía {@code Batalla}), ejecuta los turnos y obtiene el
+ * veredicto de {@link DiosCristiano}. No comparte estado mutable con otras
+ * simulaciones, por lo que muchas pueden ejecutarse a la vez en distintos hilos.
+ * </p>
+ * <p>
+ * Las batallas largas pueden guardar un {@link PuntoControl} cada cierta
+ * cantidad de turnos ({@link #setPuntoControl(Path, int)}) y continuar después
+ * desde él con {@link #reanudar(Path)}, con el mismo resultado que sin interrupción.
+ * </p>
+ * <p>
+ * Con {@link #avanzarAnaliticamente(int)} muchos turnos pueden saltearse con un
+ * {@link ModeloMarkov} en lugar de simularse uno por uno.
+ * </p>
+ * <p>
+ * Con {@link #setPolitica(PoliticaDios)}, Dios revisa al final de cada turno
+ * la fracción de salvados y convoca o retira Ángeles y Demonios para el turno
+ * siguiente, reutilizando los retirados. Los atributos de los convocados
+ * salen de la semilla y el turno, así que la batalla sigue siendo reproducible.
+ * </p>
+ */
+public class Simulacion {
+
+    /** Tamaño de población a partir del cual cada turno se reparte en el pool de Fork/Join. */
+    public static final int UMBRAL_PARALELO = 1 << 16;
+
+    private final ParametrosBatalla parametros;
+    private final List<Angel> angeles;
+    private final List<Demonio> demonios;
+    private final PoblacionHumana poblacion;
+    private final DiosCristiano dios;
+    private final MotorTurnos motor;
+
+    /** Archivo de punto de control (null si no se guardan). */
+    private Path archivoControl;
+    /** Cada cuántos turnos se guarda el punto de control. */
+    private int cadaTurnos;
+    /** Modelo de Markov para los avances analíticos (se crea al primer uso). */
+    private ModeloMarkov modelo;
+
+    public Simulacion(ParametrosBatalla parametros) {
+        this(parametros, crearAngeles(parametros), crearDemonios(parametros),
+                new PoblacionHumana(parametros.getHumanos(), parametros.getSemilla()), 0);
+    }
+
+    private Simulacion(ParametrosBatalla parametros, List<Angel> angeles, List<Demonio> demonios,
+                       PoblacionHumana poblacion, int turno) {
+        this.parametros = parametros;
+        this.angeles = angeles;
+        this.demonios = demonios;
+        this.poblacion = poblacion;
+        this.dios = new DiosCristiano(parametros.getAngeles(), parametros.getDemonios());
+        this.motor = new MotorTurnos(poblacion, angeles, demonios, parametros.getSemilla());
+        motor.setTurno(turno);
+    }
+
+    /**
+     * Continúa una batalla desde un punto de control guardado.
+     * <p>
+     * El punto de control guarda los entes presentes, no la política de Dios
+     * ni sus reservas: para seguir ajustándolos hay que volver a llamar a
+     * {@link #setPolitica}. Los entes guardados reciben su posición como
+     * identificador y los que se convoquen después siguen a partir de ahí, así
+     * que una batalla reanudada con política no repite exactamente la original.
+     * </p>
+     *
+     * @param archivo Punto de control escrito por una simulación anterior.
+     * @return Simulación posicionada en el turno siguiente al guardado.
+     * @throws IOException si el punto de control no puede leerse.
+     */
+    public static Simulacion reanudar(Path archivo) throws IOException {
+        PuntoControl control = PuntoControl.cargar(archivo);
+        ParametrosBatalla parametros = new ParametrosBatalla(control.getPoblacion().tamanio(),
+                control.getAngeles().size(), control.getDemonios().size(),
+                control.getTurnosTotales(), control.getSemilla());
+        return new Simulacion(parametros, control.getAngeles(), control.getDemonios(),
+                control.getPoblacion(), control.getTurno());
+    }
+
+    /**
+     * @return Los Ángeles de una batalla, derivados de su semilla como en
+     * cualquier {@code Simulacion}, con su posición como identificador.
+     */
+    public static List<Angel> crearAngeles(ParametrosBatalla parametros) {
+        List<Angel> angeles = new ArrayList<>();
+        for (int i = 0; i < parametros.getAngeles(); i++) {
+            Angel a = new Angel(FlujoAleatorio.para(parametros.getSemilla(), FlujoAleatorio.DOMINIO_ANGELES, i));
+            a.setId(i);
+            angeles.add(a);
+        }
+        return angeles;
+    }
+
+    /**
+     * @return Los Demonios de una batalla, derivados de su semilla como en
+     * cualquier {@code Simulacion}, con su posición como identificador.
+     */
+    public static List<Demonio> crearDemonios(ParametrosBatalla parametros) {
+        List<Demonio> demonios = new ArrayList<>();
+        for (int i = 0; i < parametros.getDemonios(); i++) {
+            Demonio d = new Demonio(FlujoAleatorio.para(parametros.getSemilla(), FlujoAleatorio.DOMINIO_DEMONIOS, i));
+            d.setId(i);
+            demonios.add(d);
+        }
+        return demonios;
+    }
+
+    /**
+     * Activa el guardado periódico de un punto de control durante {@link #ejecutar()}.
+     *
+     * @param archivo Ruta del punto de control (se reemplaza en cada guardado).
+     * @param cadaTurnos Cada cuántos turnos se guarda (mayor que cero).
+     */
+    public void setPuntoControl(Path archivo, int cadaTurnos) {
+        if (cadaTurnos <= 0) {
+            throw new IllegalArgumentException("cadaTurnos debe ser mayor que cero");
+        }
+        this.archivoControl = archivo;
+        this.cadaTurnos = cadaTurnos;
+    }
+
+    /**
+     * Deja que Dios ajuste los Ángeles y Demonios tras cada turno según una
+     * política. Si el motor no tenía un contador de salvados, se le asocia uno
+     * para conocer la fracción de salvados sin recorrer la población.
+     *
+     * @param politica Política de Dios, o null para dejar fijos los entes.
+     */
+    public void setPolitica(PoliticaDios politica) {
+        dios.setPolitica(politica);
+        if (politica != null && motor.getContadorSalvados() == null) {
+            motor.setContadorSalvados(new ContadorSalvados(dios, poblacion));
+        }
+    }
+
+    /**
+     * Guarda el estado actual en un punto de control (sin la política de Dios;
+     * ver {@link #reanudar(Path)}).
+     *
+     * @param archivo Ruta del punto de control.
+     * @throws IOException si no se puede escribir.
+     */
+    public void guardar(Path archivo) throws IOException {
+        PuntoControl.guardar(archivo, motor.getTurno(), parametros.getTurnos(), angeles, demonios, poblacion);
+    }
+
+    /**
+     * Ejecuta el turno siguiente; las poblaciones grandes se reparten entre
+     * hilos y las pequeñas se resuelven en el hilo actual.
+     */
+    public void ejecutarTurno() {
+        if (poblacion.tamanio() >= UMBRAL_PARALELO) {
+            motor.ejecutarTurno();
+            gobernar();
+        } else {
+            ejecutarTurnoSecuencial();
+        }
+    }
+
+    /**
+     * Ejecuta el turno siguiente en el hilo actual, sea cual sea la población,
+     * y aplica después la política de Dios si la hay. Es el camino de las
+     * réplicas de {@code ConjuntoMonteCarlo} y {@code BarridoParametros}, que
+     * ya se reparten entre los núcleos.
+     */
+    public void ejecutarTurnoSecuencial() {
+        motor.ejecutarTurnoSecuencial();
+        gobernar();
+    }
+
+    /** Aplica la política de Dios (si la hay) tras el último turno. */
+    private void gobernar() {
+        if (dios.getPolitica() != null && motor.gobernar(motor.getTurno(), dios, angeles, demonios)) {
+            modelo = null;
+        }
+    }
+
+    /**
+     * Ejecuta todos los turnos pendientes y devuelve el veredicto final.
+     * Si hay un punto de control configurado, se guarda cada {@code cadaTurnos}.
+     *
+     * @return Resumen de la batalla.
+     */
+    public ResultadoBatalla ejecutar() {
+        while (motor.getTurno() < parametros.getTurnos()) {
+            ejecutarTurno();
+            if (archivoControl != null && motor.getTurno() % cadaTurnos == 0) {
+                try {
+                    guardar(archivoControl);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return resultado();
+    }
+
+    /**
+     * Avanza {@code turnos} turnos sin simular los conflictos: cada Humano
+     * recorre la cadena de un {@link ModeloMarkov} y queda en el estado al que
+     * llega. El estado resultante no es el que produciría la simulación turno
+     * a turno, pero sigue su misma distribución.
+     * <p>
+     * Solo es válido con el emparejamiento uniforme del motor. Después de un
+     * avance no puede continuarse un historial de resultados.
+     * </p>
+     *
+     * @param turnos Turnos a avanzar.
+     * @throws IllegalStateException si el motor no usa el emparejamiento uniforme.
+     */
+    public void avanzarAnaliticamente(int turnos) {
+        if (motor.getEmparejador() != Emparejador.UNIFORME) {
+            throw new IllegalStateException("El avance analítico supone el emparejamiento uniforme");
+        }
+        if (modelo == null) {
+            modelo = new ModeloMarkov(angeles, demonios);
+        }
+        long semilla = FlujoAleatorio.derivar(parametros.getSemilla(), FlujoAleatorio.DOMINIO_AVANCE, motor.getTurno());
+        modelo.avanzar(poblacion, turnos, semilla);
+        motor.setTurno(motor.getTurno() + turnos);
+        if (motor.getContadorSalvados() != null) {
+            motor.getContadorSalvados().recontar(poblacion);
+        }
+    }
+
+    /** @return Veredicto de {@link DiosCristiano} sobre el estado actual de la población. */
+    public ResultadoBatalla resultado() {
+        int salvados = 0;
+        double bondad = 0;
+        double maldad = 0;
+        double fe = 0;
+        HumanoFila h = poblacion.nuevoCursor();
+        for (int i = 0; i < poblacion.tamanio(); i++) {
+            h.mover(i);
+            if (dios.esBuenHombre(h)) {
+                salvados++;
+            }
+            bondad += h.getBondad();
+            maldad += h.getMaldad();
+            fe += h.getFe();
+        }
+        int n = Math.max(1, poblacion.tamanio());
+        return new ResultadoBatalla(parametros, salvados, bondad / n, maldad / n, fe / n);
+    }
+
+    public ParametrosBatalla getParametros() {
+        return parametros;
+    }
+
+    public PoblacionHumana getPoblacion() {
+        return poblacion;
+    }
+
+    public List<Angel> getAngeles() {
+        return angeles;
+    }
+
+    public List<Demonio> getDemonios() {
+        return demonios;
+    }
+
+    public DiosCristiano getDios() {
+        return dios;
+    }
+
+    public MotorTurnos getMotor() {
+        return motor;
+    }
+}
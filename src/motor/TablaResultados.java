@@ -0,0 +1,334 @@
+package motor;
+
+import entidades.fisicas.Humano;
+import entidades.fisicas.ResultadoConflicto;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tabla perezosa de ganadores de conflictos sobre el espacio discreto de atributos.
+ * <p>
+ * La inteligencia de un Humano es un entero entre 0 y 199 que no cambia, y su
+ * fe, bondad y maldad solo se mueven de a una unidad dentro de [0, 100]. Para
+ * un par Ángel–Demonio fijo y un par de habilidades, el ganador es entonces una
+ * función pura de esos cuatro enteros, y puede calcularse una vez y consultarse
+ * después.
+ * </p>
+ * <p>
+ * Cada entrada ocupa 2 bits (0 desconocido, 1 empate, 2 gana el Ángel, 3 gana
+ * el Demonio). Se agrupan en bloques que cubren todas las combinaciones de
+ * bondad × maldad (101 × 101) para una clave (par, habilidades, inteligencia,
+ * fe); los bloques y sus directorios se crean al primer uso. Las entradas se
+ * escriben con un OR atómico, de modo que varios hilos pueden llenar la tabla a
+ * la vez; como el valor de una entrada es siempre el mismo, una carrera solo
+ * puede costar un cálculo repetido. Al alcanzar el límite de memoria no se crean
+ * bloques nuevos y los conflictos sin entrada se calculan directamente.
+ * </p>
+ * <p>
+ * La tabla supone que los atributos de los Ángeles y Demonios no cambian
+ * mientras se usa; si cambian debe llamarse a {@link #limpiar()}. Los Humanos
+ * con atributos no enteros o fuera de rango se resuelven sin la tabla.
+ * </p>
+ * <p>
+ * Cuando el motor reemplaza sus entes ({@link #actualizarEntes}), la tabla se
+ * conserva: solo se descartan los directorios de las posiciones cuyo ente
+ * cambió (otra instancia u otro identificador, como un ente que {@code Dios}
+ * reutiliza). Las posiciones se numeran con una capacidad que crece al doble,
+ * así que agregar entes no desplaza los directorios de los que ya estaban.
+ * </p>
+ */
+public final class TablaResultados {
+
+    /** Límite de memoria por defecto: 256 MiB. */
+    public static final long LIMITE_POR_DEFECTO = 256L << 20;
+
+    private static final int RANGO_INTELIGENCIA = 200;
+    private static final int RANGO_ATRIBUTO = 101;
+    private static final int HABILIDADES = 6;
+    /** Entradas de 2 bits por {@code long}. */
+    private static final int ENTRADAS_POR_PALABRA = 32;
+    private static final int PALABRAS_POR_BLOQUE =
+            (RANGO_ATRIBUTO * RANGO_ATRIBUTO + ENTRADAS_POR_PALABRA - 1) / ENTRADAS_POR_PALABRA;
+    private static final int BLOQUES_POR_DIRECTORIO = RANGO_INTELIGENCIA * RANGO_ATRIBUTO;
+
+    // Tamaños aproximados en el heap, para respetar el límite
+    private static final long BYTES_BLOQUE = 16L + PALABRAS_POR_BLOQUE * Long.BYTES;
+    private static final long BYTES_DIRECTORIO = 16L + BLOQUES_POR_DIRECTORIO * 8L;
+
+    private static final VarHandle PALABRA = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle BLOQUE = MethodHandles.arrayElementVarHandle(long[][].class);
+
+    /** Ente de cada posición e identificador que tenía cuando se guardaron sus entradas. */
+    private Angel[] angeles;
+    private int[] idsAngeles;
+    private Demonio[] demonios;
+    private int[] idsDemonios;
+    private final long limiteBytes;
+
+    /** Posiciones de Ángel y de Demonio con lugar en {@link #directorios}. */
+    private int capacidadAngeles;
+    private int capacidadDemonios;
+
+    /** Un directorio de bloques por (Ángel, Demonio, habilidad del Ángel, habilidad del Demonio). */
+    private volatile AtomicReferenceArray<long[][]> directorios;
+    private final AtomicLong bytesReservados = new AtomicLong();
+    private volatile boolean llena;
+
+    private final LongAdder calculadas = new LongAdder();
+    private final LongAdder directas = new LongAdder();
+
+    /**
+     * @param angeles Ángeles del motor, en el mismo orden que él los usa.
+     * @param demonios Demonios del motor, en el mismo orden que él los usa.
+     * @param limiteBytes Memoria máxima que puede ocupar la tabla.
+     */
+    public TablaResultados(List<Angel> angeles, List<Demonio> demonios, long limiteBytes) {
+        this.limiteBytes = limiteBytes;
+        this.capacidadAngeles = angeles.size();
+        this.capacidadDemonios = demonios.size();
+        this.directorios = nuevosDirectorios(capacidadAngeles, capacidadDemonios);
+        this.angeles = new Angel[capacidadAngeles];
+        this.idsAngeles = new int[capacidadAngeles];
+        this.demonios = new Demonio[capacidadDemonios];
+        this.idsDemonios = new int[capacidadDemonios];
+        recordar(angeles, demonios);
+    }
+
+    private static AtomicReferenceArray<long[][]> nuevosDirectorios(int angeles, int demonios) {
+        long cantidad = (long) angeles * demonios * HABILIDADES * HABILIDADES;
+        if (cantidad > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("demasiados pares Ángel–Demonio para la tabla");
+        }
+        return new AtomicReferenceArray<>((int) cantidad);
+    }
+
+    private int indiceDirectorio(int ia, int id, int habilidadAngel, int habilidadDemonio) {
+        return ((ia * capacidadDemonios + id) * HABILIDADES + habilidadAngel) * HABILIDADES + habilidadDemonio;
+    }
+
+    /**
+     * Pasa a los entes nuevos del motor, descartando solo las entradas de las
+     * posiciones cuyo ente cambió. No debe llamarse durante un turno.
+     *
+     * @param nuevosAngeles Ángeles del motor, en el orden en que los usa.
+     * @param nuevosDemonios Demonios del motor, en el orden en que los usa.
+     */
+    public void actualizarEntes(List<Angel> nuevosAngeles, List<Demonio> nuevosDemonios) {
+        if (nuevosAngeles.size() > capacidadAngeles || nuevosDemonios.size() > capacidadDemonios) {
+            redimensionar(Math.max(nuevosAngeles.size(), 2 * capacidadAngeles),
+                    Math.max(nuevosDemonios.size(), 2 * capacidadDemonios));
+        }
+        for (int ia = 0; ia < nuevosAngeles.size(); ia++) {
+            Angel a = nuevosAngeles.get(ia);
+            if (angeles[ia] != a || idsAngeles[ia] != a.getId()) {
+                for (int id = 0; id < capacidadDemonios; id++) {
+                    descartar(ia, id);
+                }
+            }
+        }
+        for (int id = 0; id < nuevosDemonios.size(); id++) {
+            Demonio d = nuevosDemonios.get(id);
+            if (demonios[id] != d || idsDemonios[id] != d.getId()) {
+                for (int ia = 0; ia < capacidadAngeles; ia++) {
+                    descartar(ia, id);
+                }
+            }
+        }
+        recordar(nuevosAngeles, nuevosDemonios);
+    }
+
+    /** Guarda el ente y el identificador de cada posición ocupada. */
+    private void recordar(List<Angel> nuevosAngeles, List<Demonio> nuevosDemonios) {
+        for (int ia = 0; ia < nuevosAngeles.size(); ia++) {
+            angeles[ia] = nuevosAngeles.get(ia);
+            idsAngeles[ia] = angeles[ia].getId();
+        }
+        for (int id = 0; id < nuevosDemonios.size(); id++) {
+            demonios[id] = nuevosDemonios.get(id);
+            idsDemonios[id] = demonios[id].getId();
+        }
+    }
+
+    /** Traslada los directorios existentes a una numeración con más posiciones. */
+    private void redimensionar(int nuevaCapacidadAngeles, int nuevaCapacidadDemonios) {
+        AtomicReferenceArray<long[][]> anteriores = directorios;
+        int anteriorDemonios = capacidadDemonios;
+        AtomicReferenceArray<long[][]> nuevos = nuevosDirectorios(nuevaCapacidadAngeles, nuevaCapacidadDemonios);
+        int pares = HABILIDADES * HABILIDADES;
+        for (int ia = 0; ia < capacidadAngeles; ia++) {
+            for (int id = 0; id < anteriorDemonios; id++) {
+                int desde = (ia * anteriorDemonios + id) * pares;
+                int hasta = (ia * nuevaCapacidadDemonios + id) * pares;
+                for (int k = 0; k < pares; k++) {
+                    nuevos.set(hasta + k, anteriores.get(desde + k));
+                }
+            }
+        }
+        directorios = nuevos;
+        capacidadAngeles = nuevaCapacidadAngeles;
+        capacidadDemonios = nuevaCapacidadDemonios;
+        angeles = Arrays.copyOf(angeles, nuevaCapacidadAngeles);
+        idsAngeles = Arrays.copyOf(idsAngeles, nuevaCapacidadAngeles);
+        demonios = Arrays.copyOf(demonios, nuevaCapacidadDemonios);
+        idsDemonios = Arrays.copyOf(idsDemonios, nuevaCapacidadDemonios);
+    }
+
+    /** Descarta los directorios del par de posiciones y devuelve su memoria al límite. */
+    private void descartar(int ia, int id) {
+        int base = indiceDirectorio(ia, id, 0, 0);
+        for (int k = 0; k < HABILIDADES * HABILIDADES; k++) {
+            long[][] directorio = directorios.getAndSet(base + k, null);
+            if (directorio == null) {
+                continue;
+            }
+            long bytes = BYTES_DIRECTORIO;
+            for (long[] bloque : directorio) {
+                if (bloque != null) {
+                    bytes += BYTES_BLOQUE;
+                }
+            }
+            bytesReservados.addAndGet(-bytes);
+            llena = false;
+        }
+    }
+
+    /**
+     * Ganador del conflicto de {@code h} contra el Ángel {@code ia} y el Demonio
+     * {@code id} con las habilidades ya elegidas, consultando la tabla o
+     * calculándolo (y guardándolo) si aún no estaba.
+     *
+     * @return {@code SumideroEventos.EMPATE}, {@code GANA_ANGEL} o {@code GANA_DEMONIO}.
+     */
+    public int ganador(int ia, int id, int habilidadAngel, int habilidadDemonio, Humano h) {
+        double inteligencia = h.getInteligencia();
+        double fe = h.getFe();
+        double bondad = h.getBondad();
+        double maldad = h.getMaldad();
+        int i = (int) inteligencia;
+        int f = (int) fe;
+        int b = (int) bondad;
+        int m = (int) maldad;
+        if (i != inteligencia || f != fe || b != bondad || m != maldad
+                || i < 0 || i >= RANGO_INTELIGENCIA || f < 0 || f >= RANGO_ATRIBUTO
+                || b < 0 || b >= RANGO_ATRIBUTO || m < 0 || m >= RANGO_ATRIBUTO) {
+            directas.increment();
+            return calcular(ia, id, habilidadAngel, habilidadDemonio, h);
+        }
+
+        long[] bloque = bloque(indiceDirectorio(ia, id, habilidadAngel, habilidadDemonio), i * RANGO_ATRIBUTO + f);
+        if (bloque == null) {
+            directas.increment();
+            return calcular(ia, id, habilidadAngel, habilidadDemonio, h);
+        }
+
+        int entrada = b * RANGO_ATRIBUTO + m;
+        int palabra = entrada >>> 5;
+        int desplazamiento = (entrada & (ENTRADAS_POR_PALABRA - 1)) << 1;
+        // Otros hilos escriben la palabra con getAndBitwiseOr: la lectura también pasa por
+        // el VarHandle para que sea atómica y no se reutilice un valor viejo. Basta con
+        // opaco, porque cada entrada vale por sí sola y no publica otros datos
+        int valor = (int) ((long) PALABRA.getOpaque(bloque, palabra) >>> desplazamiento) & 3;
+        if (valor != 0) {
+            return valor - 1;
+        }
+        int ganador = calcular(ia, id, habilidadAngel, habilidadDemonio, h);
+        PALABRA.getAndBitwiseOr(bloque, palabra, (long) (ganador + 1) << desplazamiento);
+        calculadas.increment();
+        return ganador;
+    }
+
+    private int calcular(int ia, int id, int habilidadAngel, int habilidadDemonio, Humano h) {
+        Angel a = angeles[ia];
+        Demonio d = demonios[id];
+        return ResultadoConflicto.decidir(h.golpear(a, habilidadAngel, a), h.golpear(d, habilidadDemonio, a));
+    }
+
+    /** @return Bloque para la clave dada, creándolo si hace falta, o null si la tabla está llena. */
+    private long[] bloque(int indiceDirectorio, int indiceBloque) {
+        AtomicReferenceArray<long[][]> dirs = directorios;
+        long[][] directorio = dirs.get(indiceDirectorio);
+        if (directorio == null) {
+            if (llena || !reservar(BYTES_DIRECTORIO)) {
+                return null;
+            }
+            long[][] nuevo = new long[BLOQUES_POR_DIRECTORIO][];
+            if (dirs.compareAndSet(indiceDirectorio, null, nuevo)) {
+                directorio = nuevo;
+            } else {
+                bytesReservados.addAndGet(-BYTES_DIRECTORIO);
+                directorio = dirs.get(indiceDirectorio);
+            }
+        }
+        long[] bloque = directorio[indiceBloque];
+        if (bloque == null) {
+            bloque = (long[]) BLOQUE.getAcquire(directorio, indiceBloque);
+        }
+        if (bloque == null) {
+            if (llena || !reservar(BYTES_BLOQUE)) {
+                return null;
+            }
+            long[] nuevo = new long[PALABRAS_POR_BLOQUE];
+            long[] previo = (long[]) BLOQUE.compareAndExchangeRelease(directorio, indiceBloque, null, nuevo);
+            if (previo == null) {
+                bloque = nuevo;
+            } else {
+                bytesReservados.addAndGet(-BYTES_BLOQUE);
+                bloque = previo;
+            }
+        }
+        return bloque;
+    }
+
+    private boolean reservar(long bytes) {
+        if (bytesReservados.addAndGet(bytes) > limiteBytes) {
+            bytesReservados.addAndGet(-bytes);
+            llena = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Descarta todas las entradas, por ejemplo tras cambiar los atributos de
+     * algún Ángel o Demonio. No debe llamarse durante un turno.
+     */
+    public void limpiar() {
+        directorios = nuevosDirectorios(capacidadAngeles, capacidadDemonios);
+        bytesReservados.set(0);
+        llena = false;
+        calculadas.reset();
+        directas.reset();
+    }
+
+    /** @return Memoria aproximada ocupada por la tabla, en bytes. */
+    public long getBytes() {
+        return bytesReservados.get();
+    }
+
+    public long getLimiteBytes() {
+        return limiteBytes;
+    }
+
+    /** @return true si se alcanzó el límite de memoria. */
+    public boolean isLlena() {
+        return llena;
+    }
+
+    /** @return Entradas calculadas y guardadas en la tabla. */
+    public long getCalculadas() {
+        return calculadas.sum();
+    }
+
+    /** @return Conflictos resueltos sin la tabla (fuera de rango o tabla llena). */
+    public long getDirectas() {
+        return directas.sum();
+    }
+}
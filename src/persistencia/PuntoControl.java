@@ -0,0 +1,245 @@
+package persistencia;
+
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import subClases.Incorporeo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Punto de control binario de una batalla en curso.
+ * <p>
+ * Guarda todo lo necesario para continuar una batalla: la semilla maestra, el
+ * último turno ejecutado, la duración prevista, los atributos de Ángeles y
+ * Demonios y las cinco columnas de la {@link PoblacionHumana}. El estado del
+ * azar no necesita guardarse aparte: cada conflicto deriva su flujo de la
+ * semilla, el turno y la fila.
+ * </p>
+ * <p>
+ * Formato (little-endian, versión {@value #VERSION}):
+ * </p>
+ * <pre>
+ *  0  int    magia "ALMA"
+ *  4  int    versión
+ *  8  long   semilla
+ * 16  int    último turno ejecutado
+ * 20  int    turnos totales
+ * 24  int    humanos
+ * 28  int    ángeles
+ * 32  int    demonios
+ * 64  int[3] fe, bondad, maldad de cada Ángel y luego de cada Demonio
+ *  …  double[humanos] inteligencia, fe, bondad, maldad, alma (alineadas a 8)
+ * </pre>
+ * <p>
+ * Tanto la escritura como la lectura pasan por un {@link FileChannel} mapeado
+ * en memoria y copian cada columna en bloque, sin recorrer Humano por Humano.
+ * La escritura va a un archivo temporal que luego reemplaza al anterior de
+ * forma atómica, así que un fallo a mitad de guardado no destruye el último
+ * punto de control válido.
+ * </p>
+ */
+public final class PuntoControl {
+
+    /** "ALMA" en ASCII. */
+    private static final int MAGIA = 0x414C4D41;
+    static final int VERSION = 1;
+    private static final int CABECERA = 64;
+
+    private final long semilla;
+    private final int turno;
+    private final int turnosTotales;
+    private final List<Angel> angeles;
+    private final List<Demonio> demonios;
+    private final PoblacionHumana poblacion;
+
+    private PuntoControl(long semilla, int turno, int turnosTotales,
+                         List<Angel> angeles, List<Demonio> demonios, PoblacionHumana poblacion) {
+        this.semilla = semilla;
+        this.turno = turno;
+        this.turnosTotales = turnosTotales;
+        this.angeles = angeles;
+        this.demonios = demonios;
+        this.poblacion = poblacion;
+    }
+
+    /**
+     * Escribe un punto de control en {@code archivo}, reemplazando el anterior.
+     * <p>
+     * Debe llamarse entre turnos: si otro hilo modifica la población mientras
+     * se copia, el punto de control queda inconsistente.
+     * </p>
+     *
+     * @param archivo Ruta del punto de control.
+     * @param turno Último turno ejecutado.
+     * @param turnosTotales Duración prevista de la batalla.
+     * @param angeles Ángeles de la batalla.
+     * @param demonios Demonios de la batalla.
+     * @param poblacion Población de Humanos.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    public static void guardar(Path archivo, int turno, int turnosTotales,
+                               List<Angel> angeles, List<Demonio> demonios,
+                               PoblacionHumana poblacion) throws IOException {
+        int n = poblacion.tamanio();
+        long inicioColumnas = inicioColumnas(angeles.size(), demonios.size());
+        long bytesColumna = (long) n * Double.BYTES;
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer cabecera = mapear(canal, FileChannel.MapMode.READ_WRITE, 0, inicioColumnas);
+            cabecera.putInt(MAGIA)
+                    .putInt(VERSION)
+                    .putLong(poblacion.getSemilla())
+                    .putInt(turno)
+                    .putInt(turnosTotales)
+                    .putInt(n)
+                    .putInt(angeles.size())
+                    .putInt(demonios.size());
+            cabecera.position(CABECERA);
+            for (Incorporeo a : angeles) {
+                escribir(cabecera, a);
+            }
+            for (Incorporeo d : demonios) {
+                escribir(cabecera, d);
+            }
+            cabecera.force();
+
+            double[][] columnas = columnas(poblacion);
+            for (int c = 0; c < columnas.length; c++) {
+                if (n == 0) {
+                    break;
+                }
+                MappedByteBuffer bloque = mapear(canal, FileChannel.MapMode.READ_WRITE,
+                        inicioColumnas + c * bytesColumna, bytesColumna);
+                bloque.asDoubleBuffer().put(columnas[c]);
+                bloque.force();
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lee un punto de control guardado con {@link #guardar}.
+     *
+     * @param archivo Ruta del punto de control.
+     * @return Estado restaurado de la batalla.
+     * @throws IOException si el archivo no existe, está truncado o no es un punto de control.
+     */
+    public static PuntoControl cargar(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanioArchivo = canal.size();
+            if (tamanioArchivo < CABECERA) {
+                throw new IOException("Punto de control truncado: " + archivo);
+            }
+            MappedByteBuffer cabecera = mapear(canal, FileChannel.MapMode.READ_ONLY, 0, CABECERA);
+            if (cabecera.getInt() != MAGIA) {
+                throw new IOException("No es un punto de control: " + archivo);
+            }
+            int version = cabecera.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de punto de control no soportada: " + version);
+            }
+            long semilla = cabecera.getLong();
+            int turno = cabecera.getInt();
+            int turnosTotales = cabecera.getInt();
+            int n = cabecera.getInt();
+            int numAngeles = cabecera.getInt();
+            int numDemonios = cabecera.getInt();
+            if (n < 0 || numAngeles < 0 || numDemonios < 0) {
+                throw new IOException("Cabecera de punto de control corrupta: " + archivo);
+            }
+
+            long inicioColumnas = inicioColumnas(numAngeles, numDemonios);
+            long bytesColumna = (long) n * Double.BYTES;
+            if (tamanioArchivo < inicioColumnas + 5 * bytesColumna) {
+                throw new IOException("Punto de control truncado: " + archivo);
+            }
+
+            MappedByteBuffer entes = mapear(canal, FileChannel.MapMode.READ_ONLY, CABECERA, inicioColumnas - CABECERA);
+            List<Angel> angeles = new ArrayList<>(numAngeles);
+            for (int i = 0; i < numAngeles; i++) {
+                Angel a = new Angel(entes.getInt(), entes.getInt(), entes.getInt());
+                a.setId(i);
+                angeles.add(a);
+            }
+            List<Demonio> demonios = new ArrayList<>(numDemonios);
+            for (int i = 0; i < numDemonios; i++) {
+                Demonio d = new Demonio(entes.getInt(), entes.getInt(), entes.getInt());
+                d.setId(i);
+                demonios.add(d);
+            }
+
+            PoblacionHumana poblacion = PoblacionHumana.vacia(n, semilla);
+            double[][] columnas = columnas(poblacion);
+            for (int c = 0; c < columnas.length; c++) {
+                if (n == 0) {
+                    break;
+                }
+                mapear(canal, FileChannel.MapMode.READ_ONLY, inicioColumnas + c * bytesColumna, bytesColumna)
+                        .asDoubleBuffer()
+                        .get(columnas[c]);
+            }
+            return new PuntoControl(semilla, turno, turnosTotales, angeles, demonios, poblacion);
+        }
+    }
+
+    private static MappedByteBuffer mapear(FileChannel canal, FileChannel.MapMode modo,
+                                           long posicion, long bytes) throws IOException {
+        MappedByteBuffer buffer = canal.map(modo, posicion, bytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static void escribir(ByteBuffer buffer, Incorporeo s) {
+        buffer.putInt(s.getFe()).putInt(s.getBondad()).putInt(s.getMaldad());
+    }
+
+    /** Desplazamiento de la primera columna: cabecera más entes, redondeado a 8 bytes. */
+    private static long inicioColumnas(int numAngeles, int numDemonios) {
+        long fin = CABECERA + (long) (numAngeles + numDemonios) * 3 * Integer.BYTES;
+        return (fin + 7) & ~7L;
+    }
+
+    private static double[][] columnas(PoblacionHumana p) {
+        return new double[][]{
+                p.columnaInteligencia(), p.columnaFe(), p.columnaBondad(), p.columnaMaldad(), p.columnaAlma()
+        };
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /** @return Último turno ejecutado antes de guardar. */
+    public int getTurno() {
+        return turno;
+    }
+
+    public int getTurnosTotales() {
+        return turnosTotales;
+    }
+
+    public List<Angel> getAngeles() {
+        return angeles;
+    }
+
+    public List<Demonio> getDemonios() {
+        return demonios;
+    }
+
+    public PoblacionHumana getPoblacion() {
+        return poblacion;
+    }
+}
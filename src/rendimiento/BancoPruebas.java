@@ -0,0 +1,241 @@
+package rendimiento;
+
+import aleatorio.FlujoAleatorio;
+import entidades.fisicas.Humano;
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import eventos.SumideroNulo;
+import instrumentacion.Metricas;
+import motor.KernelHabilidades;
+import motor.MotorTurnos;
+import motor.TablaResultados;
+import subClases.TablaHabilidades;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Suite de benchmarks de "La Batalla de las Almas".
+ * <p>
+ * Mide por separado las doce habilidades de {@link Angel} y {@link Demonio},
+ * el conflicto moral de un {@link Humano} (con los eventos descartados en un
+ * {@link SumideroNulo}) y turnos completos del {@link MotorTurnos} sobre poblaciones de
+ * 10^3 hasta 10^N Humanos, con y sin estadísticas por turno o tabla de ganadores. También compara los núcleos escalar y vectorial
+ * de puntuación por bloques. Cada fila reporta ops/s y la tasa de asignación.
+ * </p>
+ * <p>
+ * Como JMH, cada benchmark se mide en una JVM nueva, lanzada con las mismas
+ * opciones que esta: así el perfil de tipos que ve el JIT en el bucle de
+ * {@link Medidor} es solo el del benchmark medido, y un benchmark no hereda el
+ * código compilado ni la basura de los anteriores.
+ * </p>
+ * <p>
+ * Uso: {@code java rendimiento.BancoPruebas [exponenteMaximo] [filtro]}, donde
+ * {@code exponenteMaximo} (3 a 7, por defecto 5) limita el tamaño de las
+ * poblaciones y {@code filtro} ejecuta solo los benchmarks cuyo nombre lo contenga.
+ * </p>
+ */
+public class BancoPruebas {
+
+    /** Semilla fija para que todas las ejecuciones midan los mismos datos. */
+    private static final long SEMILLA = 42;
+    /** Cantidad de Humanos distintos sobre los que rotan los microbenchmarks. */
+    private static final int MUESTRA = 1024;
+    /** Filas por bloque en los benchmarks de puntuación por bloques. */
+    private static final int BLOQUE = 4096;
+    /** Propiedad con el nombre del único benchmark que mide una JVM hija. */
+    private static final String PROPIEDAD_CASO = "banco.caso";
+
+    private final Humano[] humanos = new Humano[MUESTRA];
+    private int siguiente;
+
+    /** Un benchmark: su nombre y cómo preparar la operación a medir. */
+    private static final class Caso {
+        final String nombre;
+        /** Si mide turnos completos: ventanas más largas y de a una operación. */
+        final boolean turno;
+        final Supplier<Medidor.Operacion> preparar;
+
+        Caso(String nombre, boolean turno, Supplier<Medidor.Operacion> preparar) {
+            this.nombre = nombre;
+            this.turno = turno;
+            this.preparar = preparar;
+        }
+    }
+
+    private BancoPruebas() {
+        for (int i = 0; i < MUESTRA; i++) {
+            humanos[i] = new Humano(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_HUMANOS, i));
+        }
+    }
+
+    /** @return El siguiente Humano de la muestra, en orden circular. */
+    private Humano siguiente() {
+        Humano h = humanos[siguiente];
+        siguiente = (siguiente + 1) & (MUESTRA - 1);
+        return h;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int exponenteMaximo = args.length > 0 ? Math.max(3, Math.min(7, Integer.parseInt(args[0]))) : 5;
+        String filtro = args.length > 1 ? args[1] : "";
+        List<Caso> casos = casos(exponenteMaximo);
+
+        String unico = System.getProperty(PROPIEDAD_CASO);
+        if (unico != null) {
+            for (Caso caso : casos) {
+                if (caso.nombre.equals(unico)) {
+                    medir(caso);
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("No existe el benchmark " + unico);
+        }
+
+        new Medidor(5, 5, 500).cabecera();
+        for (Caso caso : casos) {
+            if (caso.nombre.contains(filtro)) {
+                int codigo = lanzar(caso.nombre, exponenteMaximo);
+                if (codigo != 0) {
+                    System.err.println(caso.nombre + ": la JVM terminó con código " + codigo);
+                }
+            }
+        }
+    }
+
+    /** Mide un benchmark en esta JVM e imprime su fila. */
+    private static void medir(Caso caso) {
+        Medidor medidor = caso.turno ? new Medidor(2, 3, 1000) : new Medidor(5, 5, 500);
+        medidor.medir(caso.nombre, caso.preparar.get(), caso.turno ? 1 : 64);
+        // Evita que el JIT descarte los resultados
+        if (medidor.getSumidero() == 42.4242) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Mide un benchmark en una JVM hija con las opciones de esta (heap,
+     * módulos, preview...) y el mismo classpath. Su fila sale por la salida de
+     * este proceso.
+     *
+     * @return Código de salida de la JVM hija.
+     */
+    private static int lanzar(String nombre, int exponenteMaximo) throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String opcion : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (!opcion.startsWith("-agentlib:jdwp") && !opcion.startsWith("-D" + PROPIEDAD_CASO + "=")) {
+                comando.add(opcion);
+            }
+        }
+        comando.add("-D" + PROPIEDAD_CASO + "=" + nombre);
+        comando.add("-cp");
+        comando.add(System.getProperty("java.class.path"));
+        comando.add(BancoPruebas.class.getName());
+        comando.add(String.valueOf(exponenteMaximo));
+        return new ProcessBuilder(comando).inheritIO().start().waitFor();
+    }
+
+    /**
+     * @return Todos los benchmarks, en el orden en que se miden. Sus datos se
+     * preparan recién al medirlos.
+     */
+    private static List<Caso> casos(int exponenteMaximo) {
+        BancoPruebas banco = new BancoPruebas();
+        Angel angel = new Angel(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_ANGELES, 0));
+        Demonio demonio = new Demonio(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_DEMONIOS, 0));
+        List<Caso> casos = new ArrayList<>();
+
+        // --- Habilidades del Ángel ---
+        casos.add(new Caso("Angel.enganiar", false, () -> () -> angel.enganiar(banco.siguiente(), angel)));
+        casos.add(new Caso("Angel.guiar", false, () -> () -> angel.guiar(banco.siguiente())));
+        casos.add(new Caso("Angel.tentar", false, () -> () -> angel.tentar(banco.siguiente())));
+        casos.add(new Caso("Angel.seducir", false, () -> () -> angel.seducir(banco.siguiente())));
+        casos.add(new Caso("Angel.proteger", false, () -> () -> angel.proteger(banco.siguiente())));
+        casos.add(new Caso("Angel.probar", false, () -> () -> angel.probar(banco.siguiente())));
+
+        // --- Habilidades del Demonio ---
+        casos.add(new Caso("Demonio.enganiar", false, () -> () -> demonio.enganiar(banco.siguiente(), angel)));
+        casos.add(new Caso("Demonio.guiar", false, () -> () -> demonio.guiar(banco.siguiente())));
+        casos.add(new Caso("Demonio.tentar", false, () -> () -> demonio.tentar(banco.siguiente())));
+        casos.add(new Caso("Demonio.seducir", false, () -> () -> demonio.seducir(banco.siguiente())));
+        casos.add(new Caso("Demonio.proteger", false, () -> () -> demonio.proteger(banco.siguiente())));
+        casos.add(new Caso("Demonio.probar", false, () -> () -> demonio.probar(banco.siguiente())));
+
+        // --- Puntuación por bloques (una operación = un bloque completo) ---
+        List<KernelHabilidades> kernels = new ArrayList<>(List.of(KernelHabilidades.escalar()));
+        if (!KernelHabilidades.mejorDisponible().nombre().equals(KernelHabilidades.escalar().nombre())) {
+            kernels.add(KernelHabilidades.mejorDisponible());
+        }
+        for (KernelHabilidades kernel : kernels) {
+            casos.add(new Caso("Bloque[" + kernel.nombre() + "].Angel.guiar", false, () -> {
+                PoblacionHumana bloque = new PoblacionHumana(BLOQUE, SEMILLA);
+                double[] salida = new double[BLOQUE];
+                return () -> {
+                    kernel.puntuar(TablaHabilidades.GUIAR, angel, angel, bloque, 0, BLOQUE, salida);
+                    return salida[0];
+                };
+            }));
+            casos.add(new Caso("Bloque[" + kernel.nombre() + "].Demonio.seducir", false, () -> {
+                PoblacionHumana bloque = new PoblacionHumana(BLOQUE, SEMILLA);
+                double[] salida = new double[BLOQUE];
+                return () -> {
+                    kernel.puntuar(TablaHabilidades.SEDUCIR, demonio, angel, bloque, 0, BLOQUE, salida);
+                    return salida[0];
+                };
+            }));
+        }
+
+        // --- Conflicto moral de un Humano ---
+        casos.add(new Caso("Humano.conflictoMoral", false, () -> {
+            FlujoAleatorio rd = new FlujoAleatorio(SEMILLA);
+            return () -> {
+                Humano h = banco.siguiente();
+                h.conflictoMoral(angel, demonio, rd, SumideroNulo.INSTANCIA);
+                return h.getBondad();
+            };
+        }));
+        // Costo de las métricas activas (sin grabación de JFR)
+        casos.add(new Caso("Humano.conflictoMoral+metricas", false, () -> {
+            FlujoAleatorio rd = new FlujoAleatorio(SEMILLA);
+            Metricas.setActivo(true);
+            return () -> {
+                Humano h = banco.siguiente();
+                h.conflictoMoral(angel, demonio, rd, SumideroNulo.INSTANCIA);
+                return h.getBondad();
+            };
+        }));
+
+        // --- Turnos completos ---
+        for (int e = 3; e <= exponenteMaximo; e++) {
+            for (String variante : new String[]{"", "+estadisticas", "+tabla"}) {
+                int tamanio = (int) Math.pow(10, e);
+                casos.add(new Caso("MotorTurnos.ejecutarTurno" + variante + "[10^" + e + "]", true, () -> {
+                    List<Angel> angeles = new ArrayList<>();
+                    List<Demonio> demonios = new ArrayList<>();
+                    for (int i = 0; i < 3; i++) {
+                        angeles.add(new Angel(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_ANGELES, i)));
+                        demonios.add(new Demonio(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_DEMONIOS, i)));
+                    }
+                    PoblacionHumana poblacion = new PoblacionHumana(tamanio, SEMILLA);
+                    MotorTurnos motor = new MotorTurnos(poblacion, angeles, demonios, SEMILLA);
+                    motor.setEstadisticasActivas(variante.equals("+estadisticas"));
+                    if (variante.equals("+tabla")) {
+                        motor.usarTablaResultados(TablaResultados.LIMITE_POR_DEFECTO);
+                    }
+                    // El motor no produce salida por defecto
+                    return () -> {
+                        motor.ejecutarTurno();
+                        return motor.getTurno();
+                    };
+                }));
+            }
+        }
+        return casos;
+    }
+}
@@ -0,0 +1,206 @@
+package rendimiento;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Arnés mínimo de microbenchmarks, al estilo de JMH.
+ * <p>
+ * Cada medición ejecuta la operación en ventanas de tiempo fijo: primero unas
+ * iteraciones de calentamiento (para que el JIT compile el código) y después
+ * las iteraciones medidas. Reporta el rendimiento en ops/s con su error
+ * (intervalo del 99.9 %, como JMH) y la tasa de asignación en MB/s y B/op,
+ * equivalentes a {@code gc.alloc.rate} y {@code gc.alloc.rate.norm} del
+ * perfilador {@code gc} de JMH.
+ * </p>
+ * <p>
+ * Los bytes asignados se leen de {@code com.sun.management.ThreadMXBean} para
+ * el hilo que mide y los trabajadores del pool común de Fork/Join (los de los
+ * benchmarks paralelos), sin contar los demás hilos de la JVM.
+ * </p>
+ * <p>
+ * Todas las operaciones pasan por la misma llamada a {@link Operacion#ejecutar()}:
+ * tras medir más de dos operaciones distintas esa llamada deja de poder
+ * inlinearse y las mediciones siguientes incluyen el despacho. Para medidas
+ * comparables, cada benchmark debe medirse en su propia JVM, como hace
+ * {@link BancoPruebas}.
+ * </p>
+ * <p>
+ * Los resultados se imprimen en la salida estándar vigente al crear el medidor,
+ * por lo que el código medido puede redirigir {@code System.out} sin ocultarlos.
+ * </p>
+ */
+public final class Medidor {
+
+    /** Operación a medir; devuelve un valor para que el JIT no la elimine. */
+    @FunctionalInterface
+    public interface Operacion {
+        double ejecutar();
+    }
+
+    /** Cuantiles t de Student (bilaterales, 99.9 %) para 1 a 10 grados de libertad. */
+    private static final double[] T_999 = {
+            636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587
+    };
+
+    private static final com.sun.management.ThreadMXBean HILOS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int iteracionesCalentamiento;
+    private final int iteracionesMedidas;
+    private final long nanosPorIteracion;
+    private final PrintStream salida;
+
+    /** Sumidero de resultados para evitar la eliminación de código muerto. */
+    private double sumidero;
+
+    /**
+     * @param iteracionesCalentamiento Ventanas descartadas antes de medir.
+     * @param iteracionesMedidas Ventanas medidas (al menos 2).
+     * @param milisPorIteracion Duración de cada ventana.
+     */
+    public Medidor(int iteracionesCalentamiento, int iteracionesMedidas, long milisPorIteracion) {
+        this.iteracionesCalentamiento = iteracionesCalentamiento;
+        this.iteracionesMedidas = Math.max(2, iteracionesMedidas);
+        this.nanosPorIteracion = milisPorIteracion * 1_000_000L;
+        this.salida = System.out;
+        HILOS.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /** Imprime la cabecera de la tabla de resultados. */
+    public void cabecera() {
+        salida.printf("%-44s %16s %12s %12s %12s%n", "Benchmark", "ops/s", "± error", "MB/s", "B/op");
+    }
+
+    /**
+     * Mide una operación corta e imprime una fila con sus resultados.
+     *
+     * @param nombre Nombre del benchmark.
+     * @param op Operación a medir.
+     */
+    public void medir(String nombre, Operacion op) {
+        medir(nombre, op, 64);
+    }
+
+    /**
+     * Mide una operación e imprime una fila con sus resultados.
+     *
+     * @param nombre Nombre del benchmark.
+     * @param op Operación a medir.
+     * @param lote Operaciones entre lecturas del reloj (1 para operaciones largas).
+     */
+    public void medir(String nombre, Operacion op, int lote) {
+        for (int i = 0; i < iteracionesCalentamiento; i++) {
+            ventana(op, lote, null);
+        }
+        double[] opsPorSegundo = new double[iteracionesMedidas];
+        long[] medicion = new long[3]; // operaciones, nanos, bytes
+        long opsTotales = 0;
+        long nanosTotales = 0;
+        long bytesTotales = 0;
+        for (int i = 0; i < iteracionesMedidas; i++) {
+            ventana(op, lote, medicion);
+            opsPorSegundo[i] = medicion[0] * 1e9 / medicion[1];
+            opsTotales += medicion[0];
+            nanosTotales += medicion[1];
+            bytesTotales += medicion[2];
+        }
+
+        double media = 0;
+        for (double v : opsPorSegundo) {
+            media += v;
+        }
+        media /= opsPorSegundo.length;
+        double varianza = 0;
+        for (double v : opsPorSegundo) {
+            varianza += (v - media) * (v - media);
+        }
+        varianza /= (opsPorSegundo.length - 1);
+        int gradosLibertad = opsPorSegundo.length - 1;
+        double t = gradosLibertad <= T_999.length ? T_999[gradosLibertad - 1] : 3.291;
+        double error = t * Math.sqrt(varianza / opsPorSegundo.length);
+        double mbPorSegundo = bytesTotales / (nanosTotales / 1e9) / (1024.0 * 1024.0);
+        double bytesPorOp = (double) bytesTotales / opsTotales;
+
+        salida.println(String.format(Locale.ROOT, "%-44s %16.3f %12.3f %12.3f %12.1f",
+                nombre, media, error, mbPorSegundo, bytesPorOp));
+    }
+
+    /** @return Valor acumulado de todas las operaciones (evita que el JIT las descarte). */
+    public double getSumidero() {
+        return sumidero;
+    }
+
+    private void ventana(Operacion op, int lote, long[] medicion) {
+        long[] trabajadoresAntes = trabajadores();
+        long[] bytesTrabajadoresAntes = HILOS.getThreadAllocatedBytes(trabajadoresAntes);
+        long propiosAntes = HILOS.getCurrentThreadAllocatedBytes();
+        long inicio = System.nanoTime();
+        long fin = inicio + nanosPorIteracion;
+        long ops = 0;
+        double acumulado = 0;
+        long ahora;
+        do {
+            // Lotes para que la lectura del reloj no domine las operaciones cortas
+            for (int k = 0; k < lote; k++) {
+                acumulado += op.ejecutar();
+            }
+            ops += lote;
+            ahora = System.nanoTime();
+        } while (ahora < fin);
+        // Este hilo se lee antes de listar los trabajadores, que también asigna
+        long propiosDespues = HILOS.getCurrentThreadAllocatedBytes();
+        long[] trabajadoresDespues = trabajadores();
+        long[] bytesTrabajadoresDespues = HILOS.getThreadAllocatedBytes(trabajadoresDespues);
+        sumidero += acumulado;
+        if (medicion != null) {
+            medicion[0] = ops;
+            medicion[1] = ahora - inicio;
+            medicion[2] = propiosDespues - propiosAntes + diferencia(trabajadoresAntes, bytesTrabajadoresAntes,
+                    trabajadoresDespues, bytesTrabajadoresDespues);
+        }
+    }
+
+    /** @return Identificadores de los trabajadores vivos del pool común. */
+    private static long[] trabajadores() {
+        ThreadGroup raiz = Thread.currentThread().getThreadGroup();
+        while (raiz.getParent() != null) {
+            raiz = raiz.getParent();
+        }
+        Thread[] hilos = new Thread[raiz.activeCount() + 16];
+        int n = raiz.enumerate(hilos, true);
+        long[] ids = new long[n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (hilos[i] instanceof ForkJoinWorkerThread w && w.getPool() == ForkJoinPool.commonPool()) {
+                ids[k++] = w.threadId();
+            }
+        }
+        return Arrays.copyOf(ids, k);
+    }
+
+    /**
+     * Bytes asignados entre dos lecturas. Un trabajador creado durante la
+     * ventana cuenta desde cero; uno que terminó durante ella se pierde.
+     */
+    private static long diferencia(long[] hilosAntes, long[] bytesAntes, long[] hilosDespues, long[] bytesDespues) {
+        long total = 0;
+        for (int i = 0; i < hilosDespues.length; i++) {
+            if (bytesDespues[i] <= 0) {
+                continue;
+            }
+            total += bytesDespues[i];
+            for (int j = 0; j < hilosAntes.length; j++) {
+                if (hilosAntes[j] == hilosDespues[i] && bytesAntes[j] > 0) {
+                    total -= bytesAntes[j];
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,117 @@
+package rendimiento;
+
+import aleatorio.FlujoAleatorio;
+import entidades.fisicas.Humano;
+import entidades.fisicas.HumanoFila;
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import eventos.SumideroNulo;
+import motor.MotorTurnos;
+import motor.ParametrosBatalla;
+import motor.Simulacion;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verificación de regresiones de asignación de memoria en el camino sin salida.
+ * <p>
+ * Tras calentar el código para que el JIT lo compile, mide con
+ * {@code ThreadMXBean.getCurrentThreadAllocatedBytes()} los bytes asignados por
+ * el hilo actual y exige que sean cero:
+ * </p>
+ * <ul>
+ *     <li>por {@link Humano#conflictoMoral} con un {@link SumideroNulo};</li>
+ *     <li>por turno de {@link MotorTurnos#ejecutarTurnoSecuencial()};</li>
+ *     <li>por turno de una {@link Simulacion} cuyo Dios convoca y retira entes
+ *     en cada turno (deben salir de su reserva).</li>
+ * </ul>
+ * <p>
+ * Termina con código 1 si alguna comprobación falla, para poder usarla como
+ * paso de verificación: {@code java rendimiento.VerificacionAsignaciones}.
+ * </p>
+ */
+public class VerificacionAsignaciones {
+
+    private static final long SEMILLA = 42;
+    private static final int CALENTAMIENTO = 20_000;
+    private static final int REPETICIONES = 10_000;
+    private static final int HUMANOS = 1_000;
+
+    private static final com.sun.management.ThreadMXBean HILOS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        HILOS.setThreadAllocatedMemoryEnabled(true);
+        boolean ok = true;
+
+        // --- Conflicto moral de un Humano ---
+        Angel angel = new Angel(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_ANGELES, 0));
+        Demonio demonio = new Demonio(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_DEMONIOS, 0));
+        PoblacionHumana muestra = new PoblacionHumana(HUMANOS, SEMILLA);
+        HumanoFila h = muestra.nuevoCursor();
+        FlujoAleatorio rd = new FlujoAleatorio(SEMILLA);
+        long sumidero = 0;
+
+        for (int i = 0; i < CALENTAMIENTO * 10; i++) {
+            sumidero += h.mover(i % HUMANOS).conflictoMoral(angel, demonio, rd, SumideroNulo.INSTANCIA);
+        }
+        long antes = HILOS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < REPETICIONES * 10; i++) {
+            sumidero += h.mover(i % HUMANOS).conflictoMoral(angel, demonio, rd, SumideroNulo.INSTANCIA);
+        }
+        long bytes = HILOS.getCurrentThreadAllocatedBytes() - antes;
+        ok &= informar("Humano.conflictoMoral", bytes, REPETICIONES * 10L);
+
+        // --- Turno secuencial completo ---
+        List<Angel> angeles = new ArrayList<>();
+        List<Demonio> demonios = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            angeles.add(new Angel(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_ANGELES, i)));
+            demonios.add(new Demonio(FlujoAleatorio.para(SEMILLA, FlujoAleatorio.DOMINIO_DEMONIOS, i)));
+        }
+        PoblacionHumana poblacion = new PoblacionHumana(HUMANOS, SEMILLA);
+        MotorTurnos motor = new MotorTurnos(poblacion, angeles, demonios, SEMILLA);
+        for (int t = 0; t < CALENTAMIENTO / 10; t++) {
+            motor.ejecutarTurnoSecuencial();
+        }
+        antes = HILOS.getCurrentThreadAllocatedBytes();
+        for (int t = 0; t < REPETICIONES / 10; t++) {
+            motor.ejecutarTurnoSecuencial();
+        }
+        bytes = HILOS.getCurrentThreadAllocatedBytes() - antes;
+        ok &= informar("MotorTurnos.ejecutarTurnoSecuencial[" + HUMANOS + "]", bytes, REPETICIONES / 10L);
+
+        // --- Turno con Dios convocando y retirando entes ---
+        Simulacion simulacion = new Simulacion(new ParametrosBatalla(HUMANOS, 3, 3, Integer.MAX_VALUE, SEMILLA));
+        simulacion.setPolitica((turno, fraccion, dios) -> {
+            dios.setNumAngeles(1 + turno % 5);
+            dios.setNumDemonios(1 + turno % 3);
+        });
+        for (int t = 0; t < CALENTAMIENTO / 10; t++) {
+            simulacion.ejecutarTurno();
+        }
+        antes = HILOS.getCurrentThreadAllocatedBytes();
+        for (int t = 0; t < REPETICIONES / 10; t++) {
+            simulacion.ejecutarTurno();
+        }
+        bytes = HILOS.getCurrentThreadAllocatedBytes() - antes;
+        ok &= informar("Simulacion.ejecutarTurno[" + HUMANOS + ", PoliticaDios]", bytes, REPETICIONES / 10L);
+
+        if (sumidero == Long.MIN_VALUE) {
+            System.out.println();
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /** Imprime el resultado de una comprobación y devuelve si pasó. */
+    private static boolean informar(String nombre, long bytes, long operaciones) {
+        boolean ok = bytes == 0;
+        System.out.printf("%-50s %10d bytes en %d ops  %s%n", nombre, bytes, operaciones, ok ? "OK" : "FALLO");
+        return ok;
+    }
+}
@@ -0,0 +1,113 @@
+package rendimiento;
+
+import aleatorio.FlujoAleatorio;
+import entidades.fisicas.Humano;
+import entidades.fisicas.HumanoFila;
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import motor.KernelHabilidades;
+import subClases.Incorporeo;
+import subClases.TablaHabilidades;
+
+/**
+ * Verificación de que los núcleos de puntuación por bloques dan exactamente
+ * lo mismo que {@link Humano#golpear}.
+ * <p>
+ * Para varias semillas, puntúa cada habilidad de un {@link Angel} y un
+ * {@link Demonio} sobre una población con el núcleo escalar y con
+ * {@link KernelHabilidades#mejorDisponible()}, y compara cada resultado bit a
+ * bit con {@code golpear} sobre la misma fila. Las poblaciones incluyen fe
+ * fraccionaria, bondad igual a maldad y entes con fe cero, para cubrir las
+ * raíces de negativos y las divisiones por cero (NaN e infinitos). Los rangos
+ * no empiezan en cero ni tienen un largo múltiplo del ancho vectorial, para
+ * ejercitar también la cola escalar.
+ * </p>
+ * <p>
+ * El núcleo vectorial solo se verifica si el módulo está cargado:
+ * {@code java --add-modules jdk.incubator.vector rendimiento.VerificacionKernels}.
+ * Termina con código 1 si algún resultado difiere.
+ * </p>
+ */
+public class VerificacionKernels {
+
+    private static final int SEMILLAS = 40;
+    private static final int HUMANOS = 1003;
+    private static final int DESDE = 5;
+    private static final int HASTA = 998;
+
+    public static void main(String[] args) {
+        boolean ok = true;
+        boolean vectorial = KernelHabilidades.mejorDisponible() != KernelHabilidades.escalar();
+        KernelHabilidades[] kernels = vectorial
+                ? new KernelHabilidades[]{KernelHabilidades.escalar(), KernelHabilidades.mejorDisponible()}
+                : new KernelHabilidades[]{KernelHabilidades.escalar()};
+        for (KernelHabilidades kernel : kernels) {
+            long[] cuentas = verificar(kernel);
+            boolean paso = cuentas[0] == 0;
+            System.out.printf("%-22s %10d puntuaciones, %d NaN, %d infinitas, %d distintas  %s%n",
+                    kernel.nombre(), cuentas[1], cuentas[2], cuentas[3], cuentas[0], paso ? "OK" : "FALLO");
+            ok &= paso;
+        }
+        if (!vectorial) {
+            System.out.println("Núcleo vectorial no disponible: ejecutar con --add-modules jdk.incubator.vector");
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /** @return Diferencias, puntuaciones comparadas, NaN e infinitos. */
+    private static long[] verificar(KernelHabilidades kernel) {
+        long[] cuentas = new long[4];
+        double[] salida = new double[HUMANOS];
+        for (long semilla = 0; semilla < SEMILLAS; semilla++) {
+            PoblacionHumana poblacion = poblacion(semilla);
+            HumanoFila h = poblacion.nuevoCursor();
+            Angel angel = new Angel(FlujoAleatorio.para(semilla, FlujoAleatorio.DOMINIO_ANGELES, 0));
+            Demonio demonio = new Demonio(FlujoAleatorio.para(semilla, FlujoAleatorio.DOMINIO_DEMONIOS, 0));
+            if (semilla % 4 == 3) {
+                angel.setFe(0);
+            }
+            for (Incorporeo s : new Incorporeo[]{angel, demonio}) {
+                for (int habilidad = 0; habilidad < TablaHabilidades.NUM_HABILIDADES; habilidad++) {
+                    for (int desde : new int[]{0, DESDE}) {
+                        int hasta = desde == 0 ? HUMANOS : HASTA;
+                        kernel.puntuar(habilidad, s, angel, poblacion, desde, hasta, salida);
+                        for (int i = desde; i < hasta; i++) {
+                            double esperado = h.mover(i).golpear(s, habilidad, angel);
+                            if (Double.doubleToLongBits(salida[i - desde]) != Double.doubleToLongBits(esperado)) {
+                                cuentas[0]++;
+                            }
+                            cuentas[1]++;
+                            if (Double.isNaN(esperado)) {
+                                cuentas[2]++;
+                            } else if (Double.isInfinite(esperado)) {
+                                cuentas[3]++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return cuentas;
+    }
+
+    /** Población de la semilla con algunos valores que fuerzan casos límite. */
+    private static PoblacionHumana poblacion(long semilla) {
+        PoblacionHumana poblacion = new PoblacionHumana(HUMANOS, semilla);
+        double[] fe = poblacion.columnaFe();
+        double[] bondad = poblacion.columnaBondad();
+        double[] maldad = poblacion.columnaMaldad();
+        for (int i = 0; i < HUMANOS; i += 7) {
+            fe[i] = fe[i] * 0.37 + 1e-3;
+        }
+        for (int i = 3; i < HUMANOS; i += 11) {
+            maldad[i] = bondad[i];
+        }
+        for (int i = 5; i < HUMANOS; i += 13) {
+            fe[i] = 0;
+        }
+        return poblacion;
+    }
+}
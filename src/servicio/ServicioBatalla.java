@@ -0,0 +1,230 @@
+package servicio;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import motor.ParametrosBatalla;
+import motor.ResultadoBatalla;
+import motor.Simulacion;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Servicio HTTP local que ejecuta batallas bajo demanda.
+ * <p>
+ * Cada petición {@code GET /batalla?humanos=..&angeles=..&demonios=..&turnos=..&semilla=..}
+ * crea una {@link Simulacion} dentro del proceso, la ejecuta y responde con el
+ * veredicto de {@code DiosCristiano} en JSON. Los parámetros omitidos toman los
+ * valores de {@code Batalla}; sin semilla se usa una al azar.
+ * </p>
+ * <p>
+ * Las peticiones se atienden con un hilo virtual cada una, así que miles de
+ * batallas pequeñas pueden estar en curso a la vez sin agotar un pool de hilos
+ * de plataforma. Los límites de tamaño evitan que una sola petición monopolice
+ * la CPU o la memoria.
+ * </p>
+ * <p>
+ * Entre todas las peticiones en curso, la memoria estimada de sus batallas no
+ * puede superar la mitad del heap máximo: cada petición reserva su parte de un
+ * {@link Semaphore} antes de crear la población y la devuelve al terminar. Si
+ * no cabe, se responde 503 en lugar de esperar. Cada batalla se ejecuta en su
+ * hilo virtual con {@link Simulacion#ejecutarTurnoSecuencial()}, así que las
+ * poblaciones grandes no se reparten en el pool común compartido por todas.
+ * </p>
+ */
+public class ServicioBatalla {
+
+    /** Puerto por defecto del servicio. */
+    public static final int PUERTO_POR_DEFECTO = 8080;
+
+    // Límites de una sola petición
+    private static final int MAX_HUMANOS = 1_000_000;
+    private static final int MAX_INCORPOREOS = 10_000;
+    private static final int MAX_TURNOS = 100_000;
+    /** Máximo de conflictos (humanos × turnos) por petición. */
+    private static final long MAX_CONFLICTOS = 100_000_000L;
+
+    /** Conexiones pendientes de aceptar que admite el socket. */
+    private static final int BACKLOG = 1024;
+
+    /** Bytes estimados por Humano: sus cinco columnas {@code double} en {@code PoblacionHumana}. */
+    private static final long BYTES_POR_HUMANO = 5L * Double.BYTES;
+    /** Bytes estimados por Ángel o Demonio (objeto y campos). */
+    private static final long BYTES_POR_INCORPOREO = 64;
+    /** Cada permiso del semáforo de memoria equivale a este número de bytes. */
+    private static final long BYTES_POR_PERMISO = 1024;
+
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+    /** Memoria disponible para batallas en curso, en permisos de {@link #BYTES_POR_PERMISO} bytes. */
+    private final Semaphore memoria;
+
+    /**
+     * Crea el servicio escuchando en la interfaz de loopback.
+     *
+     * @param puerto Puerto TCP (0 para uno libre cualquiera).
+     */
+    public ServicioBatalla(int puerto) throws IOException {
+        this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), BACKLOG);
+        this.ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.memoria = new Semaphore((int) Math.min(Integer.MAX_VALUE,
+                Runtime.getRuntime().maxMemory() / 2 / BYTES_POR_PERMISO));
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/batalla", this::atenderBatalla);
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    /**
+     * Deja de aceptar peticiones, espera hasta {@code segundos} a las que
+     * están en curso y libera el ejecutor.
+     */
+    public void detener(int segundos) {
+        servidor.stop(segundos);
+        ejecutor.close();
+    }
+
+    /** @return Puerto en el que escucha el servicio. */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    private void atenderBatalla(HttpExchange intercambio) throws IOException {
+        // El error se responde antes de cerrar el intercambio: un try-with-resources
+        // lo cerraría antes de llegar al catch
+        try {
+            if (!"GET".equals(intercambio.getRequestMethod())) {
+                intercambio.getResponseHeaders().set("Allow", "GET");
+                responder(intercambio, 405, error("método no permitido"));
+                return;
+            }
+            ParametrosBatalla parametros;
+            try {
+                parametros = leerParametros(intercambio.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException e) {
+                responder(intercambio, 400, error(e.getMessage()));
+                return;
+            }
+            int permisos = permisos(parametros);
+            if (!memoria.tryAcquire(permisos)) {
+                intercambio.getResponseHeaders().set("Retry-After", "1");
+                responder(intercambio, 503, error("servicio ocupado"));
+                return;
+            }
+            ResultadoBatalla resultado;
+            try {
+                resultado = ejecutar(parametros);
+            } finally {
+                memoria.release(permisos);
+            }
+            responder(intercambio, 200, resultado.aJson());
+        } catch (RuntimeException e) {
+            // Si la respuesta ya empezó no puede cambiarse el código: solo queda cerrar
+            if (intercambio.getResponseCode() == -1) {
+                responder(intercambio, 500, error("error interno"));
+            }
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    /** Ejecuta todos los turnos en el hilo actual, sin repartirlos en el pool común. */
+    private static ResultadoBatalla ejecutar(ParametrosBatalla parametros) {
+        Simulacion simulacion = new Simulacion(parametros);
+        for (int t = 0; t < parametros.getTurnos(); t++) {
+            simulacion.ejecutarTurnoSecuencial();
+        }
+        return simulacion.resultado();
+    }
+
+    /** @return Permisos de memoria que necesita una batalla con esos parámetros (al menos uno). */
+    static int permisos(ParametrosBatalla parametros) {
+        long bytes = parametros.getHumanos() * BYTES_POR_HUMANO
+                + (long) (parametros.getAngeles() + parametros.getDemonios()) * BYTES_POR_INCORPOREO;
+        return (int) Math.max(1, (bytes + BYTES_POR_PERMISO - 1) / BYTES_POR_PERMISO);
+    }
+
+    /**
+     * Convierte la cadena de consulta en parámetros de batalla validados.
+     *
+     * @throws IllegalArgumentException si algún parámetro no es válido.
+     */
+    static ParametrosBatalla leerParametros(String consulta) {
+        Map<String, String> valores = new HashMap<>();
+        if (consulta != null && !consulta.isEmpty()) {
+            for (String par : consulta.split("&")) {
+                int igual = par.indexOf('=');
+                String clave = URLDecoder.decode(igual < 0 ? par : par.substring(0, igual), StandardCharsets.UTF_8);
+                String valor = igual < 0 ? "" : URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8);
+                valores.put(clave, valor);
+            }
+        }
+
+        int humanos = entero(valores, "humanos", 5, 0, MAX_HUMANOS);
+        int angeles = entero(valores, "angeles", 3, 1, MAX_INCORPOREOS);
+        int demonios = entero(valores, "demonios", 3, 1, MAX_INCORPOREOS);
+        int turnos = entero(valores, "turnos", 10, 0, MAX_TURNOS);
+        long semilla;
+        try {
+            String texto = valores.get("semilla");
+            semilla = texto == null ? System.nanoTime() : Long.parseLong(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("semilla no es un número entero");
+        }
+        if ((long) humanos * turnos > MAX_CONFLICTOS) {
+            throw new IllegalArgumentException("humanos × turnos supera " + MAX_CONFLICTOS);
+        }
+        return new ParametrosBatalla(humanos, angeles, demonios, turnos, semilla);
+    }
+
+    private static int entero(Map<String, String> valores, String clave, int porDefecto, int min, int max) {
+        String texto = valores.get(clave);
+        if (texto == null) {
+            return porDefecto;
+        }
+        int valor;
+        try {
+            valor = Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(clave + " no es un número entero");
+        }
+        if (valor < min || valor > max) {
+            throw new IllegalArgumentException(clave + " debe estar entre " + min + " y " + max);
+        }
+        return valor;
+    }
+
+    private static String error(String mensaje) {
+        return "{\"error\":\"" + mensaje.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private static void responder(HttpExchange intercambio, int codigo, String json) throws IOException {
+        byte[] cuerpo = json.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(codigo, cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+
+    /**
+     * Punto de entrada: {@code java servicio.ServicioBatalla [puerto]}.
+     */
+    public static void main(String[] args) throws IOException {
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : PUERTO_POR_DEFECTO;
+        ServicioBatalla servicio = new ServicioBatalla(puerto);
+        servicio.iniciar();
+        System.out.println("Servicio de batallas en http://localhost:" + servicio.getPuerto() + "/batalla");
+    }
+}
@@ -2,12 +2,31 @@ package subClases;
 
 import entidades.fisicas.Humano;
 import entidades.incorporeas.Angel;
+import instrumentacion.Metricas;
 import superclase.Ser;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
 public abstract class Incorporeo extends Ser {
     private int fe;
     private int bondad;
     private int maldad;
+    /**
+     * Término derivado {@code sqrt(bondad^2 - maldad^2)}, usado como denominador en
+     * {@code Angel.probar} y {@code Demonio.tentar}. Solo depende de este ente, así que
+     * se recalcula al cambiar la bondad o la maldad en vez de en cada habilidad.
+     */
+    private double raizBalance;
+    /**
+     * Identificador del ente dentro de su bando en una batalla: su posición en
+     * la lista inicial, o el siguiente número libre si lo convocó Dios. Un ente
+     * reutilizado recibe uno nuevo, así que dos apariciones distintas nunca
+     * comparten identificador.
+     */
+    private int id;
+    /** Fórmulas de habilidad de este tipo de ente, resueltas una vez al construirlo. */
+    private final TablaHabilidades habilidades;
 
     public abstract double enganiar(Humano h, Angel a);
     public abstract double guiar(Humano h);
@@ -17,16 +36,46 @@ public abstract class Incorporeo extends Ser {
     public abstract double probar (Humano h);
 
     public int luchar(){
-        return (int) (Math.random() * 6);
+        return luchar(ThreadLocalRandom.current());
+    }
+
+    public int luchar(RandomGenerator rd){
+        int habilidad = rd.nextInt(6);
+        if (Metricas.isActivo()) {
+            Metricas.habilidadElegida(getClass(), habilidad);
+        }
+        return habilidad;
     }
 
     public Incorporeo(int fe, int bondad, int maldad) {
+        this(null, fe, bondad, maldad);
+    }
+
+    public Incorporeo() {
+        this(null);
+    }
+
+    /**
+     * @param habilidades Tabla estática de la clase que construye; se usa si el
+     *                    ente es exactamente de esa clase (una subclase no la
+     *                    hereda) y si no, o si es null, se busca en el registro.
+     */
+    protected Incorporeo(TablaHabilidades habilidades, int fe, int bondad, int maldad) {
+        this(habilidades);
         this.fe = fe;
         this.bondad = bondad;
         this.maldad = maldad;
+        recalcularDerivados();
     }
 
-    public Incorporeo() {
+    /** @param habilidades Ver {@link #Incorporeo(TablaHabilidades, int, int, int)}. */
+    protected Incorporeo(TablaHabilidades habilidades) {
+        this.habilidades = habilidades != null && habilidades.getTipo() == getClass()
+                ? habilidades : RegistroHabilidades.tablaDe(getClass());
+    }
+
+    public TablaHabilidades getHabilidades() {
+        return habilidades;
     }
 
     public int getFe() {
@@ -43,6 +92,7 @@ public abstract class Incorporeo extends Ser {
 
     public void setBondad(int bondad) {
         this.bondad = bondad;
+        recalcularDerivados();
     }
 
     public int getMaldad() {
@@ -51,5 +101,39 @@ public abstract class Incorporeo extends Ser {
 
     public void setMaldad(int maldad) {
         this.maldad = maldad;
+        recalcularDerivados();
+    }
+
+    /**
+     * Reemplaza los tres atributos a la vez, por ejemplo al reutilizar una
+     * instancia retirada. Pasa por los setters, así que los términos derivados
+     * se actualizan.
+     *
+     * @param fe Fe nueva.
+     * @param bondad Bondad nueva.
+     * @param maldad Maldad nueva.
+     */
+    public void reiniciar(int fe, int bondad, int maldad) {
+        setFe(fe);
+        setBondad(bondad);
+        setMaldad(maldad);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /** @return {@code sqrt(bondad^2 - maldad^2)} de este ente (NaN si la maldad supera a la bondad). */
+    public double getRaizBalance() {
+        return raizBalance;
+    }
+
+    /** Recalcula los términos que dependen solo de los atributos de este ente. */
+    private void recalcularDerivados() {
+        this.raizBalance = Math.sqrt(Math.pow(bondad, 2) - Math.pow(maldad, 2));
     }
 }
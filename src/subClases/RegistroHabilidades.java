@@ -0,0 +1,45 @@
+package subClases;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de las tablas de habilidades de cada tipo de ente Incorpóreo.
+ * <p>
+ * Cada subclase de {@link Incorporeo} puede registrar su tabla en un bloque
+ * estático; un tipo nuevo se incorpora así a la batalla sin modificar
+ * {@code Humano}. Los tipos sin registro usan una tabla genérica que delega en
+ * sus métodos de habilidad. Los tipos registrados guardan además su tabla en
+ * un campo estático y la pasan al constructor de {@link Incorporeo}, así que
+ * construir un ente no consulta el registro; solo los demás tipos lo hacen.
+ * </p>
+ * <p>
+ * El registro es exacto por clase: una subclase de un tipo registrado no hereda
+ * su tabla, porque podría redefinir alguna habilidad que el padre declara nula.
+ * </p>
+ */
+public final class RegistroHabilidades {
+
+    private static final Map<Class<? extends Incorporeo>, TablaHabilidades> TABLAS = new ConcurrentHashMap<>();
+
+    private RegistroHabilidades() {
+    }
+
+    /**
+     * Registra la tabla de habilidades de un tipo de Incorpóreo.
+     *
+     * @param tipo Clase concreta del ente.
+     * @param tabla Fórmulas de sus seis habilidades.
+     */
+    public static void registrar(Class<? extends Incorporeo> tipo, TablaHabilidades tabla) {
+        TABLAS.put(tipo, tabla);
+    }
+
+    /**
+     * @param tipo Clase concreta del ente.
+     * @return Tabla registrada para ese tipo, o una genérica si no tiene.
+     */
+    public static TablaHabilidades tablaDe(Class<? extends Incorporeo> tipo) {
+        return TABLAS.computeIfAbsent(tipo, TablaHabilidades::generica);
+    }
+}
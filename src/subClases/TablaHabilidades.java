@@ -0,0 +1,108 @@
+package subClases;
+
+import entidades.fisicas.Humano;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+
+/**
+ * Tabla de las seis habilidades de un tipo de ente Incorpóreo, indexada por el
+ * valor que devuelve {@link Incorporeo#luchar()}.
+ * <p>
+ * Las habilidades registradas como {@link FormulaHabilidad#CERO} son nulas y
+ * se resuelven sin invocar ninguna fórmula.
+ * </p>
+ * <p>
+ * Cada tabla pertenece a una clase concreta de ente ({@link #getTipo()}), que
+ * la guarda en un campo estático y la entrega al construir cada instancia.
+ * </p>
+ */
+public final class TablaHabilidades {
+
+    // --- Índices de habilidad (orden de Humano.golpear) ---
+    public static final int ENGANIAR = 0;
+    public static final int GUIAR = 1;
+    public static final int PROTEGER = 2;
+    public static final int TENTAR = 3;
+    public static final int SEDUCIR = 4;
+    public static final int PROBAR = 5;
+    /** Cantidad de habilidades de un Incorpóreo. */
+    public static final int NUM_HABILIDADES = 6;
+
+    private final Class<? extends Incorporeo> tipo;
+    private final FormulaHabilidad[] formulas;
+
+    /**
+     * Crea una tabla con una fórmula por habilidad, en el orden de los índices
+     * {@code ENGANIAR}..{@code PROBAR}.
+     *
+     * @param tipo Clase concreta de ente a la que pertenece la tabla.
+     */
+    public TablaHabilidades(Class<? extends Incorporeo> tipo, FormulaHabilidad enganiar, FormulaHabilidad guiar,
+                            FormulaHabilidad proteger, FormulaHabilidad tentar, FormulaHabilidad seducir,
+                            FormulaHabilidad probar) {
+        this.tipo = tipo;
+        this.formulas = new FormulaHabilidad[]{enganiar, guiar, proteger, tentar, seducir, probar};
+    }
+
+    /**
+     * Tabla genérica que delega en los métodos de habilidad de {@link Incorporeo}.
+     * Es la que reciben los tipos que no se registran explícitamente.
+     *
+     * @param tipo Clase concreta del ente.
+     * @return Nueva tabla sin habilidades nulas.
+     */
+    static TablaHabilidades generica(Class<? extends Incorporeo> tipo) {
+        return new TablaHabilidades(tipo, FormulaHabilidad.METODO, FormulaHabilidad.METODO, FormulaHabilidad.METODO,
+                FormulaHabilidad.METODO, FormulaHabilidad.METODO, FormulaHabilidad.METODO);
+    }
+
+    /**
+     * Calcula la puntuación de una habilidad.
+     *
+     * @param habilidad Índice de la habilidad (0-5); fuera de rango puntúa 0.
+     * @param s Ente Incorpóreo que aplica la habilidad.
+     * @param h Humano sobre el que se aplica.
+     * @param angelEnemigo Ángel del conflicto.
+     * @return Puntuación obtenida.
+     */
+    public double puntuar(int habilidad, Incorporeo s, Humano h, Angel angelEnemigo) {
+        if (habilidad < 0 || habilidad >= NUM_HABILIDADES) {
+            return 0.0;
+        }
+        // Cada caso es un punto de llamada con un solo tipo de receptor
+        return switch (formulas[habilidad]) {
+            case CERO -> 0.0;
+            case GUIAR_ANGEL -> ((Angel) s).guiar(h);
+            case PROTEGER_ANGEL -> ((Angel) s).proteger(h);
+            case PROBAR_ANGEL -> ((Angel) s).probar(h);
+            case ENGANIAR_DEMONIO -> ((Demonio) s).enganiar(h, angelEnemigo);
+            case TENTAR_DEMONIO -> ((Demonio) s).tentar(h);
+            case SEDUCIR_DEMONIO -> ((Demonio) s).seducir(h);
+            case METODO -> porMetodo(habilidad, s, h, angelEnemigo);
+        };
+    }
+
+    private static double porMetodo(int habilidad, Incorporeo s, Humano h, Angel angelEnemigo) {
+        return switch (habilidad) {
+            case ENGANIAR -> s.enganiar(h, angelEnemigo);
+            case GUIAR -> s.guiar(h);
+            case PROTEGER -> s.proteger(h);
+            case TENTAR -> s.tentar(h);
+            case SEDUCIR -> s.seducir(h);
+            default -> s.probar(h);
+        };
+    }
+
+    /** @return Clase concreta de ente a la que pertenece la tabla. */
+    public Class<? extends Incorporeo> getTipo() {
+        return tipo;
+    }
+
+    /**
+     * @param habilidad Índice de la habilidad (0-5).
+     * @return true si la habilidad siempre puntúa 0 para este tipo de ente.
+     */
+    public boolean esNula(int habilidad) {
+        return habilidad < 0 || habilidad >= NUM_HABILIDADES || formulas[habilidad] == FormulaHabilidad.CERO;
+    }
+}
@@ -0,0 +1,155 @@
+package tablero;
+
+import eventos.SumideroEventos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sumidero que conserva una muestra de los últimos conflictos para el {@link Tablero}.
+ * <p>
+ * No guarda todos los conflictos: cuando el tablero pide una muestra nueva
+ * (al leer {@link #recientes()}), el primer hilo que empieza un conflicto se
+ * queda con él, anota sus eventos y lo agrega a un anillo pequeño al llegar el
+ * rezo. El resto de los conflictos solo paga una lectura volátil por evento,
+ * así que la simulación sigue a toda velocidad. Si la batalla avanza a ritmo
+ * humano, el tablero pide más seguido de lo que llegan los conflictos y la
+ * muestra los contiene a todos.
+ * </p>
+ */
+public final class MuestraConflictos implements SumideroEventos {
+
+    /** Cantidad de conflictos que se conservan. */
+    public static final int CAPACIDAD = 8;
+
+    /** Un conflicto capturado. */
+    static final class Conflicto {
+        final int turno;
+        final int humano;
+        final int habilidadAngel;
+        final int habilidadDemonio;
+        final double puntajeAngel;
+        final double puntajeDemonio;
+        final int ganador;
+        final boolean rezo;
+
+        Conflicto(int turno, int humano, int habilidadAngel, int habilidadDemonio,
+                  double puntajeAngel, double puntajeDemonio, int ganador, boolean rezo) {
+            this.turno = turno;
+            this.humano = humano;
+            this.habilidadAngel = habilidadAngel;
+            this.habilidadDemonio = habilidadDemonio;
+            this.puntajeAngel = puntajeAngel;
+            this.puntajeDemonio = puntajeDemonio;
+            this.ganador = ganador;
+            this.rezo = rezo;
+        }
+    }
+
+    /** Si el tablero espera un conflicto nuevo. */
+    private volatile boolean pedido = true;
+    /** Humano cuyo conflicto se está capturando, o -1 si ninguno. */
+    private final AtomicInteger capturado = new AtomicInteger(-1);
+    private volatile int turno;
+
+    // Conflicto en captura: solo los escribe el hilo que ganó 'capturado'
+    private int habilidadAngel;
+    private int habilidadDemonio;
+    private double puntajeAngel;
+    private double puntajeDemonio;
+    private int ganador;
+
+    /** Anillo de conflictos capturados (protegido por el monitor de este objeto). */
+    private final Conflicto[] anillo = new Conflicto[CAPACIDAD];
+    private int escritos;
+
+    /**
+     * @return Los últimos conflictos capturados, del más reciente al más
+     * antiguo. Además pide capturar el siguiente.
+     */
+    synchronized List<Conflicto> recientes() {
+        pedido = true;
+        int cantidad = Math.min(escritos, CAPACIDAD);
+        List<Conflicto> lista = new ArrayList<>(cantidad);
+        for (int k = 1; k <= cantidad; k++) {
+            lista.add(anillo[(escritos - k) % CAPACIDAD]);
+        }
+        return lista;
+    }
+
+    private synchronized void agregar(Conflicto c) {
+        anillo[escritos % CAPACIDAD] = c;
+        escritos++;
+    }
+
+    @Override
+    public void inicioBatalla(int humanos, int angeles, int demonios, int turnos, long semilla) {
+    }
+
+    @Override
+    public void inicioTurno(int turno, int turnos) {
+        this.turno = turno;
+    }
+
+    @Override
+    public void estadoHumano(int humano, boolean inicio, double bondad, double maldad, double fe) {
+    }
+
+    @Override
+    public void conflictoIniciado(int humano, int habilidadAngel, int habilidadDemonio) {
+        if (pedido && humano >= 0 && capturado.compareAndSet(-1, humano)) {
+            pedido = false;
+            this.habilidadAngel = habilidadAngel;
+            this.habilidadDemonio = habilidadDemonio;
+        }
+    }
+
+    /**
+     * Cada Humano se resuelve en un solo hilo por turno, así que su índice
+     * identifica al hilo dueño de la captura.
+     */
+    private boolean esCapturado(int humano) {
+        return humano >= 0 && capturado.get() == humano;
+    }
+
+    @Override
+    public void puntuaciones(int humano, double puntajeAngel, double puntajeDemonio) {
+        if (esCapturado(humano)) {
+            this.puntajeAngel = puntajeAngel;
+            this.puntajeDemonio = puntajeDemonio;
+        }
+    }
+
+    @Override
+    public void ganador(int humano, int ganador) {
+        if (esCapturado(humano)) {
+            this.ganador = ganador;
+        }
+    }
+
+    @Override
+    public void rezo(int humano, boolean exito) {
+        if (esCapturado(humano)) {
+            agregar(new Conflicto(turno, humano, habilidadAngel, habilidadDemonio,
+                    puntajeAngel, puntajeDemonio, ganador, exito));
+            capturado.set(-1);
+        }
+    }
+
+    @Override
+    public void finTurno(int turno) {
+    }
+
+    @Override
+    public void finBatalla() {
+    }
+
+    @Override
+    public void veredicto(int humano, boolean salvado, double bondad, double maldad) {
+    }
+
+    @Override
+    public void resumen(int salvados, int total) {
+    }
+}
@@ -0,0 +1,268 @@
+package tablero;
+
+import entidades.incorporeas.ContadorSalvados;
+import estadisticas.EstadisticasTurno;
+import estadisticas.Histograma;
+import estadisticas.Welford;
+import eventos.SumideroEventos;
+import motor.ParametrosBatalla;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static eventos.Ansi.ANSI_CYAN;
+import static eventos.Ansi.ANSI_GREEN;
+import static eventos.Ansi.ANSI_PURPLE;
+import static eventos.Ansi.ANSI_RED;
+import static eventos.Ansi.ANSI_RESET;
+import static eventos.Ansi.ANSI_YELLOW;
+
+/**
+ * Tablero de consola que muestra una batalla en curso, redibujado en su lugar
+ * con códigos ANSI.
+ * <p>
+ * La simulación corre en su propio hilo y solo publica el estado al terminar
+ * cada turno ({@link #publicar}); el tablero tiene un hilo aparte que, a una
+ * cantidad fija de cuadros por segundo, toma lo último publicado y redibuja la
+ * pantalla: histogramas de bondad, maldad y fe, cantidad de salvados,
+ * resultados del último turno, turnos por segundo y una muestra de los
+ * conflictos recientes ({@link MuestraConflictos}). Así la simulación nunca
+ * espera a la consola, y la consola no se satura por más rápido que avancen
+ * los turnos.
+ * </p>
+ */
+public final class Tablero {
+
+    /** Cuadros por segundo por defecto. */
+    public static final int FPS_POR_DEFECTO = 10;
+
+    // --- Secuencias de control ANSI ---
+    private static final String INICIO = "\u001B[H";
+    private static final String BORRAR_PANTALLA = "\u001B[2J";
+    private static final String BORRAR_LINEA = "\u001B[K";
+    private static final String BORRAR_RESTO = "\u001B[J";
+    private static final String OCULTAR_CURSOR = "\u001B[?25l";
+    private static final String MOSTRAR_CURSOR = "\u001B[?25h";
+
+    /** Intervalos de 10 puntos en que se agrupan las 101 cubetas de cada histograma. */
+    private static final int INTERVALOS = 10;
+    private static final int ANCHO_HISTOGRAMA = 16;
+    private static final int ANCHO_PROGRESO = 30;
+    private static final char LLENO = '█';
+    private static final char VACIO = '░';
+
+    private final PrintStream salida;
+    private final ParametrosBatalla parametros;
+    private final ContadorSalvados contador;
+    private final MuestraConflictos muestra;
+    private final long periodo;
+
+    // --- Estado publicado por la simulación ---
+    private volatile EstadisticasTurno estadisticas;
+    private volatile int turno;
+    private volatile boolean terminado;
+
+    // --- Estado del dibujo (solo lo usa el hilo que dibuja) ---
+    private long inicio;
+    private long inicioVentana;
+    private int turnoVentana;
+    private double turnosPorSegundo;
+
+    private Thread hilo;
+    private volatile boolean detenido;
+
+    /**
+     * @param salida Consola donde se dibuja.
+     * @param parametros Parámetros de la batalla mostrada.
+     * @param contador Contador de salvados que mantiene la simulación.
+     * @param muestra Sumidero de eventos de la simulación del que se toman los conflictos recientes.
+     * @param fps Cuadros por segundo.
+     */
+    public Tablero(PrintStream salida, ParametrosBatalla parametros, ContadorSalvados contador,
+                   MuestraConflictos muestra, int fps) {
+        if (fps <= 0) {
+            throw new IllegalArgumentException("fps debe ser mayor que cero");
+        }
+        this.salida = salida;
+        this.parametros = parametros;
+        this.contador = contador;
+        this.muestra = muestra;
+        this.periodo = 1_000_000_000L / fps;
+    }
+
+    /**
+     * Publica el estado de la batalla. Lo llama la simulación, normalmente al
+     * terminar cada turno; no espera al dibujo.
+     *
+     * @param turno Último turno (completo o en curso) reflejado en las estadísticas.
+     * @param estadisticas Estadísticas de ese turno; no deben modificarse después.
+     */
+    public void publicar(int turno, EstadisticasTurno estadisticas) {
+        this.estadisticas = estadisticas;
+        this.turno = turno;
+    }
+
+    /** Limpia la pantalla y comienza a dibujar en un hilo aparte. */
+    public void iniciar() {
+        inicio = System.nanoTime();
+        inicioVentana = inicio;
+        salida.print(BORRAR_PANTALLA + OCULTAR_CURSOR);
+        hilo = new Thread(this::dibujarPeriodicamente, "tablero");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Deja de dibujar y muestra el cuadro final, con el ritmo promedio de toda
+     * la batalla. Al retornar, el cursor queda debajo del tablero.
+     */
+    public void detener() {
+        terminado = true;
+        detenido = true;
+        LockSupport.unpark(hilo);
+        try {
+            hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dibujar();
+        salida.print(MOSTRAR_CURSOR);
+        salida.flush();
+    }
+
+    private void dibujarPeriodicamente() {
+        long siguiente = System.nanoTime();
+        while (!detenido) {
+            dibujar();
+            siguiente += periodo;
+            long espera = siguiente - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(this, espera);
+            } else {
+                // Si un cuadro se atrasó no se intenta recuperarlo: se salta
+                siguiente = System.nanoTime();
+            }
+        }
+    }
+
+    /** Arma el cuadro completo y lo escribe de una sola vez sobre el anterior. */
+    private void dibujar() {
+        int turnoActual = turno;
+        EstadisticasTurno e = estadisticas;
+        actualizarRitmo(turnoActual);
+
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append(INICIO);
+        linea(sb, ANSI_CYAN + "========== La Batalla de las Almas ==========" + ANSI_RESET);
+        linea(sb, String.format("%d Humanos, %d Ángeles, %d Demonios (semilla %d)",
+                parametros.getHumanos(), parametros.getAngeles(), parametros.getDemonios(), parametros.getSemilla()));
+        linea(sb, "");
+        linea(sb, String.format(ANSI_PURPLE + "Turno %d/%d " + ANSI_RESET + "%s  %.1f turnos/s%s  %s",
+                turnoActual, parametros.getTurnos(), barra(turnoActual, parametros.getTurnos(), ANCHO_PROGRESO),
+                turnosPorSegundo, terminado ? " (promedio)" : "", tiempo(System.nanoTime() - inicio)));
+        long salvados = contador.getSalvados();
+        int humanos = parametros.getHumanos();
+        linea(sb, String.format(ANSI_GREEN + "Salvados %d/%d " + ANSI_RESET + "%s  %.1f %%",
+                salvados, humanos, barra(salvados, humanos, ANCHO_PROGRESO),
+                humanos == 0 ? 0.0 : 100.0 * salvados / humanos));
+        if (e == null) {
+            linea(sb, "");
+            linea(sb, "(esperando el primer turno)");
+        } else {
+            linea(sb, String.format("Turno %d: gana el Ángel %d, gana el Demonio %d, empate %d",
+                    e.getTurno(), e.getVictoriasAngel(), e.getVictoriasDemonio(), e.getEmpates()));
+            linea(sb, "");
+            histogramas(sb, e);
+        }
+        linea(sb, "");
+        linea(sb, ANSI_PURPLE + "Conflictos recientes" + ANSI_RESET);
+        List<MuestraConflictos.Conflicto> recientes = muestra.recientes();
+        for (MuestraConflictos.Conflicto c : recientes) {
+            linea(sb, conflicto(c));
+        }
+        for (int k = recientes.size(); k < MuestraConflictos.CAPACIDAD; k++) {
+            linea(sb, "");
+        }
+        sb.append(BORRAR_RESTO);
+        salida.print(sb);
+        salida.flush();
+    }
+
+    /** Turnos por segundo en el último segundo, o el promedio de toda la batalla al terminar. */
+    private void actualizarRitmo(int turnoActual) {
+        long ahora = System.nanoTime();
+        if (terminado) {
+            turnosPorSegundo = turnoActual * 1e9 / Math.max(1, ahora - inicio);
+        } else if (ahora - inicioVentana >= 1_000_000_000L) {
+            turnosPorSegundo = (turnoActual - turnoVentana) * 1e9 / (ahora - inicioVentana);
+            inicioVentana = ahora;
+            turnoVentana = turnoActual;
+        } else if (inicioVentana == inicio) {
+            // Primer segundo: promedio desde el comienzo
+            turnosPorSegundo = turnoActual * 1e9 / Math.max(1, ahora - inicio);
+        }
+    }
+
+    /** Histogramas de bondad, maldad y fe en columnas, agrupados de a 10 puntos. */
+    private static void histogramas(StringBuilder sb, EstadisticasTurno e) {
+        Histograma[] histogramas = {e.getHistogramaBondad(), e.getHistogramaMaldad(), e.getHistogramaFe()};
+        String[] colores = {ANSI_GREEN, ANSI_RED, ANSI_CYAN};
+        long[][] cuentas = new long[3][INTERVALOS];
+        long[] maximos = new long[3];
+        for (int a = 0; a < 3; a++) {
+            for (int v = 0; v < Histograma.CUBETAS; v++) {
+                cuentas[a][Math.min(v / 10, INTERVALOS - 1)] += histogramas[a].getCuenta(v);
+            }
+            for (long cuenta : cuentas[a]) {
+                maximos[a] = Math.max(maximos[a], cuenta);
+            }
+        }
+        linea(sb, String.format(ANSI_YELLOW + "%-8s%-" + (ANCHO_HISTOGRAMA + 2) + "s%-" + (ANCHO_HISTOGRAMA + 2)
+                + "s%s" + ANSI_RESET, "", "Bondad", "Maldad", "Fe"));
+        for (int k = 0; k < INTERVALOS; k++) {
+            StringBuilder fila = new StringBuilder();
+            fila.append(String.format(ANSI_YELLOW + "%-8s" + ANSI_RESET,
+                    (10 * k) + "-" + (k == INTERVALOS - 1 ? 100 : 10 * k + 9)));
+            for (int a = 0; a < 3; a++) {
+                int largo = maximos[a] == 0 ? 0 : (int) Math.round((double) ANCHO_HISTOGRAMA * cuentas[a][k] / maximos[a]);
+                fila.append(colores[a]).append(String.valueOf(LLENO).repeat(largo)).append(ANSI_RESET)
+                        .append(" ".repeat(ANCHO_HISTOGRAMA + 2 - largo));
+            }
+            linea(sb, fila.toString());
+        }
+        Welford[] medias = {e.getBondad(), e.getMaldad(), e.getFe()};
+        StringBuilder fila = new StringBuilder(String.format(ANSI_YELLOW + "%-8s" + ANSI_RESET, "media"));
+        for (Welford w : medias) {
+            fila.append(String.format("%-" + (ANCHO_HISTOGRAMA + 2) + "s",
+                    String.format("%.1f ± %.1f", w.getMedia(), w.getDesviacion())));
+        }
+        linea(sb, fila.toString());
+    }
+
+    private static String conflicto(MuestraConflictos.Conflicto c) {
+        String resultado = switch (c.ganador) {
+            case SumideroEventos.GANA_ANGEL -> ANSI_GREEN + "gana el Ángel" + ANSI_RESET;
+            case SumideroEventos.GANA_DEMONIO -> ANSI_RED + "gana el Demonio" + ANSI_RESET;
+            default -> ANSI_YELLOW + "empate" + ANSI_RESET;
+        };
+        return String.format("T%d Humano %d: Ángel (%d) %.2f vs Demonio (%d) %.2f -> %s, %s",
+                c.turno, c.humano, c.habilidadAngel, c.puntajeAngel, c.habilidadDemonio, c.puntajeDemonio,
+                resultado, c.rezo ? "reza" : "no reza");
+    }
+
+    private static String barra(long valor, long total, int ancho) {
+        int llenos = total <= 0 ? 0 : (int) Math.min(ancho, ancho * valor / total);
+        return String.valueOf(LLENO).repeat(llenos) + String.valueOf(VACIO).repeat(ancho - llenos);
+    }
+
+    private static String tiempo(long nanos) {
+        long decimas = nanos / 100_000_000L;
+        return String.format("%02d:%02d.%d", decimas / 600, decimas / 10 % 60, decimas % 10);
+    }
+
+    /** Agrega una línea borrando lo que quedara del cuadro anterior a su derecha. */
+    private static void linea(StringBuilder sb, String texto) {
+        sb.append(texto).append(BORRAR_LINEA).append('\n');
+    }
+}
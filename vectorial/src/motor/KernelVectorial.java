@@ -0,0 +1,168 @@
+package motor;
+
+import entidades.fisicas.PoblacionHumana;
+import entidades.incorporeas.Angel;
+import entidades.incorporeas.Demonio;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import subClases.Incorporeo;
+import subClases.TablaHabilidades;
+
+import java.util.Arrays;
+
+/**
+ * Núcleo SIMD basado en la Vector API ({@code jdk.incubator.vector}).
+ * <p>
+ * Replica las fórmulas de {@link Angel} y {@link Demonio} operación por
+ * operación sobre carriles de {@link DoubleVector}: suma, resta, producto,
+ * división y raíz cuadrada son exactas según IEEE 754 tanto en escalar como en
+ * vectorial, y {@code Math.pow(x, 2)} es exactamente {@code x * x} en HotSpot,
+ * así que los resultados coinciden bit a bit con los métodos por objeto.
+ * Las filas sobrantes al final del bloque y los tipos de ente sin fórmula
+ * vectorial se delegan al núcleo escalar.
+ * </p>
+ * <p>
+ * Vive en el módulo opcional {@code vectorial/}, el único que se compila con
+ * {@code --add-modules jdk.incubator.vector}; solo se carga a través de
+ * {@link KernelHabilidades#mejorDisponible()}, y sin él se usa el escalar.
+ * {@code rendimiento.VerificacionKernels} comprueba que coincide con
+ * {@code Humano.golpear}.
+ * </p>
+ */
+final class KernelVectorial extends KernelHabilidades {
+
+    private static final VectorSpecies<Double> ESPECIE = DoubleVector.SPECIES_PREFERRED;
+
+    KernelVectorial() {
+    }
+
+    @Override
+    public void puntuar(int habilidad, Incorporeo s, Angel angelEnemigo,
+                        PoblacionHumana poblacion, int desde, int hasta, double[] salida) {
+        TablaHabilidades tabla = s.getHabilidades();
+        if (tabla.esNula(habilidad)) {
+            Arrays.fill(salida, 0, hasta - desde, 0.0);
+            return;
+        }
+
+        // Solo los tipos exactos tienen fórmula vectorial: una subclase podría redefinirla
+        int limite = desde + ESPECIE.loopBound(hasta - desde);
+        int fin;
+        if (s.getClass() == Angel.class) {
+            fin = puntuarAngel(habilidad, s, poblacion, desde, limite, salida);
+        } else if (s.getClass() == Demonio.class) {
+            fin = puntuarDemonio(habilidad, s, angelEnemigo, poblacion, desde, limite, salida);
+        } else {
+            fin = desde;
+        }
+
+        if (fin < hasta) {
+            KernelEscalar.INSTANCIA.puntuar(habilidad, s, angelEnemigo, poblacion, fin, hasta, salida, fin - desde);
+        }
+    }
+
+    /** @return Primera fila sin procesar. */
+    private static int puntuarAngel(int habilidad, Incorporeo a, PoblacionHumana p,
+                                    int desde, int limite, double[] salida) {
+        double[] inteligencia = p.columnaInteligencia();
+        double[] fe = p.columnaFe();
+        double[] bondad = p.columnaBondad();
+        double[] maldad = p.columnaMaldad();
+        int paso = ESPECIE.length();
+        switch (habilidad) {
+            case TablaHabilidades.GUIAR -> {
+                // sqrt(B^2 - M^2 - I) / (F^2 - M)
+                for (int i = desde; i < limite; i += paso) {
+                    DoubleVector b = DoubleVector.fromArray(ESPECIE, bondad, i);
+                    DoubleVector m = DoubleVector.fromArray(ESPECIE, maldad, i);
+                    DoubleVector f = DoubleVector.fromArray(ESPECIE, fe, i);
+                    DoubleVector in = DoubleVector.fromArray(ESPECIE, inteligencia, i);
+                    DoubleVector num = b.mul(b).sub(m.mul(m)).sub(in).lanewise(VectorOperators.SQRT);
+                    num.div(f.mul(f).sub(m)).intoArray(salida, i - desde);
+                }
+                return limite;
+            }
+            case TablaHabilidades.PROTEGER -> {
+                // F * ((B - M) / fe_angel)
+                double feAngel = a.getFe();
+                for (int i = desde; i < limite; i += paso) {
+                    DoubleVector b = DoubleVector.fromArray(ESPECIE, bondad, i);
+                    DoubleVector m = DoubleVector.fromArray(ESPECIE, maldad, i);
+                    DoubleVector f = DoubleVector.fromArray(ESPECIE, fe, i);
+                    f.mul(b.sub(m).div(feAngel)).intoArray(salida, i - desde);
+                }
+                return limite;
+            }
+            case TablaHabilidades.PROBAR -> {
+                // (F - M^2 / I) / sqrt(bondad_angel^2 - maldad_angel^2)
+                double den = a.getRaizBalance();
+                for (int i = desde; i < limite; i += paso) {
+                    DoubleVector m = DoubleVector.fromArray(ESPECIE, maldad, i);
+                    DoubleVector f = DoubleVector.fromArray(ESPECIE, fe, i);
+                    DoubleVector in = DoubleVector.fromArray(ESPECIE, inteligencia, i);
+                    f.sub(m.mul(m).div(in)).div(den).intoArray(salida, i - desde);
+                }
+                return limite;
+            }
+            default -> {
+                return desde;
+            }
+        }
+    }
+
+    /** @return Primera fila sin procesar. */
+    private static int puntuarDemonio(int habilidad, Incorporeo d, Angel angelEnemigo, PoblacionHumana p,
+                                      int desde, int limite, double[] salida) {
+        double[] inteligencia = p.columnaInteligencia();
+        double[] fe = p.columnaFe();
+        double[] bondad = p.columnaBondad();
+        double[] maldad = p.columnaMaldad();
+        int paso = ESPECIE.length();
+        switch (habilidad) {
+            case TablaHabilidades.ENGANIAR -> {
+                // (F / fe_angel) * ((B - M) / fe_angel)
+                double feAngel = angelEnemigo.getFe();
+                for (int i = desde; i < limite; i += paso) {
+                    DoubleVector b = DoubleVector.fromArray(ESPECIE, bondad, i);
+                    DoubleVector m = DoubleVector.fromArray(ESPECIE, maldad, i);
+                    DoubleVector f = DoubleVector.fromArray(ESPECIE, fe, i);
+                    f.div(feAngel).mul(b.sub(m).div(feAngel)).intoArray(salida, i - desde);
+                }
+                return limite;
+            }
+            case TablaHabilidades.TENTAR -> {
+                // (-F + M / I) / sqrt(bondad_demonio^2 - maldad_demonio^2)
+                double den = d.getRaizBalance();
+                for (int i = desde; i < limite; i += paso) {
+                    DoubleVector m = DoubleVector.fromArray(ESPECIE, maldad, i);
+                    DoubleVector f = DoubleVector.fromArray(ESPECIE, fe, i);
+                    DoubleVector in = DoubleVector.fromArray(ESPECIE, inteligencia, i);
+                    f.neg().add(m.div(in)).div(den).intoArray(salida, i - desde);
+                }
+                return limite;
+            }
+            case TablaHabilidades.SEDUCIR -> {
+                // sqrt(B^2 - M^2 - I) / (F^2 - B^2)
+                for (int i = desde; i < limite; i += paso) {
+                    DoubleVector b = DoubleVector.fromArray(ESPECIE, bondad, i);
+                    DoubleVector m = DoubleVector.fromArray(ESPECIE, maldad, i);
+                    DoubleVector f = DoubleVector.fromArray(ESPECIE, fe, i);
+                    DoubleVector in = DoubleVector.fromArray(ESPECIE, inteligencia, i);
+                    DoubleVector b2 = b.mul(b);
+                    DoubleVector num = b2.sub(m.mul(m)).sub(in).lanewise(VectorOperators.SQRT);
+                    num.div(f.mul(f).sub(b2)).intoArray(salida, i - desde);
+                }
+                return limite;
+            }
+            default -> {
+                return desde;
+            }
+        }
+    }
+
+    @Override
+    public String nombre() {
+        return "vectorial(" + ESPECIE.length() + " carriles)";
+    }
+}